@@ -434,6 +434,19 @@ public class AMClient {
   public Response postAlerts(List<PostableAlert> postableAlerts, Project project)
       throws AlertManagerClientCreateException, AlertManagerResponseException, AlertManagerUnreachableException,
       AlertManagerAccessControlException {
+    checkAlerts(postableAlerts, project);
+    return postAlerts(postableAlerts);
+  }
+
+  /**
+   * Check that the alerts can be created by the project, setting the project and alert type labels if missing.
+   *
+   * @param postableAlerts
+   * @param project
+   * @throws AlertManagerAccessControlException
+   */
+  public void checkAlerts(List<PostableAlert> postableAlerts, Project project)
+      throws AlertManagerAccessControlException {
     for (PostableAlert postableAlert : postableAlerts) {
       if (postableAlert.getLabels() == null) {
         throw new IllegalArgumentException("Labels can not be empty.");
@@ -461,7 +474,6 @@ public class AMClient {
         postableAlert.getLabels().put(Constants.ALERT_TYPE_LABEL, AlertType.PROJECT_ALERT.getValue());
       }
     }
-    return postAlerts(postableAlerts);
   }
 
   @Asynchronous
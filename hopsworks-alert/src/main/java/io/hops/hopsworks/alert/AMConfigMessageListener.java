@@ -71,10 +71,10 @@ public class AMConfigMessageListener {
           message.getMessageObject()});
       if (!message.getPublishingMember().localMember()) {
         try {
-          alertManagerConfiguration.restoreFromDb();
+          alertManagerConfiguration.scheduleRestoreFromDb();
         } catch (Exception e) {
-          LOGGER.log(Level.WARNING, "Failed to update alert manager configuration from database. Got notification " +
-            "from UUID={0}. {1}", new Object[]{message.getPublishingMember().getUuid(), e.getMessage()});
+          LOGGER.log(Level.WARNING, "Failed to schedule alert manager configuration update from database. Got " +
+            "notification from UUID={0}. {1}", new Object[]{message.getPublishingMember().getUuid(), e.getMessage()});
         }
       }
     }
@@ -42,36 +42,60 @@ import io.hops.hopsworks.alerting.exceptions.AlertManagerDuplicateEntryException
 import io.hops.hopsworks.alerting.exceptions.AlertManagerNoSuchElementException;
 import io.hops.hopsworks.alerting.exceptions.AlertManagerServerException;
 import io.hops.hopsworks.persistence.entity.alertmanager.AlertManagerConfigEntity;
+import io.hops.hopsworks.persistence.entity.alertmanager.AlertType;
 import io.hops.hopsworks.persistence.entity.project.Project;
 import org.json.JSONObject;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
 import javax.ejb.AccessTimeout;
 import javax.ejb.EJB;
 import javax.ejb.Lock;
 import javax.ejb.LockType;
 import javax.ejb.Singleton;
+import javax.ejb.Timeout;
+import javax.ejb.Timer;
+import javax.ejb.TimerConfig;
+import javax.ejb.TimerService;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
 import javax.inject.Inject;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+/**
+ * The configuration read from the database is kept in memory as a versioned snapshot, indexed by receiver name and by
+ * project, and is served to all readers until it is changed on this node or on another node of the cluster.
+ * The snapshot is shared, so the returned objects must not be modified.
+ */
 @Singleton
 @AccessTimeout(value = 60, unit = TimeUnit.SECONDS)
 @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
 public class AlertManagerConfiguration {
   private final static Logger LOGGER = Logger.getLogger(AlertManagerConfiguration.class.getName());
+  // Thread safe once configured
+  private final static ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 
   private AlertManagerConfigController alertManagerConfigController;
   private Exception initException;
   private ITopic<String> configUpdatedTopic;
+  private final AtomicLong version = new AtomicLong();
+  private final AtomicReference<ConfigSnapshot> snapshot = new AtomicReference<>();
+  private final AtomicBoolean restoreScheduled = new AtomicBoolean(false);
+
+  @Resource
+  private TimerService timerService;
 
   @Inject
   private HazelcastInstance hazelcastInstance;
@@ -134,9 +158,71 @@ public class AlertManagerConfiguration {
 
   @Lock(LockType.READ)
   public Optional<AlertManagerConfig> read() throws AlertManagerConfigReadException {
+    return getSnapshot().config;
+  }
+
+  /**
+   * @return the version of the configuration snapshot, incremented every time the configuration changes
+   */
+  @Lock(LockType.READ)
+  public long getVersion() {
+    return version.get();
+  }
+
+  private ConfigSnapshot getSnapshot() throws AlertManagerConfigReadException {
+    long currentVersion = version.get();
+    ConfigSnapshot current = snapshot.get();
+    if (current != null && current.version == currentVersion) {
+      return current;
+    }
     //First read from database
-    ObjectMapper objectMapper = new ObjectMapper();
-    return alertManagerConfigFacade.read(objectMapper);
+    ConfigSnapshot loaded = new ConfigSnapshot(currentVersion, alertManagerConfigFacade.read(OBJECT_MAPPER));
+    // Concurrent loads might finish out of order, keep the most recent
+    snapshot.accumulateAndGet(loaded, (prev, next) -> prev != null && prev.version > next.version ? prev : next);
+    return loaded;
+  }
+
+  private void invalidate() {
+    long newVersion = version.incrementAndGet();
+    LOGGER.log(Level.FINE, "Alert manager config snapshot invalidated, version: {0}", newVersion);
+  }
+
+  /**
+   * Called when the configuration was changed by another node. The snapshot is dropped right away, while the
+   * configuration file is restored from the database and reloaded by the Alertmanager once for all the changes
+   * notified within Constants.AM_CONFIG_RESTORE_DELAY_MS.
+   */
+  @Lock(LockType.READ)
+  public void scheduleRestoreFromDb() {
+    invalidate();
+    if (restoreScheduled.compareAndSet(false, true)) {
+      TimerConfig config = new TimerConfig();
+      config.setInfo("Restore Alert Manager config from database");
+      config.setPersistent(false);
+      try {
+        timerService.createSingleActionTimer(Constants.AM_CONFIG_RESTORE_DELAY_MS, config);
+      } catch (RuntimeException e) {
+        restoreScheduled.set(false);
+        throw e;
+      }
+    }
+  }
+
+  @Timeout
+  @Lock(LockType.READ)
+  public void performTimeout(Timer timer) {
+    // Changes notified from now on need another restore
+    restoreScheduled.set(false);
+    try {
+      restoreFromDb();
+    } catch (Exception e) {
+      LOGGER.log(Level.WARNING, "Failed to update alert manager configuration from database. {0}", e.getMessage());
+    }
+  }
+
+  private void updated(String message) {
+    invalidate();
+    broadcast(message);
   }
 
   private void broadcast(String message) {
@@ -162,11 +248,10 @@ public class AlertManagerConfiguration {
   public void restoreFromDb() throws AlertManagerConfigUpdateException {
     Optional<AlertManagerConfigEntity> optionalAlertManagerConfigEntity = alertManagerConfigFacade.getLatest();
     if (optionalAlertManagerConfigEntity.isPresent()) {
-      ObjectMapper objectMapper = new ObjectMapper();
       JSONObject jsonAlertManagerConfigBackup = optionalAlertManagerConfigEntity.get().getContent();
       try {
         AlertManagerConfig alertManagerConfigBackup =
-          objectMapper.readValue(jsonAlertManagerConfigBackup.toString(), AlertManagerConfig.class);
+          OBJECT_MAPPER.readValue(jsonAlertManagerConfigBackup.toString(), AlertManagerConfig.class);
         updateAlertManagerConfig(alertManagerConfigBackup);
       } catch (Exception e) {
         throw new AlertManagerConfigUpdateException(
@@ -181,7 +266,7 @@ public class AlertManagerConfiguration {
       amConfigUpdater.writeAndReload(alertManagerConfigController, amClient.getClient(), alertManagerConfig,
         alertManagerConfigFacade);
       // broadcast to all nodes
-      broadcast("Alert Manager Config updated");
+      updated("Alert Manager Config updated");
     }
   }
 
@@ -189,16 +274,15 @@ public class AlertManagerConfiguration {
       IOException, AlertManagerConfigUpdateException {
     AlertManagerConfig alertManagerConfig = alertManagerConfigController.read();
     Optional<AlertManagerConfigEntity> optionalAlertManagerConfigEntity = alertManagerConfigFacade.getLatest();
-    ObjectMapper objectMapper = new ObjectMapper();
 
     JSONObject jsonAlertManagerConfig = alertManagerConfig != null ?
-        new JSONObject(objectMapper.writeValueAsString(alertManagerConfig)) : null;
+        new JSONObject(OBJECT_MAPPER.writeValueAsString(alertManagerConfig)) : null;
 
     JSONObject jsonAlertManagerConfigBackup =
         optionalAlertManagerConfigEntity.map(AlertManagerConfigEntity::getContent).orElse(null);
 
     AlertManagerConfig alertManagerConfigBackup = jsonAlertManagerConfigBackup != null ?
-        objectMapper.readValue(jsonAlertManagerConfigBackup.toString(), AlertManagerConfig.class) : null;
+        OBJECT_MAPPER.readValue(jsonAlertManagerConfigBackup.toString(), AlertManagerConfig.class) : null;
 
     if (jsonAlertManagerConfigBackup != null) {
       if (jsonAlertManagerConfig == null || !JsonObjectHelper.similar(jsonAlertManagerConfig,
@@ -208,6 +292,7 @@ public class AlertManagerConfiguration {
       }
     } else if (jsonAlertManagerConfig != null) {
       alertManagerConfigFacade.saveToDatabase(jsonAlertManagerConfig);
+      invalidate();
       LOGGER.log(Level.INFO, "Alert manager config backup saved.");
     }
   }
@@ -223,7 +308,7 @@ public class AlertManagerConfiguration {
     doSanityCheck();
     amConfigUpdater.updateGlobal(alertManagerConfigController, amClient.getClient(), global, alertManagerConfigFacade);
     // broadcast to all nodes
-    broadcast("Alert Manager Config global updated");
+    updated("Alert Manager Config global updated");
   }
 
   @Lock(LockType.READ)
@@ -238,7 +323,7 @@ public class AlertManagerConfiguration {
     amConfigUpdater.updateTemplates(alertManagerConfigController, amClient.getClient(), templates,
       alertManagerConfigFacade);
     // broadcast to all nodes
-    broadcast("Alert Manager Config templates updated");
+    updated("Alert Manager Config templates updated");
   }
 
   @Lock(LockType.READ)
@@ -253,7 +338,7 @@ public class AlertManagerConfiguration {
     amConfigUpdater.updateGlobalRoute(alertManagerConfigController, amClient.getClient(), route,
       alertManagerConfigFacade);
     // broadcast to all nodes
-    broadcast("Alert Manager Config route updated");
+    updated("Alert Manager Config route updated");
   }
 
   @Lock(LockType.READ)
@@ -268,7 +353,7 @@ public class AlertManagerConfiguration {
     amConfigUpdater.updateInhibitRules(alertManagerConfigController, amClient.getClient(), inhibitRules,
       alertManagerConfigFacade);
     // broadcast to all nodes
-    broadcast("Alert Manager Config inhibitRules updated");
+    updated("Alert Manager Config inhibitRules updated");
   }
 
   @Lock(LockType.READ)
@@ -280,10 +365,13 @@ public class AlertManagerConfiguration {
 
   @Lock(LockType.READ)
   public Receiver getReceiver(String name) throws AlertManagerNoSuchElementException, AlertManagerConfigReadException {
-    Optional<AlertManagerConfig> alertManagerConfig = read();
-    if (alertManagerConfig.isPresent()) {
-      int index = ConfigUpdater.getIndexOfReceiver(alertManagerConfig.get(), name);
-      return alertManagerConfig.get().getReceivers().get(index);
+    ConfigSnapshot configSnapshot = getSnapshot();
+    if (configSnapshot.config.isPresent()) {
+      Receiver receiver = configSnapshot.receivers.get(name);
+      if (receiver == null) {
+        throw new AlertManagerNoSuchElementException("A receiver with the given name was not found. Name=" + name);
+      }
+      return receiver;
     }
     return null;
   }
@@ -300,7 +388,7 @@ public class AlertManagerConfiguration {
     amConfigUpdater.addReceiver(alertManagerConfigController, amClient.getClient(), receiver,
       alertManagerConfigFacade, alertReceiverFacade);
     // broadcast to all nodes
-    broadcast("Alert Manager Config receiver added");
+    updated("Alert Manager Config receiver added");
   }
 
   private void checkPermission(String name, Project project, boolean includeGlobal)
@@ -328,7 +416,7 @@ public class AlertManagerConfiguration {
     amConfigUpdater.updateReceiver(alertManagerConfigController, amClient.getClient(), name, receiver,
       alertManagerConfigFacade, alertReceiverFacade);
     // broadcast to all nodes
-    broadcast("Alert Manager Config receiver updated");
+    updated("Alert Manager Config receiver updated");
   }
 
   public void removeReceiver(String name, Project project, boolean cascade) throws AlertManagerConfigUpdateException,
@@ -344,16 +432,17 @@ public class AlertManagerConfiguration {
       cascade, alertManagerConfigFacade, alertReceiverFacade);
     if (remover) {
       // broadcast to all nodes
-      broadcast("Alert Manager Config receiver removed");
+      updated("Alert Manager Config receiver removed");
     }
   }
 
   @Lock(LockType.READ)
   public List<Route> getRoutes(Project project) throws AlertManagerConfigReadException {
     List<Route> projectRoutes = new ArrayList<>();
-    List<Route> routeList = getRoutes();
-    for (Route route : routeList) {
-      if (ConfigUtil.isRouteGlobal(route) || ConfigUtil.isRouteInProject(route, project)) {
+    ConfigSnapshot configSnapshot = getSnapshot();
+    // Global routes and the ones labeled with the project, in configuration order
+    for (Route route : configSnapshot.projectRoutes.getOrDefault(project.getName(), configSnapshot.globalRoutes)) {
+      if (isRouteGlobal(route) || ConfigUtil.isRouteInProject(route, project)) {
         projectRoutes.add(route);
       }
     }
@@ -426,7 +515,7 @@ public class AlertManagerConfiguration {
     doSanityCheck();
     amConfigUpdater.addRoute(alertManagerConfigController, amClient.getClient(), route, alertManagerConfigFacade);
     // broadcast to all nodes
-    broadcast("Alert Manager Config route added");
+    updated("Alert Manager Config route added");
   }
 
   private void checkPermission(Route route, Project project) throws AlertManagerAccessControlException {
@@ -455,7 +544,7 @@ public class AlertManagerConfiguration {
     amConfigUpdater.updateRoute(alertManagerConfigController, amClient.getClient(), routeToUpdate, route,
       alertManagerConfigFacade);
     // broadcast to all nodes
-    broadcast("Alert Manager Config route updated");
+    updated("Alert Manager Config route updated");
   }
 
   public void removeRoute(Route route, Project project) throws AlertManagerConfigUpdateException,
@@ -473,7 +562,7 @@ public class AlertManagerConfiguration {
       alertManagerConfigFacade);
     if (remover) {
       // broadcast to all nodes
-      broadcast("Alert Manager Config route removed");
+      updated("Alert Manager Config route removed");
     }
   }
 
@@ -482,8 +571,73 @@ public class AlertManagerConfiguration {
       alertManagerConfigFacade, alertReceiverFacade);
     if (cleaned) {
       // broadcast to all nodes
-      broadcast("Alert Manager Config project cleanup for: " + project.getName());
+      updated("Alert Manager Config project cleanup for: " + project.getName());
     }
   }
 
+  private static boolean isRouteGlobal(Route route) {
+    return isAlertTypeGlobal(route.getMatch()) || isAlertTypeGlobal(route.getMatchRe());
+  }
+
+  private static boolean isAlertTypeGlobal(Map<String, String> labels) {
+    if (labels == null || labels.get(Constants.ALERT_TYPE_LABEL) == null) {
+      return false;
+    }
+    // Unknown alert types are not global
+    AlertType alertType = AlertType.fromValue(labels.get(Constants.ALERT_TYPE_LABEL));
+    return alertType != null && alertType.isGlobal();
+  }
+
+  private static String getProjectLabel(Route route) {
+    if (route.getMatch() != null && route.getMatch().get(Constants.LABEL_PROJECT) != null) {
+      return route.getMatch().get(Constants.LABEL_PROJECT);
+    }
+    return route.getMatchRe() != null ? route.getMatchRe().get(Constants.LABEL_PROJECT) : null;
+  }
+
+  private static class ConfigSnapshot {
+    private final long version;
+    private final Optional<AlertManagerConfig> config;
+    private final Map<String, Receiver> receivers;
+    private final List<Route> globalRoutes;
+    // Routes labeled with the project name together with the global ones
+    private final Map<String, List<Route>> projectRoutes;
+
+    ConfigSnapshot(long version, Optional<AlertManagerConfig> config) {
+      this.version = version;
+      this.config = config;
+      Map<String, Receiver> receiversByName = new HashMap<>();
+      List<Route> global = new ArrayList<>();
+      Map<String, List<Route>> routesByProject = new HashMap<>();
+      if (config.isPresent()) {
+        if (config.get().getReceivers() != null) {
+          for (Receiver receiver : config.get().getReceivers()) {
+            receiversByName.putIfAbsent(receiver.getName(), receiver);
+          }
+        }
+        List<Route> routes = config.get().getRoute() != null && config.get().getRoute().getRoutes() != null ?
+          config.get().getRoute().getRoutes() : Collections.emptyList();
+        for (Route route : routes) {
+          String project = getProjectLabel(route);
+          if (project != null) {
+            routesByProject.putIfAbsent(project, new ArrayList<>());
+          }
+        }
+        for (Route route : routes) {
+          if (isRouteGlobal(route)) {
+            global.add(route);
+            routesByProject.values().forEach(projectRoutes -> projectRoutes.add(route));
+          } else {
+            String project = getProjectLabel(route);
+            if (project != null) {
+              routesByProject.get(project).add(route);
+            }
+          }
+        }
+      }
+      this.receivers = Collections.unmodifiableMap(receiversByName);
+      this.globalRoutes = Collections.unmodifiableList(global);
+      this.projectRoutes = Collections.unmodifiableMap(routesByProject);
+    }
+  }
 }
@@ -85,6 +85,8 @@ public class Constants {
   public static final String DEFAULT_SLACK_TITLE = "{{ template \"hopsworks.slack.default.title\" . }}";
 
   public static final String AM_CONFIG_UPDATED_TOPIC_NAME = "alertmanager_config_updated";
+  // Changes notified by other nodes within this delay are restored from the database with a single reload
+  public static final long AM_CONFIG_RESTORE_DELAY_MS = 2000L;
 
   public enum TimerType {
     CLIENT,
@@ -52,6 +52,7 @@ public class MaterializerStateResponse implements Serializable {
   private List<CryptoMaterial> remoteMaterializedState;
   private List<CryptoMaterial> scheduledRemovals;
   private Map<String, Boolean> materialKeyLocks;
+  private Map<String, Long> lockStatistics;
   
   public MaterializerStateResponse(
       List<CryptoMaterial> localMaterializedState, List<CryptoMaterial> remoteMaterializedState,
@@ -98,6 +99,14 @@ public class MaterializerStateResponse implements Serializable {
     this.materialKeyLocks = materialKeyLocks;
   }
   
+  public Map<String, Long> getLockStatistics() {
+    return lockStatistics;
+  }
+  
+  public void setLockStatistics(Map<String, Long> lockStatistics) {
+    this.lockStatistics = lockStatistics;
+  }
+  
   public static class CryptoMaterial {
     private String user;
     private String path;
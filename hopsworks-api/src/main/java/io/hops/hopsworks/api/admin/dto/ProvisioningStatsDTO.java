@@ -0,0 +1,125 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2023, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.api.admin.dto;
+
+import io.hops.hopsworks.common.project.ProvisioningStats;
+
+import javax.xml.bind.annotation.XmlRootElement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@XmlRootElement
+public class ProvisioningStatsDTO {
+  private Long succeeded;
+  private Long failed;
+  private Map<String, Long> lastDurations;
+  private List<Step> steps;
+
+  public ProvisioningStatsDTO() {
+  }
+
+  public ProvisioningStatsDTO(ProvisioningStats stats) {
+    this.succeeded = stats.getSucceeded();
+    this.failed = stats.getFailed();
+    this.lastDurations = stats.getLastDurations();
+    this.steps = new ArrayList<>();
+    for (ProvisioningStats.StepStats step : stats.getSteps().values()) {
+      this.steps.add(new Step(step.getName(), step.getCount(), step.getAverageMs(), step.getMaxMs()));
+    }
+  }
+
+  public Long getSucceeded() {
+    return succeeded;
+  }
+
+  public void setSucceeded(Long succeeded) {
+    this.succeeded = succeeded;
+  }
+
+  public Long getFailed() {
+    return failed;
+  }
+
+  public void setFailed(Long failed) {
+    this.failed = failed;
+  }
+
+  public Map<String, Long> getLastDurations() {
+    return lastDurations;
+  }
+
+  public void setLastDurations(Map<String, Long> lastDurations) {
+    this.lastDurations = lastDurations;
+  }
+
+  public List<Step> getSteps() {
+    return steps;
+  }
+
+  public void setSteps(List<Step> steps) {
+    this.steps = steps;
+  }
+
+  public static class Step {
+    private String name;
+    private Long count;
+    private Long averageMs;
+    private Long maxMs;
+
+    public Step() {
+    }
+
+    public Step(String name, Long count, Long averageMs, Long maxMs) {
+      this.name = name;
+      this.count = count;
+      this.averageMs = averageMs;
+      this.maxMs = maxMs;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+
+    public Long getCount() {
+      return count;
+    }
+
+    public void setCount(Long count) {
+      this.count = count;
+    }
+
+    public Long getAverageMs() {
+      return averageMs;
+    }
+
+    public void setAverageMs(Long averageMs) {
+      this.averageMs = averageMs;
+    }
+
+    public Long getMaxMs() {
+      return maxMs;
+    }
+
+    public void setMaxMs(Long maxMs) {
+      this.maxMs = maxMs;
+    }
+  }
+}
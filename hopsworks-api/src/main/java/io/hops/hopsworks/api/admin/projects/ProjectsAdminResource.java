@@ -16,6 +16,7 @@
 package io.hops.hopsworks.api.admin.projects;
 
 import io.hops.hopsworks.api.admin.dto.ProjectAdminInfoDTO;
+import io.hops.hopsworks.api.admin.dto.ProvisioningStatsDTO;
 import io.hops.hopsworks.api.filter.Audience;
 import io.hops.hopsworks.api.filter.apiKey.ApiKeyRequired;
 import io.hops.hopsworks.api.jwt.JWTHelper;
@@ -26,6 +27,7 @@ import io.hops.hopsworks.common.dataset.acl.PermissionsFixer;
 import io.hops.hopsworks.common.project.ProjectController;
 import io.hops.hopsworks.common.project.ProjectDTO;
 import io.hops.hopsworks.common.project.ProjectQuotasController;
+import io.hops.hopsworks.common.project.ProvisioningStats;
 import io.hops.hopsworks.exceptions.DatasetException;
 import io.hops.hopsworks.exceptions.FeaturestoreException;
 import io.hops.hopsworks.exceptions.GenericException;
@@ -93,6 +95,8 @@ public class ProjectsAdminResource {
   private ProjectQuotasController projectQuotasController;
   @EJB
   private UserFacade userFacade;
+  @EJB
+  private ProvisioningStats provisioningStats;
 
   /**
    * Returns admin information about all the projects
@@ -111,6 +115,18 @@ public class ProjectsAdminResource {
     return Response.ok().entity(projectAdminInfoDTO).build();
   }
 
+  /**
+   * Returns the duration of the steps of the project creations on this node
+   *
+   * @return
+   */
+  @GET
+  @Produces(MediaType.APPLICATION_JSON)
+  @Path("provisioning-stats")
+  public Response getProvisioningStats(@Context HttpServletRequest req, @Context SecurityContext sc) {
+    return Response.ok().entity(new ProvisioningStatsDTO(provisioningStats)).build();
+  }
+
   @GET
   @Produces(MediaType.APPLICATION_JSON)
   @Path("{id}")
@@ -119,6 +119,7 @@ public class CertificateMaterializerAdmin {
     
     MaterializerStateResponse responseState = new MaterializerStateResponse(localStateResponse, remoteStateResponse,
         fileRemovalsResponse, materializerState.getMaterialKeyLocks());
+    responseState.setLockStatistics(certificateMaterializer.getLockStatistics());
     
     GenericEntity<MaterializerStateResponse> response = new GenericEntity<MaterializerStateResponse>(responseState){};
     return noCacheResponse.getNoCacheResponseBuilder(Response.Status.OK).entity(response).build();
@@ -31,8 +31,11 @@ import io.hops.hopsworks.common.constants.auth.AllowedRoles;
 import io.hops.hopsworks.common.dao.project.team.ProjectTeamFacade;
 import io.hops.hopsworks.common.dataset.DatasetController;
 import io.hops.hopsworks.common.dataset.FilePreviewMode;
+import io.hops.hopsworks.common.dataset.PermissionOperation;
+import io.hops.hopsworks.common.dataset.RecursivePermissionController;
 import io.hops.hopsworks.common.dataset.util.DatasetHelper;
 import io.hops.hopsworks.common.dataset.util.DatasetPath;
+import io.hops.hopsworks.common.hdfs.Utils;
 import io.hops.hopsworks.common.hdfs.inode.InodeController;
 import io.hops.hopsworks.common.project.ProjectController;
 import io.hops.hopsworks.common.provenance.core.HopsFSProvenanceController;
@@ -90,6 +93,7 @@ import java.util.logging.Logger;
 public class DatasetResource {
   
   private static final Logger LOGGER = Logger.getLogger(DatasetResource.class.getName());
+  private static final String PERMISSION_OPERATION_HEADER = "X-Permission-Operation";
   
   @EJB
   private DatasetController datasetController;
@@ -119,6 +123,8 @@ public class DatasetResource {
   private LongRunningHttpRequests longRunningHttpRequests;
   @EJB
   private Settings settings;
+  @EJB
+  private RecursivePermissionController recursivePermissionController;
 
   private Integer projectId;
   private String projectName;
@@ -230,6 +236,29 @@ public class DatasetResource {
     return Response.ok().entity(dto).build();
   }
   
+  @GET
+  @Path("permission-operations/{id}")
+  @Produces(MediaType.APPLICATION_JSON)
+  @ApiOperation(value = "Get the progress of a permission change started by a move.",
+    response = PermissionOperationDTO.class)
+  @AllowedProjectRoles({AllowedProjectRoles.DATA_OWNER, AllowedProjectRoles.DATA_SCIENTIST})
+  @JWTRequired(acceptedTokens = {Audience.API, Audience.JOB},
+    allowedUserRoles = {"HOPS_ADMIN", "HOPS_USER", "HOPS_SERVICE_USER"})
+  @ApiKeyRequired(acceptedScopes = {ApiScope.DATASET_VIEW},
+    allowedUserRoles = {"HOPS_ADMIN", "HOPS_USER", "HOPS_SERVICE_USER"})
+  public Response getPermissionOperation(@PathParam("id") String id, @Context HttpServletRequest req,
+                                         @Context SecurityContext sc) throws ProjectException, DatasetException {
+    Project project = this.getProject();
+    // Operations are kept in memory by the node that started them, until an hour after they finished
+    PermissionOperation operation = recursivePermissionController.getOperation(id);
+    if (operation == null ||
+        !operation.getPath().toUri().getPath().startsWith(Utils.getProjectPath(project.getName()))) {
+      throw new DatasetException(RESTCodes.DatasetErrorCode.PERMISSION_OPERATION_NOT_FOUND, Level.FINE,
+        "operation: " + id);
+    }
+    return Response.ok().entity(new PermissionOperationDTO(operation)).build();
+  }
+  
   @POST
   @Path("{path: .+}")
   @Produces(MediaType.APPLICATION_JSON)
@@ -250,7 +279,8 @@ public class DatasetResource {
                              @QueryParam("generate_readme") Boolean generateReadme,
                              @QueryParam("destination_path") String destPath,
                              @QueryParam("destination_type") DatasetType destDatasetType,
-                             @DefaultValue("READ_ONLY") @QueryParam("permission") DatasetAccessPermission permission)
+                             @DefaultValue("READ_ONLY") @QueryParam("permission") DatasetAccessPermission permission,
+                             @DefaultValue("false") @QueryParam("async") Boolean async)
       throws DatasetException, ProjectException, HopsSecurityException, ProvenanceException, MetadataException,
              FeatureStoreMetadataException, FeaturestoreException {
     Users user = jwtHelper.getUserPrincipal(sc);
@@ -326,8 +356,12 @@ public class DatasetResource {
         try {
           datasetPath = datasetHelper.getDatasetPathIfFileExist(project, path, datasetType);
           distDatasetPath = datasetHelper.getDatasetPath(project, destPath, destDatasetType);
-          datasetController.move(project, user, datasetPath.getFullPath(), distDatasetPath.getFullPath(),
-            datasetPath.getDataset(), distDatasetPath.getDataset());
+          PermissionOperation operation = datasetController.move(project, user, datasetPath.getFullPath(),
+            distDatasetPath.getFullPath(), datasetPath.getDataset(), distDatasetPath.getDataset(), async);
+          if (operation != null) {
+            // Moved, the permission of the tree is being changed in the background
+            return Response.accepted().header(PERMISSION_OPERATION_HEADER, operation.getId()).build();
+          }
         } finally {
           longRunningHttpRequests.decrement();
         }
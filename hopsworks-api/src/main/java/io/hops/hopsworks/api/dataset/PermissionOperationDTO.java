@@ -0,0 +1,102 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2023, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.api.dataset;
+
+import io.hops.hopsworks.common.dataset.PermissionOperation;
+
+import javax.xml.bind.annotation.XmlRootElement;
+
+@XmlRootElement
+public class PermissionOperationDTO {
+  private String id;
+  private String path;
+  private PermissionOperation.State state;
+  private Long processed;
+  private String error;
+  private Long startTime;
+  private Long endTime;
+  
+  public PermissionOperationDTO() {
+  }
+  
+  public PermissionOperationDTO(PermissionOperation operation) {
+    this.id = operation.getId();
+    this.path = operation.getPath().toUri().getPath();
+    this.state = operation.getState();
+    this.processed = operation.getProcessed();
+    this.error = operation.getError();
+    this.startTime = operation.getStartTime();
+    if (operation.getState() != PermissionOperation.State.RUNNING) {
+      this.endTime = operation.getEndTime();
+    }
+  }
+  
+  public String getId() {
+    return id;
+  }
+  
+  public void setId(String id) {
+    this.id = id;
+  }
+  
+  public String getPath() {
+    return path;
+  }
+  
+  public void setPath(String path) {
+    this.path = path;
+  }
+  
+  public PermissionOperation.State getState() {
+    return state;
+  }
+  
+  public void setState(PermissionOperation.State state) {
+    this.state = state;
+  }
+  
+  public Long getProcessed() {
+    return processed;
+  }
+  
+  public void setProcessed(Long processed) {
+    this.processed = processed;
+  }
+  
+  public String getError() {
+    return error;
+  }
+  
+  public void setError(String error) {
+    this.error = error;
+  }
+  
+  public Long getStartTime() {
+    return startTime;
+  }
+  
+  public void setStartTime(Long startTime) {
+    this.startTime = startTime;
+  }
+  
+  public Long getEndTime() {
+    return endTime;
+  }
+  
+  public void setEndTime(Long endTime) {
+    this.endTime = endTime;
+  }
+}
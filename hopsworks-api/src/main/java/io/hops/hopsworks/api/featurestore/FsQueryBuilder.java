@@ -19,6 +19,7 @@ package io.hops.hopsworks.api.featurestore;
 import io.hops.hopsworks.common.featurestore.featureview.FeatureViewController;
 import io.hops.hopsworks.common.api.ResourceRequest;
 import io.hops.hopsworks.common.featurestore.query.ConstructorController;
+import io.hops.hopsworks.common.featurestore.query.FsQueryCache;
 import io.hops.hopsworks.common.featurestore.query.FsQueryDTO;
 import io.hops.hopsworks.common.featurestore.query.Query;
 import io.hops.hopsworks.common.featurestore.query.QueryController;
@@ -54,6 +55,8 @@ public class FsQueryBuilder {
   private QueryController queryController;
   @EJB
   private FeatureViewController featureViewController;
+  @EJB
+  private FsQueryCache fsQueryCache;
 
   private URI uri(UriInfo uriInfo, Project project) {
     return uriInfo.getBaseUriBuilder().path(ResourceRequest.Name.PROJECT.toString().toLowerCase())
@@ -75,19 +78,35 @@ public class FsQueryBuilder {
       Integer trainingDatasetId, boolean withLabel, boolean isHiveEngine)
       throws FeaturestoreException, ServiceException {
     TrainingDataset trainingDataset = trainingDatasetController.getTrainingDatasetById(featurestore, trainingDatasetId);
-    Query query = trainingDatasetController.getQuery(trainingDataset, withLabel, project, user, isHiveEngine);
-    FsQueryDTO dto = constructorController.construct(query, pitJoinController.isPitEnabled(query), true, project,
-        user);
+    FsQueryCache.Key key = fsQueryCache.key(trainingDataset, withLabel, isHiveEngine);
+    FsQueryDTO dto = fsQueryCache.get(key);
+    if (dto == null) {
+      Query query = trainingDatasetController.getQuery(trainingDataset, withLabel, project, user, isHiveEngine);
+      dto = construct(key, query, project, user);
+    }
     dto.setHref(uri(uriInfo, project));
     return dto;
   }
 
   public FsQueryDTO build(UriInfo uriInfo, Project project, Users user, FeatureView featureView)
       throws FeaturestoreException, ServiceException {
-    Query query = queryController.makeQuery(featureView, project, user, true, false);
+    FsQueryCache.Key key = fsQueryCache.key(featureView, true, false);
+    FsQueryDTO dto = fsQueryCache.get(key);
+    if (dto == null) {
+      Query query = queryController.makeQuery(featureView, project, user, true, false);
+      dto = construct(key, query, project, user);
+    }
+    dto.setHref(uri(uriInfo, project));
+    return dto;
+  }
+
+  private FsQueryDTO construct(FsQueryCache.Key key, Query query, Project project, Users user)
+      throws FeaturestoreException, ServiceException {
     FsQueryDTO dto = constructorController.construct(query, pitJoinController.isPitEnabled(query), true, project,
         user);
-    dto.setHref(uri(uriInfo, project));
+    if (query.getDeletedFeatureGroups() == null || query.getDeletedFeatureGroups().isEmpty()) {
+      fsQueryCache.put(key, dto);
+    }
     return dto;
   }
 
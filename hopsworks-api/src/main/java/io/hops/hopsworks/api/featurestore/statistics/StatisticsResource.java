@@ -161,6 +161,8 @@ public class StatisticsResource {
   public Response register(@Context UriInfo uriInfo,
                            @Context HttpServletRequest req,
                            @Context SecurityContext sc,
+                           @ApiParam(value = "Write the statistics content in the background", example = "false")
+                           @QueryParam("async") @DefaultValue("false") Boolean async,
                            StatisticsDTO statisticsDTO)
       throws FeaturestoreException, DatasetException, HopsSecurityException, IOException {
 
@@ -170,7 +172,7 @@ public class StatisticsResource {
     StatisticsDTO dto;
     if (featuregroup != null) {
       statistics = statisticsController.registerStatistics(project, user, statisticsDTO.getCommitTime(),
-          statisticsDTO.getFeatureGroupCommitId(), statisticsDTO.getContent(), featuregroup);
+          statisticsDTO.getFeatureGroupCommitId(), statisticsDTO.getContent(), featuregroup, async);
       dto = statisticsBuilder.build(uriInfo, new ResourceRequest(ResourceRequest.Name.STATISTICS),
           project, user, featuregroup, statistics);
     } else {
@@ -180,14 +182,17 @@ public class StatisticsResource {
         Map<String, String> splitStatistics = statisticsDTO.getSplitStatistics().stream()
             .collect(Collectors.toMap(SplitStatisticsDTO::getName, SplitStatisticsDTO::getContent));
         statistics = statisticsController.registerStatistics(project, user, statisticsDTO.getCommitTime(), null,
-             trainingDataset, splitStatistics, false);
+             trainingDataset, splitStatistics, false, async);
       } else {
         statistics = statisticsController.registerStatistics(project, user, statisticsDTO.getCommitTime(),
-            statisticsDTO.getContent(), trainingDataset, null, statisticsDTO.getForTransformation());
+            statisticsDTO.getContent(), trainingDataset, null, statisticsDTO.getForTransformation(), async);
       }
       dto = statisticsBuilder.build(uriInfo, new ResourceRequest(ResourceRequest.Name.STATISTICS),
           project, user, trainingDataset, statistics);
     }
+    if (async) {
+      return Response.accepted().entity(dto).build();
+    }
     return Response.ok().entity(dto).build();
   }
 
@@ -108,7 +108,7 @@ public class ApiKeyFilter implements ContainerRequestFilter {
     String key = authorizationHeader.substring(API_KEY.length()).trim();
     try {
       ApiKey apiKey = apiKeyController.getApiKey(key);
-      Users user = apiKey.getUser();
+      Users user = apiKeyController.getUser(apiKey);
       userStatusValidator.checkStatus(user.getStatus());
       List<String> roles = usersController.getUserRoles(user);
       Set<ApiScope> scopes = apiKeyController.getScopes(apiKey);
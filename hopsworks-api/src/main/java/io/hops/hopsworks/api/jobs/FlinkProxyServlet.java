@@ -27,6 +27,7 @@ import io.hops.hopsworks.common.dao.user.UserFacade;
 import io.hops.hopsworks.common.jobs.flink.FlinkMasterAddrCache;
 import io.hops.hopsworks.common.user.security.apiKey.ApiKeyController;
 import io.hops.hopsworks.exceptions.ApiKeyException;
+import io.hops.hopsworks.exceptions.UserException;
 import io.hops.hopsworks.persistence.entity.hdfs.user.HdfsUsers;
 import io.hops.hopsworks.persistence.entity.jobs.history.YarnApplicationstate;
 import io.hops.hopsworks.persistence.entity.user.Users;
@@ -85,8 +86,8 @@ public class FlinkProxyServlet extends ProxyServlet {
           try {
             String key = authorizationHeader.substring(ApiKeyFilter.API_KEY.length()).trim();
             ApiKey apiKey = apiKeyController.getApiKey(key);
-            user = apiKey.getUser();
-          } catch (ApiKeyException e) {
+            user = apiKeyController.getUser(apiKey);
+          } catch (ApiKeyException | UserException e) {
             servletResponse.sendError(401, "Could not validate API key");
             return;
           }
@@ -113,7 +113,7 @@ public class KibanaProxyServlet extends ProxyServlet {
       }
     }
   
-    HttpClientBuilder clientBuilder = HttpClients.custom();
+    HttpClientBuilder clientBuilder = configureConnectionPool(HttpClients.custom());
     if(sslCtx != null){
       clientBuilder.setSSLContext(sslCtx);
     }
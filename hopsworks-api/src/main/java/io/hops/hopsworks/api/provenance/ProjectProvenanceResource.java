@@ -15,6 +15,8 @@
  */
 package io.hops.hopsworks.api.provenance;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.jaxb.JaxbAnnotationModule;
 import io.hops.hopsworks.api.dataset.DatasetAccessType;
 import io.hops.hopsworks.api.filter.AllowedProjectRoles;
 import io.hops.hopsworks.api.filter.Audience;
@@ -72,11 +74,13 @@ import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.GenericEntity;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.SecurityContext;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriInfo;
 import java.util.List;
 import java.util.logging.Level;
@@ -87,6 +91,8 @@ import java.util.logging.Logger;
 @Api(value = "Project Provenance Service", description = "Project Provenance Service")
 public class ProjectProvenanceResource {
   private static final Logger logger = Logger.getLogger(ProjectProvenanceResource.class.getName());
+  private static final String NDJSON = "application/x-ndjson";
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().registerModule(new JaxbAnnotationModule());
   
   @EJB
   private ProjectFacade projectFacade;
@@ -171,6 +177,33 @@ public class ProjectProvenanceResource {
     return Response.ok().entity(result).build();
   }
   
+  @GET
+  @Path("/states/export")
+  @Produces(NDJSON)
+  @AllowedProjectRoles({AllowedProjectRoles.DATA_SCIENTIST, AllowedProjectRoles.DATA_OWNER})
+  @JWTRequired(acceptedTokens = {Audience.API}, allowedUserRoles = {"HOPS_ADMIN", "HOPS_USER", "HOPS_SERVICE_USER"})
+  @ApiKeyRequired(acceptedScopes = {ApiScope.PROJECT},
+    allowedUserRoles = {"HOPS_ADMIN", "HOPS_USER", "HOPS_SERVICE_USER"})
+  @ApiOperation(value = "Export all the file states matching the query, one JSON document per line",
+    response = ProvStateDTO.class)
+  public Response exportFileStates(
+    @BeanParam
+      ProvStateBeanParams params,
+    @Context HttpServletRequest req) {
+    StreamingOutput output = out -> {
+      try {
+        stateBuilder.stream(project, params, state -> {
+          out.write(OBJECT_MAPPER.writeValueAsBytes(state));
+          out.write('\n');
+        });
+        out.flush();
+      } catch (ProvenanceException e) {
+        throw new WebApplicationException(e.getMessage(), e);
+      }
+    };
+    return Response.ok(output, NDJSON).build();
+  }
+  
   @GET
   @Path("ops")
   @Produces(MediaType.APPLICATION_JSON)
@@ -24,13 +24,15 @@ import org.apache.http.HttpHost;
 import org.apache.http.HttpRequest;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.HttpClient;
+import org.apache.http.client.config.CookieSpecs;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.AbortableHttpRequest;
 import org.apache.http.client.params.ClientPNames;
 import org.apache.http.client.params.CookiePolicy;
 import org.apache.http.client.utils.URIUtils;
 import org.apache.http.entity.InputStreamEntity;
-import org.apache.http.impl.client.DefaultHttpClient;
-import org.apache.http.impl.conn.tsccm.ThreadSafeClientConnManager;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.client.HttpClients;
 import org.apache.http.message.BasicHeader;
 import org.apache.http.message.BasicHttpEntityEnclosingRequest;
 import org.apache.http.message.BasicHttpRequest;
@@ -39,6 +41,12 @@ import org.apache.http.params.BasicHttpParams;
 import org.apache.http.params.HttpParams;
 import org.apache.http.util.EntityUtils;
 
+import javax.enterprise.concurrent.ManagedThreadFactory;
+import javax.naming.InitialContext;
+import javax.naming.NamingException;
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
 import javax.servlet.ServletException;
 import javax.servlet.http.Cookie;
 import javax.servlet.http.HttpServlet;
@@ -46,14 +54,26 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.Closeable;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
-import java.lang.reflect.Constructor;
 import java.net.HttpCookie;
 import java.net.URI;
 import java.util.BitSet;
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.Formatter;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * An HTTP reverse proxy/gateway servlet. It is designed to be extended for
@@ -91,6 +111,31 @@ public class ProxyServlet extends HttpServlet {
    */
   public static final String P_FORWARDEDFOR = "forwardip";
 
+  /**
+   * A boolean parameter name to proxy the requests asynchronously. The
+   * upstream call then runs on a pool of the servlet and the container
+   * thread is released as soon as the request is handed over. Subclasses that
+   * handle the exceptions thrown by service() must not enable it, and the
+   * servlet must be declared with async-supported.
+   */
+  public static final String P_ASYNC = "async";
+
+  /**
+   * Integer parameter names for the number of threads of the async pool, the
+   * number of requests waiting for one of them before they are rejected with
+   * a 503, and the time in ms after which a request is answered with a 504.
+   */
+  public static final String P_ASYNC_THREADS = "asyncThreads";
+  public static final String P_ASYNC_QUEUE_SIZE = "asyncQueueSize";
+  public static final String P_ASYNC_TIMEOUT = "asyncTimeout";
+
+  /**
+   * Integer parameter names for the maximum number of pooled connections, in
+   * total and to each target.
+   */
+  public static final String P_MAX_CONNECTIONS = "maxConnections";
+  public static final String P_MAX_CONNECTIONS_PER_ROUTE = "maxConnectionsPerRoute";
+
   /**
    * The parameter name for the target (destination) URI to proxy to.
    */
@@ -104,6 +149,13 @@ public class ProxyServlet extends HttpServlet {
   protected static final String ATTR_HOST_PORT = ProxyServlet.class.
       getSimpleName() + ".hostPort";
 
+  private static final int DEFAULT_MAX_CONNECTIONS = 200;
+  private static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 50;
+  private static final int DEFAULT_ASYNC_THREADS = 50;
+  private static final int DEFAULT_ASYNC_QUEUE_SIZE = 100;
+  private static final long DEFAULT_ASYNC_TIMEOUT = 120000;
+  private static final int STREAM_BUFFER_SIZE = 8192;
+
   /*
    * MISC
    */
@@ -113,6 +165,12 @@ public class ProxyServlet extends HttpServlet {
    * User agents shouldn't send the url fragment but what if it does?
    */
   protected boolean doSendUrlFragment = true;
+  protected boolean doAsync = false;
+  protected int asyncThreads = DEFAULT_ASYNC_THREADS;
+  protected int asyncQueueSize = DEFAULT_ASYNC_QUEUE_SIZE;
+  protected long asyncTimeout = DEFAULT_ASYNC_TIMEOUT;
+  protected int maxConnections = DEFAULT_MAX_CONNECTIONS;
+  protected int maxConnectionsPerRoute = DEFAULT_MAX_CONNECTIONS_PER_ROUTE;
 
   //These next 3 are cached here, and should only be referred to in 
   //initialization logic. See the ATTR_* parameters.
@@ -125,6 +183,9 @@ public class ProxyServlet extends HttpServlet {
 
   protected HttpClient proxyClient;
 
+  private ExecutorService proxyExecutor;
+  private final Map<String, TargetStats> targetStats = new ConcurrentHashMap<>();
+
   @Override
   public String getServletInfo() {
     return "A proxy servlet by David Smiley, dsmiley@apache.org";
@@ -159,6 +220,48 @@ public class ProxyServlet extends HttpServlet {
       this.doForwardIP = Boolean.parseBoolean(doForwardIPString);
     }
 
+    String doAsyncString = getConfigParam(P_ASYNC);
+    if (doAsyncString != null) {
+      this.doAsync = Boolean.parseBoolean(doAsyncString);
+    }
+    String asyncThreadsString = getConfigParam(P_ASYNC_THREADS);
+    if (asyncThreadsString != null) {
+      this.asyncThreads = Integer.parseInt(asyncThreadsString);
+    }
+    String asyncQueueSizeString = getConfigParam(P_ASYNC_QUEUE_SIZE);
+    if (asyncQueueSizeString != null) {
+      this.asyncQueueSize = Integer.parseInt(asyncQueueSizeString);
+    }
+    String asyncTimeoutString = getConfigParam(P_ASYNC_TIMEOUT);
+    if (asyncTimeoutString != null) {
+      this.asyncTimeout = Long.parseLong(asyncTimeoutString);
+    }
+    if (doAsync) {
+      // A pool of its own, a slow target must not hold the threads of the
+      // shared executor
+      try {
+        ManagedThreadFactory threadFactory =
+            InitialContext.doLookup("java:comp/DefaultManagedThreadFactory");
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(asyncThreads,
+            asyncThreads, 60L, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(asyncQueueSize), threadFactory);
+        executor.allowCoreThreadTimeOut(true);
+        proxyExecutor = executor;
+      } catch (NamingException e) {
+        log("Could not look up the managed thread factory, requests will be "
+            + "proxied synchronously", e);
+      }
+    }
+
+    String maxConnectionsString = getConfigParam(P_MAX_CONNECTIONS);
+    if (maxConnectionsString != null) {
+      this.maxConnections = Integer.parseInt(maxConnectionsString);
+    }
+    String maxConnectionsPerRouteString = getConfigParam(P_MAX_CONNECTIONS_PER_ROUTE);
+    if (maxConnectionsPerRouteString != null) {
+      this.maxConnectionsPerRoute = Integer.parseInt(maxConnectionsPerRouteString);
+    }
+
     initTarget();//sets target*
 
     HttpParams hcParams = new BasicHttpParams();
@@ -187,32 +290,30 @@ public class ProxyServlet extends HttpServlet {
   /**
    * Called from {@link #init(javax.servlet.ServletConfig)}. HttpClient offers
    * many opportunities
-   * for customization. By default,
-   * <a href="http://hc.apache.org/httpcomponents-client-ga/httpclient/apidocs/
-   * org/apache/http/impl/client/SystemDefaultHttpClient.html">
-   * SystemDefaultHttpClient</a> is used if available, otherwise it falls
-   * back to:
-   * <pre>new DefaultHttpClient(new ThreadSafeClientConnManager(),hcParams)</pre>
-   * SystemDefaultHttpClient uses PoolingClientConnectionManager. In any case,
-   * it should be thread-safe.
+   * for customization. By default, a client with a pool of at most
+   * maxConnections connections, maxConnectionsPerRoute to each target, is
+   * used. Cookies are ignored and redirects are followed unless
+   * {@link ClientPNames#HANDLE_REDIRECTS} is set to false.
    */
-  @SuppressWarnings({"unchecked", "deprecation"})
+  @SuppressWarnings("deprecation")
   protected HttpClient createHttpClient(HttpParams hcParams) {
-    try {
-      //as of HttpComponents v4.2, this class is better since it uses System
-      // Properties:
-      Class clientClazz = Class.forName(
-          "org.apache.http.impl.client.SystemDefaultHttpClient");
-      Constructor constructor = clientClazz.getConstructor(HttpParams.class);
-      return (HttpClient) constructor.newInstance(hcParams);
-    } catch (ClassNotFoundException e) {
-      //no problem; use v4.1 below
-    } catch (Exception e) {
-      throw new RuntimeException(e);
-    }
+    RequestConfig config = RequestConfig.custom()
+        .setCookieSpec(CookieSpecs.IGNORE_COOKIES)
+        .setRedirectsEnabled(hcParams.getBooleanParameter(ClientPNames.HANDLE_REDIRECTS, true))
+        .build();
+    return configureConnectionPool(HttpClients.custom())
+        .setDefaultRequestConfig(config)
+        .build();
+  }
 
-    //Fallback on using older client:
-    return new DefaultHttpClient(new ThreadSafeClientConnManager(), hcParams);
+  /**
+   * Sets the connection limits of the servlet on a client builder, for
+   * subclasses building their own client.
+   */
+  protected HttpClientBuilder configureConnectionPool(HttpClientBuilder clientBuilder) {
+    return clientBuilder
+        .setMaxConnTotal(maxConnections)
+        .setMaxConnPerRoute(maxConnectionsPerRoute);
   }
 
   /**
@@ -256,6 +357,9 @@ public class ProxyServlet extends HttpServlet {
 
   @Override
   public void destroy() {
+    if (proxyExecutor != null) {
+      proxyExecutor.shutdownNow();
+    }
     //As of HttpComponents v4.3, clients implement closeable
     if (proxyClient instanceof Closeable) {//TODO AutoCloseable in Java 1.6
       try {
@@ -284,6 +388,94 @@ public class ProxyServlet extends HttpServlet {
       servletRequest.setAttribute(ATTR_TARGET_HOST, targetHost);
     }
 
+    if (doAsync && proxyExecutor != null && servletRequest.isAsyncSupported()) {
+      proxyAsync(servletRequest, servletResponse);
+    } else {
+      proxy(servletRequest, servletResponse);
+    }
+  }
+
+  /**
+   * Hands the request over to the async pool and releases the container
+   * thread. Errors are reported to the client with a 502 as there is no
+   * caller left to handle them, and requests still running after asyncTimeout
+   * ms with a 504.
+   */
+  private void proxyAsync(HttpServletRequest servletRequest,
+      HttpServletResponse servletResponse) throws IOException {
+    AsyncContext asyncContext = servletRequest.startAsync(servletRequest,
+        servletResponse);
+    asyncContext.setTimeout(asyncTimeout);
+    // Either the proxy task or the timeout completes the request, not both
+    AtomicBoolean completed = new AtomicBoolean(false);
+    AtomicReference<Future<?>> task = new AtomicReference<>();
+    asyncContext.addListener(new AsyncListener() {
+      @Override
+      public void onTimeout(AsyncEvent event) {
+        if (completed.compareAndSet(false, true)) {
+          Future<?> future = task.get();
+          if (future != null) {
+            future.cancel(true);
+          }
+          log("Timed out proxying " + servletRequest.getRequestURI());
+          sendErrorQuietly(servletResponse,
+              HttpServletResponse.SC_GATEWAY_TIMEOUT);
+          asyncContext.complete();
+        }
+      }
+
+      @Override
+      public void onComplete(AsyncEvent event) {
+      }
+
+      @Override
+      public void onError(AsyncEvent event) {
+      }
+
+      @Override
+      public void onStartAsync(AsyncEvent event) {
+      }
+    });
+    try {
+      task.set(proxyExecutor.submit(() -> {
+        try {
+          proxy(servletRequest, servletResponse);
+        } catch (Exception e) {
+          if (!completed.get()) {
+            log("Failed to proxy " + servletRequest.getRequestURI() + ": " + e);
+            sendErrorQuietly(servletResponse,
+                HttpServletResponse.SC_BAD_GATEWAY);
+          }
+        } finally {
+          if (completed.compareAndSet(false, true)) {
+            asyncContext.complete();
+          }
+        }
+      }));
+    } catch (RejectedExecutionException e) {
+      if (completed.compareAndSet(false, true)) {
+        sendErrorQuietly(servletResponse,
+            HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        asyncContext.complete();
+      }
+    }
+  }
+
+  private void sendErrorQuietly(HttpServletResponse servletResponse,
+      int statusCode) {
+    if (servletResponse.isCommitted()) {
+      return;
+    }
+    try {
+      servletResponse.sendError(statusCode);
+    } catch (IOException | IllegalStateException e) {
+      log(e.getMessage(), e);
+    }
+  }
+
+  protected void proxy(HttpServletRequest servletRequest,
+      HttpServletResponse servletResponse)
+      throws ServletException, IOException {
     // Make the Request
     // note: we won't transfer the protocol version because I'm not 
     // sure it would truly be compatible
@@ -311,14 +503,16 @@ public class ProxyServlet extends HttpServlet {
     setXForwardedForHeader(servletRequest, proxyRequest);
 
     HttpResponse proxyResponse = null;
+    HttpHost httpHost = getTargetHost(servletRequest);
+    long start = System.currentTimeMillis();
     try {
       // Execute the request
       if (doLog) {
         log("proxy " + method + " uri: " + servletRequest.getRequestURI()
             + " -- " + proxyRequest.getRequestLine().getUri());
       }
-      HttpHost httpHost = getTargetHost(servletRequest);
       proxyResponse = proxyClient.execute(httpHost, proxyRequest);
+      getTargetStats(httpHost).record(System.currentTimeMillis() - start);
 
       // Process the response
       int statusCode = proxyResponse.getStatusLine().getStatusCode();
@@ -342,6 +536,9 @@ public class ProxyServlet extends HttpServlet {
       copyResponseEntity(proxyResponse, servletResponse);
 
     } catch (Exception e) {
+      if (proxyResponse == null) {
+        getTargetStats(httpHost).recordError();
+      }
       //abort request, according to best practice with HttpClient
       if (proxyRequest instanceof AbortableHttpRequest) {
         AbortableHttpRequest abortableHttpRequest
@@ -585,13 +782,25 @@ public class ProxyServlet extends HttpServlet {
 
   /**
    * Copy response body data (the entity) from the proxy to the servlet client.
+   * What was received is flushed to the client whenever the target has nothing
+   * more to send right away, so that long polling and streamed responses are
+   * not held back in the buffers.
    */
   protected void copyResponseEntity(HttpResponse proxyResponse,
       HttpServletResponse servletResponse) throws IOException {
     HttpEntity entity = proxyResponse.getEntity();
     if (entity != null) {
       OutputStream servletOutputStream = servletResponse.getOutputStream();
-      entity.writeTo(servletOutputStream);
+      try (InputStream proxyInputStream = entity.getContent()) {
+        byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+        int read;
+        while ((read = proxyInputStream.read(buffer)) != -1) {
+          servletOutputStream.write(buffer, 0, read);
+          if (proxyInputStream.available() == 0) {
+            servletOutputStream.flush();
+          }
+        }
+      }
     }
   }
 
@@ -668,6 +877,52 @@ public class ProxyServlet extends HttpServlet {
     return targetUri;
   }
 
+  private TargetStats getTargetStats(HttpHost httpHost) {
+    String target = httpHost != null ? httpHost.toHostString() : String.valueOf(targetHost);
+    return targetStats.computeIfAbsent(target, t -> new TargetStats());
+  }
+
+  /**
+   * Time taken by the targets to answer the proxied requests, by host and port.
+   */
+  public Map<String, TargetStats> getTargetStats() {
+    return Collections.unmodifiableMap(targetStats);
+  }
+
+  public static class TargetStats {
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong totalLatencyMs = new AtomicLong();
+    private final AtomicLong maxLatencyMs = new AtomicLong();
+
+    void record(long latencyMs) {
+      requests.incrementAndGet();
+      totalLatencyMs.addAndGet(latencyMs);
+      maxLatencyMs.accumulateAndGet(latencyMs, Math::max);
+    }
+
+    void recordError() {
+      errors.incrementAndGet();
+    }
+
+    public long getRequests() {
+      return requests.get();
+    }
+
+    public long getErrors() {
+      return errors.get();
+    }
+
+    public long getAverageLatencyMs() {
+      long count = requests.get();
+      return count > 0 ? totalLatencyMs.get() / count : 0;
+    }
+
+    public long getMaxLatencyMs() {
+      return maxLatencyMs.get();
+    }
+  }
+
   /**
    * Encodes characters in the query or fragment part of the URI.
    * <p>
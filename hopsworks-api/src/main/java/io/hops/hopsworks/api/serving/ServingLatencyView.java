@@ -0,0 +1,91 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2023, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.api.serving;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import io.hops.hopsworks.common.serving.inference.ServingCache;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+import java.io.Serializable;
+
+@ApiModel(value = "Latency histogram of the inference requests of a serving on the node that answered")
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ServingLatencyView implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private Integer id;
+  private long[] bucketsMs;
+  private long[] counts;
+  private Long count;
+  private Long sumMs;
+
+  public ServingLatencyView() { }
+
+  public ServingLatencyView(Integer id, ServingCache.LatencyHistogram histogram) {
+    this.id = id;
+    this.bucketsMs = histogram.getBucketsMs();
+    this.counts = histogram.getCounts();
+    this.count = histogram.getCount();
+    this.sumMs = histogram.getSumMs();
+  }
+
+  @ApiModelProperty(value = "ID of the Serving entry")
+  public Integer getId() {
+    return id;
+  }
+
+  public void setId(Integer id) {
+    this.id = id;
+  }
+
+  @ApiModelProperty(value = "Upper bounds of the latency buckets in ms")
+  public long[] getBucketsMs() {
+    return bucketsMs;
+  }
+
+  public void setBucketsMs(long[] bucketsMs) {
+    this.bucketsMs = bucketsMs;
+  }
+
+  @ApiModelProperty(value = "Number of requests per bucket, the last one counts the requests above the last bound")
+  public long[] getCounts() {
+    return counts;
+  }
+
+  public void setCounts(long[] counts) {
+    this.counts = counts;
+  }
+
+  @ApiModelProperty(value = "Number of requests")
+  public Long getCount() {
+    return count;
+  }
+
+  public void setCount(Long count) {
+    this.count = count;
+  }
+
+  @ApiModelProperty(value = "Sum of the latencies of the requests in ms")
+  public Long getSumMs() {
+    return sumMs;
+  }
+
+  public void setSumMs(Long sumMs) {
+    this.sumMs = sumMs;
+  }
+}
@@ -25,12 +25,14 @@ import io.hops.hopsworks.api.filter.featureFlags.FeatureFlagRequired;
 import io.hops.hopsworks.api.filter.featureFlags.FeatureFlags;
 import io.hops.hopsworks.api.jwt.JWTHelper;
 import io.hops.hopsworks.common.dao.project.ProjectFacade;
+import io.hops.hopsworks.common.dao.serving.ServingFacade;
 import io.hops.hopsworks.common.security.QuotaEnforcementException;
 import io.hops.hopsworks.common.security.QuotasEnforcement;
 import io.hops.hopsworks.common.serving.ServingController;
 import io.hops.hopsworks.common.serving.ServingLogs;
 import io.hops.hopsworks.common.serving.ServingStatusEnum;
 import io.hops.hopsworks.common.serving.ServingWrapper;
+import io.hops.hopsworks.common.serving.inference.ServingCache;
 import io.hops.hopsworks.common.serving.util.ServingCommands;
 import io.hops.hopsworks.exceptions.CryptoPasswordNotFoundException;
 import io.hops.hopsworks.exceptions.KafkaException;
@@ -96,6 +98,10 @@ public class ServingService {
   private JWTHelper jWTHelper;
   @EJB
   private QuotasEnforcement quotasEnforcement;
+  @EJB
+  private ServingFacade servingFacade;
+  @EJB
+  private ServingCache servingCache;
 
   private Project project;
 
@@ -326,4 +332,36 @@ public class ServingService {
       .entity(logsEntity)
       .build();
   }
+
+  @GET
+  @Path("/{servingId}/latency")
+  @Produces(MediaType.APPLICATION_JSON)
+  @AllowedProjectRoles({AllowedProjectRoles.DATA_OWNER, AllowedProjectRoles.DATA_SCIENTIST})
+  @JWTRequired(acceptedTokens = {Audience.API, Audience.JOB},
+    allowedUserRoles = {"HOPS_ADMIN", "HOPS_USER", "HOPS_SERVICE_USER"})
+  @ApiKeyRequired(acceptedScopes = {ApiScope.SERVING},
+    allowedUserRoles = {"HOPS_ADMIN", "HOPS_USER", "HOPS_SERVICE_USER"})
+  @FeatureFlagRequired(requiredFeatureFlags = {FeatureFlags.DATA_SCIENCE_PROFILE})
+  @ApiOperation(value = "Get the latency histogram of the inference requests of a serving instance answered by this " +
+    "node", response = ServingLatencyView.class)
+  public Response getLatency(
+    @Context SecurityContext sc,
+    @ApiParam(value = "Id of the Serving instance", required = true)
+    @PathParam("servingId") Integer servingId)
+    throws ServingException {
+
+    if (servingId == null) {
+      throw new IllegalArgumentException("servingId was not provided");
+    }
+    if (servingFacade.findByProjectAndId(project, servingId) == null) {
+      throw new ServingException(RESTCodes.ServingErrorCode.INSTANCE_NOT_FOUND, Level.FINE);
+    }
+    ServingCache.LatencyHistogram histogram = servingCache.getLatencyHistogram(servingId);
+    ServingLatencyView latencyView = histogram == null ? new ServingLatencyView()
+      : new ServingLatencyView(servingId, histogram);
+    latencyView.setId(servingId);
+    return noCacheResponse.getNoCacheResponseBuilder(Response.Status.OK)
+      .entity(latencyView)
+      .build();
+  }
 }
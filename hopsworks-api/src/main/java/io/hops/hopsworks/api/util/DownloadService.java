@@ -83,6 +83,7 @@ import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.SecurityContext;
@@ -92,13 +93,15 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.apache.hadoop.fs.permission.FsPermission;
-import org.javatuples.Pair;
 
 @RequestScoped
 @TransactionAttribute(TransactionAttributeType.NEVER)
 public class DownloadService {
 
   private static final Logger LOGGER = Logger.getLogger(DownloadService.class.getName());
+  private static final String ACCEPT_RANGES = "Accept-Ranges";
+  private static final String CONTENT_RANGE = "Content-Range";
+  private static final int BUFFER_SIZE = 64 * 1024;
 
   @EJB
   private DistributedFsService dfs;
@@ -189,7 +192,7 @@ public class DownloadService {
     String fullPath = datasetPath.getFullPath().toString();
     DecodedJWT djwt = jWTHelper.verifyOneTimeToken(token, fullPath);
     Users user = userFacade.findByUsername(djwt.getSubject());
-    return download(project, datasetPath, user);
+    return download(project, datasetPath, user, req.getHeader(HttpHeaders.RANGE));
   }
 
   @GET
@@ -208,15 +211,13 @@ public class DownloadService {
     Project project = this.getProject();
     DatasetPath datasetPath = datasetHelper.getDatasetPathIfFileExist(project, path, datasetType);
     Users user = jWTHelper.getUserPrincipal(sc);
-    return download(project, datasetPath, user);
+    return download(project, datasetPath, user, req.getHeader(HttpHeaders.RANGE));
   }
 
-  private Response download(Project project, DatasetPath datasetPath, Users user) throws DatasetException {
+  private Response download(Project project, DatasetPath datasetPath, Users user, String range)
+    throws DatasetException {
     doCheck();
-    Pair<Path, StreamingOutput> pathStreamPair = downloadFromHDFS(project, datasetPath, user);
-    Response.ResponseBuilder response = Response.ok(pathStreamPair.getValue1());
-    response.header("Content-disposition", "attachment; filename=\"" + pathStreamPair.getValue0().getName() + "\"");
-    return response.build();
+    return downloadFromHDFS(project, datasetPath, user, range);
   }
 
   private void doCheck() throws DatasetException {
@@ -235,9 +236,10 @@ public class DownloadService {
    * @param project
    * @param datasetPath
    * @param user
-   * @return
+   * @param range value of the Range header, only single byte ranges are honoured
+   * @return the whole file or the requested range of it
    */
-  private Pair<Path, StreamingOutput> downloadFromHDFS(Project project, DatasetPath datasetPath, Users user)
+  private Response downloadFromHDFS(Project project, DatasetPath datasetPath, Users user, String range)
     throws DatasetException {
 
     String fullPath = datasetPath.getFullPath().toString();
@@ -251,21 +253,39 @@ public class DownloadService {
       DatasetPermissions.fromFilePermissions(fsPermission).equals(DatasetPermissions.OWNER_ONLY)) {
       throw new DatasetException(RESTCodes.DatasetErrorCode.DOWNLOAD_ERROR, Level.FINE);
     }
+    if (projectUsername == null) {
+      throw new DatasetException(RESTCodes.DatasetErrorCode.DOWNLOAD_ERROR, Level.WARNING);
+    }
 
-    FSDataInputStream stream;
-    DistributedFileSystemOps udfso;
+    DistributedFileSystemOps udfso = null;
     try {
-      if (projectUsername != null) {
-        udfso = dfs.getDfsOps(projectUsername);
-        Path p = new Path(fullPath);
-        stream = udfso.open(p);
-        return new Pair<>(p, buildOutputStream(stream, udfso));
-
+      udfso = dfs.getDfsOps(projectUsername);
+      Path p = new Path(fullPath);
+      long length = udfso.getFileStatus(p).getLen();
+      ByteRange byteRange = ByteRange.parse(range, length);
+      if (byteRange != null && !byteRange.isSatisfiable()) {
+        dfs.closeDfsClient(udfso);
+        return Response.status(Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE)
+          .header(CONTENT_RANGE, "bytes */" + length)
+          .build();
+      }
+      FSDataInputStream stream = udfso.open(p);
+      Response.ResponseBuilder response;
+      if (byteRange != null) {
+        response = Response.status(Response.Status.PARTIAL_CONTENT)
+          .entity(buildOutputStream(stream, udfso, byteRange.first, byteRange.size()))
+          .header(CONTENT_RANGE, "bytes " + byteRange.first + "-" + byteRange.last + "/" + length)
+          .header(HttpHeaders.CONTENT_LENGTH, byteRange.size());
       } else {
-        throw new DatasetException(RESTCodes.DatasetErrorCode.DOWNLOAD_ERROR, Level.WARNING);
+        response = Response.ok(buildOutputStream(stream, udfso, 0, length))
+          .header(HttpHeaders.CONTENT_LENGTH, length);
       }
-
+      return response
+        .header(ACCEPT_RANGES, "bytes")
+        .header("Content-disposition", "attachment; filename=\"" + p.getName() + "\"")
+        .build();
     } catch (IOException ex) {
+      dfs.closeDfsClient(udfso);
       throw new DatasetException(RESTCodes.DatasetErrorCode.DOWNLOAD_ERROR, Level.SEVERE, "path: " + fullPath,
         ex.getMessage(), ex);
     }
@@ -274,24 +294,92 @@ public class DownloadService {
   /**
    *
    * @param stream
+   * @param position first byte to send
+   * @param count number of bytes to send
    * @return
    */
-  private StreamingOutput buildOutputStream(final FSDataInputStream stream, final DistributedFileSystemOps udfso) {
+  private StreamingOutput buildOutputStream(final FSDataInputStream stream, final DistributedFileSystemOps udfso,
+    final long position, final long count) {
     return out -> {
       longRunningHttpRequests.increment();
       try {
+        if (position > 0) {
+          stream.seek(position);
+        }
+        long remaining = count;
         int length;
-        byte[] buffer = new byte[1024];
-        while ((length = stream.read(buffer)) != -1) {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        while (remaining > 0 && (length = stream.read(buffer, 0, (int) Math.min(buffer.length, remaining))) != -1) {
           out.write(buffer, 0, length);
+          remaining -= length;
         }
         out.flush();
-        stream.close();
       } finally {
+        stream.close();
         longRunningHttpRequests.decrement();
         dfs.closeDfsClient(udfso);
       }
     };
   }
 
+  /**
+   * Single byte range of a Range header, see RFC 7233. Multiple ranges are not supported, the whole file is sent
+   * instead as the RFC allows.
+   */
+  static class ByteRange {
+    private final long first;
+    private final long last;
+
+    private ByteRange(long first, long last) {
+      this.first = first;
+      this.last = last;
+    }
+
+    /**
+     * @param header
+     * @param length of the file
+     * @return the range, possibly unsatisfiable, or null if the whole file should be sent
+     */
+    static ByteRange parse(String header, long length) {
+      if (header == null || !header.startsWith("bytes=") || header.contains(",")) {
+        return null;
+      }
+      String spec = header.substring("bytes=".length()).trim();
+      int dash = spec.indexOf('-');
+      if (dash < 0) {
+        return null;
+      }
+      try {
+        if (dash == 0) {
+          // Suffix range, the last n bytes
+          long suffix = Long.parseLong(spec.substring(1));
+          if (suffix <= 0) {
+            return new ByteRange(length, length - 1);
+          }
+          return new ByteRange(Math.max(0, length - suffix), length - 1);
+        }
+        long first = Long.parseLong(spec.substring(0, dash));
+        // Open ended range, up to the end of the file
+        long last = dash == spec.length() - 1 ? Long.MAX_VALUE : Long.parseLong(spec.substring(dash + 1));
+        if (last < first) {
+          return null;
+        }
+        if (first >= length) {
+          // Starts after the end of the file
+          return new ByteRange(length, length - 1);
+        }
+        return new ByteRange(first, Math.min(last, length - 1));
+      } catch (NumberFormatException e) {
+        return null;
+      }
+    }
+
+    boolean isSatisfiable() {
+      return first >= 0 && first <= last;
+    }
+
+    long size() {
+      return last - first + 1;
+    }
+  }
 }
@@ -47,8 +47,10 @@ import io.hops.hopsworks.common.dataset.DatasetController;
 import io.hops.hopsworks.common.dataset.util.DatasetHelper;
 import io.hops.hopsworks.common.dataset.util.DatasetPath;
 import io.hops.hopsworks.common.hdfs.HdfsUsersController;
+import io.hops.hopsworks.common.upload.AssemblyState;
 import io.hops.hopsworks.common.upload.FlowInfo;
 import io.hops.hopsworks.common.upload.UploadController;
+import io.hops.hopsworks.common.upload.UploadUtils;
 import io.hops.hopsworks.exceptions.DatasetException;
 import io.hops.hopsworks.exceptions.ProjectException;
 import io.hops.hopsworks.jwt.annotation.JWTRequired;
@@ -67,8 +69,10 @@ import javax.ejb.TransactionAttributeType;
 import javax.enterprise.context.RequestScoped;
 import javax.servlet.http.HttpServletRequest;
 import javax.ws.rs.Consumes;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
+import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
@@ -221,6 +225,7 @@ public class UploadService {
       @FormDataParam("flowRelativePath") String flowRelativePath,
       @FormDataParam("flowTotalChunks") String flowTotalChunks,
       @FormDataParam("flowTotalSize") String flowTotalSize,
+      @QueryParam("async") @DefaultValue("false") Boolean async,
       @Context HttpServletRequest req,
       @Context SecurityContext sc) throws DatasetException, ProjectException, AccessControlException {
     configureUploader(sc);
@@ -228,8 +233,12 @@ public class UploadService {
     FlowInfo flowInfo = new FlowInfo(flowChunkNumber, flowChunkSize, flowCurrentChunkSize, flowFilename, flowIdentifier,
       flowRelativePath, flowTotalChunks, flowTotalSize);
     validate(flowInfo);
-    boolean finished = uploadController.upload(uploadedInputStream, flowInfo, this.path, this.username);
+    boolean finished = uploadController.upload(uploadedInputStream, flowInfo, this.path, this.username, async);
 
+    if (finished && async) {
+      json.setSuccessMessage("Assembling file in " + this.path);
+      return Response.status(Response.Status.ACCEPTED).entity(json).build();
+    }
     if (finished) {
       json.setSuccessMessage("Successfuly uploaded file to " + this.path);
       return Response.status(Response.Status.OK).entity(json).build();
@@ -237,4 +246,35 @@ public class UploadService {
     json.setSuccessMessage("Uploading...");
     return Response.status(Response.Status.OK).entity(json).build();
   }
+
+  @GET
+  @Path("status")
+  @Produces(MediaType.APPLICATION_JSON)
+  @AllowedProjectRoles({AllowedProjectRoles.DATA_SCIENTIST, AllowedProjectRoles.DATA_OWNER})
+  @JWTRequired(acceptedTokens = {Audience.API, Audience.JOB},
+    allowedUserRoles = {"HOPS_ADMIN", "HOPS_USER", "HOPS_SERVICE_USER"})
+  @ApiKeyRequired(acceptedScopes = {ApiScope.DATASET_CREATE},
+    allowedUserRoles = {"HOPS_ADMIN", "HOPS_USER", "HOPS_SERVICE_USER"})
+  public Response assemblyStatus(@QueryParam("flowFilename") String flowFilename,
+      @QueryParam("flowIdentifier") String flowIdentifier,
+      @Context SecurityContext sc) throws DatasetException, ProjectException {
+    configureUploader(sc);
+    RESTApiJsonResponse json = new RESTApiJsonResponse();
+    if (UploadUtils.isEmpty(flowFilename) || UploadUtils.isEmpty(flowIdentifier)) {
+      throw new DatasetException(RESTCodes.DatasetErrorCode.UPLOAD_RESUMABLEINFO_INVALID, Level.FINE, "Missing " +
+        "arguments for upload status.");
+    }
+    FlowInfo flowInfo = new FlowInfo(null, null, null, flowFilename, flowIdentifier, null, null, null);
+    AssemblyState state = uploadController.getAssemblyState(flowInfo, this.path);
+    if (state == null) {
+      json.setErrorMsg("No assembly found for " + flowFilename);
+      return Response.status(Response.Status.NOT_FOUND).entity(json).build();
+    }
+    if (state == AssemblyState.FAILED) {
+      json.setErrorMsg(state.name());
+    } else {
+      json.setSuccessMessage(state.name());
+    }
+    return Response.status(Response.Status.OK).entity(json).build();
+  }
 }
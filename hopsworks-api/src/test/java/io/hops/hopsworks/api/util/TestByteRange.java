@@ -0,0 +1,64 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2023, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.api.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestByteRange {
+
+  @Test
+  public void testOpenEndedRange() {
+    DownloadService.ByteRange range = DownloadService.ByteRange.parse("bytes=10-", 100);
+    Assert.assertNotNull(range);
+    Assert.assertTrue(range.isSatisfiable());
+    Assert.assertEquals(90, range.size());
+  }
+
+  @Test
+  public void testRangeEndingAfterTheFile() {
+    DownloadService.ByteRange range = DownloadService.ByteRange.parse("bytes=90-200", 100);
+    Assert.assertNotNull(range);
+    Assert.assertTrue(range.isSatisfiable());
+    Assert.assertEquals(10, range.size());
+  }
+
+  @Test
+  public void testOpenEndedRangeStartingAfterTheFileIsUnsatisfiable() {
+    DownloadService.ByteRange range = DownloadService.ByteRange.parse("bytes=100-", 100);
+    Assert.assertNotNull(range);
+    Assert.assertFalse(range.isSatisfiable());
+
+    range = DownloadService.ByteRange.parse("bytes=150-", 100);
+    Assert.assertNotNull(range);
+    Assert.assertFalse(range.isSatisfiable());
+  }
+
+  @Test
+  public void testRangeStartingAfterTheFileIsUnsatisfiable() {
+    DownloadService.ByteRange range = DownloadService.ByteRange.parse("bytes=150-160", 100);
+    Assert.assertNotNull(range);
+    Assert.assertFalse(range.isSatisfiable());
+  }
+
+  @Test
+  public void testInvalidRangeIsIgnored() {
+    Assert.assertNull(DownloadService.ByteRange.parse("bytes=20-10", 100));
+    Assert.assertNull(DownloadService.ByteRange.parse("bytes=0-1,5-6", 100));
+    Assert.assertNull(DownloadService.ByteRange.parse("bytes=a-", 100));
+  }
+}
@@ -138,9 +138,7 @@ public class HostCertsResource {
         throw new CertificateNotFoundException("Could not find a VALID certificate with ID: " + certId + " Is " +
             "exact X509 Name: " + exact);
       }
-      for (X500Name n : subjectsToRevoke) {
-        pki.revokeCertificate(n, HOST);
-      }
+      pki.revokeCertificates(subjectsToRevoke, HOST);
       return Response.ok().build();
     } catch (InvalidNameException | GeneralSecurityException | CAInitializationException ex) {
       throw pkiUtils.certificateRevocationExceptionConvertToCAException(ex, HOST);
@@ -160,9 +158,11 @@ public class HostCertsResource {
     }
     List<String> subjectsToRevoke = pkiUtils.findAllHostCertificateSubjectsForHost(hostname);
     try {
+      List<X500Name> namesToRevoke = new ArrayList<>(subjectsToRevoke.size());
       for (String subject : subjectsToRevoke) {
-        pki.revokeCertificate(new X500Name(subject), HOST);
+        namesToRevoke.add(new X500Name(subject));
       }
+      pki.revokeCertificates(namesToRevoke, HOST);
       return Response.ok().build();
     } catch (GeneralSecurityException | CAInitializationException ex) {
       throw pkiUtils.certificateRevocationExceptionConvertToCAException(ex, HOST);
@@ -41,6 +41,9 @@ package io.hops.hopsworks.ca.controllers;
 import com.google.common.annotations.VisibleForTesting;
 import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.cp.lock.FencedLock;
+import com.hazelcast.topic.ITopic;
+import com.hazelcast.topic.Message;
+import com.hazelcast.topic.MessageListener;
 import io.hops.hadoop.shaded.com.google.gson.Gson;
 import io.hops.hopsworks.ca.configuration.CAConf;
 import io.hops.hopsworks.ca.configuration.CAConfiguration;
@@ -104,6 +107,7 @@ import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
 import org.bouncycastle.pkcs.PKCS10CertificationRequest;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.ejb.DependsOn;
 import javax.ejb.EJB;
 import javax.ejb.Singleton;
@@ -135,6 +139,7 @@ import java.security.cert.CRLException;
 import java.security.cert.CertificateEncodingException;
 import java.security.cert.CertificateException;
 import java.security.cert.X509CRL;
+import java.security.cert.X509CRLEntry;
 import java.security.cert.X509Certificate;
 import java.security.spec.InvalidKeySpecException;
 import java.security.spec.PKCS8EncodedKeySpec;
@@ -146,16 +151,21 @@ import java.time.temporal.ChronoUnit;
 import java.time.temporal.TemporalAmount;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -201,6 +211,21 @@ public class PKI {
   private CAsConfiguration conf;
   private static final Map<CAType, X500Name> CA_SUBJECT_NAME = new HashMap<>(3);
   private static final String CA_INIT_LOCK = "caInitLock";
+  private static final String CRL_UPDATED_TOPIC_NAME = "ca_crl_updated";
+
+  // CRLs served to the clients, evicted on all the nodes of the cluster whenever a CRL is written
+  private final Map<CAType, String> crlPEMs = new ConcurrentHashMap<>(3);
+  // Incremented on every eviction so that a CRL read before the eviction is not cached after it
+  private final AtomicLong crlGeneration = new AtomicLong();
+  private final Map<CAType, Integer> crlEntries = new ConcurrentHashMap<>(3);
+  private final Map<CAType, Integer> crlEncodedBytes = new ConcurrentHashMap<>(3);
+  private final AtomicLong crlSignings = new AtomicLong();
+  private final AtomicLong crlSigningNanos = new AtomicLong();
+  private final AtomicLong lastCrlSigningNanos = new AtomicLong();
+  private final AtomicLong crlRevocations = new AtomicLong();
+  private Provider bcProvider;
+  private ITopic<String> crlUpdatedTopic;
+  private UUID msgListenerId;
 
   static {
     X500NameBuilder rootNameBuilder = new X500NameBuilder(BCStrictStyle.INSTANCE);
@@ -233,6 +258,7 @@ public class PKI {
     try {
       Security.addProvider(new BouncyCastleProvider());
       Provider[] providers = Security.getProviders();
+      bcProvider = new BouncyCastleProvider();
 
       keyPairGenerator = KeyPairGenerator
           .getInstance("RSA", new BouncyCastleProvider());
@@ -246,6 +272,19 @@ public class PKI {
     } catch (GeneralSecurityException ex) {
       throw new RuntimeException("Failed to initialize PKI", ex);
     }
+    // hazelcastInstance == null if Hazelcast is Disabled
+    if (hazelcastInstance != null) {
+      crlUpdatedTopic = hazelcastInstance.getTopic(CRL_UPDATED_TOPIC_NAME);
+      msgListenerId = crlUpdatedTopic.addMessageListener(new MessageListenerImpl());
+    }
+  }
+
+  @PreDestroy
+  public void destroy() {
+    if (crlUpdatedTopic != null) {
+      //needed for redeploy to remove the listener
+      crlUpdatedTopic.removeMessageListener(msgListenerId);
+    }
   }
   
   private FencedLock getLock() {
@@ -330,8 +369,20 @@ public class PKI {
       LOGGER.log(Level.SEVERE, "Failed to initialize CA", ex);
       throw new CAInitializationException(ex);
     }
+    String pem = crlPEMs.get(type);
+    if (pem != null) {
+      return pem;
+    }
+    long loadedGeneration = crlGeneration.get();
     X509CRL crl = loadCRL(type);
-    return pkiUtils.convertToPEM(crl);
+    pem = pkiUtils.convertToPEM(crl);
+    recordCRLSize(type, crl);
+    crlPEMs.put(type, pem);
+    if (crlGeneration.get() != loadedGeneration) {
+      // Updated while reading from the database, what was read might be stale
+      crlPEMs.remove(type);
+    }
+    return pem;
   }
 
   protected void initializeCertificateAuthorities() throws GeneralSecurityException, IOException,
@@ -482,11 +533,36 @@ public class PKI {
   protected void initCRL(CAType type, X509CRL crl) throws CRLException {
     PKICrl pkiCrl = new PKICrl(type, crl.getEncoded());
     crlFacade.init(pkiCrl);
+    invalidateCRL(type);
   }
 
   protected void updateCRL(CAType type, X509CRL crl) throws CRLException {
     PKICrl pkiCrl = new PKICrl(type, crl.getEncoded());
     crlFacade.update(pkiCrl);
+    recordCRLSize(type, crl);
+    invalidateCRL(type);
+  }
+
+  /**
+   * Evict the cached CRL on this and the other nodes of the cluster
+   */
+  private void invalidateCRL(CAType type) {
+    evictCRL(type);
+    //Notify other nodes if crlUpdatedTopic is created == Hazelcast is enabled
+    if (crlUpdatedTopic != null) {
+      crlUpdatedTopic.publish(type.name());
+    }
+  }
+
+  private void evictCRL(CAType type) {
+    crlGeneration.incrementAndGet();
+    crlPEMs.remove(type);
+  }
+
+  private void recordCRLSize(CAType type, X509CRL crl) throws CRLException {
+    Set<? extends X509CRLEntry> revoked = crl.getRevokedCertificates();
+    crlEntries.put(type, revoked == null ? 0 : revoked.size());
+    crlEncodedBytes.put(type, crl.getEncoded().length);
   }
 
   protected void saveNewCertificate(CAType caType, X509Certificate certificate) throws CertificateEncodingException {
@@ -1221,22 +1297,8 @@ public class PKI {
     if (!certificateType.equals(CertificateType.APP)) {
       LOGGER.log(Level.INFO, "Revoking certificate with Subject " + certificateName);
     }
-    Optional<PKICertificate> maybeCert = pkiCertificateFacade.findById(
-        new PKICertificateId(PKICertificate.Status.VALID, certificateName.toString()));
-
-    if (!maybeCert.isPresent()) {
-      throw new CertificateNotFoundException("Could not find certificate with Name " + certificateName.toString()
-          + " to revoke");
-    }
-    PKICertificate pkiCert = maybeCert.get();
-    LOGGER.log(Level.FINE, "Deleted certificate " + certificateName + " from database");
-    byte[] encoded = pkiCert.getCertificate();
-    X509Certificate certificate;
-    try {
-      certificate = converter.getCertificate(parseToX509CertificateHolder(encoded));
-    } catch (IOException ex) {
-      throw new CertificateException("Failed to decode certificate from CA database", ex);
-    }
+    PKICertificate pkiCert = findCertificateToRevoke(certificateName);
+    X509Certificate certificate = decodeCertificateToRevoke(pkiCert);
 
     if (!shouldCertificateTypeSkipCRL(certificateType)) {
       CAType caType = pkiUtils.getResponsibleCA(certificateType);
@@ -1258,6 +1320,66 @@ public class PKI {
     }
   }
 
+  /**
+   * Revoke all the certificates and re-sign the CRL of the responsible CA once for all of them, instead of once per
+   * certificate as revokeCertificate would. The certificates are marked as revoked in a single transaction before
+   * the CRL is updated, so either all of them are revoked or none. If the CRL cannot be updated afterwards the
+   * certificates stay revoked in the database but are missing from the CRL.
+   *
+   * @param names names of the certificates, duplicates are revoked once
+   * @param certificateType
+   */
+  public void revokeCertificates(List<X500Name> names, CertificateType certificateType)
+      throws CAInitializationException, CertificateException, KeyException, CRLException {
+    List<X500Name> certificateNames = new ArrayList<>(new LinkedHashSet<>(names));
+    if (certificateNames.isEmpty()) {
+      return;
+    }
+    try {
+      maybeInitializeCA();
+    } catch (Exception ex) {
+      LOGGER.log(Level.SEVERE, "Failed to initialize CA", ex);
+      throw new CAInitializationException(ex);
+    }
+    LOGGER.log(Level.INFO, "Revoking " + certificateNames.size() + " certificates of type " + certificateType);
+    List<PKICertificate> pkiCerts = new ArrayList<>(certificateNames.size());
+    List<X509Certificate> certificates = new ArrayList<>(certificateNames.size());
+    for (X500Name certificateName : certificateNames) {
+      PKICertificate pkiCert = findCertificateToRevoke(certificateName);
+      pkiCerts.add(pkiCert);
+      certificates.add(decodeCertificateToRevoke(pkiCert));
+    }
+
+    pkiCertificateFacade.revokeCertificates(pkiCerts);
+
+    if (!shouldCertificateTypeSkipCRL(certificateType)) {
+      CAType caType = pkiUtils.getResponsibleCA(certificateType);
+      X509CRL newCRL = addRevocationsToCRL(caType, certificates);
+      updateCRL(caType, newCRL);
+      LOGGER.log(Level.FINE, "Updated CRL with " + certificates.size() + " revocations");
+    }
+    LOGGER.log(Level.INFO, "Revoked " + certificateNames.size() + " certificates of type " + certificateType);
+  }
+
+  private PKICertificate findCertificateToRevoke(X500Name certificateName) throws CertificateNotFoundException {
+    Optional<PKICertificate> maybeCert = pkiCertificateFacade.findById(
+        new PKICertificateId(PKICertificate.Status.VALID, certificateName.toString()));
+
+    if (!maybeCert.isPresent()) {
+      throw new CertificateNotFoundException("Could not find certificate with Name " + certificateName.toString()
+          + " to revoke");
+    }
+    return maybeCert.get();
+  }
+
+  private X509Certificate decodeCertificateToRevoke(PKICertificate pkiCert) throws CertificateException {
+    try {
+      return converter.getCertificate(parseToX509CertificateHolder(pkiCert.getCertificate()));
+    } catch (IOException ex) {
+      throw new CertificateException("Failed to decode certificate from CA database", ex);
+    }
+  }
+
   protected boolean shouldCertificateTypeSkipCRL(CertificateType certificateType) {
     return certificateType.equals(CertificateType.APP);
   }
@@ -1301,24 +1423,71 @@ public class PKI {
 
   protected X509CRL addRevocationToCRL(CAType caType, X509Certificate certificate)
       throws CRLException, KeyException {
+    return addRevocationsToCRL(caType, Collections.singletonList(certificate));
+  }
+
+  protected X509CRL addRevocationsToCRL(CAType caType, List<X509Certificate> certificates)
+      throws CRLException, KeyException {
     try {
       X509CRL crl = loadCRL(caType);
       KeyPair keyPair = getCAKeyPair(caType);
+      long start = System.nanoTime();
       X509v2CRLBuilder builder = new JcaX509v2CRLBuilder(crl);
       builder.setNextUpdate(Date.from(Instant.now().plus(1, ChronoUnit.DAYS)));
       ExtensionsGenerator extGen = new ExtensionsGenerator();
 
       extGen.addExtension(Extension.reasonCode, false, REVOCATION_REASON);
-      builder.addCRLEntry(certificate.getSerialNumber(), new Date(), extGen.generate());
+      Extensions extensions = extGen.generate();
+      Date revocationDate = new Date();
+      for (X509Certificate certificate : certificates) {
+        builder.addCRLEntry(certificate.getSerialNumber(), revocationDate, extensions);
+      }
 
       ContentSigner signer = new JcaContentSignerBuilder(SIGNATURE_ALGORITHM)
-          .setProvider(new BouncyCastleProvider()).build(keyPair.getPrivate());
-      return crlConverter.getCRL(builder.build(signer));
+          .setProvider(bcProvider).build(keyPair.getPrivate());
+      X509CRL newCRL = crlConverter.getCRL(builder.build(signer));
+      long signingNanos = System.nanoTime() - start;
+      crlSignings.incrementAndGet();
+      crlSigningNanos.addAndGet(signingNanos);
+      lastCrlSigningNanos.set(signingNanos);
+      crlRevocations.addAndGet(certificates.size());
+      return newCRL;
     } catch (OperatorCreationException | IOException ex) {
       throw new CRLException(ex);
     }
   }
 
+  /**
+   * @return number of certificates in the CRL of each CA, as last read or written on this node
+   */
+  public Map<CAType, Integer> getCRLEntries() {
+    return new HashMap<>(crlEntries);
+  }
+
+  /**
+   * @return size in bytes of the DER encoded CRL of each CA, as last read or written on this node
+   */
+  public Map<CAType, Integer> getCRLEncodedBytes() {
+    return new HashMap<>(crlEncodedBytes);
+  }
+
+  public long getCRLSignings() {
+    return crlSignings.get();
+  }
+
+  public long getCRLRevocations() {
+    return crlRevocations.get();
+  }
+
+  public long getLastCRLSigningMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(lastCrlSigningNanos.get());
+  }
+
+  public long getAverageCRLSigningMillis() {
+    long count = crlSignings.get();
+    return count > 0 ? TimeUnit.NANOSECONDS.toMillis(crlSigningNanos.get() / count) : 0;
+  }
+
   public X509Certificate loadCertificate(String name, PKICertificate.Status status)
       throws CertificateNotFoundException, CertificateException {
     Optional<PKICertificate> maybeCertificate = pkiCertificateFacade.findBySubjectAndStatus(name, status);
@@ -1456,4 +1625,19 @@ public class PKI {
   protected void setUsernamesConfiguration(UsernamesConfiguration usernamesConfiguration) {
     this.usernamesConfiguration = usernamesConfiguration;
   }
+
+  public class MessageListenerImpl implements MessageListener<String> {
+
+    @Override
+    public void onMessage(Message<String> message) {
+      if (!message.getPublishingMember().localMember()) {
+        LOGGER.log(Level.FINE, "CRL updated on another node {0}", message.getMessageObject());
+        try {
+          evictCRL(CAType.valueOf(message.getMessageObject()));
+        } catch (IllegalArgumentException e) {
+          LOGGER.log(Level.WARNING, "Malformed CRL update message " + message.getMessageObject(), e);
+        }
+      }
+    }
+  }
 }
@@ -70,4 +70,24 @@ public class PKICertificateFacade {
   public void deleteCertificate(PKICertificate certificate) {
     em.remove(em.merge(certificate));
   }
+
+  /**
+   * Replace the valid certificates with revoked ones, without their content, in a single transaction. Certificates
+   * that are no longer valid are skipped.
+   *
+   * @param certificates valid certificates
+   */
+  public void revokeCertificates(List<PKICertificate> certificates) {
+    for (PKICertificate certificate : certificates) {
+      PKICertificate valid = em.find(PKICertificate.class, certificate.getCertificateId());
+      if (valid == null) {
+        continue;
+      }
+      PKICertificateId revokedId = new PKICertificateId(PKICertificate.Status.REVOKED,
+          valid.getCertificateId().getSubject());
+      em.merge(new PKICertificate(revokedId, valid.getCa(), valid.getSerialNumber(), null, valid.getNotBefore(),
+          valid.getNotAfter()));
+      em.remove(valid);
+    }
+  }
 }
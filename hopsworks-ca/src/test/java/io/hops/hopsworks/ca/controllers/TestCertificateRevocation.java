@@ -30,6 +30,7 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mockito;
 
 import java.security.KeyPair;
@@ -40,6 +41,7 @@ import java.security.cert.X509Certificate;
 import java.sql.Date;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Arrays;
 import java.util.Optional;
 
 import static io.hops.hopsworks.ca.controllers.PKI.EMPTY_CONFIGURATION;
@@ -108,6 +110,28 @@ public class TestCertificateRevocation extends PKIMocking {
     Assert.assertEquals(CRLReason.PRIVILEGE_WITHDRAWN.toString(), crlEntry.getRevocationReason().toString());
   }
 
+  @Test
+  public void testAddRevocationsToCRL() throws Exception {
+    setupBasicPKI();
+    Mockito.doReturn(EMPTY_CONFIGURATION).when(pki).loadConfiguration();
+    pki.init();
+    pki.initializeCertificateAuthorities();
+    Mockito.doNothing().when(pki).maybeInitializeCA();
+    Mockito.verify(pki).initCRL(Mockito.eq(CAType.ROOT), crlCaptor.capture());
+    Mockito.doReturn(crlCaptor.getValue()).when(pki).loadCRL(Mockito.eq(CAType.ROOT));
+
+    X509Certificate intermediateCertificate = pki.getCaCertificates().get(CAType.INTERMEDIATE);
+    X509Certificate kubeCertificate = pki.getCaCertificates().get(CAType.KUBECA);
+    X509CRL updatedCRL = pki.addRevocationsToCRL(CAType.ROOT,
+        Arrays.asList(intermediateCertificate, kubeCertificate));
+
+    Assert.assertEquals(2, updatedCRL.getRevokedCertificates().size());
+    Assert.assertNotNull(updatedCRL.getRevokedCertificate(intermediateCertificate));
+    Assert.assertNotNull(updatedCRL.getRevokedCertificate(kubeCertificate));
+    Assert.assertEquals(1, pki.getCRLSignings());
+    Assert.assertEquals(2, pki.getCRLRevocations());
+  }
+
   @Test
   public void testRevokeCertificateDoesNotExist() throws Exception {
     setupBasicPKI();
@@ -183,6 +207,28 @@ public class TestCertificateRevocation extends PKIMocking {
     Mockito.verify(pki).updateRevokedCertificate(Mockito.any());
   }
 
+  @Test
+  public void testRevokeCertificatesBeforeCRL() throws Exception {
+    setupBasicPKI();
+    Mockito.doNothing().when(pki).maybeInitializeCA();
+    Mockito.when(pkiCertificateFacade.findById(Mockito.any())).thenReturn(Optional.of(new PKICertificate()));
+
+    JcaX509CertificateConverter mockConverter = Mockito.mock(JcaX509CertificateConverter.class);
+    Mockito.when(mockConverter.getCertificate(Mockito.any())).thenReturn(null);
+
+    pki.setConverter(mockConverter);
+    Mockito.doReturn(null).when(pki).parseToX509CertificateHolder(Mockito.any());
+    Mockito.doReturn(null).when(pki).addRevocationsToCRL(Mockito.any(), Mockito.any());
+    Mockito.doNothing().when(pki).updateCRL(Mockito.any(), Mockito.any());
+
+    pki.revokeCertificates(Arrays.asList(new X500Name("CN=hello"), new X500Name("CN=world"),
+        new X500Name("CN=hello")), CertificateType.HOST);
+    InOrder inOrder = Mockito.inOrder(pkiCertificateFacade, pki);
+    inOrder.verify(pkiCertificateFacade).revokeCertificates(Mockito.argThat(certificates -> certificates.size() == 2));
+    inOrder.verify(pki).updateCRL(Mockito.any(), Mockito.any());
+    Mockito.verify(pki, Mockito.never()).updateRevokedCertificate(Mockito.any());
+  }
+
   @Test
   public void testCertificateTypeSkipCRL() {
     PKI pki = new PKI();
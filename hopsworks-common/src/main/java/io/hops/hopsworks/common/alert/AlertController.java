@@ -72,6 +72,8 @@ public class AlertController {
   private AlertManagerConfiguration alertManagerConfiguration;
   @EJB
   private AlertReceiverFacade alertReceiverFacade;
+  @EJB
+  private AlertOutbox alertOutbox;
 
   /**
    * Send job alert
@@ -143,9 +145,15 @@ public class AlertController {
     }
   }
 
+  /**
+   * Queue feature group alerts, they are sent to the Alertmanager in the background
+   * @param postableAlerts
+   * @param project
+   * @param name
+   */
   public void sendFgAlert(List<PostableAlert> postableAlerts, Project project, String name) {
     try {
-      sendAlert(postableAlerts, project);
+      alertOutbox.enqueue(postableAlerts, project);
     } catch (Exception e) {
       LOGGER.log(java.util.logging.Level.WARNING, "Failed to send alert. Featuregroup={0}. Exception: {1}",
           new Object[] {name, e.getMessage()});
@@ -154,7 +162,7 @@ public class AlertController {
 
   private void sendJobAlert(List<PostableAlert> postableAlerts, Project project, String name, Integer id) {
     try {
-      sendAlert(postableAlerts, project);
+      alertOutbox.enqueue(postableAlerts, project);
     } catch (Exception e) {
       LOGGER.log(Level.WARNING,
           "Failed to send alert. Job={0} executionId={1}. Exception: {2}", new Object[] {name, id, e.getMessage()});
@@ -0,0 +1,298 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2023, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.alert;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.hops.hopsworks.alert.AMClient;
+import io.hops.hopsworks.alert.exception.AlertManagerAccessControlException;
+import io.hops.hopsworks.alerting.api.alert.dto.PostableAlert;
+import io.hops.hopsworks.alerting.exceptions.AlertManagerResponseException;
+import io.hops.hopsworks.common.util.Settings;
+import io.hops.hopsworks.persistence.entity.project.Project;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.DependsOn;
+import javax.ejb.EJB;
+import javax.ejb.Schedule;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Job and feature group alerts waiting to be sent to the Alertmanager. Alerts with the same labels are sent once, with
+ * the annotations of the latest one, and are flushed in batches of alert_outbox_batch_size every few seconds so that
+ * the callers do not wait for the Alertmanager.
+ *
+ * Alerts that could not be delivered are written to a spool file in the domain directory and are read back on
+ * startup.
+ */
+@Startup
+@Singleton
+@DependsOn("Settings")
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+public class AlertOutbox {
+
+  private static final Logger LOGGER = Logger.getLogger(AlertOutbox.class.getName());
+  private static final String SPOOL_FILE_NAME = "alert_outbox.json";
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  @EJB
+  private Settings settings;
+  @EJB
+  private AMClient alertManager;
+
+  // Pending alerts by labels, in enqueue order
+  private final Map<Map<String, String>, QueuedAlert> pending = new LinkedHashMap<>();
+  private final AtomicBoolean flushing = new AtomicBoolean(false);
+  private final AtomicLong delivered = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+  private final AtomicLong totalLatencyMs = new AtomicLong();
+  private final AtomicLong lastLatencyMs = new AtomicLong();
+  private volatile boolean spooled = false;
+
+  @PostConstruct
+  public void init() {
+    File spool = getSpoolFile();
+    if (!spool.exists()) {
+      return;
+    }
+    try {
+      List<QueuedAlert> queuedAlerts = OBJECT_MAPPER.readValue(spool, new TypeReference<List<QueuedAlert>>() {});
+      synchronized (pending) {
+        for (QueuedAlert queuedAlert : queuedAlerts) {
+          pending.putIfAbsent(new HashMap<>(queuedAlert.getAlert().getLabels()), queuedAlert);
+        }
+      }
+      spooled = true;
+      LOGGER.log(Level.INFO, "Restored {0} undelivered alerts", queuedAlerts.size());
+    } catch (IOException | RuntimeException e) {
+      LOGGER.log(Level.WARNING, "Failed to restore undelivered alerts from " + spool, e);
+    }
+  }
+
+  @PreDestroy
+  public void destroy() {
+    spool();
+  }
+
+  /**
+   * Queue the alerts to be sent by the next flush.
+   *
+   * @param postableAlerts
+   * @param project project the alerts belong to
+   * @throws AlertManagerAccessControlException if the project is not allowed to create the alerts
+   */
+  public void enqueue(List<PostableAlert> postableAlerts, Project project) throws AlertManagerAccessControlException {
+    if (postableAlerts.isEmpty()) {
+      return;
+    }
+    alertManager.checkAlerts(postableAlerts, project);
+    long now = System.currentTimeMillis();
+    int maxSize = settings.getAlertOutboxMaxSize();
+    synchronized (pending) {
+      for (PostableAlert postableAlert : postableAlerts) {
+        Map<String, String> labels = new HashMap<>(postableAlert.getLabels());
+        QueuedAlert queued = pending.get(labels);
+        if (queued != null) {
+          // Same alert, keep the latest annotations but report the latency from the first one
+          pending.put(labels, new QueuedAlert(postableAlert, queued.getEnqueuedAt()));
+        } else if (pending.size() < maxSize) {
+          pending.put(labels, new QueuedAlert(postableAlert, now));
+        } else {
+          dropped.incrementAndGet();
+          LOGGER.log(Level.WARNING, "Alert outbox full, dropping alert {0}", postableAlert.getLabels());
+        }
+      }
+    }
+  }
+
+  @Schedule(second = "*/5", minute = "*", hour = "*", info = "Alert outbox flush", persistent = false)
+  public void flush() {
+    if (!flushing.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      int batchSize = settings.getAlertOutboxBatchSize();
+      List<QueuedAlert> batch;
+      while (!(batch = nextBatch(batchSize)).isEmpty()) {
+        if (!send(batch)) {
+          spool();
+          return;
+        }
+      }
+      if (spooled) {
+        spool();
+      }
+    } finally {
+      flushing.set(false);
+    }
+  }
+
+  private List<QueuedAlert> nextBatch(int batchSize) {
+    List<QueuedAlert> batch = new ArrayList<>(batchSize);
+    synchronized (pending) {
+      Iterator<QueuedAlert> iterator = pending.values().iterator();
+      while (iterator.hasNext() && batch.size() < batchSize) {
+        batch.add(iterator.next());
+      }
+    }
+    return batch;
+  }
+
+  /**
+   * @return false if the Alertmanager could not be reached and the batch should be retried
+   */
+  private boolean send(List<QueuedAlert> batch) {
+    List<PostableAlert> postableAlerts = new ArrayList<>(batch.size());
+    for (QueuedAlert queuedAlert : batch) {
+      postableAlerts.add(queuedAlert.getAlert());
+    }
+    try {
+      alertManager.postAlerts(postableAlerts);
+      long now = System.currentTimeMillis();
+      for (QueuedAlert queuedAlert : batch) {
+        long latency = now - queuedAlert.getEnqueuedAt();
+        totalLatencyMs.addAndGet(latency);
+        lastLatencyMs.set(latency);
+      }
+      delivered.addAndGet(batch.size());
+    } catch (AlertManagerResponseException e) {
+      // Rejected by the Alertmanager, sending it again will not help
+      dropped.addAndGet(batch.size());
+      LOGGER.log(Level.WARNING, "Alertmanager rejected {0} alerts. {1}", new Object[]{batch.size(), e.getMessage()});
+    } catch (Exception e) {
+      failed.incrementAndGet();
+      LOGGER.log(Level.FINE, "Failed to send alerts, will retry", e);
+      return false;
+    }
+    remove(batch);
+    return true;
+  }
+
+  private void remove(List<QueuedAlert> batch) {
+    synchronized (pending) {
+      for (QueuedAlert queuedAlert : batch) {
+        // Not removed if replaced by a newer alert with the same labels while sending
+        pending.remove(new HashMap<>(queuedAlert.getAlert().getLabels()), queuedAlert);
+      }
+    }
+  }
+
+  /**
+   * Write the pending alerts to the spool file, or remove it if there are none.
+   */
+  private void spool() {
+    List<QueuedAlert> queuedAlerts;
+    synchronized (pending) {
+      queuedAlerts = new ArrayList<>(pending.values());
+    }
+    File spool = getSpoolFile();
+    try {
+      if (queuedAlerts.isEmpty()) {
+        Files.deleteIfExists(spool.toPath());
+        spooled = false;
+        return;
+      }
+      File tmp = new File(spool.getParentFile(), SPOOL_FILE_NAME + ".tmp");
+      OBJECT_MAPPER.writeValue(tmp, queuedAlerts);
+      Files.move(tmp.toPath(), spool.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      spooled = true;
+    } catch (IOException | RuntimeException e) {
+      LOGGER.log(Level.WARNING, "Failed to write undelivered alerts to " + spool, e);
+    }
+  }
+
+  private File getSpoolFile() {
+    return new File(settings.getHopsworksDomainDir(), SPOOL_FILE_NAME);
+  }
+
+  public int getQueueSize() {
+    synchronized (pending) {
+      return pending.size();
+    }
+  }
+
+  public long getDelivered() {
+    return delivered.get();
+  }
+
+  public long getDropped() {
+    return dropped.get();
+  }
+
+  public long getFailed() {
+    return failed.get();
+  }
+
+  public long getLastDeliveryLatencyMs() {
+    return lastLatencyMs.get();
+  }
+
+  public long getAverageDeliveryLatencyMs() {
+    long count = delivered.get();
+    return count > 0 ? totalLatencyMs.get() / count : 0;
+  }
+
+  public static class QueuedAlert {
+    private PostableAlert alert;
+    private long enqueuedAt;
+
+    public QueuedAlert() {
+    }
+
+    QueuedAlert(PostableAlert alert, long enqueuedAt) {
+      this.alert = alert;
+      this.enqueuedAt = enqueuedAt;
+    }
+
+    public PostableAlert getAlert() {
+      return alert;
+    }
+
+    public void setAlert(PostableAlert alert) {
+      this.alert = alert;
+    }
+
+    public long getEnqueuedAt() {
+      return enqueuedAt;
+    }
+
+    public void setEnqueuedAt(long enqueuedAt) {
+      this.enqueuedAt = enqueuedAt;
+    }
+  }
+}
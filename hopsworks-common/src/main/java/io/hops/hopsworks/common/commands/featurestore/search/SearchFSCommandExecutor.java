@@ -34,10 +34,15 @@ import io.hops.hopsworks.persistence.entity.commands.search.SearchFSCommandHisto
 import io.hops.hopsworks.persistence.entity.commands.search.SearchFSCommandOp;
 import io.hops.hopsworks.persistence.entity.project.Project;
 import io.hops.hopsworks.restutils.RESTCodes;
+import org.opensearch.action.DocWriteRequest;
+import org.opensearch.action.bulk.BulkItemResponse;
+import org.opensearch.action.bulk.BulkResponse;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.annotation.Resource;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
 import javax.ejb.DependsOn;
 import javax.ejb.EJB;
 import javax.ejb.Singleton;
@@ -50,18 +55,32 @@ import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
 import javax.enterprise.concurrent.ManagedExecutorService;
 import javax.naming.InitialContext;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
+/**
+ * Applies the search commands of the feature store to the OpenSearch index. Commands are split between the members of
+ * the cluster by project id, and create/update commands are written to OpenSearch in bulk.
+ * While the membership of the cluster is stable the commands of an artifact are applied one at a time, in order. When
+ * the shards are reassigned, the new owner of a shard resets the commands left ongoing in it, see resetStale, and a
+ * command still running on the previous owner can be applied again after a later command of the same artifact.
+ */
 @Startup
 @Singleton
 @DependsOn("Settings")
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
 @TransactionAttribute(TransactionAttributeType.NEVER)
 public class SearchFSCommandExecutor {
   private static final Logger LOGGER = Logger.getLogger(SearchFSCommandExecutor.class.getName());
@@ -84,6 +103,18 @@ public class SearchFSCommandExecutor {
   
   private ManagedExecutorService executorService;
   private Timer timer;
+  // Shard the stale commands were last reset for, null when this member had no shard
+  private PayaraClusterManager.Shard resetShard = null;
+  // Ids of the commands this member is applying
+  private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+  
+  private volatile long queueDepth = 0;
+  private volatile long indexingLag = 0;
+  private volatile Long oldestPendingId = null;
+  private volatile long oldestPendingSince = 0;
+  private final AtomicLong processed = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+  private final AtomicLong bulkRequests = new AtomicLong();
   
   @PostConstruct
   public void init() {
@@ -99,19 +130,7 @@ public class SearchFSCommandExecutor {
   private boolean initInt() {
     try {
       executorService = InitialContext.doLookup(EXECUTOR_SERVICE_NAME);
-      
-      List<SearchFSCommand> resetOngoingCommands = commandFacade.updateByQuery(queryByStatus(CommandStatus.ONGOING),
-        c -> c.failWith("Could not run search command due to internal server error. Please try again.")
-      );
-      resetOngoingCommands.forEach(this::saveHistory);
-      List<SearchFSCommand> resetCleanCommands = commandFacade.updateByQuery(queryByStatus(CommandStatus.CLEANING),
-        c -> c.failWith("Could not clean search command due to internal server error. Please try again.")
-      );
-      resetCleanCommands.forEach(this::saveHistory);
       return true;
-    } catch(CommandException e) {
-      LOGGER.log(Level.SEVERE, "Error resetting commands", e);
-      // Nothing else we can do here
     } catch (Exception e) {
       LOGGER.log(Level.SEVERE, "Error looking up for the condaExecutorService", e);
       // Nothing else we can do here
@@ -144,17 +163,61 @@ public class SearchFSCommandExecutor {
     schedule();
   }
   
+  private Optional<PayaraClusterManager.Shard> getShard() {
+    if (settings.commandSearchFSShardingEnabled()) {
+      return payaraClusterManager.getShard();
+    }
+    return payaraClusterManager.amIThePrimary() ? Optional.of(PayaraClusterManager.Shard.SINGLE) : Optional.empty();
+  }
+  
   private void processInt() throws CommandException {
-    if (!payaraClusterManager.amIThePrimary()) {
-      LOGGER.log(Level.INFO, "not primary");
+    Optional<PayaraClusterManager.Shard> shardOpt = getShard();
+    if (!shardOpt.isPresent()) {
+      LOGGER.log(Level.FINE, "no shard assigned");
+      resetShard = null;
       return;
     }
+    PayaraClusterManager.Shard shard = shardOpt.get();
+    if (!shard.equals(resetShard)) {
+      resetStale(shard);
+      resetShard = shard;
+    }
+    updateQueueStats(shard);
     
     //making sure we don't overload opensearch - have at most settings.getMaxOngoingOpensearchDocIndexOps() parallel ops
     int active = 0;
     int maxOngoing = settings.getMaxOngoingOpensearchDocIndexOps();
+    //one query for everything that is not waiting to be processed, split by state below
+    List<SearchFSCommand> updatingCommands = new ArrayList<>();
+    List<SearchFSCommand> cleaningCommands = new ArrayList<>();
+    List<SearchFSCommand> failedCommands = new ArrayList<>();
+    Map<Integer, SearchFSCommand> toDeleteProjects = new HashMap<>();
+    Map<Integer, SearchFSCommand> deletingProjects = new HashMap<>();
+    for (SearchFSCommand c : commandFacade.findActive(shard)) {
+      boolean deleteProject = SearchFSCommandOp.DELETE_PROJECT.equals(c.getOp());
+      switch (c.getStatus()) {
+        case ONGOING:
+          updatingCommands.add(c);
+          break;
+        case CLEANING:
+          cleaningCommands.add(c);
+          if (deleteProject) {
+            deletingProjects.putIfAbsent(c.getProject().getId(), c);
+          }
+          break;
+        case FAILED:
+          failedCommands.add(c);
+          break;
+        case NEW:
+          if (deleteProject) {
+            toDeleteProjects.putIfAbsent(c.getProject().getId(), c);
+          }
+          break;
+        default:
+          break;
+      }
+    }
     //do not do new operations on an artifact with an ongoing op
-    List<SearchFSCommand> updatingCommands = commandFacade.findByQuery(queryByStatus(CommandStatus.ONGOING));
     active += updatingCommands.size();
     if (active >= maxOngoing) {
       return;
@@ -163,7 +226,6 @@ public class SearchFSCommandExecutor {
     Map<Integer, Project> updatingProjects = updatingCommands.stream()
       .collect(Collectors.toMap(c -> c.getProject().getId(), Command::getProject, (p1, p2) -> p1));
     
-    List<SearchFSCommand> cleaningCommands = commandFacade.findByQuery(queryByStatus(CommandStatus.CLEANING));
     active += cleaningCommands.size();
     if (active >= maxOngoing) {
       return;
@@ -172,13 +234,6 @@ public class SearchFSCommandExecutor {
     updatingProjects.putAll(cleaningCommands.stream().collect(Collectors.toMap(c -> c.getProject().getId(),
       Command::getProject, (existingP, newP) -> existingP)));
     
-    Map<Integer, SearchFSCommand> toDeleteProjects = commandFacade.findByQuery(queryDeletedProjects(CommandStatus.NEW))
-      .stream().collect(Collectors.toMap(c -> c.getProject().getId(), c -> c, (existingC, newC) -> existingC));
-    Map<Integer, SearchFSCommand> deletingProjects
-      = commandFacade.findByQuery(queryDeletedProjects(CommandStatus.CLEANING))
-      .stream().collect(Collectors.toMap(c -> c.getProject().getId(), c -> c, (existingC, newC) -> existingC));
-    
-    List<SearchFSCommand> failedCommands = commandFacade.findByQuery(queryByStatus(CommandStatus.FAILED));
     Set<Long> failedDocs = failedCommands.stream().map(this::getDocId).collect(Collectors.toSet());
     
     //clean deleted projects that are not actively worked on
@@ -195,20 +250,22 @@ public class SearchFSCommandExecutor {
     //clean deleted artifacts
     //that are not actively worked on
     //and are in projects that are not deleted (toDelete or deleting)
-    Set<Long> deletingDocs = cleanDeletedArtifacts(excludeProjects, excludeDocs, maxOngoing - active);
+    Set<Long> deletingDocs = cleanDeletedArtifacts(excludeProjects, excludeDocs, maxOngoing - active, shard);
     active += deletingDocs.size();
     excludeDocs.addAll(deletingDocs);
     //clean deleted (cascade) artifacts
     //that are not actively worked on
     //and are in projects that are not deleted (toDelete or deleting)
-    Set<Long> deletingDocs2 = cleanDeleteCascadedArtifacts(excludeProjects, excludeDocs, maxOngoing - active);
+    Set<Long> deletingDocs2 = cleanDeleteCascadedArtifacts(excludeProjects, excludeDocs, maxOngoing - active, shard);
     active += deletingDocs2.size();
     excludeDocs.addAll(deletingDocs2);
     //new
     //also exclude failed artifacts
     excludeDocs.addAll(failedDocs);
-    Set<Long> processingDocs = processArtifacts(excludeProjects, excludeDocs, maxOngoing - active);
-    excludeDocs.addAll(processingDocs);
+    if (maxOngoing - active > 0) {
+      Set<Long> processingDocs = processArtifacts(excludeProjects, excludeDocs, maxOngoing - active, shard);
+      excludeDocs.addAll(processingDocs);
+    }
     for(SearchFSCommand c : failedCommands) {
       if(shouldRetry(c)) {
         //reset failed ops if retry allows
@@ -217,6 +274,72 @@ public class SearchFSCommandExecutor {
     }
   }
   
+  /**
+   * Fail the ongoing and cleaning commands of the shard that this member is not applying. They were left by a member
+   * that stopped, or that owned the shard before it was reassigned, and would otherwise stay ongoing and count against
+   * the maximum of ongoing operations. Runs on startup and whenever the shard of this member changes.
+   */
+  private void resetStale(PayaraClusterManager.Shard shard) {
+    for (SearchFSCommand c : commandFacade.findActive(shard)) {
+      if (inFlight.contains(c.getId())) {
+        continue;
+      }
+      if (c.getStatus() == CommandStatus.ONGOING) {
+        c.failWith("Could not run search command due to internal server error. Please try again.");
+      } else if (c.getStatus() == CommandStatus.CLEANING) {
+        c.failWith("Could not clean search command due to internal server error. Please try again.");
+      } else {
+        continue;
+      }
+      commandFacade.update(c);
+      saveHistory(c);
+    }
+  }
+  
+  private void updateQueueStats(PayaraClusterManager.Shard shard) {
+    Object[] stats = commandFacade.findPendingStats(shard);
+    queueDepth = stats[0] == null ? 0 : ((Number) stats[0]).longValue();
+    Long oldestId = stats[1] == null ? null : ((Number) stats[1]).longValue();
+    long now = System.currentTimeMillis();
+    //commands carry no timestamp, the lag is how long the oldest pending command has been waiting since seen
+    if (oldestId == null) {
+      oldestPendingId = null;
+      indexingLag = 0;
+    } else {
+      if (!oldestId.equals(oldestPendingId)) {
+        oldestPendingId = oldestId;
+        oldestPendingSince = now;
+      }
+      indexingLag = now - oldestPendingSince;
+    }
+  }
+  
+  /**
+   * @return number of commands of this member waiting to be processed
+   */
+  public long getQueueDepth() {
+    return queueDepth;
+  }
+  
+  /**
+   * @return ms the oldest command of this member waiting to be processed has been waiting for
+   */
+  public long getIndexingLag() {
+    return indexingLag;
+  }
+  
+  public long getProcessed() {
+    return processed.get();
+  }
+  
+  public long getFailed() {
+    return failed.get();
+  }
+  
+  public long getBulkRequests() {
+    return bulkRequests.get();
+  }
+  
   private Set<Project> unionProjects(Map<Integer, SearchFSCommand> p1, Map<Integer, SearchFSCommand> p2) {
     Set<Project> result = new HashSet<>();
     p1.values().forEach(c -> result.add(c.getProject()));
@@ -226,7 +349,7 @@ public class SearchFSCommandExecutor {
   
   private void cleanDeletedProject(SearchFSCommand command) {
     updateCommand(command, CommandStatus.CLEANING);
-    executorService.submit(() -> {
+    submit(Collections.singletonList(command), () -> {
       Try<Boolean> result = processFunction().apply(command);
       try {
         if(result.checkedGet()) {
@@ -243,11 +366,12 @@ public class SearchFSCommandExecutor {
     });
   }
   
-  private Set<Long> cleanDeletedArtifacts(Set<Project> excludeProjects, Set<Long> excludeDocs, int maxOngoing)
+  private Set<Long> cleanDeletedArtifacts(Set<Project> excludeProjects, Set<Long> excludeDocs, int maxOngoing,
+                                          PayaraClusterManager.Shard shard)
     throws CommandException {
     Set<Long> deleting = new HashSet<>();
     List<SearchFSCommand> toDelete = commandFacade
-      .findByQuery(queryByOp(SearchFSCommandOp.DELETE_ARTIFACT), excludeProjects, excludeDocs);
+      .findByQuery(queryByOp(SearchFSCommandOp.DELETE_ARTIFACT), excludeProjects, excludeDocs, shard);
     for(SearchFSCommand command : toDelete) {
       cleanDeletedArtifact(command);
       deleting.add(getDocId(command));
@@ -260,7 +384,7 @@ public class SearchFSCommandExecutor {
   
   private void cleanDeletedArtifact(SearchFSCommand command) {
     updateCommand(command, CommandStatus.CLEANING);
-    executorService.submit(() -> {
+    submit(Collections.singletonList(command), () -> {
       Try<Boolean> result = processFunction().apply(command);
       try {
         if(result.checkedGet()) {
@@ -276,9 +400,10 @@ public class SearchFSCommandExecutor {
     });
   }
   
-  private Set<Long> cleanDeleteCascadedArtifacts(Set<Project> excludeProjects, Set<Long> excludeDocs, int maxOngoing) {
+  private Set<Long> cleanDeleteCascadedArtifacts(Set<Project> excludeProjects, Set<Long> excludeDocs, int maxOngoing,
+                                                 PayaraClusterManager.Shard shard) {
     Set<Long> deleting = new HashSet<>();
-    List<SearchFSCommand> toDelete = commandFacade.findDeleteCascaded(excludeProjects, excludeDocs, maxOngoing);
+    List<SearchFSCommand> toDelete = commandFacade.findDeleteCascaded(excludeProjects, excludeDocs, maxOngoing, shard);
     for(SearchFSCommand command : toDelete) {
       cleanDeleteCascadedArtifact(command);
       deleting.add(getDocId(command));
@@ -298,48 +423,86 @@ public class SearchFSCommandExecutor {
     cleanDeletedArtifact(deleteArtifact);
   }
   
-  private Set<Long> processArtifacts(Set<Project> excludeProjects, Set<Long> excludeDocs, int maxOngoing) {
+  private Set<Long> processArtifacts(Set<Project> excludeProjects, Set<Long> excludeDocs, int maxOngoing,
+                                     PayaraClusterManager.Shard shard) {
     Set<Long> processing = new HashSet<>();
-    List<SearchFSCommand> toProcess = commandFacade.findToProcess(excludeProjects, excludeDocs, maxOngoing);
+    List<SearchFSCommand> toProcess = commandFacade.findToProcess(excludeProjects, excludeDocs, maxOngoing, shard);
+    int bulkSize = Math.max(1, settings.commandSearchFSBulkSize());
+    List<SearchFSCommand> bulk = new ArrayList<>(bulkSize);
     for(SearchFSCommand command : toProcess) {
-      processArtifact(command, processFunction());
+      updateCommand(command, CommandStatus.ONGOING);
+      bulk.add(command);
       processing.add(getDocId(command));
+      if (bulk.size() >= bulkSize) {
+        processArtifacts(bulk);
+        bulk = new ArrayList<>(bulkSize);
+      }
       if (processing.size() >= maxOngoing) {
         break;
       }
     }
+    if (!bulk.isEmpty()) {
+      processArtifacts(bulk);
+    }
     return processing;
   }
   
-  private void processArtifact(SearchFSCommand command, Function<SearchFSCommand, Try<Boolean>> execute) {
-    updateCommand(command, CommandStatus.ONGOING);
-    
-    executorService.submit(() -> {
-      Try<Boolean> result = execute.apply(command);
-      try {
-        if(result.checkedGet()) {
-          removeCommand(command, CommandStatus.SUCCESS);
+  private void processArtifacts(List<SearchFSCommand> commands) {
+    submit(commands, () -> {
+      List<SearchFSCommand> sent = new ArrayList<>(commands.size());
+      List<DocWriteRequest<?>> requests = new ArrayList<>(commands.size());
+      for (SearchFSCommand command : commands) {
+        try {
+          requests.add(searchController.writeRequest(command));
+          sent.add(command);
+        } catch (Throwable t) {
+          LOGGER.log(Level.INFO, "Command:{0} failed with error:{1}", new Object[]{command, t.getMessage()});
+          failCommand(command, t.getMessage());
         }
+      }
+      if (requests.isEmpty()) {
+        return;
+      }
+      BulkResponse response;
+      try {
+        bulkRequests.incrementAndGet();
+        response = searchController.bulk(requests);
       } catch (Throwable t) {
-        LOGGER.log(Level.INFO, "Command:{0} failed with error:{1}",
-          new Object[]{command, t.getStackTrace()});
-        failCommand(command, t.getMessage());
+        LOGGER.log(Level.INFO, "Bulk of {0} commands failed with error:{1}", new Object[]{sent.size(), t.getMessage()});
+        sent.forEach(c -> failCommand(c, t.getMessage()));
+        return;
+      }
+      //bulk items are in the order of the requests
+      BulkItemResponse[] items = response.getItems();
+      for (int i = 0; i < sent.size(); i++) {
+        SearchFSCommand command = sent.get(i);
+        try {
+          if (items[i].isFailed()) {
+            failCommand(command, items[i].getFailureMessage());
+          } else {
+            removeCommand(command, CommandStatus.SUCCESS);
+          }
+        } catch (Throwable t) {
+          LOGGER.log(Level.INFO, "Command:{0} failed with error:{1}", new Object[]{command, t.getMessage()});
+        }
       }
     });
   }
   
-  private QueryParam queryByStatus(CommandStatus status) {
-    Set<AbstractFacade.FilterBy> filters = new HashSet<>();
-    filters.add(new CommandFilterBy(CommandFacade.Filters.STATUS_EQ, status.toString()));
-    return new QueryParam(null, null, filters, null);
-  }
-  
-  private QueryParam queryDeletedProjects(CommandStatus status) {
-    Set<AbstractFacade.FilterBy> filters = new HashSet<>();
-    filters.add(new CommandFilterBy(
-      SearchFSCommandFacade.SearchFSFilters.OP_EQ, SearchFSCommandOp.DELETE_PROJECT.name()));
-    filters.add(new CommandFilterBy(CommandFacade.Filters.STATUS_EQ, status.toString()));
-    return new QueryParam(null, null, filters, null);
+  private void submit(List<SearchFSCommand> commands, Runnable task) {
+    commands.forEach(c -> inFlight.add(c.getId()));
+    try {
+      executorService.submit(() -> {
+        try {
+          task.run();
+        } finally {
+          commands.forEach(c -> inFlight.remove(c.getId()));
+        }
+      });
+    } catch (RuntimeException e) {
+      commands.forEach(c -> inFlight.remove(c.getId()));
+      throw e;
+    }
   }
   
   private QueryParam queryByProject(Project project, SearchFSCommandOp notOp) {
@@ -370,11 +533,13 @@ public class SearchFSCommandExecutor {
   
   private void removeCommand(SearchFSCommand command, CommandStatus status) {
     commandFacade.removeById(command.getId());
+    processed.incrementAndGet();
     command.setStatus(status);
     saveHistory(command);
   }
   
   private void failCommand(SearchFSCommand command, String msg) {
+    failed.incrementAndGet();
     command.failWith(msg);
     commandFacade.update(command);
     saveHistory(command);
@@ -418,6 +583,7 @@ public class SearchFSCommandExecutor {
   }
   
   private Try<Boolean> processCommand(SearchFSCommand c) {
+    //create and update commands are sent in bulk, see processArtifacts
     try {
       if(c.getOp().equals(SearchFSCommandOp.DELETE_PROJECT)) {
         searchController.deleteProject(c.getProject());
@@ -426,44 +592,15 @@ public class SearchFSCommandExecutor {
         searchController.delete(c.getInodeId());
         return Try.apply(() -> true);
       } else {
-        if (c.getProject() == null) {
-          LOGGER.log(Level.FINE, "project deleted - delaying command");
-          return Try.apply(() -> false);
-        }
-        if (c.getFeatureGroup() == null && c.getFeatureView() == null && c.getTrainingDataset() == null) {
-          LOGGER.log(Level.FINE, "artifact deleted - delaying command");
-          return Try.apply(() -> false);
-        }
-        switch(c.getOp()) {
-          case CREATE: {
-            searchController.create(c.getInodeId(), c);
-            return Try.apply(() -> true);
-          }
-          case UPDATE_TAGS: {
-            searchController.updateTags(c.getInodeId(), c);
-            return Try.apply(() -> true);
-          }
-          case UPDATE_KEYWORDS: {
-            searchController.updateKeywords(c.getInodeId(), c);
-            return Try.apply(() -> true);
-          }
-          case UPDATE_METADATA: {
-            searchController.updateMetadata(c.getInodeId(), c);
-            return Try.apply(() -> true);
-          }
-          default :
-            CommandException ex = new CommandException(RESTCodes.CommandErrorCode.NOT_IMPLEMENTED, Level.WARNING,
-              "unhandled command op:" + c.getOp());
-            return new Try.Failure<>(ex);
-        }
+        CommandException ex = new CommandException(RESTCodes.CommandErrorCode.NOT_IMPLEMENTED, Level.WARNING,
+          "unhandled command op:" + c.getOp());
+        return new Try.Failure<>(ex);
       }
     } catch (OpenSearchException e) {
       String errMsg = "command failed due to opensearch error";
       CommandException ex = new CommandException(RESTCodes.CommandErrorCode.OPENSEARCH_ACCESS_ERROR, Level.WARNING,
         errMsg, errMsg, e);
       return new Try.Failure<>(ex);
-    } catch (CommandException e) {
-      return new Try.Failure<>(e);
     }
   }
 }
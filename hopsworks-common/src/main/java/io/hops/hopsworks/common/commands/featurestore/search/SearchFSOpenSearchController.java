@@ -45,6 +45,9 @@ import io.hops.hopsworks.persistence.entity.featurestore.metadata.FeatureStoreTa
 import io.hops.hopsworks.persistence.entity.featurestore.trainingdataset.TrainingDatasetFeature;
 import io.hops.hopsworks.persistence.entity.project.Project;
 import io.hops.hopsworks.restutils.RESTCodes;
+import org.opensearch.action.DocWriteRequest;
+import org.opensearch.action.bulk.BulkRequest;
+import org.opensearch.action.bulk.BulkResponse;
 import org.opensearch.action.delete.DeleteRequest;
 import org.opensearch.action.index.IndexRequest;
 import org.opensearch.action.update.UpdateRequest;
@@ -98,30 +101,35 @@ public class SearchFSOpenSearchController {
     return opensearchClient.deleteDoc(request);
   }
   
-  public void create(Long docId, SearchFSCommand c) throws CommandException, OpenSearchException {
-    IndexRequest request = new IndexRequest().index(Settings.FEATURESTORE_INDEX).id(String.valueOf(docId));
-    request.source(docBuilder(create(c)));
-    opensearchClient.indexDoc(request);
-  }
-  
-  public void updateTags(Long docId, SearchFSCommand c) throws CommandException, OpenSearchException {
-    UpdateRequest request = new UpdateRequest().index(Settings.FEATURESTORE_INDEX).id(String.valueOf(docId));
-    request.doc(docBuilder(updateTags(c)));
-    opensearchClient.updateDoc(request);
-  }
-  
-  public void updateKeywords(Long docId, SearchFSCommand c) throws CommandException, OpenSearchException {
-    UpdateRequest request = new UpdateRequest().index(Settings.FEATURESTORE_INDEX)
-      .id(String.valueOf(docId));
-    request.doc(docBuilder(updateKeywords(c)));
-    opensearchClient.updateDoc(request);
+  /**
+   * @param c a create or update command on a live artifact
+   * @return the write request of the command, to be sent in a bulk with the requests of other commands
+   */
+  public DocWriteRequest<?> writeRequest(SearchFSCommand c) throws CommandException {
+    String docId = String.valueOf(c.getInodeId());
+    switch(c.getOp()) {
+      case CREATE:
+        return new IndexRequest().index(Settings.FEATURESTORE_INDEX).id(docId).source(docBuilder(create(c)));
+      case UPDATE_TAGS:
+        return new UpdateRequest().index(Settings.FEATURESTORE_INDEX).id(docId).doc(docBuilder(updateTags(c)));
+      case UPDATE_KEYWORDS:
+        return new UpdateRequest().index(Settings.FEATURESTORE_INDEX).id(docId).doc(docBuilder(updateKeywords(c)));
+      case UPDATE_METADATA:
+        return new UpdateRequest().index(Settings.FEATURESTORE_INDEX).id(docId).doc(docBuilder(updateMetadata(c)));
+      default:
+        throw new CommandException(RESTCodes.CommandErrorCode.NOT_IMPLEMENTED, Level.WARNING,
+          "unhandled command op:" + c.getOp());
+    }
   }
   
-  public void updateMetadata(Long docId, SearchFSCommand c) throws CommandException, OpenSearchException {
-    UpdateRequest request = new UpdateRequest().index(Settings.FEATURESTORE_INDEX)
-      .id(String.valueOf(docId));
-    request.doc(docBuilder(updateMetadata(c)));
-    opensearchClient.updateDoc(request);
+  /**
+   * @param requests
+   * @return the response holding the outcome of each request, in the order of the requests
+   */
+  public BulkResponse bulk(List<DocWriteRequest<?>> requests) throws OpenSearchException {
+    BulkRequest bulkRequest = new BulkRequest();
+    requests.forEach(bulkRequest::add);
+    return opensearchClient.bulkUpdateDoc(bulkRequest);
   }
   
   private SearchDoc updateMetadata(SearchFSCommand c) throws CommandException {
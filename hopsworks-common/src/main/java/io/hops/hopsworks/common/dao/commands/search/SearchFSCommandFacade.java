@@ -20,6 +20,7 @@ import io.hops.hopsworks.common.dao.AbstractFacade;
 import io.hops.hopsworks.common.dao.QueryParam;
 import io.hops.hopsworks.common.dao.commands.CommandFacade;
 import io.hops.hopsworks.common.dao.commands.CommandFilter;
+import io.hops.hopsworks.common.util.PayaraClusterManager;
 import io.hops.hopsworks.persistence.entity.commands.CommandStatus;
 import io.hops.hopsworks.persistence.entity.commands.search.SearchFSCommand;
 import io.hops.hopsworks.persistence.entity.commands.search.SearchFSCommandOp;
@@ -51,7 +52,8 @@ public class SearchFSCommandFacade extends CommandFacade<SearchFSCommand> {
     return SearchFSCommand.TABLE_NAME;
   }
   
-  public List<SearchFSCommand> findByQuery(QueryParam queryParam, Set<Project> excludeProjects, Set<Long> excludeDocs)
+  public List<SearchFSCommand> findByQuery(QueryParam queryParam, Set<Project> excludeProjects, Set<Long> excludeDocs,
+                                           PayaraClusterManager.Shard shard)
     throws CommandException {
     if(queryParam == null) {
       throw new CommandException(RESTCodes.CommandErrorCode.INVALID_SQL_QUERY, Level.INFO, "query param is null");
@@ -64,6 +66,7 @@ public class SearchFSCommandFacade extends CommandFacade<SearchFSCommand> {
     if(!excludeDocs.isEmpty()) {
       queryStr += " AND c." + DOC_ID_FIELD + " NOT IN :exclude_" + DOC_ID_FIELD;
     }
+    queryStr += shardFilter("c", shard);
     Query q = em.createQuery(queryStr, entityClass);
     setParams(q, queryParam.getFilters());
     if(queryParam.getLimit() != null) {
@@ -75,10 +78,42 @@ public class SearchFSCommandFacade extends CommandFacade<SearchFSCommand> {
     if(!excludeDocs.isEmpty()) {
       q.setParameter("exclude_" + DOC_ID_FIELD, excludeDocs);
     }
+    setShardParams(q, shard);
     return q.getResultList();
   }
   
-  public List<SearchFSCommand> findToProcess(Set<Project> excludeProjects, Set<Long> excludeDocs, int limit) {
+  /**
+   * Commands the executor has to know about before picking new work - ongoing, cleaning and failed commands, and
+   * project deletions in any state. Replaces one scan per status with a single query.
+   *
+   * @param shard
+   * @return
+   */
+  public List<SearchFSCommand> findActive(PayaraClusterManager.Shard shard) {
+    String queryStr = "SELECT c FROM " + getTableName() + " c WHERE (c." + STATUS_FIELD + " <> :status"
+      + " OR c." + OP_FIELD + " = :" + OP_FIELD + ")" + shardFilter("c", shard);
+    TypedQuery<SearchFSCommand> query = em.createQuery(queryStr, entityClass);
+    query.setParameter("status", CommandStatus.NEW);
+    query.setParameter(OP_FIELD, SearchFSCommandOp.DELETE_PROJECT);
+    setShardParams(query, shard);
+    return query.getResultList();
+  }
+  
+  /**
+   * @param shard
+   * @return the number of commands waiting to be processed and the id of the oldest of them, null if there are none
+   */
+  public Object[] findPendingStats(PayaraClusterManager.Shard shard) {
+    String queryStr = "SELECT COUNT(c.id), MIN(c.id) FROM " + getTableName() + " c WHERE c." + STATUS_FIELD
+      + " = :status" + shardFilter("c", shard);
+    Query query = em.createQuery(queryStr);
+    query.setParameter("status", CommandStatus.NEW);
+    setShardParams(query, shard);
+    return (Object[]) query.getSingleResult();
+  }
+  
+  public List<SearchFSCommand> findToProcess(Set<Project> excludeProjects, Set<Long> excludeDocs, int limit,
+                                             PayaraClusterManager.Shard shard) {
     UnaryOperator<String> filterFoLive = tableName -> {
       String filter = "(";
       filter += tableName + "." + FEATURE_GROUP_FIELD + " IS NOT NULL OR ";
@@ -87,10 +122,11 @@ public class SearchFSCommandFacade extends CommandFacade<SearchFSCommand> {
       filter += ")";
       return filter;
     };
-    return findToProcessInt(excludeProjects, excludeDocs, limit, filterFoLive);
+    return findToProcessInt(excludeProjects, excludeDocs, limit, filterFoLive, shard);
   }
   
-  public List<SearchFSCommand> findDeleteCascaded(Set<Project> excludeProjects, Set<Long> excludeDocs, int limit) {
+  public List<SearchFSCommand> findDeleteCascaded(Set<Project> excludeProjects, Set<Long> excludeDocs, int limit,
+                                                  PayaraClusterManager.Shard shard) {
     UnaryOperator<String> filterForDeleteCascaded = tableName -> {
       String filter = "(";
       filter += tableName + "." + FEATURE_GROUP_FIELD + " IS NULL AND ";
@@ -99,11 +135,12 @@ public class SearchFSCommandFacade extends CommandFacade<SearchFSCommand> {
       filter += ")";
       return filter;
     };
-    return findToProcessInt(excludeProjects, excludeDocs, limit, filterForDeleteCascaded);
+    return findToProcessInt(excludeProjects, excludeDocs, limit, filterForDeleteCascaded, shard);
   }
   
   private List<SearchFSCommand> findToProcessInt(Set<Project> excludeProjects, Set<Long> excludeDocs, int limit,
-                                                 UnaryOperator<String> queryAppendFilter) {
+                                                 UnaryOperator<String> queryAppendFilter,
+                                                 PayaraClusterManager.Shard shard) {
     String queryStr = "";
     queryStr += "SELECT jc FROM " + getTableName() + " jc WHERE jc.id IN (";
     //get oldest per artifact
@@ -117,6 +154,7 @@ public class SearchFSCommandFacade extends CommandFacade<SearchFSCommand> {
     if(!excludeDocs.isEmpty()) {
       queryStr += " AND c." + DOC_ID_FIELD + " NOT IN :exclude_" + DOC_ID_FIELD;
     }
+    queryStr += shardFilter("c", shard);
     //per artifact
     queryStr += " GROUP BY c." + DOC_ID_FIELD;
     queryStr += ")";
@@ -129,10 +167,26 @@ public class SearchFSCommandFacade extends CommandFacade<SearchFSCommand> {
     if (!excludeDocs.isEmpty()) {
       query.setParameter("exclude_" + DOC_ID_FIELD, excludeDocs);
     }
+    setShardParams(query, shard);
     query.setMaxResults(limit);
     return query.getResultList();
   }
   
+  //commands of a project are always handled by the same member, so ordering per artifact is kept
+  private String shardFilter(String tableName, PayaraClusterManager.Shard shard) {
+    if (shard.getCount() <= 1) {
+      return "";
+    }
+    return " AND MOD(" + tableName + "." + PROJECT_FIELD + ".id, :shard_count) = :shard_index";
+  }
+  
+  private void setShardParams(Query query, PayaraClusterManager.Shard shard) {
+    if (shard.getCount() > 1) {
+      query.setParameter("shard_count", shard.getCount());
+      query.setParameter("shard_index", shard.getIndex());
+    }
+  }
+  
   public enum SearchFSFilters implements CommandFilter {
     FG_IS_NULL(FEATURE_GROUP_FIELD, "c." + FEATURE_GROUP_FIELD + " IS NULL ", null),
     FG_NOT_NULL(FEATURE_GROUP_FIELD, "c." + FEATURE_GROUP_FIELD + " IS NOT NULL ", null),
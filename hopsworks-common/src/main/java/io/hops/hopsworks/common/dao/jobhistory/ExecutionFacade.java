@@ -398,6 +398,31 @@ public class ExecutionFacade extends AbstractFacade<Execution> {
     return exec;
   }
 
+  /**
+   * Update progress, state and final status of an execution in a single write. The execution is merged only if
+   * at least one of the values changed.
+   */
+  public Execution updateStatus(Execution exec, float progress, JobState newState, JobFinalStatus finalStatus) {
+    exec = getExecution(exec);
+    boolean dirty = false;
+    if (Float.compare(exec.getProgress(), progress) != 0) {
+      exec.setProgress(progress);
+      dirty = true;
+    }
+    if (exec.getState() != newState) {
+      exec.setState(newState);
+      dirty = true;
+    }
+    if (exec.getFinalStatus() != finalStatus) {
+      exec.setFinalStatus(finalStatus);
+      dirty = true;
+    }
+    if (dirty) {
+      merge(exec);
+    }
+    return exec;
+  }
+
   public Execution updateExecutionStart(Execution exec, long executionStart) {
     exec = getExecution(exec);
     exec.setExecutionStart(executionStart);
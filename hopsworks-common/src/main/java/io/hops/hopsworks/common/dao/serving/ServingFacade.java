@@ -16,12 +16,14 @@
 
 package io.hops.hopsworks.common.dao.serving;
 
+import io.hops.hopsworks.common.serving.inference.ServingCache;
 import io.hops.hopsworks.persistence.entity.project.Project;
 import io.hops.hopsworks.persistence.entity.serving.Serving;
 import io.hops.hopsworks.restutils.RESTCodes;
 import io.hops.hopsworks.exceptions.ServingException;
 
 import javax.annotation.PostConstruct;
+import javax.ejb.EJB;
 import javax.ejb.Stateless;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
@@ -44,6 +46,8 @@ public class ServingFacade {
 
   @PersistenceContext(unitName = "kthfsPU")
   private EntityManager em;
+  @EJB
+  private ServingCache servingCache;
 
   private String nodeIP = null;
 
@@ -279,7 +283,11 @@ public class ServingFacade {
         serving.setLockIP(null);
         serving.setLockTimestamp(null);
 
-        return em.merge(serving);
+        Serving released = em.merge(serving);
+        // The lock holder committed its changes to the serving in their own transactions, evict it from the
+        // inference path
+        servingCache.invalidate(id);
+        return released;
       } catch (LockTimeoutException e) {
         retries--;
       }
@@ -39,7 +39,6 @@
 
 package io.hops.hopsworks.common.dataset;
 
-import io.hops.common.Pair;
 import io.hops.hopsworks.common.constants.auth.AllowedRoles;
 import io.hops.hopsworks.common.dao.dataset.DatasetFacade;
 import io.hops.hopsworks.common.dao.dataset.DatasetRequestFacade;
@@ -87,7 +86,8 @@ import io.hops.hopsworks.persistence.entity.project.team.ProjectTeam;
 import io.hops.hopsworks.persistence.entity.user.Users;
 import io.hops.hopsworks.persistence.entity.user.activity.ActivityFlag;
 import io.hops.hopsworks.restutils.RESTCodes;
-import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.codec.binary.Base64OutputStream;
+import org.apache.commons.io.IOUtils;
 import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FSDataOutputStream;
 import org.apache.hadoop.fs.FileStatus;
@@ -100,13 +100,15 @@ import javax.ejb.EJB;
 import javax.ejb.Stateless;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
+import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Stack;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -149,6 +151,10 @@ public class DatasetController {
   @EJB
   private JupyterController jupyterController;
   @EJB
+  private FilePreviewCache filePreviewCache;
+  @EJB
+  private RecursivePermissionController recursivePermissionController;
+  @EJB
   private OnlineFeaturestoreController onlineFeaturestoreController;
   @EJB
   private HdfsCommandExecutionController hdfsCommandExecutionController;
@@ -300,41 +306,7 @@ public class DatasetController {
 
   public void recChangeOwnershipAndPermission(Path path, FsPermission permission, String username, String group,
     DistributedFileSystemOps dfso, DistributedFileSystemOps udfso) throws IOException {
-
-    /*
-     * TODO: Currently there is no change permission recursively operation
-     * available in HOPSFS client. So we build all the path of the tree and
-     * we call the set permission on each one
-     */
-    // Set permission/ownership for the root
-    if (username != null && group != null && dfso != null) {
-      dfso.setOwner(path, username, group);
-    }
-    udfso.setPermission(path, permission);
-    Inode rootInode = inodeController.getInodeAtPath(path.toString());
-
-    // Keep a list of directories to avoid using recursion
-    // Remember also the path to avoid going to the database for path resolution
-    Stack<Pair<Inode, Path>> dirs = new Stack<>();
-    if (rootInode.isDir()) {
-      dirs.push(new Pair<>(rootInode, path));
-    }
-
-    while (!dirs.isEmpty()) {
-      Pair<Inode, Path> dirInode = dirs.pop();
-      for (Inode child : inodeController.getChildren(dirInode.getL())) {
-        Path childPath = new Path(dirInode.getR(), child.getInodePK().getName());
-
-        if (username != null && group != null && dfso != null) {
-          dfso.setOwner(childPath, username, group);
-        }
-        udfso.setPermission(childPath, permission);
-
-        if (child.isDir()) {
-          dirs.push(new Pair<>(child, childPath));
-        }
-      }
-    }
+    recursivePermissionController.apply(path, permission, username, group, dfso, udfso);
   }
 
   /**
@@ -606,43 +578,48 @@ public class DatasetController {
       if (fileName.contains(".")) {
         fileExtension = fileName.substring(fileName.lastIndexOf(".")).replace(".", "").toUpperCase();
       }
-      long fileSize = udfso.getFileStatus(fullPath).getLen();
+      FileStatus fileStatus = udfso.getFileStatus(fullPath);
+      long fileSize = fileStatus.getLen();
       if (allowedImgExtension.contains(fileExtension)) {
         //If it is an image smaller than 10MB download it otherwise thrown an error
         if (fileSize < settings.getFilePreviewImageSize()) {
-          //Read the image in bytes and convert it to base64 so that is
-          //rendered properly in the front-end
-          byte[] imageInBytes = new byte[(int) fileSize];
-          is.readFully(imageInBytes);
-          String base64Image = new Base64().encodeAsString(imageInBytes);
-          filePreviewDTO = new FilePreviewDTO(Settings.FILE_PREVIEW_IMAGE_TYPE, fileExtension.toLowerCase(),
-            base64Image);
+          filePreviewDTO = filePreviewCache.get(fileStatus, mode);
+          if (filePreviewDTO == null) {
+            //Convert the image to base64 so that is rendered properly in the front-end
+            filePreviewDTO = new FilePreviewDTO(Settings.FILE_PREVIEW_IMAGE_TYPE, fileExtension.toLowerCase(),
+              readBase64(is, fileSize));
+            filePreviewCache.put(fileStatus, mode, filePreviewDTO);
+          }
         } else {
           throw new DatasetException(RESTCodes.DatasetErrorCode.IMAGE_SIZE_INVALID, Level.FINE);
         }
       } else if(fileExtension.equalsIgnoreCase("ipynb")) {
-        String html = jupyterController.convertIPythonNotebook(project, user, fullPath.toString(), "''",
-            JupyterController.NotebookConversion.HTML);
-        filePreviewDTO = new FilePreviewDTO(Settings.FILE_PREVIEW_HTML_TYPE, fileExtension.toLowerCase(),
-            html);
+        filePreviewDTO = filePreviewCache.get(fileStatus, mode);
+        if (filePreviewDTO == null) {
+          String html = jupyterController.convertIPythonNotebook(project, user, fullPath.toString(), "''",
+              JupyterController.NotebookConversion.HTML);
+          filePreviewDTO = new FilePreviewDTO(Settings.FILE_PREVIEW_HTML_TYPE, fileExtension.toLowerCase(),
+              html);
+          filePreviewCache.put(fileStatus, mode, filePreviewDTO);
+        }
       } else {
-        try (DataInputStream dis = new DataInputStream(is)) {
-          int sizeThreshold = Settings.FILE_PREVIEW_TXT_SIZE_BYTES; //in bytes
-          if (fileSize > sizeThreshold && !fileName.endsWith(Settings.README_FILE) &&
-            mode.equals(FilePreviewMode.TAIL)) {
-            dis.skipBytes((int) (fileSize - sizeThreshold));
-          } else if (fileName.endsWith(Settings.README_FILE) && fileSize > Settings.FILE_PREVIEW_TXT_SIZE_BYTES) {
-            throw new DatasetException(RESTCodes.DatasetErrorCode.FILE_PREVIEW_ERROR, Level.FINE,
-              "File must be smaller than " + Settings.FILE_PREVIEW_TXT_SIZE_BYTES / 1024 + " KB to be previewed");
-          } else if ((int) fileSize < sizeThreshold) {
-            sizeThreshold = (int) fileSize;
-          }
-          byte[] headContent = new byte[sizeThreshold];
-          dis.readFully(headContent, 0, sizeThreshold);
-          //File content
-          filePreviewDTO = new FilePreviewDTO(Settings.FILE_PREVIEW_TEXT_TYPE, fileExtension.toLowerCase(),
-            new String(headContent));
+        int sizeThreshold = Settings.FILE_PREVIEW_TXT_SIZE_BYTES; //in bytes
+        long position = 0;
+        if (fileSize > sizeThreshold && !fileName.endsWith(Settings.README_FILE) &&
+          mode.equals(FilePreviewMode.TAIL)) {
+          position = fileSize - sizeThreshold;
+        } else if (fileName.endsWith(Settings.README_FILE) && fileSize > Settings.FILE_PREVIEW_TXT_SIZE_BYTES) {
+          throw new DatasetException(RESTCodes.DatasetErrorCode.FILE_PREVIEW_ERROR, Level.FINE,
+            "File must be smaller than " + Settings.FILE_PREVIEW_TXT_SIZE_BYTES / 1024 + " KB to be previewed");
+        } else if ((int) fileSize < sizeThreshold) {
+          sizeThreshold = (int) fileSize;
         }
+        byte[] headContent = new byte[sizeThreshold];
+        //Positional read, the tail is read without going through the rest of the file
+        is.readFully(position, headContent);
+        //File content
+        filePreviewDTO = new FilePreviewDTO(Settings.FILE_PREVIEW_TEXT_TYPE, fileExtension.toLowerCase(),
+          new String(headContent));
       }
     } catch (IOException | ServiceException ex) {
       throw new DatasetException(RESTCodes.DatasetErrorCode.DATASET_OPERATION_ERROR, Level.SEVERE, "path: " +
@@ -660,6 +637,16 @@ public class DatasetController {
     return filePreviewDTO;
   }
 
+  //encode the stream as it is read, the raw bytes of the file are never held in memory. The encoded image is, as the
+  //preview returns it as a string, so the size of the image is still bounded by file_preview_image_size
+  private String readBase64(InputStream is, long fileSize) throws IOException {
+    ByteArrayOutputStream encoded = new ByteArrayOutputStream((int) (4 * ((fileSize + 2) / 3)));
+    try (Base64OutputStream base64 = new Base64OutputStream(encoded, true, 0, new byte[0])) {
+      IOUtils.copy(is, base64);
+    }
+    return encoded.toString(StandardCharsets.US_ASCII.name());
+  }
+
   /**
    * Checks if a path exists. Will require a read access to the path.
    * @param filePath
@@ -935,6 +922,18 @@ public class DatasetController {
 
   public void move(Project project, Users user, Path sourcePath, Path destPath, Dataset sourceDataset,
     Dataset destDataset) throws DatasetException, HopsSecurityException {
+    move(project, user, sourcePath, destPath, sourceDataset, destDataset, false);
+  }
+
+  /**
+   * Move a file or directory and give it the permission of its new parent.
+   *
+   * @param async if true the permission of the moved tree is changed in the background, the returned operation
+   * reports its progress
+   * @return the background operation or null if async is false
+   */
+  public PermissionOperation move(Project project, Users user, Path sourcePath, Path destPath,
+    Dataset sourceDataset, Dataset destDataset, boolean async) throws DatasetException, HopsSecurityException {
     String username = hdfsUsersController.getHdfsUserName(project, user);
     if (!getOwningProject(sourceDataset).equals(destDataset.getProject())) {
       throw new DatasetException(RESTCodes.DatasetErrorCode.DATASET_OPERATION_FORBIDDEN, Level.FINE,
@@ -952,8 +951,9 @@ public class DatasetController {
       //Find project of dataset as it might be shared
       Project owning = getOwningProject(sourceDataset);
       boolean isMember = projectTeamFacade.isUserMemberOfProject(owning, user);
-      if (isMember && projectTeamFacade.findCurrentRole(owning, user).equals(AllowedRoles.DATA_OWNER) &&
-        owning.equals(project)) {
+      boolean asSuperUser = isMember &&
+        projectTeamFacade.findCurrentRole(owning, user).equals(AllowedRoles.DATA_OWNER) && owning.equals(project);
+      if (asSuperUser) {
         udfso = dfs.getDfsOps();// do it as super user
       } else {
         udfso = dfs.getDfsOps(username);// do it as project user
@@ -972,7 +972,12 @@ public class DatasetController {
       udfso.moveWithinHdfs(sourcePath, destPath);
 
       // Change permissions recursively
+      if (async) {
+        return recursivePermissionController.submit(destPath, permission, owner, group,
+          asSuperUser ? null : username);
+      }
       recChangeOwnershipAndPermission(destPath, permission, owner, group, dfso, udfso);
+      return null;
     } catch (AccessControlException ex) {
       throw new HopsSecurityException(RESTCodes.SecurityErrorCode.HDFS_ACCESS_CONTROL, Level.FINE,
         "Operation: move, from: " + sourcePath.toString() + " to: " + destPath.toString());
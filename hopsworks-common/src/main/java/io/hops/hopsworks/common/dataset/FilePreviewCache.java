@@ -0,0 +1,108 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2023, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.dataset;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.hops.hopsworks.common.util.Settings;
+import org.apache.hadoop.fs.FileStatus;
+
+import javax.annotation.PostConstruct;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.DependsOn;
+import javax.ejb.EJB;
+import javax.ejb.Singleton;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendered previews of files, base64 images and notebooks converted to html. Entries are keyed by the path, the
+ * modification time and the length of the file so a modified file is rendered again. Callers must check that the user
+ * can read the file before using a cached preview.
+ */
+@Singleton
+@DependsOn("Settings")
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+public class FilePreviewCache {
+
+  private static final long EXPIRE_AFTER_ACCESS_MS = TimeUnit.HOURS.toMillis(1);
+
+  @EJB
+  private Settings settings;
+
+  private Cache<Key, FilePreviewDTO> previews;
+
+  @PostConstruct
+  public void init() {
+    previews = Caffeine.newBuilder()
+      .maximumWeight(settings.getFilePreviewCacheMaxWeight())
+      .weigher((Key key, FilePreviewDTO preview) -> preview.getContent() == null ? 1 : preview.getContent().length())
+      .expireAfterAccess(EXPIRE_AFTER_ACCESS_MS, TimeUnit.MILLISECONDS)
+      .build();
+  }
+
+  /**
+   * @param fileStatus
+   * @param mode
+   * @return a copy of the cached preview or null if the file was not previewed since it was last modified
+   */
+  public FilePreviewDTO get(FileStatus fileStatus, FilePreviewMode mode) {
+    FilePreviewDTO preview = previews.getIfPresent(new Key(fileStatus, mode));
+    return preview == null ? null : new FilePreviewDTO(preview.getType(), preview.getExtension(),
+      preview.getContent());
+  }
+
+  public void put(FileStatus fileStatus, FilePreviewMode mode, FilePreviewDTO preview) {
+    previews.put(new Key(fileStatus, mode), new FilePreviewDTO(preview.getType(), preview.getExtension(),
+      preview.getContent()));
+  }
+
+  private static class Key {
+    private final String path;
+    private final long modificationTime;
+    private final long length;
+    private final FilePreviewMode mode;
+
+    Key(FileStatus fileStatus, FilePreviewMode mode) {
+      this.path = fileStatus.getPath().toUri().getPath();
+      this.modificationTime = fileStatus.getModificationTime();
+      this.length = fileStatus.getLen();
+      this.mode = mode;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Key key = (Key) o;
+      return modificationTime == key.modificationTime && length == key.length && path.equals(key.path) &&
+        mode == key.mode;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(path, modificationTime, length, mode);
+    }
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2023, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.dataset;
+
+import org.apache.hadoop.fs.Path;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of a recursive permission and ownership change, see RecursivePermissionController.
+ */
+public class PermissionOperation {
+
+  public enum State {
+    RUNNING,
+    FINISHED,
+    FAILED
+  }
+
+  private final String id = UUID.randomUUID().toString();
+  private final Path path;
+  private final long startTime = System.currentTimeMillis();
+  private final AtomicLong processed = new AtomicLong();
+  private volatile State state = State.RUNNING;
+  private volatile String error;
+  private volatile long endTime;
+
+  PermissionOperation(Path path) {
+    this.path = path;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public Path getPath() {
+    return path;
+  }
+
+  public long getStartTime() {
+    return startTime;
+  }
+
+  /**
+   * @return number of inodes whose permission and ownership were changed so far
+   */
+  public long getProcessed() {
+    return processed.get();
+  }
+
+  public State getState() {
+    return state;
+  }
+
+  public String getError() {
+    return error;
+  }
+
+  public long getEndTime() {
+    return endTime;
+  }
+
+  void processed(long count) {
+    processed.addAndGet(count);
+  }
+
+  void finish() {
+    endTime = System.currentTimeMillis();
+    state = State.FINISHED;
+  }
+
+  void fail(Throwable e) {
+    error = e.getMessage();
+    endTime = System.currentTimeMillis();
+    state = State.FAILED;
+  }
+
+  @Override
+  public String toString() {
+    return "PermissionOperation{" +
+      "id='" + id + '\'' +
+      ", path=" + path +
+      ", processed=" + processed +
+      ", state=" + state +
+      '}';
+  }
+}
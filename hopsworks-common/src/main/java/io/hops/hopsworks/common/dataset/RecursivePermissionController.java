@@ -0,0 +1,337 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2023, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.dataset;
+
+import io.hops.common.Pair;
+import io.hops.hopsworks.common.dao.hdfs.inode.InodeFacade;
+import io.hops.hopsworks.common.hdfs.DistributedFileSystemOps;
+import io.hops.hopsworks.common.hdfs.DistributedFsService;
+import io.hops.hopsworks.common.hdfs.inode.InodeController;
+import io.hops.hopsworks.common.util.Settings;
+import io.hops.hopsworks.persistence.entity.hdfs.inode.Inode;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.permission.FsPermission;
+
+import javax.annotation.Resource;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.DependsOn;
+import javax.ejb.EJB;
+import javax.ejb.Schedule;
+import javax.ejb.Singleton;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.enterprise.concurrent.ManagedExecutorService;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Changes the permission, and optionally the ownership, of a tree. There is no recursive operation in the HopsFS
+ * client, so the tree is walked in the inode table, a page of children at a time, and the RPCs for the files are
+ * sent in batches by at most recursive_permission_max_workers threads of the managed executor.
+ */
+@Singleton
+@DependsOn("Settings")
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+public class RecursivePermissionController {
+
+  private static final Logger LOGGER = Logger.getLogger(RecursivePermissionController.class.getName());
+  private static final int PAGE_SIZE = 1000;
+  private static final int BATCH_SIZE = 500;
+  private static final long FINISHED_OPERATION_TTL_MS = TimeUnit.HOURS.toMillis(1);
+
+  @EJB
+  private InodeController inodeController;
+  @EJB
+  private InodeFacade inodeFacade;
+  @EJB
+  private DistributedFsService dfs;
+  @EJB
+  private Settings settings;
+  @Resource(lookup = "concurrent/hopsExecutorService")
+  private ManagedExecutorService executorService;
+
+  private final Map<String, PermissionOperation> operations = new ConcurrentHashMap<>();
+
+  /**
+   * Change the permission and ownership of the tree, returns when all the inodes were changed.
+   *
+   * @param path root of the tree
+   * @param permission
+   * @param owner new owner, null to keep the current one
+   * @param group new group, null to keep the current one
+   * @param dfso super user client used to change the owner, can be null if the owner is not changed
+   * @param udfso client used to change the permission
+   * @throws IOException the first error of the workers, the remaining inodes are not changed
+   */
+  public void apply(Path path, FsPermission permission, String owner, String group, DistributedFileSystemOps dfso,
+    DistributedFileSystemOps udfso) throws IOException {
+    try {
+      // The batches in flight use the clients, wait for them even if interrupted as the caller closes the clients
+      start(new PermissionOperation(path), permission, owner, group, dfso, udfso).join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException(e.getCause());
+    }
+  }
+
+  /**
+   * Change the permission and ownership of the tree in the background.
+   *
+   * @param path root of the tree
+   * @param permission
+   * @param owner new owner, null to keep the current one
+   * @param group new group, null to keep the current one
+   * @param username hdfs user changing the permission, null for the super user
+   * @return the operation, to follow its progress with getOperation
+   */
+  public PermissionOperation submit(Path path, FsPermission permission, String owner, String group,
+    String username) {
+    PermissionOperation operation = new PermissionOperation(path);
+    operations.put(operation.getId(), operation);
+    try {
+      executorService.submit(() -> {
+        DistributedFileSystemOps dfso = null;
+        DistributedFileSystemOps udfso = null;
+        try {
+          if (owner != null && group != null) {
+            dfso = dfs.getDfsOps();
+          }
+          udfso = username == null ? dfs.getDfsOps() : dfs.getDfsOps(username);
+        } catch (RuntimeException e) {
+          LOGGER.log(Level.WARNING, "Failed to change permission of " + path, e);
+          operation.fail(e);
+          dfs.closeDfsClient(udfso);
+          dfs.closeDfsClient(dfso);
+          return;
+        }
+        DistributedFileSystemOps superUserOps = dfso;
+        DistributedFileSystemOps userOps = udfso;
+        // Returns once the tree is walked, the clients are closed by the last batch
+        start(operation, permission, owner, group, dfso, udfso).whenComplete((result, e) -> {
+          if (e != null) {
+            LOGGER.log(Level.WARNING, "Failed to change permission of " + path, e);
+          }
+          dfs.closeDfsClient(userOps);
+          dfs.closeDfsClient(superUserOps);
+        });
+      });
+    } catch (RejectedExecutionException e) {
+      operation.fail(e);
+    }
+    return operation;
+  }
+
+  /**
+   * @param id
+   * @return the background operation or null if it does not exist or finished more than an hour ago
+   */
+  public PermissionOperation getOperation(String id) {
+    return operations.get(id);
+  }
+
+  public Collection<PermissionOperation> getOperations() {
+    return Collections.unmodifiableCollection(operations.values());
+  }
+
+  @Schedule(minute = "*/10", hour = "*", info = "Finished permission operations cleanup", persistent = false)
+  public void removeFinishedOperations() {
+    long finishedBefore = System.currentTimeMillis() - FINISHED_OPERATION_TTL_MS;
+    operations.values().removeIf(operation -> operation.getState() != PermissionOperation.State.RUNNING &&
+      operation.getEndTime() < finishedBefore);
+  }
+
+  /**
+   * Walk the tree in the calling thread and change the permission of the files in batches.
+   *
+   * @return completed, with the first error of the workers if any, once the batches in flight are done
+   */
+  private CompletableFuture<Void> start(PermissionOperation operation, FsPermission permission, String owner,
+    String group, DistributedFileSystemOps dfso, DistributedFileSystemOps udfso) {
+    CompletableFuture<Void> done;
+    try {
+      // Root first, as before the children are only reachable with the new permission of their parent
+      setOwnerAndPermission(operation.getPath(), permission, owner, group, dfso, udfso);
+      operation.processed(1);
+      Inode rootInode = inodeController.getInodeAtPath(operation.getPath().toString());
+      if (rootInode != null && rootInode.isDir()) {
+        done = new TreeWalk(operation, permission, owner, group, dfso, udfso).run(rootInode);
+      } else {
+        done = CompletableFuture.completedFuture(null);
+      }
+    } catch (IOException | RuntimeException e) {
+      done = new CompletableFuture<>();
+      done.completeExceptionally(e);
+    }
+    return done.whenComplete((result, e) -> {
+      if (e == null) {
+        operation.finish();
+        LOGGER.log(Level.FINE, "Changed permission of {0} inodes under {1} in {2} ms", new Object[]{
+          operation.getProcessed(), operation.getPath(), operation.getEndTime() - operation.getStartTime()});
+      } else {
+        operation.fail(e instanceof CompletionException ? e.getCause() : e);
+      }
+    });
+  }
+
+  private void setOwnerAndPermission(Path path, FsPermission permission, String owner, String group,
+    DistributedFileSystemOps dfso, DistributedFileSystemOps udfso) throws IOException {
+    if (owner != null && group != null && dfso != null) {
+      dfso.setOwner(path, owner, group);
+    }
+    udfso.setPermission(path, permission);
+  }
+
+  /**
+   * A single walk of a tree. The directories are changed by the walking thread before their children are listed, so
+   * a parent always has the new permission before its children. The files are changed in batches by at most
+   * recursive_permission_max_workers workers, when all of them are busy the walking thread changes the batch itself
+   * instead of waiting for a worker, so no thread of the managed executor is ever blocked.
+   */
+  private class TreeWalk {
+    private final PermissionOperation operation;
+    private final FsPermission permission;
+    private final String owner;
+    private final String group;
+    private final DistributedFileSystemOps dfso;
+    private final DistributedFileSystemOps udfso;
+    private final Semaphore workers = new Semaphore(Math.max(1, settings.getRecursivePermissionMaxWorkers()));
+    private final AtomicReference<IOException> failure = new AtomicReference<>();
+    // The walk itself and the batches in flight, the last one to finish completes the walk
+    private final AtomicInteger pending = new AtomicInteger(1);
+    private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+    TreeWalk(PermissionOperation operation, FsPermission permission, String owner, String group,
+      DistributedFileSystemOps dfso, DistributedFileSystemOps udfso) {
+      this.operation = operation;
+      this.permission = permission;
+      this.owner = owner;
+      this.group = group;
+      this.dfso = dfso;
+      this.udfso = udfso;
+    }
+
+    CompletableFuture<Void> run(Inode rootInode) {
+      // Remember the path to avoid going to the database for path resolution
+      Deque<Pair<Inode, Path>> dirs = new ArrayDeque<>();
+      dirs.push(new Pair<>(rootInode, operation.getPath()));
+      List<Path> batch = new ArrayList<>(BATCH_SIZE);
+      try {
+        while (!dirs.isEmpty() && failure.get() == null) {
+          Pair<Inode, Path> dir = dirs.pop();
+          String lastName = "";
+          List<Inode> children;
+          do {
+            children = inodeFacade.findByParent(dir.getL(), lastName, PAGE_SIZE);
+            for (Inode child : children) {
+              Path childPath = new Path(dir.getR(), child.getInodePK().getName());
+              if (child.isDir()) {
+                setOwnerAndPermission(childPath, permission, owner, group, dfso, udfso);
+                operation.processed(1);
+                dirs.push(new Pair<>(child, childPath));
+              } else {
+                batch.add(childPath);
+                if (batch.size() == BATCH_SIZE) {
+                  submitBatch(batch);
+                  batch = new ArrayList<>(BATCH_SIZE);
+                }
+              }
+            }
+            if (!children.isEmpty()) {
+              lastName = children.get(children.size() - 1).getInodePK().getName();
+            }
+          } while (children.size() == PAGE_SIZE && failure.get() == null);
+        }
+        if (!batch.isEmpty() && failure.get() == null) {
+          submitBatch(batch);
+        }
+      } catch (IOException e) {
+        failure.compareAndSet(null, e);
+      } catch (RuntimeException e) {
+        failure.compareAndSet(null, new IOException(e));
+      } finally {
+        release();
+      }
+      return done;
+    }
+
+    private void submitBatch(List<Path> batch) {
+      if (workers.tryAcquire()) {
+        pending.incrementAndGet();
+        try {
+          executorService.submit(() -> {
+            try {
+              process(batch);
+            } finally {
+              workers.release();
+              release();
+            }
+          });
+          return;
+        } catch (RejectedExecutionException e) {
+          workers.release();
+          pending.decrementAndGet();
+        }
+      }
+      process(batch);
+    }
+
+    private void process(List<Path> batch) {
+      try {
+        for (Path path : batch) {
+          if (failure.get() != null) {
+            return;
+          }
+          setOwnerAndPermission(path, permission, owner, group, dfso, udfso);
+          operation.processed(1);
+        }
+      } catch (IOException e) {
+        failure.compareAndSet(null, e);
+      } catch (RuntimeException e) {
+        failure.compareAndSet(null, new IOException(e));
+      }
+    }
+
+    private void release() {
+      if (pending.decrementAndGet() == 0) {
+        if (failure.get() == null) {
+          done.complete(null);
+        } else {
+          done.completeExceptionally(failure.get());
+        }
+      }
+    }
+  }
+}
@@ -37,6 +37,7 @@ import io.hops.hopsworks.common.featurestore.featuregroup.stream.StreamFeatureGr
 import io.hops.hopsworks.common.featurestore.featuregroup.stream.StreamFeatureGroupDTO;
 import io.hops.hopsworks.common.featurestore.online.OnlineFeaturestoreController;
 import io.hops.hopsworks.common.featurestore.statistics.StatisticsController;
+import io.hops.hopsworks.common.featurestore.query.FsQueryCache;
 import io.hops.hopsworks.common.featurestore.statistics.columns.StatisticColumnController;
 import io.hops.hopsworks.common.featurestore.storageconnectors.FeaturestoreStorageConnectorController;
 import io.hops.hopsworks.common.featurestore.storageconnectors.FeaturestoreStorageConnectorDTO;
@@ -133,6 +134,8 @@ public class FeaturegroupController {
   private FeatureGroupCommitController featureGroupCommitController;
   @EJB
   private SearchFSCommandLogger searchCommandLogger;
+  @EJB
+  private FsQueryCache fsQueryCache;
 
   /**
    * Gets all featuregroups for a particular featurestore and project, using the userCerts to query Hive
@@ -457,6 +460,8 @@ public class FeaturegroupController {
     }
 
     featuregroup = featuregroupFacade.updateFeaturegroupMetadata(featuregroup);
+    // appended features change the queries of the feature views and training datasets built on the feature group
+    fsQueryCache.invalidateFeatureGroup(featuregroup.getId());
     searchCommandLogger.updateMetadata(featuregroup);
     return convertFeaturegrouptoDTO(featuregroup, project, user);
   }
@@ -605,6 +610,7 @@ public class FeaturegroupController {
     featurestoreUtils.verifyUserProjectEqualsFsProjectAndDataOwner(user, project, featuregroup.getFeaturestore(),
         FeaturestoreUtils.ActionMessage.DELETE_FEATURE_GROUP);
     searchCommandLogger.delete(featuregroup);
+    fsQueryCache.invalidateFeatureGroup(featuregroup.getId());
     // In some cases, fg metadata was not deleted. https://hopsworks.atlassian.net/browse/FSTORE-377
     // This enables users to delete a corrupted fg using the hsfs client.
     if (featuregroup.getOnDemandFeaturegroup() == null
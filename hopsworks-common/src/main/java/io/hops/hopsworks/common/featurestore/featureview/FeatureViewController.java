@@ -26,6 +26,7 @@ import io.hops.hopsworks.common.featurestore.activity.FeaturestoreActivityFacade
 import io.hops.hopsworks.common.featurestore.app.FsJobManagerController;
 import io.hops.hopsworks.common.featurestore.feature.FeatureGroupFeatureDTO;
 import io.hops.hopsworks.common.featurestore.featuregroup.FeaturegroupController;
+import io.hops.hopsworks.common.featurestore.query.FsQueryCache;
 import io.hops.hopsworks.common.featurestore.storageconnectors.FeaturestoreConnectorFacade;
 import io.hops.hopsworks.common.featurestore.trainingdatasets.TrainingDatasetController;
 import io.hops.hopsworks.common.featurestore.trainingdatasets.TrainingDatasetFacade;
@@ -102,6 +103,8 @@ public class FeatureViewController {
   private FeaturegroupController featuregroupController;
   @EJB
   private SearchFSCommandLogger searchCommandLogger;
+  @EJB
+  private FsQueryCache fsQueryCache;
 
   public FeatureView createFeatureView(Project project, Users user, FeatureView featureView, Featurestore featurestore)
     throws FeaturestoreException, IOException {
@@ -232,6 +235,7 @@ public class FeatureViewController {
       trainingDatasetController.delete(user, project, featurestore, fv);
       searchCommandLogger.delete(fv);
       featureViewFacade.remove(fv);
+      fsQueryCache.invalidateFeatureView(fv.getId());
       removeFeatureViewDir(project, user, fv);
       //Delete associated jobs
       fsJobManagerController.deleteJobs(project, user, fv);
@@ -0,0 +1,484 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2023, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.featurestore.online;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.topic.ITopic;
+import com.hazelcast.topic.Message;
+import com.hazelcast.topic.MessageListener;
+import io.hops.hopsworks.common.util.Settings;
+import io.hops.hopsworks.exceptions.FeaturestoreException;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.DependsOn;
+import javax.ejb.EJB;
+import javax.ejb.Schedule;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.inject.Inject;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * JDBC connections to the online feature store, pooled per (database user, database). The password of a pool is
+ * resolved once, when the pool is created, and the pool is dropped when the user's secret or privileges change so
+ * that the next connection picks up the new credentials.
+ * Connections which stay idle for longer than featurestore_online_pool_idle_timeout_ms are closed.
+ */
+@Startup
+@Singleton
+@DependsOn("Settings")
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+public class OnlineFeaturestoreConnectionPool {
+
+  private static final Logger LOGGER = Logger.getLogger(OnlineFeaturestoreConnectionPool.class.getName());
+  private static final String POOL_INVALIDATED_TOPIC_NAME = "online_featurestore_pool_invalidated";
+  private static final String USER_PREFIX = "user:";
+  private static final String DATABASE_PREFIX = "database:";
+  // Idle connections older than this are validated before being handed out
+  private static final long VALIDATION_INTERVAL_MS = 30000L;
+  private static final int VALIDATION_TIMEOUT_SEC = 2;
+
+  @EJB
+  private Settings settings;
+  @Inject
+  private HazelcastInstance hazelcastInstance;
+
+  private final Map<PoolKey, Pool> pools = new ConcurrentHashMap<>();
+  private ITopic<String> poolInvalidatedTopic;
+  private UUID msgListenerId;
+
+  /**
+   * Resolves the password of a database user, only called when a new pool is created.
+   */
+  @FunctionalInterface
+  public interface CredentialsProvider {
+    String getPassword() throws FeaturestoreException;
+  }
+
+  @PostConstruct
+  public void init() {
+    // hazelcastInstance == null if Hazelcast is Disabled
+    if (hazelcastInstance != null) {
+      poolInvalidatedTopic = hazelcastInstance.getTopic(POOL_INVALIDATED_TOPIC_NAME);
+      msgListenerId = poolInvalidatedTopic.addMessageListener(new MessageListenerImpl());
+    }
+  }
+
+  @PreDestroy
+  public void destroy() {
+    if (poolInvalidatedTopic != null) {
+      //needed for redeploy to remove the listener
+      poolInvalidatedTopic.removeMessageListener(msgListenerId);
+    }
+    closePools(key -> true);
+  }
+
+  /**
+   * Lease a connection. Closing the returned connection gives it back to the pool.
+   *
+   * @param jdbcUrl url of the database
+   * @param database name of the database, used to drop the pools of a removed database
+   * @param username database user
+   * @param credentialsProvider
+   * @return
+   * @throws SQLException
+   * @throws FeaturestoreException
+   */
+  public Connection getConnection(String jdbcUrl, String database, String username,
+    CredentialsProvider credentialsProvider) throws SQLException, FeaturestoreException {
+    PoolKey key = new PoolKey(jdbcUrl, database, username);
+    Pool pool = pools.get(key);
+    if (pool == null) {
+      Pool newPool = new Pool(key, credentialsProvider.getPassword(), settings.getOnlineFeaturestorePoolMaxSize());
+      pool = pools.putIfAbsent(key, newPool);
+      if (pool == null) {
+        pool = newPool;
+      }
+    }
+    return pool.borrow(settings.getOnlineFeaturestorePoolMaxWaitMs());
+  }
+
+  /**
+   * Lease a connection for a user whose password is known, such as the admin user. If the password changed the
+   * existing pool is dropped.
+   */
+  public Connection getConnection(String jdbcUrl, String database, String username, String password)
+    throws SQLException, FeaturestoreException {
+    PoolKey key = new PoolKey(jdbcUrl, database, username);
+    Pool pool = pools.get(key);
+    if (pool != null && !Objects.equals(pool.password, password)) {
+      pools.remove(key, pool);
+      pool.close();
+    }
+    return getConnection(jdbcUrl, database, username, () -> password);
+  }
+
+  /**
+   * Drop the pools of a database user on all the nodes, e.g. after its password or privileges changed.
+   *
+   * @param username
+   */
+  public void invalidateUser(String username) {
+    closePools(key -> key.username.equals(username));
+    publish(USER_PREFIX + username);
+  }
+
+  /**
+   * Drop the pools of a database on all the nodes.
+   *
+   * @param database
+   */
+  public void invalidateDatabase(String database) {
+    closePools(key -> key.database.equalsIgnoreCase(database));
+    publish(DATABASE_PREFIX + database);
+  }
+
+  private void publish(String msg) {
+    //Notify other nodes if poolInvalidatedTopic is created == Hazelcast is enabled
+    if (poolInvalidatedTopic != null) {
+      poolInvalidatedTopic.publish(msg);
+    }
+  }
+
+  private void closePools(Predicate<PoolKey> predicate) {
+    Iterator<Map.Entry<PoolKey, Pool>> iterator = pools.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<PoolKey, Pool> entry = iterator.next();
+      if (predicate.test(entry.getKey())) {
+        iterator.remove();
+        entry.getValue().close();
+      }
+    }
+  }
+
+  @Schedule(minute = "*", hour = "*", info = "Online featurestore connection pool eviction", persistent = false)
+  public void evictIdleConnections() {
+    long idleTimeout = settings.getOnlineFeaturestorePoolIdleTimeoutMs();
+    long now = System.currentTimeMillis();
+    for (Pool pool : pools.values()) {
+      pool.evictIdle(now - idleTimeout);
+    }
+  }
+
+  /**
+   * @return statistics of every pool keyed by user@database
+   */
+  public Map<String, PoolStats> getStats() {
+    Map<String, PoolStats> stats = new HashMap<>();
+    for (Pool pool : pools.values()) {
+      stats.put(pool.key.toString(), pool.getStats());
+    }
+    return stats;
+  }
+
+  private static void closeQuietly(Connection connection) {
+    try {
+      connection.close();
+    } catch (SQLException e) {
+      LOGGER.log(Level.FINE, "Failed to close online featurestore connection", e);
+    }
+  }
+
+  private static class PoolKey {
+    private final String jdbcUrl;
+    private final String database;
+    private final String username;
+
+    PoolKey(String jdbcUrl, String database, String username) {
+      this.jdbcUrl = jdbcUrl;
+      this.database = database == null ? "" : database;
+      this.username = username;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      PoolKey poolKey = (PoolKey) o;
+      return jdbcUrl.equals(poolKey.jdbcUrl) && database.equals(poolKey.database) &&
+        username.equals(poolKey.username);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(jdbcUrl, database, username);
+    }
+
+    @Override
+    public String toString() {
+      return username + "@" + database;
+    }
+  }
+
+  private static class IdleConnection {
+    private final Connection connection;
+    private final long idleSince;
+
+    IdleConnection(Connection connection, long idleSince) {
+      this.connection = connection;
+      this.idleSince = idleSince;
+    }
+  }
+
+  private static class Pool {
+    private final PoolKey key;
+    private final String password;
+    private final Semaphore permits;
+    // Most recently returned connections first
+    private final ConcurrentLinkedDeque<IdleConnection> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicLong leases = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong waitTimeNanos = new AtomicLong();
+    private volatile boolean closed = false;
+
+    Pool(PoolKey key, String password, int maxSize) {
+      this.key = key;
+      this.password = password;
+      this.permits = new Semaphore(Math.max(1, maxSize), true);
+    }
+
+    Connection borrow(long maxWaitMs) throws SQLException {
+      long start = System.nanoTime();
+      try {
+        if (!permits.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS)) {
+          throw new SQLException("Timed out after " + maxWaitMs + " ms waiting for a connection for " + key);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new SQLException("Interrupted while waiting for a connection for " + key, e);
+      } finally {
+        waitTimeNanos.addAndGet(System.nanoTime() - start);
+      }
+      try {
+        Connection connection = pollIdle();
+        if (connection == null) {
+          connection = DriverManager.getConnection(key.jdbcUrl, key.username, password);
+          created.incrementAndGet();
+        }
+        active.incrementAndGet();
+        leases.incrementAndGet();
+        return wrap(connection);
+      } catch (SQLException | RuntimeException e) {
+        permits.release();
+        throw e;
+      }
+    }
+
+    private Connection pollIdle() {
+      long now = System.currentTimeMillis();
+      IdleConnection idleConnection;
+      while ((idleConnection = idle.pollFirst()) != null) {
+        try {
+          if (now - idleConnection.idleSince < VALIDATION_INTERVAL_MS
+            || idleConnection.connection.isValid(VALIDATION_TIMEOUT_SEC)) {
+            return idleConnection.connection;
+          }
+        } catch (SQLException e) {
+          LOGGER.log(Level.FINE, "Failed to validate online featurestore connection", e);
+        }
+        closeQuietly(idleConnection.connection);
+      }
+      return null;
+    }
+
+    void release(Connection connection, boolean broken) {
+      active.decrementAndGet();
+      try {
+        if (broken || closed || connection.isClosed()) {
+          closeQuietly(connection);
+          return;
+        }
+        if (!connection.getAutoCommit()) {
+          connection.rollback();
+          connection.setAutoCommit(true);
+        }
+        IdleConnection idleConnection = new IdleConnection(connection, System.currentTimeMillis());
+        idle.offerFirst(idleConnection);
+        // The pool might have been closed in the meantime
+        if (closed && idle.removeFirstOccurrence(idleConnection)) {
+          closeQuietly(connection);
+        }
+      } catch (SQLException e) {
+        closeQuietly(connection);
+      } finally {
+        permits.release();
+      }
+    }
+
+    void evictIdle(long idleBefore) {
+      Iterator<IdleConnection> iterator = idle.descendingIterator();
+      while (iterator.hasNext()) {
+        IdleConnection idleConnection = iterator.next();
+        if (idleConnection.idleSince < idleBefore && idle.removeFirstOccurrence(idleConnection)) {
+          closeQuietly(idleConnection.connection);
+        }
+      }
+    }
+
+    void close() {
+      closed = true;
+      IdleConnection idleConnection;
+      while ((idleConnection = idle.pollFirst()) != null) {
+        closeQuietly(idleConnection.connection);
+      }
+    }
+
+    PoolStats getStats() {
+      return new PoolStats(active.get(), idle.size(), leases.get(), created.get(),
+        TimeUnit.NANOSECONDS.toMillis(waitTimeNanos.get()));
+    }
+
+    private Connection wrap(Connection connection) {
+      return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class[]{Connection.class},
+        new PooledConnectionHandler(this, connection));
+    }
+  }
+
+  /**
+   * Returns the physical connection to its pool on close. A connection that failed with a connection level error
+   * (SQL state class 08) is discarded instead.
+   */
+  private static class PooledConnectionHandler implements InvocationHandler {
+    private final Pool pool;
+    private final Connection connection;
+    private boolean released = false;
+    private boolean broken = false;
+
+    PooledConnectionHandler(Pool pool, Connection connection) {
+      this.pool = pool;
+      this.connection = connection;
+    }
+
+    @Override
+    public synchronized Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      if (method.getDeclaringClass() == Object.class) {
+        return method.invoke(connection, args);
+      }
+      switch (method.getName()) {
+        case "close":
+          if (!released) {
+            released = true;
+            pool.release(connection, broken);
+          }
+          return null;
+        case "isClosed":
+          return released || connection.isClosed();
+        default:
+          if (released) {
+            throw new SQLException("Connection has been returned to the pool");
+          }
+      }
+      try {
+        return method.invoke(connection, args);
+      } catch (InvocationTargetException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof SQLException && ((SQLException) cause).getSQLState() != null
+          && ((SQLException) cause).getSQLState().startsWith("08")) {
+          broken = true;
+        }
+        throw cause;
+      }
+    }
+  }
+
+  public static class PoolStats {
+    private final int active;
+    private final int idle;
+    private final long leases;
+    private final long created;
+    private final long waitTimeMs;
+
+    PoolStats(int active, int idle, long leases, long created, long waitTimeMs) {
+      this.active = active;
+      this.idle = idle;
+      this.leases = leases;
+      this.created = created;
+      this.waitTimeMs = waitTimeMs;
+    }
+
+    public int getActive() {
+      return active;
+    }
+
+    public int getIdle() {
+      return idle;
+    }
+
+    public long getLeases() {
+      return leases;
+    }
+
+    public long getCreated() {
+      return created;
+    }
+
+    /**
+     * @return total time spent waiting for a free connection
+     */
+    public long getWaitTimeMs() {
+      return waitTimeMs;
+    }
+  }
+
+  public class MessageListenerImpl implements MessageListener<String> {
+
+    @Override
+    public void onMessage(Message<String> message) {
+      if (message.getPublishingMember().localMember()) {
+        return;
+      }
+      String msg = message.getMessageObject();
+      if (msg.startsWith(USER_PREFIX)) {
+        String username = msg.substring(USER_PREFIX.length());
+        closePools(key -> key.username.equals(username));
+      } else if (msg.startsWith(DATABASE_PREFIX)) {
+        String database = msg.substring(DATABASE_PREFIX.length());
+        closePools(key -> key.database.equalsIgnoreCase(database));
+      }
+    }
+  }
+}
@@ -37,7 +37,6 @@ import javax.ejb.Stateless;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -73,6 +72,8 @@ public class OnlineFeaturestoreFacade {
   private SecretsController secretsController;
   @EJB
   private FeaturestoreUtils featurestoreUtils;
+  @EJB
+  private OnlineFeaturestoreConnectionPool connectionPool;
 
   @PostConstruct
   public void init() {
@@ -111,6 +112,7 @@ public class OnlineFeaturestoreFacade {
     //WHERE/HAVING Clauses, not names of tables or databases
     try {
       executeUpdate("DROP DATABASE IF EXISTS " + db + ";");
+      connectionPool.invalidateDatabase(db);
     } catch (SQLException se) {
       throw new FeaturestoreException(RESTCodes.FeaturestoreErrorCode.ERROR_DELETING_ONLINE_FEATURESTORE_DB,
           Level.SEVERE, "Error running drop query", se.getMessage(), se);
@@ -130,8 +132,10 @@ public class OnlineFeaturestoreFacade {
         pStmt.setString(1, user);
         pStmt.setString(2, pw);
         pStmt.executeUpdate();
+        executeUpdate(connection, "GRANT NDB_STORED_USER ON *.* TO " + user + ";");
       }
-      executeUpdate("GRANT NDB_STORED_USER ON *.* TO " + user + ";");
+      // The password of the user might have changed
+      connectionPool.invalidateUser(user);
     } catch (SQLException se) {
       throw new FeaturestoreException(RESTCodes.FeaturestoreErrorCode.ERROR_CREATING_ONLINE_FEATURESTORE_USER,
           Level.SEVERE, "Error occurred when trying to create the MySQL database user for an online feature store",
@@ -153,6 +157,7 @@ public class OnlineFeaturestoreFacade {
         pStmt.setString(1, dbUser);
         pStmt.executeUpdate();
       }
+      connectionPool.invalidateUser(dbUser);
     } catch (SQLException se) {
       throw new FeaturestoreException(RESTCodes.FeaturestoreErrorCode.ERROR_DELETING_ONLINE_FEATURESTORE_USER,
           Level.SEVERE, "An error occurred when trying to delete the MySQL database user for an online feature store",
@@ -203,7 +208,9 @@ public class OnlineFeaturestoreFacade {
       resultSet = pStmt.executeQuery();
 
       if (resultSet.next() && resultSet.getInt(1) != 0) {
-        executeUpdate(grantQuery);
+        executeUpdate(connection, grantQuery);
+        // Database privileges are only re-evaluated by MySQL when a connection changes database
+        connectionPool.invalidateUser(dbUser);
       }
     } finally {
       if (resultSet != null) {
@@ -272,7 +279,8 @@ public class OnlineFeaturestoreFacade {
         if (resultSet.next() && resultSet.getInt(1) != 0) {
           //Prepared statements with parameters can only be done for
           //WHERE/HAVING Clauses, not names of tables or databases
-          executeUpdate("REVOKE ALL PRIVILEGES ON " + dbName + ".* FROM " + dbUser + ";");
+          executeUpdate(connection, "REVOKE ALL PRIVILEGES ON " + dbName + ".* FROM " + dbUser + ";");
+          connectionPool.invalidateUser(dbUser);
         }
       } finally {
         if (resultSet != null) {
@@ -323,8 +331,7 @@ public class OnlineFeaturestoreFacade {
    */
   public void executeUpdateJDBCQuery(String query, String databaseName, Project project, Users user)
       throws FeaturestoreException{
-    //Re-create the connection every time since the connection is database and user-specific
-    //Run Query
+    //Connections are pooled per database and user
     try (Connection conn = establishUserConnection(databaseName, project, user);
          Statement stmt = conn.createStatement()) {
       stmt.executeUpdate(query);
@@ -350,7 +357,6 @@ public class OnlineFeaturestoreFacade {
       throws FeaturestoreException {
     try (Connection conn = establishUserConnection(databaseName, project, user);
          Statement stmt = conn.createStatement()) {
-      //Re-create the connection every time since the connection is database and user-specific
       ResultSet rs = stmt.executeQuery(query);
       return featurestoreUtils.parseResultset(rs);
     } catch (SQLException e) {
@@ -384,15 +390,20 @@ public class OnlineFeaturestoreFacade {
   }
 
   private void executeUpdate(String query) throws SQLException, FeaturestoreException {
-    try (Connection connection = establishAdminConnection();
-         Statement stmt = connection.createStatement()) {
+    try (Connection connection = establishAdminConnection()) {
+      executeUpdate(connection, query);
+    }
+  }
+
+  private void executeUpdate(Connection connection, String query) throws SQLException {
+    try (Statement stmt = connection.createStatement()) {
       stmt.executeUpdate(query);
     }
   }
 
   private Connection establishAdminConnection() throws FeaturestoreException {
     try {
-      return DriverManager.getConnection(getJdbcURL(),
+      return connectionPool.getConnection(getJdbcURL(), "",
           settings.getVariableFeaturestoreDbAdminUser(),
           settings.getVariableFeaturestoreDbAdminPwd());
     } catch (SQLException | ServiceDiscoveryException e) {
@@ -403,7 +414,8 @@ public class OnlineFeaturestoreFacade {
   }
 
   /**
-   * Initializes a JDBC connection MySQL Server using an online featurestore user and password
+   * Leases a pooled JDBC connection to MySQL Server using an online featurestore user and password. The password is
+   * only looked up from the secrets when the pool of the user is created.
    *
    * @param databaseName name of the MySQL database to open a connection to
    * @param project      the project of the user making the request
@@ -414,18 +426,17 @@ public class OnlineFeaturestoreFacade {
   private Connection establishUserConnection(String databaseName, Project project, Users user)
       throws FeaturestoreException {
     String dbUsername = onlineFeaturestoreController.onlineDbUsername(project, user);
-    String password;
-    try {
-      password = secretsController.get(user, dbUsername).getPlaintext();
-    } catch (UserException e) {
-      throw new FeaturestoreException(RESTCodes.FeaturestoreErrorCode.FEATURESTORE_ONLINE_SECRETS_ERROR,
-          Level.SEVERE, "Problem getting secrets for the JDBC connection to the online FS");
-    }
-
     String jdbcString = "";
     try {
       jdbcString = getJdbcURL(databaseName);
-      return DriverManager.getConnection(jdbcString, dbUsername, password);
+      return connectionPool.getConnection(jdbcString, databaseName, dbUsername, () -> {
+        try {
+          return secretsController.get(user, dbUsername).getPlaintext();
+        } catch (UserException e) {
+          throw new FeaturestoreException(RESTCodes.FeaturestoreErrorCode.FEATURESTORE_ONLINE_SECRETS_ERROR,
+              Level.SEVERE, "Problem getting secrets for the JDBC connection to the online FS");
+        }
+      });
     } catch (SQLException | ServiceDiscoveryException e) {
       throw new FeaturestoreException(
           RESTCodes.FeaturestoreErrorCode.COULD_NOT_INITIATE_MYSQL_CONNECTION_TO_ONLINE_FEATURESTORE, Level.SEVERE,
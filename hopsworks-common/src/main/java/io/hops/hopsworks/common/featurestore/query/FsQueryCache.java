@@ -0,0 +1,309 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2023, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.featurestore.query;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.topic.ITopic;
+import com.hazelcast.topic.Message;
+import com.hazelcast.topic.MessageListener;
+import io.hops.hopsworks.common.util.Settings;
+import io.hops.hopsworks.persistence.entity.featurestore.featuregroup.FeaturegroupType;
+import io.hops.hopsworks.persistence.entity.featurestore.featureview.FeatureView;
+import io.hops.hopsworks.persistence.entity.featurestore.trainingdataset.TrainingDataset;
+import io.hops.hopsworks.persistence.entity.featurestore.trainingdataset.TrainingDatasetJoin;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.DependsOn;
+import javax.ejb.EJB;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * SQL generated for feature views and training datasets. Their definition does not change once they are created, so
+ * the generated FsQueryDTO only becomes stale when one of the underlying feature groups changes schema or is deleted.
+ * Entries are evicted on all the nodes of the cluster when that happens, and expire after
+ * featurestore_query_cache_ttl_ms in any case.
+ *
+ * Queries reading from on-demand feature groups are not cached as their aliases carry the storage connector
+ * resolved for the calling user.
+ */
+@Startup
+@Singleton
+@DependsOn("Settings")
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+public class FsQueryCache {
+
+  private static final Logger LOGGER = Logger.getLogger(FsQueryCache.class.getName());
+  private static final String FS_QUERY_INVALIDATED_TOPIC_NAME = "featurestore_query_invalidated";
+
+  @EJB
+  private Settings settings;
+  @Inject
+  private HazelcastInstance hazelcastInstance;
+
+  private final Map<Key, CachedFsQuery> queries = new ConcurrentHashMap<>();
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private ITopic<String> fsQueryInvalidatedTopic;
+  private UUID msgListenerId;
+
+  @PostConstruct
+  public void init() {
+    // hazelcastInstance == null if Hazelcast is Disabled
+    if (hazelcastInstance != null) {
+      fsQueryInvalidatedTopic = hazelcastInstance.getTopic(FS_QUERY_INVALIDATED_TOPIC_NAME);
+      msgListenerId = fsQueryInvalidatedTopic.addMessageListener(new MessageListenerImpl());
+    }
+  }
+
+  @PreDestroy
+  public void destroy() {
+    if (fsQueryInvalidatedTopic != null) {
+      //needed for redeploy to remove the listener
+      fsQueryInvalidatedTopic.removeMessageListener(msgListenerId);
+    }
+  }
+
+  /**
+   * @param featureView
+   * @param withLabel
+   * @param isHiveEngine
+   * @return the key of the query of the feature view or null if the query cannot be cached
+   */
+  public Key key(FeatureView featureView, boolean withLabel, boolean isHiveEngine) {
+    return key(OwnerType.FEATURE_VIEW, featureView.getId(), featureView.getJoins(), withLabel, isHiveEngine);
+  }
+
+  /**
+   * @param trainingDataset
+   * @param withLabel
+   * @param isHiveEngine
+   * @return the key of the query of the training dataset or null if the query cannot be cached
+   */
+  public Key key(TrainingDataset trainingDataset, boolean withLabel, boolean isHiveEngine) {
+    return key(OwnerType.TRAINING_DATASET, trainingDataset.getId(), trainingDataset.getJoins(), withLabel,
+      isHiveEngine);
+  }
+
+  private Key key(OwnerType ownerType, Integer ownerId, Collection<TrainingDatasetJoin> joins, boolean withLabel,
+    boolean isHiveEngine) {
+    if (ownerId == null || joins == null || joins.isEmpty()) {
+      return null;
+    }
+    List<Integer> featureGroupIds = new ArrayList<>(joins.size());
+    for (TrainingDatasetJoin join : joins) {
+      // Parent feature group was deleted, the query is an error message for the user
+      if (join.getFeatureGroup() == null) {
+        return null;
+      }
+      if (join.getFeatureGroup().getFeaturegroupType() == FeaturegroupType.ON_DEMAND_FEATURE_GROUP) {
+        return null;
+      }
+      featureGroupIds.add(join.getFeatureGroup().getId());
+    }
+    Collections.sort(featureGroupIds);
+    return new Key(ownerType, ownerId, featureGroupIds, withLabel, isHiveEngine);
+  }
+
+  /**
+   * @param key
+   * @return a copy of the cached query, so that the caller can set the href, or null if it is not cached or expired
+   */
+  public FsQueryDTO get(Key key) {
+    if (key == null) {
+      return null;
+    }
+    CachedFsQuery cachedFsQuery = queries.get(key);
+    if (cachedFsQuery == null) {
+      misses.incrementAndGet();
+      return null;
+    }
+    if (cachedFsQuery.isExpired(System.currentTimeMillis())) {
+      queries.remove(key, cachedFsQuery);
+      misses.incrementAndGet();
+      return null;
+    }
+    hits.incrementAndGet();
+    return copy(cachedFsQuery.getFsQueryDTO());
+  }
+
+  public void put(Key key, FsQueryDTO fsQueryDTO) {
+    if (key == null) {
+      return;
+    }
+    long now = System.currentTimeMillis();
+    if (queries.size() >= settings.getFsQueryCacheMaxSize()) {
+      queries.values().removeIf(cached -> cached.isExpired(now));
+    }
+    // Still full, generate the queries until some entries expire
+    if (queries.size() < settings.getFsQueryCacheMaxSize()) {
+      queries.put(key, new CachedFsQuery(copy(fsQueryDTO), now + settings.getFsQueryCacheTtlMs()));
+    }
+  }
+
+  /**
+   * Evict the queries reading from the feature group on this and the other nodes of the cluster. To be called when
+   * the schema of the feature group changes or it is deleted.
+   *
+   * @param featureGroupId
+   */
+  public void invalidateFeatureGroup(Integer featureGroupId) {
+    invalidate(OwnerType.FEATURE_GROUP, featureGroupId);
+  }
+
+  public void invalidateFeatureView(Integer featureViewId) {
+    invalidate(OwnerType.FEATURE_VIEW, featureViewId);
+  }
+
+  public void invalidateTrainingDataset(Integer trainingDatasetId) {
+    invalidate(OwnerType.TRAINING_DATASET, trainingDatasetId);
+  }
+
+  private void invalidate(OwnerType type, Integer id) {
+    if (id == null) {
+      return;
+    }
+    evict(type, id);
+    //Notify other nodes if fsQueryInvalidatedTopic is created == Hazelcast is enabled
+    if (fsQueryInvalidatedTopic != null) {
+      fsQueryInvalidatedTopic.publish(type.name() + ":" + id);
+    }
+  }
+
+  private void evict(OwnerType type, Integer id) {
+    if (type == OwnerType.FEATURE_GROUP) {
+      queries.keySet().removeIf(key -> key.featureGroupIds.contains(id));
+    } else {
+      queries.keySet().removeIf(key -> key.ownerType == type && key.ownerId.equals(id));
+    }
+  }
+
+  private FsQueryDTO copy(FsQueryDTO fsQueryDTO) {
+    FsQueryDTO copy = new FsQueryDTO();
+    copy.setQuery(fsQueryDTO.getQuery());
+    copy.setQueryOnline(fsQueryDTO.getQueryOnline());
+    copy.setPitQuery(fsQueryDTO.getPitQuery());
+    copy.setPitQueryAsof(fsQueryDTO.getPitQueryAsof());
+    copy.setHudiCachedFeatureGroups(fsQueryDTO.getHudiCachedFeatureGroups());
+    copy.setOnDemandFeatureGroups(fsQueryDTO.getOnDemandFeatureGroups());
+    return copy;
+  }
+
+  public int size() {
+    return queries.size();
+  }
+
+  public long getHits() {
+    return hits.get();
+  }
+
+  public long getMisses() {
+    return misses.get();
+  }
+
+  private enum OwnerType {
+    FEATURE_GROUP,
+    FEATURE_VIEW,
+    TRAINING_DATASET
+  }
+
+  public static class Key {
+    private final OwnerType ownerType;
+    private final Integer ownerId;
+    private final List<Integer> featureGroupIds;
+    private final boolean withLabel;
+    private final boolean isHiveEngine;
+
+    private Key(OwnerType ownerType, Integer ownerId, List<Integer> featureGroupIds, boolean withLabel,
+      boolean isHiveEngine) {
+      this.ownerType = ownerType;
+      this.ownerId = ownerId;
+      this.featureGroupIds = featureGroupIds;
+      this.withLabel = withLabel;
+      this.isHiveEngine = isHiveEngine;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Key key = (Key) o;
+      return withLabel == key.withLabel && isHiveEngine == key.isHiveEngine && ownerType == key.ownerType &&
+        ownerId.equals(key.ownerId) && featureGroupIds.equals(key.featureGroupIds);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(ownerType, ownerId, featureGroupIds, withLabel, isHiveEngine);
+    }
+  }
+
+  private static class CachedFsQuery {
+    private final FsQueryDTO fsQueryDTO;
+    private final long expiresAt;
+
+    CachedFsQuery(FsQueryDTO fsQueryDTO, long expiresAt) {
+      this.fsQueryDTO = fsQueryDTO;
+      this.expiresAt = expiresAt;
+    }
+
+    FsQueryDTO getFsQueryDTO() {
+      return fsQueryDTO;
+    }
+
+    boolean isExpired(long now) {
+      return now >= expiresAt;
+    }
+  }
+
+  public class MessageListenerImpl implements MessageListener<String> {
+
+    @Override
+    public void onMessage(Message<String> message) {
+      if (!message.getPublishingMember().localMember()) {
+        LOGGER.log(Level.FINE, "Feature store query invalidated on another node {0}", message.getMessageObject());
+        String[] typeAndId = message.getMessageObject().split(":", 2);
+        try {
+          evict(OwnerType.valueOf(typeAndId[0]), Integer.valueOf(typeAndId[1]));
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+          LOGGER.log(Level.WARNING, "Malformed query invalidation message " + message.getMessageObject(), e);
+        }
+      }
+    }
+  }
+}
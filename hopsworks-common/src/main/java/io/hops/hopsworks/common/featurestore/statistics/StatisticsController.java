@@ -16,6 +16,7 @@
 
 package io.hops.hopsworks.common.featurestore.statistics;
 
+import io.hops.common.Pair;
 import io.hops.hopsworks.common.dataset.DatasetController;
 import io.hops.hopsworks.common.featurestore.activity.FeaturestoreActivityFacade;
 import io.hops.hopsworks.common.featurestore.featuregroup.cached.FeatureGroupCommitController;
@@ -41,26 +42,43 @@ import io.hops.hopsworks.persistence.entity.hdfs.inode.Inode;
 import io.hops.hopsworks.persistence.entity.project.Project;
 import io.hops.hopsworks.persistence.entity.user.Users;
 import io.hops.hopsworks.restutils.RESTCodes;
+import org.apache.hadoop.fs.FSDataOutputStream;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.permission.FsPermission;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import javax.annotation.Resource;
 import javax.ejb.EJB;
 import javax.ejb.Stateless;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
+import javax.enterprise.concurrent.ManagedExecutorService;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.logging.Level;
+import java.util.logging.Logger;
 
 @Stateless
 @TransactionAttribute(TransactionAttributeType.NEVER)
 public class StatisticsController {
 
+  private static final Logger LOGGER = Logger.getLogger(StatisticsController.class.getName());
+
   @EJB
   private InodeController inodeController;
   @EJB
@@ -77,6 +95,8 @@ public class StatisticsController {
   private FeaturestoreActivityFacade fsActivityFacade;
   @EJB
   private Settings settings;
+  @Resource(lookup = "concurrent/hopsExecutorService")
+  private ManagedExecutorService executorService;
 
   public String readStatisticsContent(Project project, Users user, FeaturestoreStatistic statistic)
       throws FeaturestoreException {
@@ -92,8 +112,16 @@ public class StatisticsController {
     return readContent(project, user, path);
   }
 
+  /**
+   * Register the statistics of a feature group commit
+   *
+   * @param async if true, return as soon as the statistics are registered in the database and write their content
+   *              to the filesystem in the background, the statistics are removed from the database if their
+   *              content cannot be written
+   */
   public FeaturestoreStatistic registerStatistics(Project project, Users user, Long statisticsCommitTimeStamp,
-                                                  Long fgCommitId, String content, Featuregroup featuregroup)
+                                                  Long fgCommitId, String content, Featuregroup featuregroup,
+                                                  boolean async)
       throws FeaturestoreException, DatasetException, HopsSecurityException, IOException {
     JSONObject statisticsJson = extractJsonFromContent(content);
     Optional<FeatureGroupCommit> featureGroupCommit = Optional.empty();
@@ -117,16 +145,19 @@ public class StatisticsController {
       }
     }
 
-    Inode statisticsInode = registerStatistics(project, user, statisticsCommitTimeStamp, statisticsJson.toString(),
-        featuregroup.getName(), "FeatureGroups", featuregroup.getVersion(), null, false);
+    Pair<Inode, CompletableFuture<Void>> statisticsFiles = registerStatistics(project, user,
+        statisticsCommitTimeStamp, statisticsJson, featuregroup.getName(), "FeatureGroups", featuregroup.getVersion(),
+        null, false, async);
     Timestamp commitTime = new Timestamp(statisticsCommitTimeStamp);
 
-    FeaturestoreStatistic featurestoreStatistic = new FeaturestoreStatistic(commitTime, statisticsInode, featuregroup);
+    FeaturestoreStatistic featurestoreStatistic =
+        new FeaturestoreStatistic(commitTime, statisticsFiles.getL(), featuregroup);
     if (featureGroupCommit.isPresent()) {
       featurestoreStatistic.setFeatureGroupCommit(featureGroupCommit.get());
     }
 
     featurestoreStatistic = featurestoreStatisticFacade.update(featurestoreStatistic);
+    removeOnFailure(statisticsFiles.getR(), featurestoreStatistic);
 
     // Log statistics activity
     fsActivityFacade.logStatisticsActivity(user, featuregroup, new Date(commitTime.getTime()), featurestoreStatistic);
@@ -134,15 +165,21 @@ public class StatisticsController {
     return featurestoreStatistic;
   }
 
+  /**
+   * Register the statistics of a training dataset, either for the whole dataset or one file per split
+   *
+   * @param async if true, return as soon as the statistics are registered in the database and write their content
+   *              to the filesystem in the background, the statistics are removed from the database if their
+   *              content cannot be written
+   */
   public FeaturestoreStatistic registerStatistics(Project project, Users user, Long commitTimeStamp, String content,
                                                   TrainingDataset trainingDataset, Map<String, String> splitStatistics,
-                                                  boolean forTransformation)
+                                                  boolean forTransformation, boolean async)
       throws FeaturestoreException, DatasetException, HopsSecurityException, IOException {
 
-    String statContent =  null;
+    JSONObject statContent =  null;
     if (content != null) {
-      JSONObject statisticsJson = extractJsonFromContent(content);
-      statContent = statisticsJson.toString();
+      statContent = extractJsonFromContent(content);
     }
 
     Map<String, JSONObject> splitStatJson = null;
@@ -153,14 +190,15 @@ public class StatisticsController {
       }
     }
 
-    Inode statisticsInode = registerStatistics(project, user, commitTimeStamp, statContent,
-        trainingDataset.getName(), "TrainingDatasets", trainingDataset.getVersion(), splitStatJson,
-        forTransformation);
+    Pair<Inode, CompletableFuture<Void>> statisticsFiles = registerStatistics(project, user, commitTimeStamp,
+        statContent, trainingDataset.getName(), "TrainingDatasets", trainingDataset.getVersion(), splitStatJson,
+        forTransformation, async);
     Timestamp commitTime = new Timestamp(commitTimeStamp);
     FeaturestoreStatistic featurestoreStatistic =
-        new FeaturestoreStatistic(commitTime, statisticsInode, trainingDataset);
+        new FeaturestoreStatistic(commitTime, statisticsFiles.getL(), trainingDataset);
     featurestoreStatistic.setForTransformation(forTransformation);
     featurestoreStatistic = featurestoreStatisticFacade.update(featurestoreStatistic);
+    removeOnFailure(statisticsFiles.getR(), featurestoreStatistic);
 
     // Log statistics activity (we don't log if this is for transformation function)
     if (!forTransformation) {
@@ -171,9 +209,30 @@ public class StatisticsController {
     return featurestoreStatistic;
   }
 
-  private Inode registerStatistics(Project project, Users user, Long commitTime, String content, String entityName,
-                                   String entitySubDir, Integer version, Map<String, JSONObject> splitStatistics,
-                                   boolean forTransformation)
+  /**
+   * Remove the statistics from the database if their content could not be written in the background. If the write
+   * already failed when the statistics are registered, they are removed right away.
+   */
+  private void removeOnFailure(CompletableFuture<Void> written, FeaturestoreStatistic featurestoreStatistic) {
+    written.whenComplete((result, ex) -> {
+      if (ex != null) {
+        try {
+          featurestoreStatisticFacade.remove(featurestoreStatistic);
+        } catch (RuntimeException e) {
+          LOGGER.log(Level.SEVERE, "Failed to remove statistics " + featurestoreStatistic.getId()
+              + " whose content could not be written", e);
+        }
+      }
+    });
+  }
+
+  /**
+   * @return the inode of the statistics and a future completed, exceptionally if the content could not be written,
+   * once the files written in the background have been closed, or removed on failure
+   */
+  private Pair<Inode, CompletableFuture<Void>> registerStatistics(Project project, Users user, Long commitTime,
+      JSONObject content, String entityName, String entitySubDir, Integer version,
+      Map<String, JSONObject> splitStatistics, boolean forTransformation, boolean async)
       throws DatasetException, HopsSecurityException, IOException {
 
     DistributedFileSystemOps udfso = null;
@@ -183,23 +242,18 @@ public class StatisticsController {
       String dirName = entityName + "_" + version;
       Dataset statistics = getOrCreateStatisticsDataset(project, user);
 
-      // Create the directory
+      // Create the directory and its parent if missing
       Path subDir = new Path(Utils.getDatasetPath(statistics, settings), entitySubDir);
-      if (!udfso.isDir(subDir.toString())) {
-        udfso.mkdir(subDir.toString());
-      }
       Path dirPath = new Path(subDir, dirName);
-      if (!udfso.isDir(dirPath.toString())) {
-        udfso.mkdir(dirPath.toString());
-      }
+      udfso.mkdirs(dirPath, FsPermission.getDefault());
 
-      Inode inode;
+      Map<Path, JSONObject> files = new LinkedHashMap<>();
+      Path inodePath;
       if (splitStatistics != null && !splitStatistics.isEmpty()){
         for (Map.Entry<String, JSONObject> entry: splitStatistics.entrySet()){
-          Path filePath = new Path(dirPath,  splitStatisticsFileName(entry.getKey(), commitTime));
-          udfso.create(filePath, entry.getValue().toString());
+          files.put(new Path(dirPath,  splitStatisticsFileName(entry.getKey(), commitTime)), entry.getValue());
         }
-        inode = inodeController.getInodeAtPath(dirPath.toString());
+        inodePath = dirPath;
       } else {
         Path filePath;
         if (forTransformation) {
@@ -207,15 +261,94 @@ public class StatisticsController {
         } else {
           filePath = new Path(dirPath, commitTime + ".json");
         }
-        udfso.create(filePath, content);
-        inode = inodeController.getInodeAtPath(filePath.toString());
+        files.put(filePath, content);
+        inodePath = filePath;
       }
-      return inode;
+
+      // The files exist as soon as they are created, their content is streamed afterwards
+      CompletableFuture<Void> written = writeStatistics(udfso, files);
+      if (async) {
+        Inode inode = inodeController.getInodeAtPath(inodePath.toString());
+        // The client is closed by the writer once all the files are written
+        DistributedFileSystemOps asyncUdfso = udfso;
+        udfso = null;
+        CompletableFuture<Void> done = written.whenComplete((result, ex) -> {
+          if (ex != null) {
+            LOGGER.log(Level.SEVERE, "Failed to write statistics to " + dirPath, ex);
+            deleteStatisticsFiles(asyncUdfso, files.keySet());
+          }
+          dfs.closeDfsClient(asyncUdfso);
+        });
+        return new Pair<>(inode, done);
+      }
+
+      try {
+        written.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        deleteStatisticsFiles(udfso, files.keySet());
+        throw new IOException(e);
+      } catch (ExecutionException e) {
+        deleteStatisticsFiles(udfso, files.keySet());
+        if (e.getCause() instanceof UncheckedIOException) {
+          throw ((UncheckedIOException) e.getCause()).getCause();
+        }
+        throw new IOException(e.getCause());
+      }
+      return new Pair<>(inodeController.getInodeAtPath(inodePath.toString()), CompletableFuture.completedFuture(null));
     } finally {
       dfs.closeDfsClient(udfso);
     }
   }
 
+  /**
+   * Create the statistics files and stream their content, one file per thread if there are several.
+   *
+   * @return future completed when all the files have been written and closed
+   */
+  private CompletableFuture<Void> writeStatistics(DistributedFileSystemOps udfso, Map<Path, JSONObject> files)
+      throws IOException {
+    Map<FSDataOutputStream, JSONObject> streams = new LinkedHashMap<>();
+    try {
+      for (Map.Entry<Path, JSONObject> file : files.entrySet()) {
+        streams.put(udfso.getFilesystem().create(file.getKey()), file.getValue());
+      }
+      List<CompletableFuture<Void>> writes = new ArrayList<>(streams.size());
+      for (Map.Entry<FSDataOutputStream, JSONObject> stream : streams.entrySet()) {
+        writes.add(CompletableFuture.runAsync(() -> writeJson(stream.getKey(), stream.getValue()), executorService));
+      }
+      return CompletableFuture.allOf(writes.toArray(new CompletableFuture[0]));
+    } catch (IOException | RuntimeException e) {
+      for (FSDataOutputStream stream : streams.keySet()) {
+        try {
+          stream.close();
+        } catch (IOException ex) {
+          LOGGER.log(Level.FINE, "Failed to close statistics file", ex);
+        }
+      }
+      deleteStatisticsFiles(udfso, files.keySet());
+      throw e instanceof IOException ? (IOException) e : new IOException(e);
+    }
+  }
+
+  private void writeJson(FSDataOutputStream outputStream, JSONObject content) {
+    try (Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8))) {
+      content.write(writer);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void deleteStatisticsFiles(DistributedFileSystemOps udfso, Iterable<Path> files) {
+    for (Path file : files) {
+      try {
+        udfso.rm(file, false);
+      } catch (IOException e) {
+        LOGGER.log(Level.WARNING, "Failed to remove incomplete statistics file " + file, e);
+      }
+    }
+  }
+
   public void deleteStatistics(Project project, Users user, Featuregroup featuregroup)
       throws FeaturestoreException {
     deleteStatistics(project, user, featuregroup.getName(), "FeatureGroups", featuregroup.getVersion());
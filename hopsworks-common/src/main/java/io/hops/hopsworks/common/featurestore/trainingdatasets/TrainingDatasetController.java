@@ -31,6 +31,7 @@ import io.hops.hopsworks.common.featurestore.featuregroup.FeaturegroupDTO;
 import io.hops.hopsworks.common.featurestore.featuregroup.online.OnlineFeaturegroupController;
 import io.hops.hopsworks.common.featurestore.online.OnlineFeaturestoreController;
 import io.hops.hopsworks.common.featurestore.query.Feature;
+import io.hops.hopsworks.common.featurestore.query.FsQueryCache;
 import io.hops.hopsworks.common.featurestore.query.Query;
 import io.hops.hopsworks.common.featurestore.query.QueryController;
 import io.hops.hopsworks.common.featurestore.query.QueryDTO;
@@ -165,6 +166,8 @@ public class TrainingDatasetController {
   private FeaturestoreController featurestoreController;
   @EJB
   private SearchFSCommandLogger searchCommandLogger;
+  @EJB
+  private FsQueryCache fsQueryCache;
 
   /**
    * Gets all trainingDatasets for a particular featurestore and project
@@ -826,6 +829,7 @@ public class TrainingDatasetController {
   
     searchCommandLogger.delete(trainingDataset);
     trainingDatasetFacade.remove(trainingDataset);
+    fsQueryCache.invalidateTrainingDataset(trainingDataset.getId());
     deleteHopsfsTrainingData(user, project, trainingDataset, false);
     //Delete associated jobs
     fsJobManagerController.deleteJobs(project, user, trainingDataset);
@@ -0,0 +1,260 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2023, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.hdfs;
+
+import io.hops.hopsworks.common.security.BaseHadoopClientsService;
+import io.hops.hopsworks.common.util.Settings;
+
+import javax.annotation.PreDestroy;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.DependsOn;
+import javax.ejb.EJB;
+import javax.ejb.Schedule;
+import javax.ejb.Singleton;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Keeps idle {@link DistributedFileSystemOps} per (hdfs user, URI) so that the file system client, and with RPC TLS
+ * the materialized certificates of the user, are reused across requests. A leased client goes back to the pool when
+ * it is closed. The number of clients, leased and idle, is bounded by dfs_ops_pool_max_total, above which clients
+ * are created and closed per lease as before. Idle clients are closed after dfs_ops_pool_idle_timeout_ms.
+ */
+@Singleton
+@DependsOn("Settings")
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+public class DfsOpsPool {
+
+  private static final Logger LOGGER = Logger.getLogger(DfsOpsPool.class.getName());
+
+  @EJB
+  private Settings settings;
+  @EJB
+  private BaseHadoopClientsService bhcs;
+
+  private final Map<PoolKey, Pool> pools = new ConcurrentHashMap<>();
+  // Pooled clients, leased or idle
+  private final AtomicInteger total = new AtomicInteger();
+
+  @PreDestroy
+  public void destroy() {
+    for (Pool pool : pools.values()) {
+      pool.evict(Long.MAX_VALUE);
+    }
+    pools.clear();
+  }
+
+  /**
+   * Lease a client for the given user and URI, creating one with the factory if no idle client is available.
+   *
+   * @param username effective hdfs user
+   * @param uri file system URI, null for the default file system
+   * @param proxyUser if the client impersonates the user through the login user
+   * @param factory creates a new client, may return null
+   * @return
+   */
+  public DistributedFileSystemOps lease(String username, URI uri, boolean proxyUser,
+    Supplier<DistributedFileSystemOps> factory) {
+    PoolKey key = new PoolKey(username, uri, proxyUser);
+    Pool pool = pools.computeIfAbsent(key, k -> new Pool());
+    DistributedFileSystemOps dfso = pool.idle.pollFirst();
+    if (dfso != null) {
+      pool.hits.incrementAndGet();
+    } else {
+      pool.misses.incrementAndGet();
+      if (total.incrementAndGet() > settings.getDfsOpsPoolMaxTotal()) {
+        // Pool is full, the client is not pooled and is closed by the caller
+        total.decrementAndGet();
+        return factory.get();
+      }
+      dfso = factory.get();
+      if (dfso == null) {
+        total.decrementAndGet();
+        return null;
+      }
+    }
+    pool.leased.incrementAndGet();
+    dfso.lease(key, released -> release(key, pool, released));
+    return dfso;
+  }
+
+  private void release(PoolKey key, Pool pool, DistributedFileSystemOps dfso) {
+    pool.leased.decrementAndGet();
+    // The pool is gone if the user was invalidated while the client was leased
+    if (pools.get(key) == pool && pool.idle.size() < settings.getDfsOpsPoolMaxIdlePerUser()) {
+      pool.idle.offerFirst(dfso);
+      // invalidate may have removed and evicted the pool in the meantime, then nobody else would close the client.
+      // Whoever removes it from the idle clients closes it, this thread or the eviction.
+      if (pools.get(key) == pool || !pool.idle.removeFirstOccurrence(dfso)) {
+        return;
+      }
+    }
+    destroy(dfso);
+  }
+
+  /**
+   * Close the idle clients of an hdfs user, e.g. when the user is removed. Leased clients are closed when they are
+   * released.
+   *
+   * @param username
+   */
+  public void invalidate(String username) {
+    Iterator<Map.Entry<PoolKey, Pool>> iterator = pools.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<PoolKey, Pool> entry = iterator.next();
+      if (entry.getKey().username.equals(username)) {
+        iterator.remove();
+        entry.getValue().evict(Long.MAX_VALUE);
+      }
+    }
+  }
+
+  @Schedule(minute = "*", hour = "*", info = "DistributedFileSystemOps pool eviction", persistent = false)
+  public void evictIdle() {
+    long idleBefore = System.currentTimeMillis() - settings.getDfsOpsPoolIdleTimeoutMs();
+    for (Pool pool : pools.values()) {
+      pool.evict(idleBefore);
+    }
+  }
+
+  /**
+   * @return statistics of every pool keyed by user and URI
+   */
+  public Map<String, PoolStats> getStats() {
+    Map<String, PoolStats> stats = new HashMap<>();
+    for (Map.Entry<PoolKey, Pool> entry : pools.entrySet()) {
+      Pool pool = entry.getValue();
+      stats.put(entry.getKey().toString(), new PoolStats(pool.leased.get(), pool.idle.size(), pool.hits.get(),
+        pool.misses.get()));
+    }
+    return stats;
+  }
+
+  public int getTotal() {
+    return total.get();
+  }
+
+  private void destroy(DistributedFileSystemOps dfso) {
+    total.decrementAndGet();
+    try {
+      dfso.closeFileSystem();
+    } finally {
+      if (dfso.getPoolKey().proxyUser && settings.getHopsRpcTls()) {
+        bhcs.removeNonSuperUserCertificate(dfso.getEffectiveUser());
+      }
+    }
+  }
+
+  static class PoolKey {
+    private final String username;
+    private final URI uri;
+    private final boolean proxyUser;
+
+    PoolKey(String username, URI uri, boolean proxyUser) {
+      this.username = username;
+      this.uri = uri;
+      this.proxyUser = proxyUser;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      PoolKey poolKey = (PoolKey) o;
+      return proxyUser == poolKey.proxyUser && username.equals(poolKey.username) && Objects.equals(uri, poolKey.uri);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(username, uri, proxyUser);
+    }
+
+    @Override
+    public String toString() {
+      return uri == null ? username : username + "@" + uri;
+    }
+  }
+
+  private class Pool {
+    // Most recently released clients first
+    private final ConcurrentLinkedDeque<DistributedFileSystemOps> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger leased = new AtomicInteger();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    void evict(long idleBefore) {
+      Iterator<DistributedFileSystemOps> iterator = idle.descendingIterator();
+      while (iterator.hasNext()) {
+        DistributedFileSystemOps dfso = iterator.next();
+        if (dfso.getReleasedAt() < idleBefore && idle.removeFirstOccurrence(dfso)) {
+          try {
+            destroy(dfso);
+          } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Error closing idle file system client of " + dfso.getEffectiveUser(), e);
+          }
+        }
+      }
+    }
+  }
+
+  public static class PoolStats {
+    private final int leased;
+    private final int idle;
+    private final long hits;
+    private final long misses;
+
+    PoolStats(int leased, int idle, long hits, long misses) {
+      this.leased = leased;
+      this.idle = idle;
+      this.hits = hits;
+      this.misses = misses;
+    }
+
+    public int getLeased() {
+      return leased;
+    }
+
+    public int getIdle() {
+      return idle;
+    }
+
+    public long getHits() {
+      return hits;
+    }
+
+    public long getMisses() {
+      return misses;
+    }
+  }
+}
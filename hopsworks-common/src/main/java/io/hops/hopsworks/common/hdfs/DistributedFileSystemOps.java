@@ -49,6 +49,8 @@ import java.security.PrivilegedExceptionAction;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -76,6 +78,11 @@ public class DistributedFileSystemOps {
   private final DistributedFileSystem dfs;
   private Configuration conf;
   private final String effectiveUser;
+  // Set when the client is leased from the DfsOpsPool, closing the client then gives it back to the pool
+  private volatile DfsOpsPool.PoolKey poolKey;
+  private volatile Consumer<DistributedFileSystemOps> releaseHandler;
+  private final AtomicBoolean leased = new AtomicBoolean(false);
+  private volatile long releasedAt;
 
   public enum StoragePolicy {
     CLOUD("CLOUD"),
@@ -379,6 +386,17 @@ public class DistributedFileSystemOps {
     dfs.rename(source, destination, renameOption);
   }
 
+  /**
+   * Move the blocks of the sources to the end of the target, without copying the data. The sources are deleted.
+   * Sources and target must be in the same directory.
+   * @param target
+   * @param sources
+   * @throws IOException
+   */
+  public void concat(Path target, Path[] sources) throws IOException {
+    dfs.concat(target, sources);
+  }
+
   /**
    * Check if the path exists in HDFS.
    * <p/>
@@ -620,9 +638,21 @@ public class DistributedFileSystemOps {
   }
 
   /**
-   * Closes the distributed file system.
+   * Closes the file system, or returns the client to its pool if it was leased from one.
    */
   public void close() {
+    Consumer<DistributedFileSystemOps> handler = releaseHandler;
+    if (handler != null) {
+      if (leased.compareAndSet(true, false)) {
+        releasedAt = System.currentTimeMillis();
+        handler.accept(this);
+      }
+      return;
+    }
+    closeFileSystem();
+  }
+
+  void closeFileSystem() {
     try {
       dfs.close();
     } catch (IOException ex) {
@@ -630,6 +660,24 @@ public class DistributedFileSystemOps {
     }
   }
 
+  void lease(DfsOpsPool.PoolKey poolKey, Consumer<DistributedFileSystemOps> releaseHandler) {
+    this.poolKey = poolKey;
+    this.releaseHandler = releaseHandler;
+    leased.set(true);
+  }
+
+  DfsOpsPool.PoolKey getPoolKey() {
+    return poolKey;
+  }
+
+  long getReleasedAt() {
+    return releasedAt;
+  }
+
+  public boolean isPooled() {
+    return releaseHandler != null;
+  }
+
   public void addUser(String userName) throws IOException{
     dfs.addUser(userName);
   }
@@ -93,6 +93,8 @@ public class DistributedFsService {
   private Settings settings;
   @EJB
   private BaseHadoopClientsService bhcs;
+  @EJB
+  private DfsOpsPool dfsOpsPool;
 
   private Configuration conf;
   private String hadoopConfDir;
@@ -147,11 +149,15 @@ public class DistributedFsService {
   }
 
   /**
-   * creates a new distributed file system operations with the super user
+   * leases a distributed file system operations with the super user from the pool
    * <p>
    * @return DistributedFileSystemOps
    */
   public DistributedFileSystemOps getDfsOps() {
+    return dfsOpsPool.lease(loginUser.getUserName(), null, false, this::createDfsOps);
+  }
+
+  private DistributedFileSystemOps createDfsOps() {
     if (settings.getHopsRpcTls()) {
       Configuration newConf = new Configuration(conf);
   
@@ -171,6 +177,10 @@ public class DistributedFsService {
   }
   
   public DistributedFileSystemOps getDfsOps(URI uri) {
+    return dfsOpsPool.lease(loginUser.getUserName(), uri, false, () -> createDfsOps(uri));
+  }
+
+  private DistributedFileSystemOps createDfsOps(URI uri) {
     if (settings.getHopsRpcTls()) {
       Configuration newConf = new Configuration(conf);
   
@@ -194,7 +204,7 @@ public class DistributedFsService {
   }
   
   /**
-   * Returns the user specific distributed file system operations
+   * Returns the user specific distributed file system operations, leased from the pool of the user
    * <p>
    * @param username
    * @return
@@ -203,6 +213,10 @@ public class DistributedFsService {
     if (username == null || username.isEmpty()) {
       throw new IllegalArgumentException("username not provided.");
     }
+    return dfsOpsPool.lease(username, null, true, () -> createDfsOps(username));
+  }
+
+  private DistributedFileSystemOps createDfsOps(String username) {
     UserGroupInformation ugi;
     try {
       ugi = UserGroupInformation.createProxyUser(username, UserGroupInformation.
@@ -233,6 +247,11 @@ public class DistributedFsService {
 
   public void closeDfsClient(DistributedFileSystemOps udfso) {
     if (null != udfso) {
+      if (udfso.isPooled()) {
+        // Back to the pool, the certificates are removed when the client is evicted
+        udfso.close();
+        return;
+      }
       if (settings.getHopsRpcTls()
           && !udfso.getEffectiveUser().equals(loginUser.getUserName())) {
         bhcs.removeNonSuperUserCertificate(udfso.getEffectiveUser());
@@ -241,6 +260,15 @@ public class DistributedFsService {
     }
   }
   
+  /**
+   * Close the pooled clients of an hdfs user, to be called when the user is removed
+   * <p>
+   * @param username
+   */
+  public void invalidateDfsOps(String username) {
+    dfsOpsPool.invalidate(username);
+  }
+
   public DistributedFileSystemOps getDfsOpsForTesting(String username) {
     if (username == null || username.isEmpty()) {
       throw new NullPointerException("username not set.");
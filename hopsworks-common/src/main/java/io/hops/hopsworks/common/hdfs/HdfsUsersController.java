@@ -211,6 +211,7 @@ public class HdfsUsersController {
       dfso = dfsService.getDfsOps();
       for (HdfsUsers user : users) {
         dfso.removeUser(user.getName());
+        dfsService.invalidateDfsOps(user.getName());
       }
     } finally {
       dfsService.closeDfsClient(dfso);
@@ -547,6 +548,7 @@ public class HdfsUsersController {
   public void removeUserName(ProjectTeam teamMember, DistributedFileSystemOps dfso) throws IOException {
     String hdfsUserName = getHdfsUserName(teamMember.getProject(), teamMember.getUser());
     dfso.removeUser(hdfsUserName);
+    dfsService.invalidateDfsOps(hdfsUserName);
   }
 
   /**
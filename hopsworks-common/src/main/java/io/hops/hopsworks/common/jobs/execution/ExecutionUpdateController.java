@@ -55,6 +55,13 @@ public class ExecutionUpdateController {
     return execution;
   }
 
+  public Execution updateStatusAndSendAlert(float progress, JobState newState, JobFinalStatus finalStatus,
+    Execution execution) {
+    execution = executionFacade.updateStatus(execution, progress, newState, finalStatus);
+    alertController.sendAlert(finalStatus, execution);
+    return execution;
+  }
+
   public Execution updateFinalStatusAndSendAlert(JobFinalStatus finalStatus, Execution execution) {
     execution = executionFacade.updateFinalStatus(execution, finalStatus);
     alertController.sendAlert(finalStatus, execution);
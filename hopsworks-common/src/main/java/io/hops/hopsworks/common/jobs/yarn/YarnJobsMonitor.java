@@ -50,13 +50,16 @@ import io.hops.hopsworks.persistence.entity.jobs.configuration.history.JobFinalS
 import io.hops.hopsworks.persistence.entity.jobs.configuration.history.JobState;
 import io.hops.hopsworks.persistence.entity.jobs.history.Execution;
 import org.apache.hadoop.yarn.api.records.ApplicationId;
-import org.apache.hadoop.yarn.api.records.FinalApplicationStatus;
+import org.apache.hadoop.yarn.api.records.ApplicationReport;
 import org.apache.hadoop.yarn.api.records.YarnApplicationState;
+import org.apache.hadoop.yarn.client.api.YarnClient;
 import org.apache.hadoop.yarn.exceptions.YarnException;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.annotation.Resource;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
 import javax.ejb.DependsOn;
 import javax.ejb.EJB;
 import javax.ejb.Singleton;
@@ -67,12 +70,15 @@ import javax.ejb.TimerConfig;
 import javax.ejb.TimerService;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
+import javax.enterprise.concurrent.ManagedExecutorService;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -80,10 +86,17 @@ import java.util.logging.Logger;
 @Startup
 @Singleton
 @DependsOn("Settings")
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
 @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
 public class YarnJobsMonitor implements JobsMonitor {
 
   private static final Logger LOGGER = Logger.getLogger(YarnJobsMonitor.class.getName());
+  //number of milliseconds that must elapse between timer expiration notifications
+  private static final long INTERVAL_DURATION = 5000L; // 5 sec
+  // Applications in these states are fetched with a single bulk call, the rest are looked up individually
+  private static final EnumSet<YarnApplicationState> ACTIVE_STATES = EnumSet.of(YarnApplicationState.NEW,
+    YarnApplicationState.NEW_SAVING, YarnApplicationState.SUBMITTED, YarnApplicationState.ACCEPTED,
+    YarnApplicationState.RUNNING);
 
   @EJB
   private Settings settings;
@@ -99,13 +112,13 @@ public class YarnJobsMonitor implements JobsMonitor {
   private PayaraClusterManager payaraClusterManager;
   @Resource
   private TimerService timerService;
+  @Resource(lookup = "concurrent/hopsExecutorService")
+  private ManagedExecutorService executorService;
   private Timer timer;
 
   @PostConstruct
   public void init() {
-    //number of milliseconds that must elapse between timer expiration notifications
-    long intervalDuration = 5000L; // 5 sec
-    timer = timerService.createIntervalTimer(0, intervalDuration, new TimerConfig("Yarn job monitor timer",
+    timer = timerService.createIntervalTimer(0, INTERVAL_DURATION, new TimerConfig("Yarn job monitor timer",
       false));
   }
 
@@ -114,103 +127,126 @@ public class YarnJobsMonitor implements JobsMonitor {
     if (timer != null) {
       timer.cancel();
     }
+    closeYarnClient();
   }
 
   private int maxStatusPollRetry;
+  // A single super user client shared by all the workers of a tick, YarnClient is thread safe
+  private YarnClientWrapper yarnClientWrapper;
+  // Set when a call to the ResourceManager failed, the client is recreated at the start of the next tick as the
+  // workers of the current tick may still be using it
+  private volatile boolean recreateYarnClient = false;
+
+  private final Map<String, Integer> failures = new ConcurrentHashMap<>();
+  private final Map<ApplicationId, Future<Execution>> copyLogsFutures = new ConcurrentHashMap<>();
+
+  // Timing of the ticks, logged at the end of each of them
+  private long lastTickStart = -1;
+  private long lastTickLag = 0;
+  private long overrunTicks = 0;
 
-  Map<String, YarnMonitor> monitors = new HashMap<>();
-  Map<String, Integer> failures = new HashMap<>();
-  private final Map<ApplicationId, Future<Execution>> copyLogsFutures = new HashMap<>();
-  
   @Timeout
   public synchronized void yarnJobMonitor(Timer timer) {
     if (!payaraClusterManager.amIThePrimary()) {
       return;
     }
+    long tickStart = System.currentTimeMillis();
+    if (lastTickStart > 0) {
+      lastTickLag = Math.max(0, tickStart - lastTickStart - INTERVAL_DURATION);
+    }
+    lastTickStart = tickStart;
+    int numApplications = 0;
     try {
-      Map<String, Execution> executions = new HashMap<>();
+      Map<ApplicationId, Execution> executions = new HashMap<>();
       List<Execution> execs = executionFacade.findNotFinished();
       if (execs != null && !execs.isEmpty()) {
         for (Execution exec : execs) {
           if (exec.getAppId() != null) {
-            executions.put(exec.getAppId(), exec);
-          }
-        }
-        //Remove (Close) all monitors of deleted jobs
-        Iterator<Map.Entry<String, YarnMonitor>> monitorsIter = monitors.entrySet().iterator();
-        while (monitorsIter.hasNext()) {
-          Map.Entry<String, YarnMonitor> entry = monitorsIter.next();
-          // Check if Value associated with Key is 10
-          if (!executions.keySet().contains(entry.getKey())) {
-            // Remove the element
-            entry.getValue().close();
-            monitorsIter.remove();
+            executions.put(ApplicationId.fromString(exec.getAppId()), exec);
           }
         }
+        numApplications = executions.size();
         maxStatusPollRetry = settings.getMaxStatusPollRetry();
-        List<String> toRemove = new ArrayList<>();
-        for (Map.Entry<String, Execution> entry : executions.entrySet()) {
-          YarnMonitor monitor = monitors.get(entry.getKey());
-          if (monitor == null) {
-            ApplicationId appId = ApplicationId.fromString(entry.getKey());
-            YarnClientWrapper newYarnclientWrapper = ycs.getYarnClientSuper(settings
-              .getConfiguration());
-            monitor = new YarnMonitor(appId, newYarnclientWrapper, ycs);
-            monitors.put(entry.getKey(), monitor);
-          }
-          Execution exec = internalMonitor(executions.get(entry.getKey()), monitor);
-          if (exec == null) {
-            toRemove.add(entry.getKey());
-            monitor.close();
-          }
+        if (recreateYarnClient) {
+          recreateYarnClient = false;
+          closeYarnClient();
+        }
+        YarnClient yarnClient = getYarnClient();
+        Map<ApplicationId, ApplicationReport> reports = getActiveApplicationReports(yarnClient, executions);
+
+        List<List<Map.Entry<ApplicationId, Execution>>> batches = partition(executions,
+          settings.getYarnMonitorParallelism());
+        List<Future<?>> futures = new ArrayList<>(batches.size());
+        for (List<Map.Entry<ApplicationId, Execution>> batch : batches) {
+          futures.add(executorService.submit(() -> monitorBatch(batch, reports, yarnClient)));
         }
-        for (String appID : toRemove) {
-          failures.remove(appID);
-          monitors.remove(appID);
+        for (Future<?> future : futures) {
+          try {
+            future.get();
+          } catch (ExecutionException ex) {
+            LOGGER.log(Level.SEVERE, "Error while monitoring a batch of jobs", ex.getCause());
+          }
         }
+        // Drop the failure bookkeeping of executions which are not running anymore
+        failures.keySet().removeIf(appId -> !executions.containsKey(ApplicationId.fromString(appId)));
         // This is here to do bookkeeping. Remove from the map all the executions which have finished copying the logs
         copyLogsFutures.entrySet().removeIf(futureResult -> futureResult.getValue().isDone());
       }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      LOGGER.log(Level.WARNING, "Interrupted while monitoring jobs", ex);
     } catch (Exception ex) {
       LOGGER.log(Level.SEVERE, "Error while monitoring jobs", ex);
+    } finally {
+      recordTick(tickStart, numApplications);
     }
   }
-  
-  private Execution internalMonitor(Execution exec, YarnMonitor monitor) {
+
+  private void monitorBatch(List<Map.Entry<ApplicationId, Execution>> batch,
+    Map<ApplicationId, ApplicationReport> reports, YarnClient yarnClient) {
+    for (Map.Entry<ApplicationId, Execution> entry : batch) {
+      try {
+        if (internalMonitor(entry.getKey(), entry.getValue(), reports.get(entry.getKey()), yarnClient) == null) {
+          failures.remove(entry.getValue().getAppId());
+        }
+      } catch (Exception ex) {
+        LOGGER.log(Level.SEVERE, "Error while monitoring execution " + entry.getValue(), ex);
+      }
+    }
+  }
+
+  private Execution internalMonitor(ApplicationId appId, Execution exec, ApplicationReport report,
+    YarnClient yarnClient) {
     try {
-      YarnApplicationState appState = monitor.getApplicationState();
-      FinalApplicationStatus finalAppStatus = monitor.getFinalApplicationStatus();
-      float progress = monitor.getProgress();
-      exec = updateProgress(progress, exec);
-      exec = updateState(JobState.getJobState(appState), exec);
-      exec = updateFinalStatus(JobFinalStatus.getJobFinalStatus(finalAppStatus), exec);
-      
+      if (report == null) {
+        // Not among the active applications, it has most probably just reached a final state
+        report = yarnClient.getApplicationReport(appId);
+      }
+      YarnApplicationState appState = report.getYarnApplicationState();
+      exec = executionUpdateController.updateStatusAndSendAlert(report.getProgress(),
+        JobState.getJobState(appState), JobFinalStatus.getJobFinalStatus(report.getFinalApplicationStatus()), exec);
+
       if ((appState == YarnApplicationState.FAILED
           || appState == YarnApplicationState.FINISHED
           || appState == YarnApplicationState.KILLED)
-          && !copyLogsFutures.containsKey(monitor.getApplicationId())) {
-        
+          && !copyLogsFutures.containsKey(appId)) {
+
         exec = executionFacade.updateState(exec, JobState.AGGREGATING_LOGS);
         // Async call
         Future<Execution> futureResult = execFinalizer.copyLogs(exec);
-        copyLogsFutures.put(monitor.getApplicationId(), futureResult);
+        copyLogsFutures.put(appId, futureResult);
         return null;
       }
     } catch (IOException | YarnException ex) {
-      Integer failure = failures.get(exec.getAppId());
-      if (failure == null) {
-        failure = 1;
-      } else {
-        failure++;
-      }
-      failures.put(exec.getAppId(), failure);
-      LOGGER.log(Level.WARNING, "Failed to get application state for execution " + exec + ". Tried " + failures
+      int failure = failures.merge(exec.getAppId(), 1, Integer::sum);
+      LOGGER.log(Level.WARNING, "Failed to get application state for execution " + exec + ". Tried " + failure
           + " time(s).", ex);
     }
-    if (failures.get(exec.getAppId()) != null && failures.get(exec.getAppId()) > maxStatusPollRetry) {
+    Integer failure = failures.get(exec.getAppId());
+    if (failure != null && failure > maxStatusPollRetry) {
       try {
         LOGGER.log(Level.SEVERE, "Killing application, {0}, because unable to poll for status.", exec);
-        monitor.cancelJob(monitor.getApplicationId().toString());
+        yarnClient.killApplication(appId);
         exec = updateFinalStatus(JobFinalStatus.KILLED, exec);
         exec = updateProgress(0, exec);
         execFinalizer.finalize(exec, JobState.KILLED);
@@ -222,7 +258,68 @@ public class YarnJobsMonitor implements JobsMonitor {
     }
     return exec;
   }
-  
+
+  /**
+   * Fetch the reports of all the active applications with a single call to the ResourceManager. If the call fails
+   * the returned map is empty and every application is looked up individually by the workers.
+   */
+  private Map<ApplicationId, ApplicationReport> getActiveApplicationReports(YarnClient yarnClient,
+    Map<ApplicationId, Execution> executions) {
+    Map<ApplicationId, ApplicationReport> reports = new HashMap<>();
+    try {
+      for (ApplicationReport report : yarnClient.getApplications(ACTIVE_STATES)) {
+        if (executions.containsKey(report.getApplicationId())) {
+          reports.put(report.getApplicationId(), report);
+        }
+      }
+    } catch (IOException | YarnException ex) {
+      LOGGER.log(Level.WARNING, "Failed to fetch the reports of the active applications", ex);
+      recreateYarnClient = true;
+    }
+    return reports;
+  }
+
+  private List<List<Map.Entry<ApplicationId, Execution>>> partition(Map<ApplicationId, Execution> executions,
+    int parallelism) {
+    int numBatches = Math.max(1, Math.min(parallelism, executions.size()));
+    List<List<Map.Entry<ApplicationId, Execution>>> batches = new ArrayList<>(numBatches);
+    for (int i = 0; i < numBatches; i++) {
+      batches.add(new ArrayList<>());
+    }
+    int i = 0;
+    for (Map.Entry<ApplicationId, Execution> entry : executions.entrySet()) {
+      batches.get(i++ % numBatches).add(entry);
+    }
+    return batches;
+  }
+
+  private YarnClient getYarnClient() {
+    if (yarnClientWrapper == null) {
+      yarnClientWrapper = ycs.getYarnClientSuper(settings.getConfiguration());
+    }
+    return yarnClientWrapper.getYarnClient();
+  }
+
+  private void closeYarnClient() {
+    if (yarnClientWrapper != null) {
+      ycs.closeYarnClient(yarnClientWrapper);
+      yarnClientWrapper = null;
+    }
+  }
+
+  private void recordTick(long tickStart, int numApplications) {
+    long tickDuration = System.currentTimeMillis() - tickStart;
+    if (tickDuration > INTERVAL_DURATION) {
+      overrunTicks++;
+      LOGGER.log(Level.WARNING, "Yarn job monitor tick took {0} ms for {1} applications, longer than the {2} ms " +
+        "interval, {3} overrun ticks so far", new Object[]{tickDuration, numApplications, INTERVAL_DURATION,
+        overrunTicks});
+    } else {
+      LOGGER.log(Level.FINE, "Yarn job monitor tick took {0} ms for {1} applications, lag {2} ms",
+        new Object[]{tickDuration, numApplications, lastTickLag});
+    }
+  }
+
   @Override
   public Execution updateProgress(float progress, Execution execution) {
     return executionUpdateController.updateProgress(progress, execution);
@@ -236,4 +333,4 @@ public class YarnJobsMonitor implements JobsMonitor {
   private Execution updateFinalStatus(JobFinalStatus finalStatus, Execution execution) {
     return executionUpdateController.updateFinalStatusAndSendAlert(finalStatus, execution);
   }
-}
\ No newline at end of file
+}
@@ -39,6 +39,8 @@ public class SchemasController {
   private final static Logger LOGGER = Logger.getLogger(SchemasController.class.getName());
   @EJB
   private SchemasFacade schemasFacade;
+  @EJB
+  private SubjectsCache subjectsCache;
   
   public Schemas addNewSchema(Project project, String schemaString) throws SchemaException {
     Schema schema = validateSchema(project, schemaString);
@@ -65,9 +67,9 @@ public class SchemasController {
   }
   
   public SubjectDTO findSchemaById(Project project, Integer id) throws SchemaException {
-    Schemas schema = schemasFacade.findSchemaById(project, id).orElseThrow(() ->
+    String schema = subjectsCache.getSchema(project, id).orElseThrow(() ->
       new SchemaException(RESTCodes.SchemaRegistryErrorCode.SCHEMA_NOT_FOUND, Level.FINE,
         "project=" + project.getName() + ", schema_id=" + id));
-    return new SubjectDTO(schema.getSchema());
+    return new SubjectDTO(schema);
   }
 }
@@ -0,0 +1,324 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2023, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.kafka;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.topic.ITopic;
+import com.hazelcast.topic.Message;
+import com.hazelcast.topic.MessageListener;
+import io.hops.hopsworks.common.dao.kafka.schemas.SchemasFacade;
+import io.hops.hopsworks.common.dao.kafka.schemas.SubjectsFacade;
+import io.hops.hopsworks.common.util.Settings;
+import io.hops.hopsworks.persistence.entity.kafka.schemas.Schemas;
+import io.hops.hopsworks.persistence.entity.kafka.schemas.Subjects;
+import io.hops.hopsworks.persistence.entity.project.Project;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.DependsOn;
+import javax.ejb.EJB;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.inject.Inject;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Versions of the schema registry subjects, with their schemas already parsed, and the schemas by id. Versions are
+ * looked up by the fingerprint of the schema so that registering or checking a schema does not query the database
+ * with the whole schema.
+ *
+ * A subject is evicted on all the nodes of the cluster when a version is added or deleted. Entries expire after
+ * kafka_schema_cache_ttl_ms in any case, as the subjects of a project are also deleted with the project.
+ */
+@Startup
+@Singleton
+@DependsOn("Settings")
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+public class SubjectsCache {
+
+  private static final Logger LOGGER = Logger.getLogger(SubjectsCache.class.getName());
+  private static final String SUBJECT_INVALIDATED_TOPIC_NAME = "kafka_subject_invalidated";
+
+  @EJB
+  private Settings settings;
+  @EJB
+  private SubjectsFacade subjectsFacade;
+  @EJB
+  private SchemasFacade schemasFacade;
+  @Inject
+  private HazelcastInstance hazelcastInstance;
+
+  private Cache<Key, SubjectVersions> subjects;
+  private Cache<Key, String> schemas;
+  // Incremented on every eviction so that a subject read before the eviction is not cached after it
+  private final AtomicLong generation = new AtomicLong();
+  private final AtomicLong lookups = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong lookupNanos = new AtomicLong();
+  private ITopic<String> subjectInvalidatedTopic;
+  private UUID msgListenerId;
+
+  @PostConstruct
+  public void init() {
+    subjects = Caffeine.newBuilder()
+      .maximumSize(settings.getKafkaSchemaCacheMaxSize())
+      .expireAfterWrite(settings.getKafkaSchemaCacheTtlMs(), TimeUnit.MILLISECONDS)
+      .build();
+    schemas = Caffeine.newBuilder()
+      .maximumSize(settings.getKafkaSchemaCacheMaxSize())
+      .expireAfterWrite(settings.getKafkaSchemaCacheTtlMs(), TimeUnit.MILLISECONDS)
+      .build();
+    // hazelcastInstance == null if Hazelcast is Disabled
+    if (hazelcastInstance != null) {
+      subjectInvalidatedTopic = hazelcastInstance.getTopic(SUBJECT_INVALIDATED_TOPIC_NAME);
+      msgListenerId = subjectInvalidatedTopic.addMessageListener(new MessageListenerImpl());
+    }
+  }
+
+  @PreDestroy
+  public void destroy() {
+    if (subjectInvalidatedTopic != null) {
+      //needed for redeploy to remove the listener
+      subjectInvalidatedTopic.removeMessageListener(msgListenerId);
+    }
+  }
+
+  /**
+   * @param project
+   * @param subject
+   * @return the versions of the subject or empty if the subject does not exist
+   */
+  public Optional<SubjectVersions> getSubject(Project project, String subject) {
+    long start = System.nanoTime();
+    try {
+      Key key = new Key(project.getId(), subject);
+      SubjectVersions cached = subjects.getIfPresent(key);
+      if (cached != null) {
+        return Optional.of(cached);
+      }
+      misses.incrementAndGet();
+      long loadedGeneration = generation.get();
+      List<Subjects> versions = subjectsFacade.findSubjectByName(project, subject);
+      if (versions.isEmpty()) {
+        return Optional.empty();
+      }
+      SubjectVersions loaded = new SubjectVersions(versions);
+      subjects.put(key, loaded);
+      if (generation.get() != loadedGeneration) {
+        // Evicted while reading from the database, what was read might be stale
+        subjects.asMap().remove(key, loaded);
+      }
+      return Optional.of(loaded);
+    } finally {
+      recordLookup(start);
+    }
+  }
+
+  /**
+   * @param project
+   * @param id
+   * @return the schema as registered or empty if there is no schema with that id in the project
+   */
+  public Optional<String> getSchema(Project project, Integer id) {
+    long start = System.nanoTime();
+    try {
+      return Optional.ofNullable(schemas.get(new Key(project.getId(), id), key -> {
+        misses.incrementAndGet();
+        return schemasFacade.findSchemaById(project, id)
+          .map(Schemas::getSchema)
+          .orElse(null);
+      }));
+    } finally {
+      recordLookup(start);
+    }
+  }
+
+  /**
+   * Evict the subject on this and the other nodes of the cluster. To be called once a version of the subject has
+   * been added or deleted.
+   *
+   * @param project
+   * @param subject
+   */
+  public void invalidate(Project project, String subject) {
+    evict(project.getId(), subject);
+    //Notify other nodes if subjectInvalidatedTopic is created == Hazelcast is enabled
+    if (subjectInvalidatedTopic != null) {
+      subjectInvalidatedTopic.publish(project.getId() + ":" + subject);
+    }
+  }
+
+  private void evict(Integer projectId, String subject) {
+    generation.incrementAndGet();
+    subjects.invalidate(new Key(projectId, subject));
+  }
+
+  private void recordLookup(long start) {
+    lookups.incrementAndGet();
+    lookupNanos.addAndGet(System.nanoTime() - start);
+  }
+
+  public long getLookups() {
+    return lookups.get();
+  }
+
+  public long getMisses() {
+    return misses.get();
+  }
+
+  public long getAverageLookupMicros() {
+    long count = lookups.get();
+    return count > 0 ? TimeUnit.NANOSECONDS.toMicros(lookupNanos.get() / count) : 0;
+  }
+
+  /**
+   * @param schema
+   * @return the fingerprint of the schema as stored by the registry, that is including docs and defaults
+   */
+  static long fingerprint(Schema schema) {
+    return SchemaNormalization.fingerprint64(schema.toString().getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static class Key {
+    private final Integer projectId;
+    private final Object name;
+
+    Key(Integer projectId, Object name) {
+      this.projectId = projectId;
+      this.name = name;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Key key = (Key) o;
+      return projectId.equals(key.projectId) && name.equals(key.name);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(projectId, name);
+    }
+  }
+
+  /**
+   * The versions of a subject as they were when loaded, shared between requests.
+   */
+  public static class SubjectVersions {
+    // Sorted by version
+    private final List<Subjects> versions;
+    private final List<Schema> parsedSchemas;
+    private final Map<Long, Subjects> byFingerprint = new HashMap<>();
+
+    SubjectVersions(List<Subjects> subjects) {
+      List<Subjects> sorted = new ArrayList<>(subjects);
+      sorted.sort(Comparator.comparing(Subjects::getVersion));
+      List<Schema> parsed = new ArrayList<>(sorted.size());
+      for (Subjects version : sorted) {
+        Schema schema = new Schema.Parser().parse(version.getSchema().getSchema());
+        parsed.add(schema);
+        byFingerprint.put(fingerprint(schema), version);
+      }
+      this.versions = Collections.unmodifiableList(sorted);
+      this.parsedSchemas = Collections.unmodifiableList(parsed);
+    }
+
+    public List<Subjects> getVersions() {
+      return versions;
+    }
+
+    public Subjects getLatest() {
+      return versions.get(versions.size() - 1);
+    }
+
+    public Optional<Subjects> getVersion(Integer version) {
+      return versions.stream().filter(v -> v.getVersion().equals(version)).findFirst();
+    }
+
+    /**
+     * @param version
+     * @return the parsed schema of the version, which must belong to this subject
+     */
+    public Schema getParsedSchema(Subjects version) {
+      return parsedSchemas.get(versions.indexOf(version));
+    }
+
+    /**
+     * @return the parsed schemas, latest version first
+     */
+    public List<Schema> getParsedSchemasLatestFirst() {
+      List<Schema> latestFirst = new ArrayList<>(parsedSchemas);
+      Collections.reverse(latestFirst);
+      return latestFirst;
+    }
+
+    /**
+     * @param schema
+     * @return the version registered with the same schema
+     */
+    public Optional<Subjects> findBySchema(Schema schema) {
+      Subjects version = byFingerprint.get(fingerprint(schema));
+      // Guard against fingerprint collisions
+      if (version != null && version.getSchema().getSchema().equals(schema.toString())) {
+        return Optional.of(version);
+      }
+      return Optional.empty();
+    }
+  }
+
+  public class MessageListenerImpl implements MessageListener<String> {
+
+    @Override
+    public void onMessage(Message<String> message) {
+      if (!message.getPublishingMember().localMember()) {
+        LOGGER.log(Level.FINE, "Schema registry subject invalidated on another node {0}", message.getMessageObject());
+        String[] projectAndSubject = message.getMessageObject().split(":", 2);
+        try {
+          evict(Integer.valueOf(projectAndSubject[0]), projectAndSubject[1]);
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+          LOGGER.log(Level.WARNING, "Malformed subject invalidation message " + message.getMessageObject(), e);
+        }
+      }
+    }
+  }
+}
@@ -42,7 +42,6 @@ import javax.ejb.TransactionAttributeType;
 import java.math.BigInteger;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 import java.util.logging.Level;
@@ -62,37 +61,35 @@ public class SubjectsController {
   private SchemasController schemasController;
   @EJB
   private ProjectTopicsFacade projectTopicsFacade;
+  @EJB
+  private SubjectsCache subjectsCache;
   
   public List<String> getSubjects(Project project) {
     return subjectsFacade.getListOfSubjects(project);
   }
   
   public List<Integer> getSubjectVersions(Project project, String subject) throws SchemaException{
-    List<Integer> versions = subjectsFacade.findSubjectByName(project, subject)
+    return getSubjectOrThrow(project, subject).getVersions()
       .stream()
       .map(Subjects::getVersion)
-      .sorted()
       .collect(Collectors.toList());
-    if (versions.isEmpty()) {
-      throw new SchemaException(RESTCodes.SchemaRegistryErrorCode.SUBJECT_NOT_FOUND, Level.FINE, "subject=" +
-        subject);
-    }
-    return versions;
   }
   
-  public SubjectDTO getSubjectDetails(Project project, String subject, String version) throws SchemaException {
-    validateVersion(version);
-    if (subjectsFacade.findSubjectByName(project, subject).isEmpty()) {
-      throw new SchemaException(RESTCodes.SchemaRegistryErrorCode.SUBJECT_NOT_FOUND, Level.FINE, "subject=" +
-        subject);
-    }
+  private SubjectsCache.SubjectVersions getSubjectOrThrow(Project project, String subject) throws SchemaException {
+    return subjectsCache.getSubject(project, subject).orElseThrow(() ->
+      new SchemaException(RESTCodes.SchemaRegistryErrorCode.SUBJECT_NOT_FOUND, Level.FINE, "subject=" + subject));
+  }
   
-    Optional<Subjects> optional;
+  private Optional<Subjects> getSubjectVersion(SubjectsCache.SubjectVersions versions, String version) {
     if (version.equals("latest")) {
-      optional = subjectsFacade.findSubjectLatestVersion(project, subject);
-    } else {
-      optional = subjectsFacade.findSubjectByNameAndVersion(project, subject, Integer.valueOf(version));
+      return Optional.of(versions.getLatest());
     }
+    return versions.getVersion(Integer.valueOf(version));
+  }
+  
+  public SubjectDTO getSubjectDetails(Project project, String subject, String version) throws SchemaException {
+    validateVersion(version);
+    Optional<Subjects> optional = getSubjectVersion(getSubjectOrThrow(project, subject), version);
     
     if (optional.isPresent()) {
       Subjects res = optional.get();
@@ -117,26 +114,25 @@ public class SubjectsController {
       throw new SchemaException(RESTCodes.SchemaRegistryErrorCode.INVALID_AVRO_SCHEMA, Level.FINE,
         "schema=" + schemaContent);
     }
+    Optional<SubjectsCache.SubjectVersions> versions = subjectsCache.getSubject(project, subject);
     //check if schema exists - return current id
-    Optional<Subjects> optionalSubject =
-      subjectsFacade.findSubjectByNameAndSchema(project, subject, schema.toString());
+    Optional<Subjects> optionalSubject = versions.flatMap(v -> v.findBySchema(schema));
     if (optionalSubject.isPresent()) {
       Subjects subjects = optionalSubject.get();
       return new SubjectDTO(subjects.getSchema().getId(), subjects.getSubject(), subjects.getVersion());
     }
     //check if schema compatible - return 409 of not
-    if(!isCompatible(project, subject, schema)) {
+    List<Schema> previousSchemas = versions.map(SubjectsCache.SubjectVersions::getParsedSchemasLatestFirst)
+      .orElse(Collections.emptyList());
+    if(!isCompatible(project, subject, schema, previousSchemas)) {
       throw new SchemaException(RESTCodes.SchemaRegistryErrorCode.INCOMPATIBLE_AVRO_SCHEMA, Level.FINE,
         "Subject=" + subject + ", project=" + project.getName());
     }
-    Integer latestVersion = subjectsFacade.findSubjectByName(project, subject)
-      .stream()
-      .map(Subjects::getVersion)
-      .max(Integer::compareTo)
-      .orElse(0);
+    Integer latestVersion = versions.map(v -> v.getLatest().getVersion()).orElse(0);
   
     Schemas schemas = schemasController.addNewSchema(project, schema.toString());
     Integer id = subjectsFacade.insertNewSubject(project, subject, schemas, latestVersion + 1);
+    subjectsCache.invalidate(project, subject);
     return new SubjectDTO(id, subject, latestVersion + 1);
   }
   
@@ -154,17 +150,13 @@ public class SubjectsController {
     }
   }
   
-  private boolean isCompatible(Project project, String subject, Schema schema) throws SchemaException {
+  private boolean isCompatible(Project project, String subject, Schema schema, List<Schema> previousSchemas)
+    throws SchemaException {
     SchemaCompatibility sc = getSubjectOrProjectCompatibility(project, subject);
     if (sc.equals(SchemaCompatibility.NONE)) {
       return true;
     }
     SchemaValidator validator = getSchemaValidator(sc);
-    List<Schema> previousSchemas = subjectsFacade.findSubjectByName(project, subject)
-      .stream()
-      .sorted(Comparator.comparing(Subjects::getVersion).reversed())
-      .map(s -> new Schema.Parser().parse(s.getSchema().getSchema()))
-      .collect(Collectors.toList());
     try {
       
       validator.validate(schema, previousSchemas);
@@ -222,10 +214,7 @@ public class SubjectsController {
   
   public SubjectDTO checkIfSchemaRegistered(Project project, String subject, String schemaContent) throws
     SchemaException {
-    if (!subjectsFacade.getListOfSubjects(project).contains(subject)) {
-      throw new SchemaException(RESTCodes.SchemaRegistryErrorCode.SUBJECT_NOT_FOUND, Level.FINE, "subject=" +
-        subject);
-    }
+    SubjectsCache.SubjectVersions versions = getSubjectOrThrow(project, subject);
     Schema schema;
     try {
       schema = new Schema.Parser().parse(schemaContent);
@@ -233,7 +222,7 @@ public class SubjectsController {
       throw new SchemaException(RESTCodes.SchemaRegistryErrorCode.INVALID_AVRO_SCHEMA, Level.FINE,
         "schema=" + schemaContent);
     }
-    Optional<Subjects> optional = subjectsFacade.findSubjectByNameAndSchema(project, subject, schema.toString());
+    Optional<Subjects> optional = versions.findBySchema(schema);
     if (!optional.isPresent()) {
       throw new SchemaException(RESTCodes.SchemaRegistryErrorCode.SCHEMA_NOT_FOUND, Level.FINE,
         "schema=" + schema.toString());
@@ -247,8 +236,18 @@ public class SubjectsController {
       throw new KafkaException(RESTCodes.KafkaErrorCode.SCHEMA_IN_USE, Level.FINE, "project=" + project.getName() +
         ", subject=" + subject);
     }
-    List<Integer> versions = getSubjectVersions(project, subject);
+    // Read from the database, the versions are compared with the ones deleted
+    List<Integer> versions = subjectsFacade.findSubjectByName(project, subject)
+      .stream()
+      .map(Subjects::getVersion)
+      .sorted()
+      .collect(Collectors.toList());
+    if (versions.isEmpty()) {
+      throw new SchemaException(RESTCodes.SchemaRegistryErrorCode.SUBJECT_NOT_FOUND, Level.FINE, "subject=" +
+        subject);
+    }
     Integer deleted = subjectsFacade.deleteSubject(project, subject);
+    subjectsCache.invalidate(project, subject);
     if (versions.size() != deleted) {
       throw new SchemaException(RESTCodes.SchemaRegistryErrorCode.INTERNAL_SERVER_ERROR, Level.FINE, "error deleting " +
         "subject. versions=" + Arrays.toString(versions.toArray()) + ", but deleted " + deleted + " items.");
@@ -271,24 +270,16 @@ public class SubjectsController {
       throw new SchemaException(RESTCodes.SchemaRegistryErrorCode.INVALID_AVRO_SCHEMA, Level.FINE,
         "schema=" + schemaToTest);
     }
-    if (!subjectsFacade.getListOfSubjects(project).contains(subject)) {
-      throw new SchemaException(RESTCodes.SchemaRegistryErrorCode.SUBJECT_NOT_FOUND, Level.FINE, "subject=" +
-        subject);
-    }
+    SubjectsCache.SubjectVersions versions = getSubjectOrThrow(project, subject);
     SchemaCompatibility sc = getSubjectOrProjectCompatibility(project, subject);
-    Optional<Subjects> optional;
-    if (version.equals("latest")) {
-      optional = subjectsFacade.findSubjectLatestVersion(project, subject);
-    } else {
-      optional = subjectsFacade.findSubjectByNameAndVersion(project, subject, Integer.valueOf(version));
-    }
+    Optional<Subjects> optional = getSubjectVersion(versions, version);
     
     if (!optional.isPresent()) {
       throw new SchemaException(RESTCodes.SchemaRegistryErrorCode.VERSION_NOT_FOUND, Level.FINE, "project=" + project
         .getName() + ", subject=" + subject + ", version=" + version);
     }
     
-    boolean isCompatible = isCompatible(new Schema.Parser().parse(optional.get().getSchema().getSchema()), schema, sc);
+    boolean isCompatible = isCompatible(versions.getParsedSchema(optional.get()), schema, sc);
     return new CompatibilityCheck(isCompatible);
   }
   
@@ -318,6 +309,7 @@ public class SubjectsController {
         ", subject=" + subject + ", version=" + versionToDelete);
     }
     subjectsFacade.remove(optional.get());
+    subjectsCache.invalidate(project, subject);
     subjectsCompatibilityFacade.getSubjectCompatibility(project, subject)
       .ifPresent(sc -> subjectsCompatibilityFacade.remove(sc));
     return versionToDelete;
@@ -62,6 +62,7 @@ import org.opensearch.index.IndexNotFoundException;
 import org.opensearch.index.reindex.BulkByScrollResponse;
 import org.opensearch.index.reindex.DeleteByQueryRequest;
 import org.opensearch.rest.RestStatus;
+import org.opensearch.search.SearchHit;
 import org.javatuples.Pair;
 
 import javax.ejb.EJB;
@@ -361,6 +362,36 @@ public class OpenSearchClientController {
     return scrolling(response, handler, request);
   }
 
+  /**
+   * Goes through all results matching the search one page at a time, asking for the page following the last hit with
+   * search_after. Unlike scrolling, no search context is kept open and the pages are handed to the handler as they
+   * arrive, so the memory used is bounded by the page size as long as the handler does not accumulate the hits
+   * (see OpenSearchHits.handlerConsume).
+   * The request has to be sorted on a unique field (see OpenSearchHelper.withSearchAfterTieBreaker) and cannot use
+   * from, the page size is the size of the request.
+   * @param request
+   * @param handler
+   * @param <R>
+   * @param <S>
+   * @return pair of totalHits and the result of the handler after the last page
+   * @throws OpenSearchException
+   */
+  public <R, S> Pair<Long, Try<S>> searchAfter(SearchRequest request, OpenSearchHits.Handler<R, S> handler)
+    throws OpenSearchException {
+    int pageSize = request.source().size();
+    SearchResponse response = baseSearch(request);
+    long totalHits = response.getHits().getTotalHits() != null ? response.getHits().getTotalHits().value : 0;
+    SearchHit[] hits = response.getHits().getHits();
+    Try<S> result = handler.apply(hits);
+    while (result.isSuccess() && pageSize > 0 && hits.length == pageSize) {
+      request.source().searchAfter(hits[hits.length - 1].getSortValues());
+      response = baseSearch(request);
+      hits = response.getHits().getHits();
+      result = handler.apply(hits);
+    }
+    return Pair.with(totalHits, result);
+  }
+
   /**
   * Returns all MultiSearch results in a list matching the respective MultiSearch request -
    * these results are all built in memory, so use with care.
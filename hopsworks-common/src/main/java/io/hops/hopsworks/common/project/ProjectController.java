@@ -97,6 +97,7 @@ import io.hops.hopsworks.common.security.CertificateMaterializer;
 import io.hops.hopsworks.common.security.CertificatesController;
 import io.hops.hopsworks.common.serving.ServingController;
 import io.hops.hopsworks.common.serving.inference.logger.KafkaInferenceLogger;
+import io.hops.hopsworks.common.serving.inference.logger.KafkaInferenceProducerPool;
 import io.hops.hopsworks.common.user.UsersController;
 import io.hops.hopsworks.common.util.DateUtils;
 import io.hops.hopsworks.common.util.ProjectUtils;
@@ -162,11 +163,13 @@ import org.apache.hadoop.yarn.client.api.YarnClient;
 import org.apache.hadoop.yarn.conf.YarnConfiguration;
 import org.apache.hadoop.yarn.exceptions.YarnException;
 
+import javax.annotation.Resource;
 import javax.ejb.EJB;
 import javax.ejb.EJBException;
 import javax.ejb.Stateless;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
+import javax.enterprise.concurrent.ManagedExecutorService;
 import javax.enterprise.inject.Any;
 import javax.enterprise.inject.Instance;
 import javax.inject.Inject;
@@ -197,6 +200,7 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -206,6 +210,15 @@ import java.util.stream.Collectors;
 public class ProjectController {
 
   private static final Logger LOGGER = Logger.getLogger(ProjectController.class.getName());
+  // Steps of the project creation
+  private static final String PROVISIONING_CERTIFICATES = "certificates";
+  private static final String PROVISIONING_DIRECTORY = "directory";
+  private static final String PROVISIONING_QUOTAS = "quotas";
+  private static final String PROVISIONING_LOG_RESOURCES = "log_resources";
+  private static final String PROVISIONING_OPENSEARCH_CLEANUP = "opensearch_cleanup";
+  private static final String PROVISIONING_SERVICES = "services";
+  private static final String PROVISIONING_POST_CREATE_HANDLERS = "post_create_handlers";
+  private static final String PROVISIONING_ENVIRONMENT = "environment";
 
   @EJB
   protected UsersController usersController;
@@ -260,6 +273,8 @@ public class ProjectController {
   @EJB
   private CertificateMaterializer certificateMaterializer;
   @EJB
+  private KafkaInferenceProducerPool kafkaInferenceProducerPool;
+  @EJB
   private HiveController hiveController;
   @EJB
   private HdfsUsersController hdfsUsersController;
@@ -307,6 +322,10 @@ public class ProjectController {
   private Instance<ProjectTeamRoleHandler> projectTeamRoleHandlers;
   @EJB
   private SearchFSCommandLogger searchFSCommandLogger;
+  @EJB
+  private ProvisioningStats provisioningStats;
+  @Resource(lookup = "concurrent/hopsExecutorService")
+  private ManagedExecutorService executorService;
 
   public Project createProject(ProjectDTO projectDTO, Users owner) throws DatasetException,
       GenericException, KafkaException, ProjectException, UserException, HopsSecurityException, ServiceException,
@@ -425,122 +444,118 @@ public class ProjectController {
       LOGGER.log(Level.FINE, "PROJECT CREATION TIME. Step 4 (certs): {0}", System.currentTimeMillis() - startTime);
 
       //all the verifications have passed, we can now create the project
-      //create the project folder
-      ProvTypeDTO provType = settings.getProvType().dto;
-      try {
-        mkProjectDIR(projectName, dfso);
-        fsProvController.updateProjectProvType(project, provType, dfso);
-        LOGGER.log(Level.INFO, projectCreationLog(projectDTO, "Created project directory in HopsFS"));
-      } catch (IOException | EJBException | ProvenanceException ex) {
-        cleanup(project, projectCreationFutures, owner);
-        throw new ProjectException(RESTCodes.ProjectErrorCode.PROJECT_FOLDER_NOT_CREATED, Level.SEVERE,
-          "project: " + projectName, ex.getMessage(), ex);
-      }
-      LOGGER.log(Level.FINE, "PROJECT CREATION TIME. Step 5 (inodes): {0}", System.currentTimeMillis() - startTime);
-
-      //set payment and quotas
-      try {
-        setProjectOwnerAndQuotas(project, dfso, owner);
-        LOGGER.log(Level.INFO, projectCreationLog(projectDTO, "Set project owner and quotas"));
-      } catch (IOException | EJBException ex) {
-        cleanup(project, projectCreationFutures, owner);
-        throw new ProjectException(RESTCodes.ProjectErrorCode.QUOTA_ERROR, Level.SEVERE, "project: " + project.getName()
-          , ex.getMessage(), ex);
-      }
-      LOGGER.log(Level.FINE, "PROJECT CREATION TIME. Step 6 (quotas): {0}", System.currentTimeMillis() - startTime);
-
-      try {
-        hdfsUsersController.addProjectFolderOwner(project, dfso);
-        createProjectLogResources(owner, project, dfso);
-        LOGGER.log(Level.INFO, projectCreationLog(projectDTO, "Created project log resources"));
-      } catch (IOException | EJBException ex) {
-        cleanup(project, projectCreationFutures);
-        throw new ProjectException(RESTCodes.ProjectErrorCode.PROJECT_SET_PERMISSIONS_ERROR, Level.SEVERE,
-          "project: " + projectName, ex.getMessage(), ex);
-      }
-      LOGGER.log(Level.FINE, "PROJECT CREATION TIME. Step 7 (logs): {0}", System.currentTimeMillis() - startTime);
-
-      //Delete old project indices and kibana saved objects to avoid
-      // inconsistencies
-      try {
-        openSearchController.deleteProjectIndices(project);
-        openSearchController.deleteProjectSavedObjects(project);
-        LOGGER.log(Level.FINE, "PROJECT CREATION TIME. Step 8 (opensearch cleanup): {0}",
-            System.currentTimeMillis() - startTime);
-        LOGGER.log(Level.INFO, projectCreationLog(projectDTO, "Deleted old OpenSearch indices"));
-      } catch (OpenSearchException ex){
-        LOGGER.log(Level.FINE, "Error while cleaning old project indices", ex);
-      }
-
+      final Project provisioned = project;
+      final DistributedFileSystemOps provisioningDfso = dfso;
+      final ProvTypeDTO provType = settings.getProvType().dto;
+      final AtomicReference<Project> envProject = new AtomicReference<>();
       logProject(project, OperationType.Add);
 
-      // wait for certs before adding services
-      try {
-        if (certsResultFuture != null) {
-          certsResultFuture.get();
-          LOGGER.log(Level.INFO, projectCreationLog(projectDTO, "Created project certificates"));
-        }
-      } catch (InterruptedException | ExecutionException ex) {
-        LOGGER.log(Level.SEVERE, "Error while waiting for the certificate generation thread to finish. Will try to " +
-          "cleanup...", ex);
-        cleanup(project, projectCreationFutures);
-        throw new HopsSecurityException(RESTCodes.SecurityErrorCode.CERT_CREATION_ERROR, Level.SEVERE, "Error while " +
-          "generating certificates.", ex.getMessage(), ex);
-      }
-      // enable services
-      for (ProjectServiceEnum service : projectServices) {
-        try {
-          LOGGER.log(Level.INFO, projectCreationLog(projectDTO, "Adding service " + service));
-          projectCreationFutures.addAll(addService(project, service, owner, dfso, provType));
-        } catch (RESTException | IOException ex) {
-          LOGGER.log(Level.SEVERE, "Error enabling service {0}: {1}. Will try to cleanup...", new Object[]{service,
-            ex.getMessage()});
-          cleanup(project, projectCreationFutures);
-          throw ex;
-        }
-      }
-
-      try {
-        for (Future f : projectCreationFutures) {
-          if (f != null) {
-            f.get();
+      ProvisioningPlan plan = new ProvisioningPlan("project " + projectName)
+        // wait for certs before adding services
+        .add(PROVISIONING_CERTIFICATES, () -> {
+          try {
+            if (certsResultFuture != null) {
+              certsResultFuture.get();
+              LOGGER.log(Level.INFO, projectCreationLog(projectDTO, "Created project certificates"));
+            }
+          } catch (InterruptedException | ExecutionException ex) {
+            throw new HopsSecurityException(RESTCodes.SecurityErrorCode.CERT_CREATION_ERROR, Level.SEVERE,
+              "Error while generating certificates.", ex.getMessage(), ex);
           }
-        }
-        LOGGER.log(Level.INFO, projectCreationLog(projectDTO, "Finished with all async project creation tasks"));
-      } catch (InterruptedException | ExecutionException ex) {
-        LOGGER.log(Level.SEVERE, "Error while waiting for project creation future thread to finish. Will try to " +
-          "cleanup...", ex);
-        cleanup(project, projectCreationFutures);
-        throw new ProjectException(RESTCodes.ProjectErrorCode.PROJECT_SERVICE_ADD_FAILURE, Level.SEVERE,
-          "Error while adding services.", ex.getMessage(), ex);
-      }
-
-      // Run the handlers.
-      try {
-        ProjectHandler.runProjectPostCreateHandlers(projectHandlers, project);
-        LOGGER.log(Level.INFO, projectCreationLog(projectDTO, "Ran post-create handlers"));
-      } catch (ProjectException ex) {
-        LOGGER.log(Level.SEVERE, "Error running Project Post Create Handlers {0}. Will try to cleanup...",
-          ex.getMessage());
-        cleanup(project, projectCreationFutures);
-        throw ex;
-      }
+        })
+        //create the project folder
+        .add(PROVISIONING_DIRECTORY, () -> {
+          try {
+            mkProjectDIR(projectName, provisioningDfso);
+            fsProvController.updateProjectProvType(provisioned, provType, provisioningDfso);
+            LOGGER.log(Level.INFO, projectCreationLog(projectDTO, "Created project directory in HopsFS"));
+          } catch (IOException | EJBException | ProvenanceException ex) {
+            throw new ProjectException(RESTCodes.ProjectErrorCode.PROJECT_FOLDER_NOT_CREATED, Level.SEVERE,
+              "project: " + projectName, ex.getMessage(), ex);
+          }
+        })
+        //set payment and quotas
+        .add(PROVISIONING_QUOTAS, () -> {
+          try {
+            setProjectOwnerAndQuotas(provisioned, provisioningDfso, owner);
+            LOGGER.log(Level.INFO, projectCreationLog(projectDTO, "Set project owner and quotas"));
+          } catch (IOException | EJBException ex) {
+            throw new ProjectException(RESTCodes.ProjectErrorCode.QUOTA_ERROR, Level.SEVERE,
+              "project: " + projectName, ex.getMessage(), ex);
+          }
+        }, PROVISIONING_DIRECTORY)
+        .add(PROVISIONING_LOG_RESOURCES, () -> {
+          try {
+            hdfsUsersController.addProjectFolderOwner(provisioned, provisioningDfso);
+            createProjectLogResources(owner, provisioned, provisioningDfso);
+            LOGGER.log(Level.INFO, projectCreationLog(projectDTO, "Created project log resources"));
+          } catch (IOException | EJBException ex) {
+            throw new ProjectException(RESTCodes.ProjectErrorCode.PROJECT_SET_PERMISSIONS_ERROR, Level.SEVERE,
+              "project: " + projectName, ex.getMessage(), ex);
+          }
+        }, PROVISIONING_QUOTAS)
+        //Delete old project indices and kibana saved objects to avoid
+        // inconsistencies. Must be done before the services create the index patterns of the project
+        .add(PROVISIONING_OPENSEARCH_CLEANUP, () -> {
+          try {
+            openSearchController.deleteProjectIndices(provisioned);
+            openSearchController.deleteProjectSavedObjects(provisioned);
+            LOGGER.log(Level.INFO, projectCreationLog(projectDTO, "Deleted old OpenSearch indices"));
+          } catch (OpenSearchException ex) {
+            LOGGER.log(Level.FINE, "Error while cleaning old project indices", ex);
+          }
+        })
+        // enable services
+        .add(PROVISIONING_SERVICES, () -> {
+          for (ProjectServiceEnum service : projectServices) {
+            LOGGER.log(Level.INFO, projectCreationLog(projectDTO, "Adding service " + service));
+            projectCreationFutures.addAll(addService(provisioned, service, owner, provisioningDfso, provType));
+          }
+          try {
+            for (Future f : projectCreationFutures) {
+              if (f != null) {
+                f.get();
+              }
+            }
+            LOGGER.log(Level.INFO, projectCreationLog(projectDTO, "Finished with all async project creation tasks"));
+          } catch (InterruptedException | ExecutionException ex) {
+            throw new ProjectException(RESTCodes.ProjectErrorCode.PROJECT_SERVICE_ADD_FAILURE, Level.SEVERE,
+              "Error while adding services.", ex.getMessage(), ex);
+          }
+        }, PROVISIONING_CERTIFICATES, PROVISIONING_LOG_RESOURCES, PROVISIONING_OPENSEARCH_CLEANUP)
+        // Run the handlers.
+        .add(PROVISIONING_POST_CREATE_HANDLERS, () -> {
+          ProjectHandler.runProjectPostCreateHandlers(projectHandlers, provisioned);
+          LOGGER.log(Level.INFO, projectCreationLog(projectDTO, "Ran post-create handlers"));
+        }, PROVISIONING_SERVICES)
+        .add(PROVISIONING_ENVIRONMENT, () -> {
+          try {
+            envProject.set(environmentController.createEnv(provisioned, owner));
+            LOGGER.log(Level.INFO, projectCreationLog(projectDTO, "Created Python environment"));
+          } catch (PythonException | EJBException ex) {
+            throw new ProjectException(RESTCodes.ProjectErrorCode.PROJECT_ANACONDA_ENABLE_ERROR, Level.SEVERE,
+              "project: " + projectName, ex.getMessage(), ex);
+          }
+        }, PROVISIONING_POST_CREATE_HANDLERS);
 
       try {
-        project = environmentController.createEnv(project, owner);
-        LOGGER.log(Level.INFO, projectCreationLog(projectDTO, "Created Python environment"));
-      } catch (PythonException | EJBException ex) {
-        LOGGER.log(Level.SEVERE, "Error creating environment {0}. Will try to cleanup...", ex.getMessage());
-        cleanup(project, projectCreationFutures);
-        throw new ProjectException(RESTCodes.ProjectErrorCode.PROJECT_ANACONDA_ENABLE_ERROR, Level.SEVERE,
-          "project: " + projectName, ex.getMessage(), ex);
+        Map<String, Long> durations = plan.run(executorService);
+        provisioningStats.record(durations, true);
+        LOGGER.log(Level.FINE, "PROJECT CREATION TIME. Steps: {0}", durations);
+      } catch (ProvisioningPlan.StepFailedException ex) {
+        provisioningStats.record(ex.getDurations(), false);
+        LOGGER.log(Level.SEVERE, "Error in project creation step " + ex.getStepName() + ": " +
+          ex.getCause().getMessage() + ". Will try to cleanup...", ex.getCause());
+        cleanup(project, projectCreationFutures, owner);
+        throw provisioningFailure(ex.getCause(), projectName);
       }
+      project = envProject.get();
       
       // set project creation status to done
       project.setCreationStatus(CreationStatus.DONE);
       projectFacade.update(project);
       
-      LOGGER.log(Level.FINE, "PROJECT CREATION TIME. Step 10 (env): {0}", System.currentTimeMillis() - startTime);
+      LOGGER.log(Level.FINE, "PROJECT CREATION TIME. Step 5 (done): {0}", System.currentTimeMillis() - startTime);
       LOGGER.log(Level.INFO, projectCreationLog(projectDTO, "Finished with project creation"));
 
       return project;
@@ -549,11 +564,48 @@ public class ProjectController {
       if (dfso != null) {
         dfso.close();
       }
-      LOGGER.log(Level.FINE, "PROJECT CREATION TIME. Step 11 (close): {0}", System.currentTimeMillis() - startTime);
+      LOGGER.log(Level.FINE, "PROJECT CREATION TIME. Step 6 (close): {0}", System.currentTimeMillis() - startTime);
     }
 
   }
 
+  /**
+   * Rethrow the failure of a project creation step as it was thrown by the step.
+   *
+   * @return the exception to throw if the failure is of none of the expected types
+   */
+  private GenericException provisioningFailure(Throwable failure, String projectName) throws ProjectException,
+    ServiceException, DatasetException, HopsSecurityException, UserException, FeaturestoreException,
+    OpenSearchException, SchemaException, KafkaException, IOException {
+    if (failure instanceof ProjectException) {
+      throw (ProjectException) failure;
+    } else if (failure instanceof HopsSecurityException) {
+      throw (HopsSecurityException) failure;
+    } else if (failure instanceof ServiceException) {
+      throw (ServiceException) failure;
+    } else if (failure instanceof DatasetException) {
+      throw (DatasetException) failure;
+    } else if (failure instanceof UserException) {
+      throw (UserException) failure;
+    } else if (failure instanceof FeaturestoreException) {
+      throw (FeaturestoreException) failure;
+    } else if (failure instanceof OpenSearchException) {
+      throw (OpenSearchException) failure;
+    } else if (failure instanceof SchemaException) {
+      throw (SchemaException) failure;
+    } else if (failure instanceof KafkaException) {
+      throw (KafkaException) failure;
+    } else if (failure instanceof IOException) {
+      throw (IOException) failure;
+    } else if (failure instanceof RuntimeException) {
+      throw (RuntimeException) failure;
+    } else if (failure instanceof Error) {
+      throw (Error) failure;
+    }
+    return new GenericException(RESTCodes.GenericErrorCode.UNKNOWN_ERROR, Level.SEVERE,
+      "project: " + projectName, failure.getMessage(), failure);
+  }
+
   @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
   private void verifyProject(Project project, DistributedFileSystemOps dfso) throws ProjectException, GenericException {
     //proceed to all the verifications and set up local variable
@@ -1512,6 +1564,7 @@ public class ProjectController {
    * @param project Project to be deleted
    */
   private void removeCertificatesFromMaterializer(Project project) {
+    kafkaInferenceProducerPool.closeProducer(project);
     for (ProjectTeam team : project.getProjectTeamCollection()) {
       certificateMaterializer.forceRemoveLocalMaterial(team.getUser().getUsername(), project.getName(), null, true);
       String remoteCertsDirectory = settings.getHdfsTmpCertDir() + Path.SEPARATOR +
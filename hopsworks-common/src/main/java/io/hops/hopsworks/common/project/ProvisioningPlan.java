@@ -0,0 +1,224 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2023, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.project;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Steps of the provisioning of a project and the steps each of them depends on. A step is started as soon as all its
+ * dependencies have finished, so steps that do not depend on each other run concurrently. Steps can only depend on
+ * steps added before them, so the plan cannot have cycles.
+ *
+ * When a step fails no other step is started, the steps already running are waited for and the failure is thrown
+ * once they have finished, so that the caller can clean up without racing with them.
+ */
+public class ProvisioningPlan {
+
+  private static final Logger LOGGER = Logger.getLogger(ProvisioningPlan.class.getName());
+
+  @FunctionalInterface
+  public interface Step {
+    void run() throws Exception;
+  }
+
+  private final String name;
+  private final Map<String, Node> nodes = new LinkedHashMap<>();
+
+  /**
+   * @param name name of what is being provisioned, for the logs
+   */
+  public ProvisioningPlan(String name) {
+    this.name = name;
+  }
+
+  /**
+   * @param stepName
+   * @param step
+   * @param dependencies names of the steps that must have finished before this step starts
+   * @return this plan
+   */
+  public ProvisioningPlan add(String stepName, Step step, String... dependencies) {
+    if (nodes.containsKey(stepName)) {
+      throw new IllegalArgumentException("Step " + stepName + " already added to " + name);
+    }
+    for (String dependency : dependencies) {
+      if (!nodes.containsKey(dependency)) {
+        throw new IllegalArgumentException("Step " + stepName + " depends on " + dependency + " which has not been " +
+          "added to " + name);
+      }
+    }
+    nodes.put(stepName, new Node(stepName, step, Arrays.asList(dependencies)));
+    return this;
+  }
+
+  /**
+   * Run the steps, on the executor when possible and on the calling thread when the executor rejects them.
+   *
+   * @param executor
+   * @return the duration in ms of the steps that succeeded, in the order they finished
+   * @throws StepFailedException if a step failed
+   */
+  public Map<String, Long> run(ExecutorService executor) throws StepFailedException {
+    Map<String, Long> durations = new LinkedHashMap<>();
+    CompletionService<Result> completionService = new ExecutorCompletionService<>(executor);
+    Set<String> started = new HashSet<>();
+    StepFailedException failure = null;
+    boolean interrupted = false;
+    int running = 0;
+
+    List<Node> ready = nextReady(started, durations.keySet());
+    while (!ready.isEmpty() || running > 0) {
+      for (Node node : ready) {
+        if (failure != null) {
+          break;
+        }
+        started.add(node.name);
+        try {
+          completionService.submit(node::execute);
+          running++;
+        } catch (RejectedExecutionException e) {
+          LOGGER.log(Level.FINE, "Running step {0} of {1} on the calling thread", new Object[]{node.name, name});
+          failure = record(node.execute(), durations, failure);
+        }
+      }
+      if (running > 0) {
+        try {
+          Future<Result> future = completionService.take();
+          running--;
+          failure = record(getResult(future), durations, failure);
+        } catch (InterruptedException e) {
+          // Keep waiting for the running steps, but do not start new ones
+          interrupted = true;
+          if (failure == null) {
+            failure = new StepFailedException(null, e);
+          }
+        }
+      }
+      ready = failure == null ? nextReady(started, durations.keySet()) : Collections.emptyList();
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+    if (failure != null) {
+      failure.durations = durations;
+      throw failure;
+    }
+    return durations;
+  }
+
+  private List<Node> nextReady(Set<String> started, Set<String> finished) {
+    List<Node> ready = new ArrayList<>();
+    for (Node node : nodes.values()) {
+      if (!started.contains(node.name) && finished.containsAll(node.dependencies)) {
+        ready.add(node);
+      }
+    }
+    return ready;
+  }
+
+  private Result getResult(Future<Result> future) throws InterruptedException {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      // Node.execute only lets errors through
+      return new Result(null, 0, e.getCause());
+    }
+  }
+
+  private StepFailedException record(Result result, Map<String, Long> durations, StepFailedException failure) {
+    if (result.error == null) {
+      durations.put(result.stepName, result.durationMs);
+      LOGGER.log(Level.FINE, "Step {0} of {1} took {2} ms", new Object[]{result.stepName, name, result.durationMs});
+      return failure;
+    }
+    LOGGER.log(Level.FINE, "Step " + result.stepName + " of " + name + " failed", result.error);
+    // Only the first failure is thrown, the following ones are likely caused by it
+    return failure != null ? failure : new StepFailedException(result.stepName, result.error);
+  }
+
+  private static class Node {
+    private final String name;
+    private final Step step;
+    private final List<String> dependencies;
+
+    Node(String name, Step step, List<String> dependencies) {
+      this.name = name;
+      this.step = step;
+      this.dependencies = dependencies;
+    }
+
+    Result execute() {
+      long start = System.currentTimeMillis();
+      try {
+        step.run();
+        return new Result(name, System.currentTimeMillis() - start, null);
+      } catch (Exception e) {
+        return new Result(name, System.currentTimeMillis() - start, e);
+      }
+    }
+  }
+
+  private static class Result {
+    private final String stepName;
+    private final long durationMs;
+    private final Throwable error;
+
+    Result(String stepName, long durationMs, Throwable error) {
+      this.stepName = stepName;
+      this.durationMs = durationMs;
+      this.error = error;
+    }
+  }
+
+  public static class StepFailedException extends Exception {
+    private final String stepName;
+    private Map<String, Long> durations = Collections.emptyMap();
+
+    StepFailedException(String stepName, Throwable cause) {
+      super("Provisioning step " + stepName + " failed", cause);
+      this.stepName = stepName;
+    }
+
+    /**
+     * @return the name of the step that failed, null if interrupted while waiting for the steps
+     */
+    public String getStepName() {
+      return stepName;
+    }
+
+    /**
+     * @return the duration in ms of the steps that succeeded before the failure
+     */
+    public Map<String, Long> getDurations() {
+      return durations;
+    }
+  }
+}
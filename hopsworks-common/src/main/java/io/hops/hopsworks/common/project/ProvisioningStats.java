@@ -0,0 +1,110 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2023, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.project;
+
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Singleton;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Duration of the steps of the project creations on this node.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+public class ProvisioningStats {
+
+  private final Map<String, StepStats> steps = new ConcurrentHashMap<>();
+  private final AtomicLong succeeded = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+  private volatile Map<String, Long> lastDurations = Collections.emptyMap();
+
+  /**
+   * @param durations duration in ms of the steps that succeeded
+   * @param success whether the whole provisioning succeeded
+   */
+  public void record(Map<String, Long> durations, boolean success) {
+    for (Map.Entry<String, Long> duration : durations.entrySet()) {
+      steps.computeIfAbsent(duration.getKey(), StepStats::new).record(duration.getValue());
+    }
+    if (success) {
+      succeeded.incrementAndGet();
+      lastDurations = Collections.unmodifiableMap(new LinkedHashMap<>(durations));
+    } else {
+      failed.incrementAndGet();
+    }
+  }
+
+  public Map<String, StepStats> getSteps() {
+    return Collections.unmodifiableMap(steps);
+  }
+
+  /**
+   * @return the duration in ms of the steps of the last successful provisioning, in the order they finished
+   */
+  public Map<String, Long> getLastDurations() {
+    return lastDurations;
+  }
+
+  public long getSucceeded() {
+    return succeeded.get();
+  }
+
+  public long getFailed() {
+    return failed.get();
+  }
+
+  public static class StepStats {
+    private final String name;
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalMs = new AtomicLong();
+    private final AtomicLong maxMs = new AtomicLong();
+
+    StepStats(String name) {
+      this.name = name;
+    }
+
+    void record(long durationMs) {
+      count.incrementAndGet();
+      totalMs.addAndGet(durationMs);
+      maxMs.accumulateAndGet(durationMs, Math::max);
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public long getCount() {
+      return count.get();
+    }
+
+    public long getAverageMs() {
+      long c = count.get();
+      return c > 0 ? totalMs.get() / c : 0;
+    }
+
+    public long getMaxMs() {
+      return maxMs.get();
+    }
+  }
+}
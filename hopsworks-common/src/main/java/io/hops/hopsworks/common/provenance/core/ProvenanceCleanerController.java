@@ -20,6 +20,7 @@ import io.hops.hopsworks.common.dao.hdfs.inode.InodeFacade;
 import io.hops.hopsworks.persistence.entity.project.Project;
 import io.hops.hopsworks.common.dao.project.ProjectFacade;
 import io.hops.hopsworks.common.opensearch.OpenSearchClientController;
+import io.hops.hopsworks.common.provenance.core.opensearch.OpenSearchCache;
 import io.hops.hopsworks.common.util.Settings;
 import io.hops.hopsworks.exceptions.OpenSearchException;
 import io.hops.hopsworks.exceptions.ProvenanceException;
@@ -47,6 +48,8 @@ public class ProvenanceCleanerController {
   private ProjectFacade projectFacade;
   @EJB
   private InodeFacade inodeFacade;
+  @EJB
+  private OpenSearchCache cache;
   
   public Pair<Integer, String> indexCleanupRound(String nextToCheck, Integer limit)
     throws ProvenanceException, OpenSearchException {
@@ -95,6 +98,7 @@ public class ProvenanceCleanerController {
     DeleteIndexRequest request = new DeleteIndexRequest(indexName);
     try {
       client.mngIndexDelete(request);
+      cache.invalidateMapping(indexName);
     } catch (OpenSearchException e) {
       if(e.getCause() instanceof OpenSearchException) {
         OpenSearchStatusException ex = (OpenSearchStatusException)e.getCause();
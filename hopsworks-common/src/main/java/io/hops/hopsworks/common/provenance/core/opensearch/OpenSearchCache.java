@@ -15,81 +15,164 @@
  */
 package io.hops.hopsworks.common.provenance.core.opensearch;
 
-import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.topic.ITopic;
+import com.hazelcast.topic.Message;
+import com.hazelcast.topic.MessageListener;
 import io.hops.hopsworks.common.opensearch.OpenSearchClientController;
+import io.hops.hopsworks.common.util.Settings;
 import io.hops.hopsworks.exceptions.OpenSearchException;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
 import javax.ejb.ConcurrencyManagement;
 import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.DependsOn;
 import javax.ejb.EJB;
-import javax.ejb.Lock;
-import javax.ejb.LockType;
 import javax.ejb.Singleton;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
+import javax.enterprise.concurrent.ManagedExecutorService;
+import javax.inject.Inject;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
+/**
+ * Mappings of the provenance indices. Entries accessed after provenance_mapping_cache_refresh_ms are reloaded in the
+ * background while the current mapping keeps being served, entries not accessed for
+ * provenance_mapping_cache_expiry_ms are dropped and the cache holds at most provenance_mapping_cache_max_weight
+ * characters of field names and types.
+ */
 @Singleton
+@DependsOn("Settings")
 @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
-@ConcurrencyManagement(ConcurrencyManagementType.CONTAINER)
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
 public class OpenSearchCache {
   
   private static final Logger LOG = Logger.getLogger(OpenSearchCache.class.getName());
+  private static final String MAPPING_INVALIDATED_TOPIC_NAME = "provenance_mapping_invalidated";
   
   @EJB
   private OpenSearchClientController client;
+  @EJB
+  private Settings settings;
+  @Inject
+  private HazelcastInstance hazelcastInstance;
+  @Resource(lookup = "concurrent/hopsExecutorService")
+  private ManagedExecutorService executorService;
   
-  //Each node in HA setup can have its own cached indexMappings
-  private Cache<String, Map<String, String>> indexMappings;
+  //Each node in HA setup has its own cached indexMappings, invalidations are sent to all of them
+  private LoadingCache<String, Map<String, String>> indexMappings;
+  private ITopic<String> mappingInvalidatedTopic;
+  private UUID msgListenerId;
   
   @PostConstruct
   private void initClient() {
     indexMappings = Caffeine.newBuilder()
-      .expireAfterWrite(1, TimeUnit.HOURS)
-      .maximumSize(50)
-      .build();
+      .maximumWeight(settings.getProvMappingCacheMaxWeight())
+      .weigher(OpenSearchCache::weight)
+      .refreshAfterWrite(settings.getProvMappingCacheRefreshMs(), TimeUnit.MILLISECONDS)
+      .expireAfterAccess(settings.getProvMappingCacheExpiryMs(), TimeUnit.MILLISECONDS)
+      .executor(executorService)
+      .build(this::loadMapping);
+    // hazelcastInstance == null if Hazelcast is Disabled
+    if (hazelcastInstance != null) {
+      mappingInvalidatedTopic = hazelcastInstance.getTopic(MAPPING_INVALIDATED_TOPIC_NAME);
+      msgListenerId = mappingInvalidatedTopic.addMessageListener(new MessageListenerImpl());
+    }
+  }
+  
+  @PreDestroy
+  public void destroy() {
+    if (mappingInvalidatedTopic != null) {
+      //needed for redeploy to remove the listener
+      mappingInvalidatedTopic.removeMessageListener(msgListenerId);
+    }
   }
   
-  @Lock(LockType.READ)
   public void cacheMapping(String index, Map<String, String> mapping) {
     indexMappings.put(index, mapping);
   }
   
-  @Lock(LockType.READ)
   public Map<String, String> getMapping(String index) {
     return indexMappings.getIfPresent(index);
   }
   
-  @Lock(LockType.READ)
   public void clearMapping(String index) {
     indexMappings.invalidate(index);
   }
   
+  /**
+   * Drop the mapping of the index on this and the other nodes of the cluster. To be called when the index is
+   * deleted or its mapping is known to have changed.
+   *
+   * @param index
+   */
+  public void invalidateMapping(String index) {
+    clearMapping(index);
+    //Notify other nodes if mappingInvalidatedTopic is created == Hazelcast is enabled
+    if (mappingInvalidatedTopic != null) {
+      mappingInvalidatedTopic.publish(index);
+    }
+  }
+  
   public Map<String, String> mngIndexGetMapping(String index, boolean forceFetch) throws OpenSearchException {
     if(forceFetch) {
-      clearMapping(index);
+      invalidateMapping(index);
+    }
+    Map<String, String> mapping;
+    try {
+      mapping = indexMappings.get(index);
+    } catch(CompletionException e) {
+      if(e.getCause() instanceof OpenSearchException) {
+        throw (OpenSearchException) e.getCause();
+      }
+      throw e;
+    }
+    return mapping != null ? mapping : new HashMap<>();
+  }
+  
+  /**
+   * Used both for the first load and the background refresh of a mapping. Returning null does not cache anything
+   * and drops the stale mapping on refresh.
+   */
+  private Map<String, String> loadMapping(String index) throws OpenSearchException {
+    try {
+      Map<String, Map<String, String>> result = client.mngIndexGetMappings(index);
+      return result.get(index);
+    } catch(OpenSearchException e) {
+      if(OpenSearchHelper.indexNotFound(e.getCause())) {
+        return null;
+      } else {
+        throw e;
+      }
     }
-    Map<String, String> mapping = getMapping(index);
-    if(mapping == null) {
-      try {
-        Map<String, Map<String, String>> result = client.mngIndexGetMappings(index);
-        mapping = result.get(index);
-        if(mapping != null) {
-          cacheMapping(index, mapping);
-        }
-      } catch(OpenSearchException e) {
-        if(OpenSearchHelper.indexNotFound(e.getCause())) {
-          return new HashMap<>();
-        } else {
-          throw e;
-        }
+  }
+  
+  private static int weight(String index, Map<String, String> mapping) {
+    long weight = index.length();
+    for (Map.Entry<String, String> field : mapping.entrySet()) {
+      weight += field.getKey().length() + field.getValue().length();
+    }
+    return (int) Math.min(weight, Integer.MAX_VALUE);
+  }
+  
+  public class MessageListenerImpl implements MessageListener<String> {
+    
+    @Override
+    public void onMessage(Message<String> message) {
+      if (!message.getPublishingMember().localMember()) {
+        LOG.log(Level.FINE, "Provenance index mapping invalidated on another node {0}", message.getMessageObject());
+        clearMapping(message.getMessageObject());
       }
     }
-    return mapping;
   }
 }
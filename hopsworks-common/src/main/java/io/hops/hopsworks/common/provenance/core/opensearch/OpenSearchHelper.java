@@ -127,6 +127,18 @@ public class OpenSearchHelper {
     };
   }
   
+  /**
+   * Sort last on a field that is unique across the hits, so that search_after pagination neither skips nor repeats
+   * hits sharing the values of the requested sort.
+   */
+  public static CheckedFunction<SearchRequest, SearchRequest, ProvenanceException> withSearchAfterTieBreaker(
+    String uniqueField) {
+    return (SearchRequest sr) -> {
+      sr.source().sort(SortBuilders.fieldSort(uniqueField).order(SortOrder.ASC));
+      return sr;
+    };
+  }
+  
   public static CheckedFunction<SearchRequest, SearchRequest, ProvenanceException> withFileOpsOrder(
     List<Pair<ProvParser.Field, SortOrder>> fileOpsSortBy) {
     return (SearchRequest sr) -> {
@@ -16,6 +16,7 @@
 package io.hops.hopsworks.common.provenance.core.opensearch;
 
 import com.lambdista.util.Try;
+import io.hops.hopsworks.common.provenance.util.functional.CheckedConsumer;
 import org.opensearch.search.SearchHit;
 
 import java.util.ArrayList;
@@ -91,4 +92,17 @@ public class OpenSearchHits {
     };
     return new OpenSearchHitsHandlerImpl<>(parser, new HashSet<R>(), simpleListAcc);
   }
+  
+  /**
+   * Utility method that hands each item to the consumer as soon as it is parsed, without keeping it. The container
+   * is the number of items consumed, so memory does not grow with the number of hits.
+   */
+  public static <R> Handler<R, Long> handlerConsume(OpenSearchHits.Parser<R> parser,
+                                                    CheckedConsumer<R, ? extends Exception> consumer) {
+    Merger<R, Long> consumeAndCount = (R item, Long consumed) -> Try.apply(() -> {
+      consumer.accept(item);
+      return consumed + 1;
+    });
+    return new OpenSearchHitsHandlerImpl<>(parser, 0L, consumeAndCount);
+  }
 }
@@ -18,6 +18,7 @@ package io.hops.hopsworks.common.provenance.state;
 import io.hops.hopsworks.common.hdfs.inode.InodeController;
 import io.hops.hopsworks.common.provenance.core.PaginationParams;
 import io.hops.hopsworks.common.provenance.state.dto.ProvStateDTO;
+import io.hops.hopsworks.common.provenance.util.functional.CheckedConsumer;
 import io.hops.hopsworks.exceptions.ProvenanceException;
 import io.hops.hopsworks.persistence.entity.hdfs.inode.Inode;
 import io.hops.hopsworks.persistence.entity.project.Project;
@@ -40,16 +41,7 @@ public class ProvStateBuilder {
   public ProvStateDTO build(Project project, ProvStateParams stateParams, PaginationParams pagParams)
     throws ProvenanceException {
     Inode projectInode = inodeController.getProjectRoot(project.getName());
-    ProvStateParamBuilder paramBuilder = new ProvStateParamBuilder()
-      .filterByField(ProvStateParser.FieldsP.PROJECT_I_ID, projectInode.getId())
-      .filterByFields(stateParams.getFileStateFilterBy())
-      .sortByFields(stateParams.getFileStateSortBy())
-      .filterByXAttrs(stateParams.getExactXAttrParams())
-      .filterLikeXAttrs(stateParams.getLikeXAttrParams())
-      .hasXAttrs(stateParams.getFilterByHasXAttrs())
-      .sortByXAttrs(stateParams.getXattrSortBy())
-      .withExpansions(stateParams.getExpansions())
-      .withAppExpansionFilter(stateParams.getAppExpansionParams())
+    ProvStateParamBuilder paramBuilder = paramBuilder(projectInode, stateParams)
       .paginate(pagParams.getOffset(), pagParams.getLimit());
   
     switch (stateParams.getReturnType()) {
@@ -60,4 +52,28 @@ public class ProvStateBuilder {
           "return type: " + stateParams.getReturnType() + " is not managed");
     }
   }
+  
+  /**
+   * Hand all the file states of the project matching the params to the consumer, one page at a time.
+   * @return number of file states consumed
+   */
+  public long stream(Project project, ProvStateParams stateParams,
+                     CheckedConsumer<ProvStateDTO, ? extends Exception> consumer) throws ProvenanceException {
+    Inode projectInode = inodeController.getProjectRoot(project.getName());
+    return stateProvCtrl.provFileStateStream(projectInode, paramBuilder(projectInode, stateParams), consumer);
+  }
+  
+  private ProvStateParamBuilder paramBuilder(Inode projectInode, ProvStateParams stateParams)
+    throws ProvenanceException {
+    return new ProvStateParamBuilder()
+      .filterByField(ProvStateParser.FieldsP.PROJECT_I_ID, projectInode.getId())
+      .filterByFields(stateParams.getFileStateFilterBy())
+      .sortByFields(stateParams.getFileStateSortBy())
+      .filterByXAttrs(stateParams.getExactXAttrParams())
+      .filterLikeXAttrs(stateParams.getLikeXAttrParams())
+      .hasXAttrs(stateParams.getFilterByHasXAttrs())
+      .sortByXAttrs(stateParams.getXattrSortBy())
+      .withExpansions(stateParams.getExpansions())
+      .withAppExpansionFilter(stateParams.getAppExpansionParams());
+  }
 }
@@ -29,6 +29,7 @@ import io.hops.hopsworks.common.provenance.core.opensearch.OpenSearchHelper;
 import io.hops.hopsworks.common.provenance.core.opensearch.OpenSearchHits;
 import io.hops.hopsworks.common.provenance.state.dto.ProvStateDTO;
 import io.hops.hopsworks.common.provenance.util.ProvHelper;
+import io.hops.hopsworks.common.provenance.util.functional.CheckedConsumer;
 import io.hops.hopsworks.common.provenance.util.functional.CheckedFunction;
 import io.hops.hopsworks.common.provenance.util.functional.CheckedSupplier;
 import io.hops.hopsworks.common.util.Settings;
@@ -134,6 +135,53 @@ public class ProvStateController {
       base.xAttrSortBy, base.pagination.getValue0(), base.pagination.getValue1(), handlerFactory);
   }
 
+  /**
+   * Hand all the file states matching the params to the consumer, ignoring pagination. States are read one page at a
+   * time with search_after and are not kept, so the whole provenance of a large project can be exported.
+   * @param projectInode
+   * @param params
+   * @param consumer
+   * @return number of file states consumed
+   * @throws ProvenanceException
+   */
+  public long provFileStateStream(Inode projectInode, ProvStateParamBuilder params,
+                                  CheckedConsumer<ProvStateDTO, ? extends Exception> consumer)
+    throws ProvenanceException {
+    if (params.extensions.hasAppExpansion()) {
+      throw new ProvenanceException(RESTCodes.ProvenanceErrorCode.UNSUPPORTED, Level.INFO,
+        "provenance file state streaming does not currently work with app state expansion");
+    }
+    ProvStateParamBuilder.Base base = params.base;
+    checkMapping(base, Provenance.getProjectIndex(projectInode));
+    CheckedSupplier<SearchRequest, ProvenanceException> srF =
+      OpenSearchHelper.baseSearchRequest(
+        settings.getProvFileIndex(projectInode.getId()),
+        settings.getOpenSearchDefaultScrollPageSize())
+        .andThen(filterByStateParams(base.fileStateFilter, base.exactXAttrFilter, base.likeXAttrFilter,
+          base.hasXAttrFilter))
+        .andThen(OpenSearchHelper.withFileStateOrder(base.fileStateSortBy, base.xAttrSortBy))
+        .andThen(OpenSearchHelper.withSearchAfterTieBreaker(ProvParser.Fields.INODE_ID.toString()));
+    SearchRequest request = srF.get();
+    OpenSearchHits.Parser<ProvStateDTO> parser = hit -> ProvStateParser.tryInstance(BasicOpenSearchHit.instance(hit));
+    Pair<Long, Try<Long>> searchResult;
+    try {
+      searchResult = client.searchAfter(request, OpenSearchHits.handlerConsume(parser, consumer));
+    } catch (OpenSearchException e) {
+      String msg = "provenance - opensearch query problem";
+      throw ProvHelper.fromOpenSearch(e, msg, msg + " - file state stream");
+    }
+    try {
+      return searchResult.getValue1().checkedGet();
+    } catch (Throwable t) {
+      if (t instanceof ProvenanceException) {
+        throw (ProvenanceException) t;
+      } else {
+        throw new ProvenanceException(RESTCodes.ProvenanceErrorCode.INTERNAL_ERROR, Level.INFO,
+          "file state stream interrupted", "file state stream interrupted", t);
+      }
+    }
+  }
+
   public ProvStateDTO provFileStateCount(Inode projectInode, ProvStateParamBuilder params)
     throws ProvenanceException {
     if (params.extensions.hasAppExpansion()) {
@@ -29,6 +29,8 @@ import io.hops.hopsworks.exceptions.UserException;
 import io.hops.hopsworks.persistence.entity.jupyter.config.GitBackend;
 import io.hops.hopsworks.persistence.entity.project.Project;
 import io.hops.hopsworks.persistence.entity.python.CondaCommands;
+import io.hops.hopsworks.persistence.entity.python.CondaInstallType;
+import io.hops.hopsworks.persistence.entity.python.CondaOp;
 import io.hops.hopsworks.restutils.RESTCodes;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
@@ -50,6 +52,7 @@ import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.logging.Level;
 
@@ -171,25 +174,10 @@ public class DockerFileController {
             + " --mount=type=bind,source=.pip,target=/root/.pip ");
         switch (cc.getInstallType()) {
           case CONDA:
-            String condaLib;
-            if (cc.getVersion().equals(Settings.UNKNOWN_LIBRARY_VERSION)) {
-              condaLib = cc.getLib();
-              dockerBuildOpts.add(DOCKER_NO_CACHE_OPT);
-            } else {
-              condaLib = cc.getLib() + "=" + cc.getVersion();
-            }
-            writer.write(anaconda_dir + "/bin/conda install -y -n " + settings.getCurrentCondaEnvironment()
-              + " -c " + cc.getChannelUrl() + " " + condaLib);
+            writer.write(condaInstallCommand(cc, dockerBuildOpts));
             break;
           case PIP:
-            String pipLib;
-            if (cc.getVersion().equals(Settings.UNKNOWN_LIBRARY_VERSION)) {
-              pipLib = cc.getLib();
-              dockerBuildOpts.add(DOCKER_NO_CACHE_OPT);
-            } else {
-              pipLib = cc.getLib() + "==" + cc.getVersion();
-            }
-            writer.write(anaconda_project_dir + "/bin/pip install --upgrade " + pipLib);
+            writer.write(pipInstallCommand(cc, dockerBuildOpts));
             break;
           case EGG:
             String eggName = cc.getLib();
@@ -258,8 +246,6 @@ public class DockerFileController {
   }
   
   public File uninstallLibrary(File baseDir, String baseImage, CondaCommands cc) throws ServiceException {
-    String anaconda_dir = settings.getAnacondaDir();
-    String anaconda_project_dir = anaconda_dir + "/envs/" + settings.getCurrentCondaEnvironment();
     File dockerFile = new File(baseDir, "dockerFile_" + cc.getProjectId().getName());
     File home = new File(System.getProperty("user.home"));
     try {
@@ -273,11 +259,8 @@ public class DockerFileController {
             + " --mount=type=bind,source=.pip,target=/root/.pip ");
         switch (cc.getInstallType()) {
           case CONDA:
-            writer.write(anaconda_dir + "/bin/conda remove -y -n " +
-              settings.getCurrentCondaEnvironment() + " " + cc.getLib() + " || true\n");
-            break;
           case PIP:
-            writer.write(anaconda_project_dir + "/bin/pip uninstall -y " + cc.getLib() + " || true\n");
+            writer.write(uninstallCommand(cc) + "\n");
             break;
           case ENVIRONMENT:
           default:
@@ -292,6 +275,110 @@ public class DockerFileController {
     }
   }
   
+  /**
+   * @param cc
+   * @return whether the command can be applied in the same image build as other such commands
+   */
+  public static boolean canBuildTogether(CondaCommands cc) {
+    return (cc.getOp() == CondaOp.INSTALL || cc.getOp() == CondaOp.UNINSTALL)
+      && (cc.getInstallType() == CondaInstallType.CONDA || cc.getInstallType() == CondaInstallType.PIP);
+  }
+
+  /**
+   * Dockerfile applying the conda and pip installs and uninstalls of the commands in order, chained in a single RUN
+   * with the ownership change and the cleanup as installLibrary does, so that a single image is built for all of them
+   * and no layer keeps the package caches.
+   *
+   * @param baseDir
+   * @param dockerFileName
+   * @param baseImage
+   * @param commands commands for which canBuildTogether is true
+   * @return
+   * @throws ServiceException
+   */
+  public BuildImageDetails installLibraries(File baseDir, String dockerFileName, String baseImage,
+                                            List<CondaCommands> commands) throws ServiceException {
+    String anaconda_dir = settings.getAnacondaDir();
+    ArrayList<String> dockerBuildOpts = new ArrayList<>();
+    dockerBuildOpts.add(DOCKER_HOST_NETWORK_OPT);
+
+    File home = new File(System.getProperty("user.home"));
+    try {
+      FileUtils.copyFileToDirectory(new File(home, ".condarc"), baseDir);
+      FileUtils.copyDirectoryToDirectory(new File(home, ".pip"), baseDir);
+      File dockerFile = new File(baseDir, dockerFileName);
+      try (BufferedWriter writer = new BufferedWriter(new FileWriter(dockerFile))) {
+        writer.write("FROM " + baseImage);
+        writer.newLine();
+        writer.write(
+          "RUN --mount=type=bind,source=.condarc,target=/root/.condarc"
+            + " --mount=type=bind,source=.pip,target=/root/.pip ");
+        for (CondaCommands cc : commands) {
+          if (cc.getOp() == CondaOp.UNINSTALL) {
+            writer.write(uninstallCommand(cc));
+          } else if (cc.getInstallType() == CondaInstallType.CONDA) {
+            writer.write(condaInstallCommand(cc, dockerBuildOpts));
+          } else {
+            writer.write(pipInstallCommand(cc, dockerBuildOpts));
+          }
+          writer.write(" && ");
+        }
+        writer.write("change_library_ownership.sh && " + getCleanupCommand(anaconda_dir)
+          + " && " + anaconda_dir + "/bin/conda list -n " + settings.getCurrentCondaEnvironment());
+      }
+      return new BuildImageDetails(dockerFile, dockerBuildOpts, null, null);
+    } catch(IOException e) {
+      String errorMsg = "Failed to write docker file";
+      throw new ServiceException(RESTCodes.ServiceErrorCode.LOCAL_FILESYSTEM_ERROR, Level.INFO,
+        errorMsg, errorMsg, e);
+    }
+  }
+
+  private String condaInstallCommand(CondaCommands cc, List<String> dockerBuildOpts) {
+    String condaLib;
+    if (cc.getVersion().equals(Settings.UNKNOWN_LIBRARY_VERSION)) {
+      condaLib = cc.getLib();
+      addNoCacheOpt(dockerBuildOpts);
+    } else {
+      condaLib = cc.getLib() + "=" + cc.getVersion();
+    }
+    return settings.getAnacondaDir() + "/bin/conda install -y -n " + settings.getCurrentCondaEnvironment()
+      + " -c " + cc.getChannelUrl() + " " + condaLib;
+  }
+
+  private String pipInstallCommand(CondaCommands cc, List<String> dockerBuildOpts) {
+    String pipLib;
+    if (cc.getVersion().equals(Settings.UNKNOWN_LIBRARY_VERSION)) {
+      pipLib = cc.getLib();
+      addNoCacheOpt(dockerBuildOpts);
+    } else {
+      pipLib = cc.getLib() + "==" + cc.getVersion();
+    }
+    return getAnacondaProjectDir() + "/bin/pip install --upgrade " + pipLib;
+  }
+
+  /**
+   * The uninstall ignores its own failure only: it is grouped so that, chained after other commands with &&, the
+   * || true does not also apply to them.
+   */
+  private String uninstallCommand(CondaCommands cc) {
+    if (cc.getInstallType() == CondaInstallType.CONDA) {
+      return "{ " + settings.getAnacondaDir() + "/bin/conda remove -y -n " +
+        settings.getCurrentCondaEnvironment() + " " + cc.getLib() + " || true; }";
+    }
+    return "{ " + getAnacondaProjectDir() + "/bin/pip uninstall -y " + cc.getLib() + " || true; }";
+  }
+
+  private void addNoCacheOpt(List<String> dockerBuildOpts) {
+    if (!dockerBuildOpts.contains(DOCKER_NO_CACHE_OPT)) {
+      dockerBuildOpts.add(DOCKER_NO_CACHE_OPT);
+    }
+  }
+
+  private String getAnacondaProjectDir() {
+    return settings.getAnacondaDir() + "/envs/" + settings.getCurrentCondaEnvironment();
+  }
+
   private void copyCondaArtifactToLocal(String source, String destPath) throws IOException {
     DistributedFileSystemOps dfso = null;
     try {
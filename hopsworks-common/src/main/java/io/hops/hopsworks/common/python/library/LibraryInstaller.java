@@ -72,6 +72,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -87,6 +88,13 @@ public class LibraryInstaller {
 
   private final AtomicInteger registryGCCycles = new AtomicInteger();
 
+  // Library installs and uninstalls
+  private final AtomicLong imageBuilds = new AtomicLong();
+  private final AtomicLong builtCommands = new AtomicLong();
+  private final AtomicLong imageBuildMs = new AtomicLong();
+  private volatile long lastImageBuildMs = 0;
+  private volatile int queueDepth = 0;
+
   // Docker base image info cache
   private Collection<PythonDep> baseImageDeps = null;
   private String baseImageConflictsStr = null;
@@ -175,18 +183,27 @@ public class LibraryInstaller {
         // Group new commands by project and run in parallel
         Map<Project, List<CondaCommands>> allCondaCommandsNewByProject =
           getCondaLibraryCommandsByProject(condaCommandFacade.findByStatus(CondaStatus.NEW));
+        // Reuse the ongoing commands fetched above, a command finishing since then only delays its project to the
+        // next run
         Map<Project, List<CondaCommands>> allCondaCommandsOngoingByProject =
-          getCondaLibraryCommandsByProject(condaCommandFacade.findByStatus(CondaStatus.ONGOING));
+          getCondaLibraryCommandsByProject(allCondaCommandsOngoing);
+        queueDepth = allCondaCommandsNewByProject.values().stream().mapToInt(List::size).sum();
         
         LOG.log(Level.FINE, "allCondaCommandsOngoingByProject:" + allCondaCommandsOngoingByProject);
         for (Project project : allCondaCommandsNewByProject.keySet()) {
           if (!allCondaCommandsOngoingByProject.containsKey(project)) {
             try {
               allCondaCommandsNewByProject.get(project).sort(ASC_COMPARATOR);
-              CondaCommands commandToExecute = allCondaCommandsNewByProject.get(project).get(0);
-              commandsController.updateCondaCommandStatus(
-                commandToExecute.getId(), CondaStatus.ONGOING, commandToExecute.getArg(), commandToExecute.getOp());
-              executorService.submit(() -> condaCommandHandler(commandToExecute));
+              List<CondaCommands> commandsToExecute = nextCommands(allCondaCommandsNewByProject.get(project));
+              for (CondaCommands commandToExecute : commandsToExecute) {
+                commandsController.updateCondaCommandStatus(
+                  commandToExecute.getId(), CondaStatus.ONGOING, commandToExecute.getArg(), commandToExecute.getOp());
+              }
+              if (commandsToExecute.size() == 1) {
+                executorService.submit(() -> condaCommandHandler(commandsToExecute.get(0)));
+              } else {
+                executorService.submit(() -> coalescedCommandsHandler(commandsToExecute));
+              }
             } catch (Exception ex) {
               LOG.log(Level.WARNING, "Could not run conda commands for project: " + project, ex);
             }
@@ -201,6 +218,60 @@ public class LibraryInstaller {
     }
   }
 
+  /**
+   * @param newCommands the new commands of a project, sorted
+   * @return the first command, along with the library installs and uninstalls that directly follow it when it is
+   * one as well, so that they are applied in a single image build
+   */
+  private List<CondaCommands> nextCommands(List<CondaCommands> newCommands) {
+    List<CondaCommands> commands = new ArrayList<>();
+    commands.add(newCommands.get(0));
+    if (DockerFileController.canBuildTogether(newCommands.get(0))) {
+      int max = settings.getCondaMaxCoalescedCommands();
+      for (int i = 1; i < newCommands.size() && commands.size() < max; i++) {
+        if (!DockerFileController.canBuildTogether(newCommands.get(i))) {
+          break;
+        }
+        commands.add(newCommands.get(i));
+      }
+    }
+    return commands;
+  }
+
+  private void coalescedCommandsHandler(List<CondaCommands> commandsToExecute) {
+    CondaStatus status = CondaStatus.SUCCESS;
+    String errorMsg = null;
+    try {
+      if (!installLibraries(commandsToExecute)) {
+        // Apply them one by one so that only the commands that fail are marked as failed
+        for (CondaCommands commandToExecute : commandsToExecute) {
+          condaCommandHandler(commandToExecute);
+        }
+        return;
+      }
+    } catch (Throwable ex) {
+      LOG.log(Level.WARNING, "Could not execute commands " + commandIds(commandsToExecute), ex);
+      status = CondaStatus.FAILED;
+      errorMsg = errorMsg(ex);
+    }
+    for (CondaCommands commandToExecute : commandsToExecute) {
+      try {
+        commandsController.updateCondaCommandStatus(commandToExecute.getId(), status, commandToExecute.getArg(),
+          commandToExecute.getOp(), errorMsg);
+      } catch (ProjectException ex) {
+        LOG.log(Level.WARNING, "Could not update command with ID: " + commandToExecute.getId(), ex);
+      }
+    }
+  }
+
+  private List<Integer> commandIds(List<CondaCommands> commands) {
+    List<Integer> ids = new ArrayList<>(commands.size());
+    for (CondaCommands cc : commands) {
+      ids.add(cc.getId());
+    }
+    return ids;
+  }
+
   private void condaCommandHandler(CondaCommands commandToExecute) {
     // Remove operations are handled differently, as we it needs to take an exclusive lock on all operations
     if (commandToExecute.getOp() != CondaOp.REMOVE) {
@@ -365,6 +436,7 @@ public class LibraryInstaller {
 
   private void installLibrary(CondaCommands cc)
     throws ServiceException, ServiceDiscoveryException, ProjectException, UserException, PythonException {
+    long start = System.currentTimeMillis();
     Project project = getProject(cc);
     File cwd = dockerFileController.createTmpDir(cc.getProjectId());
     try{
@@ -379,6 +451,7 @@ public class LibraryInstaller {
         installLibraryResult.dockerBuildOpts,
         installLibraryResult.gitApiKeyName,
         installLibraryResult.gitApiToken);
+      recordBuild(start, 1);
       updateProjectDockerImage(cc, nextDockerImageName);
     } finally {
       try {
@@ -393,6 +466,7 @@ public class LibraryInstaller {
   
   private void uninstallLibrary(CondaCommands cc)
     throws ServiceDiscoveryException, ProjectException, ServiceException, PythonException {
+    long start = System.currentTimeMillis();
     Project project = getProject(cc);
     File cwd = dockerFileController.createTmpDir(cc.getProjectId());
     try {
@@ -400,6 +474,7 @@ public class LibraryInstaller {
       File dockerFile = dockerFileController.uninstallLibrary(cwd, fullDockerImageName, cc);
       String nextDockerImageName = getNextDockerImageName(project);
       dockerImageController.buildImage(nextDockerImageName, dockerFile.getAbsolutePath(), cwd);
+      recordBuild(start, 1);
       updateProjectDockerImage(cc, nextDockerImageName);
     } finally {
       try {
@@ -412,6 +487,84 @@ public class LibraryInstaller {
     }
   }
   
+  /**
+   * Apply the library installs and uninstalls of a project in a single image build. The commands are applied in
+   * order, chained in one RUN with the ownership change and the cleanup, so the build stops at the first failing
+   * install and adds a single layer to the image.
+   *
+   * @param commands commands of the same project
+   * @return false if the image could not be built, in which case the project image is left untouched
+   */
+  private boolean installLibraries(List<CondaCommands> commands)
+    throws ServiceException, ServiceDiscoveryException, ProjectException, PythonException {
+    long start = System.currentTimeMillis();
+    CondaCommands lastCommand = commands.get(commands.size() - 1);
+    Project project = getProject(lastCommand);
+    File cwd = dockerFileController.createTmpDir(project);
+    try {
+      String baseImage = projectUtils.getFullDockerImageName(project, false);
+      String dockerFileName = "dockerFile_" + project.getName();
+      DockerFileController.BuildImageDetails installLibrariesResult
+        = dockerFileController.installLibraries(cwd, dockerFileName, baseImage, commands);
+      String nextDockerImageName = getNextDockerImageName(project);
+      try {
+        dockerImageController.buildImage(nextDockerImageName,
+          installLibrariesResult.dockerFile.getAbsolutePath(),
+          cwd,
+          installLibrariesResult.dockerBuildOpts);
+      } catch (ServiceException | ServiceDiscoveryException e) {
+        LOG.log(Level.INFO, "Could not build the image for commands " + commandIds(commands), e);
+        return false;
+      }
+      recordBuild(start, commands.size());
+      updateProjectDockerImage(lastCommand, nextDockerImageName);
+      return true;
+    } finally {
+      try {
+        FileUtils.deleteDirectory(cwd);
+      } catch (IOException e) {
+        String errorMsg = "Failed removing docker file";
+        throw new ServiceException(RESTCodes.ServiceErrorCode.LOCAL_FILESYSTEM_ERROR, Level.INFO,
+          errorMsg, errorMsg, e);
+      }
+    }
+  }
+
+  private void recordBuild(long start, int commands) {
+    long durationMs = System.currentTimeMillis() - start;
+    imageBuilds.incrementAndGet();
+    builtCommands.addAndGet(commands);
+    imageBuildMs.addAndGet(durationMs);
+    lastImageBuildMs = durationMs;
+  }
+
+  /**
+   * @return the number of new commands found the last time the commands were checked
+   */
+  public int getQueueDepth() {
+    return queueDepth;
+  }
+
+  public long getImageBuilds() {
+    return imageBuilds.get();
+  }
+
+  /**
+   * @return the number of library installs and uninstalls applied by the image builds
+   */
+  public long getBuiltCommands() {
+    return builtCommands.get();
+  }
+
+  public long getLastImageBuildMs() {
+    return lastImageBuildMs;
+  }
+
+  public long getAverageImageBuildMs() {
+    long builds = imageBuilds.get();
+    return builds > 0 ? imageBuildMs.get() / builds : 0;
+  }
+
   private Project getProject(CondaCommands cc) throws ProjectException {
     return projectFacade.findById(cc.getProjectId().getId()).orElseThrow(() -> new ProjectException(
       RESTCodes.ProjectErrorCode.PROJECT_NOT_FOUND, Level.FINE, "projectId: " + cc.getProjectId().getId()));
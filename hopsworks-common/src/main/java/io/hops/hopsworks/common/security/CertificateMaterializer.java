@@ -52,7 +52,6 @@ import io.hops.hopsworks.common.util.HopsUtils;
 import io.hops.hopsworks.common.util.Settings;
 import io.hops.hopsworks.exceptions.CryptoPasswordNotFoundException;
 import org.apache.commons.collections.Bag;
-import org.apache.commons.collections.MapUtils;
 import org.apache.commons.collections.bag.HashBag;
 import org.apache.commons.io.FileUtils;
 import org.apache.hadoop.fs.FSDataOutputStream;
@@ -67,6 +66,7 @@ import javax.ejb.ConcurrencyManagementType;
 import javax.ejb.DependsOn;
 import javax.ejb.EJB;
 import javax.ejb.Singleton;
+import javax.enterprise.concurrent.ManagedExecutorService;
 import javax.enterprise.concurrent.ManagedScheduledExecutorService;
 import java.io.File;
 import java.io.IOException;
@@ -79,16 +79,22 @@ import java.nio.file.Paths;
 import java.nio.file.attribute.PosixFileAttributeView;
 import java.nio.file.attribute.PosixFilePermission;
 import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -105,11 +111,24 @@ public class CertificateMaterializer {
   
   private final static int MAX_NUMBER_OF_RETRIES = 3;
   private final static long RETRY_WAIT_TIMEOUT = 10;
+  // Fixed number of locks shared by all the material keys, see getLockForKey
+  private final static int LOCK_STRIPES = 64;
   
+  // Bags stored in materializedCerts are never modified in place but replaced with a modified copy, so that the state
+  // can be read without holding any lock
   private final Map<MaterialKey, Bag> materializedCerts;
   private final Map<MaterialKey, CryptoMaterial> materialCache;
   private final Map<MaterialKey, Map<String, LocalFileRemover>> fileRemovers;
-  private final Map<MaterialKey, ReentrantReadWriteLock> materialKeyLocks = new ConcurrentHashMap<>();
+  private final ReentrantReadWriteLock[] lockStripes;
+  // Remote materializations waiting to be executed, by extended username and remote directory
+  private final Map<String, RemoteMaterialization> pendingRemoteMaterializations = new ConcurrentHashMap<>();
+  
+  private final AtomicLong lockAcquisitions = new AtomicLong();
+  private final AtomicLong contendedLockAcquisitions = new AtomicLong();
+  private final AtomicLong lockWaitTimeNanos = new AtomicLong();
+  private final AtomicLong maxLockWaitTimeNanos = new AtomicLong();
+  private final AtomicLong remoteMaterializations = new AtomicLong();
+  private final AtomicLong coalescedRemoteMaterializations = new AtomicLong();
   
   private String lock_id;
   
@@ -133,11 +152,17 @@ public class CertificateMaterializer {
   private DistributedFsService distributedFsService;
   @Resource
   private ManagedScheduledExecutorService scheduler;
+  @Resource(lookup = "concurrent/hopsExecutorService")
+  private ManagedExecutorService executorService;
   
   public CertificateMaterializer() {
-    materializedCerts = new HashMap<>();
-    materialCache = new HashMap<>();
-    fileRemovers = new HashMap<>();
+    materializedCerts = new ConcurrentHashMap<>();
+    materialCache = new ConcurrentHashMap<>();
+    fileRemovers = new ConcurrentHashMap<>();
+    lockStripes = new ReentrantReadWriteLock[LOCK_STRIPES];
+    for (int i = 0; i < LOCK_STRIPES; i++) {
+      lockStripes[i] = new ReentrantReadWriteLock(true);
+    }
   }
   
   @PostConstruct
@@ -227,7 +252,7 @@ public class CertificateMaterializer {
     ReentrantReadWriteLock.WriteLock lock = null;
     try {
       lock = getWriteLockForKey(key);
-      lock.lock();
+      acquire(lock);
       materializeLocalInternal(key, transientDir);
     } finally {
       lock.unlock();
@@ -235,31 +260,78 @@ public class CertificateMaterializer {
   }
   
   private ReentrantReadWriteLock.ReadLock getReadLockForKey(MaterialKey key) {
-    ReentrantReadWriteLock lock = getLockForKey(key, false);
-    return lock != null ? lock.readLock() : null;
+    return getLockForKey(key).readLock();
   }
   
   private ReentrantReadWriteLock.WriteLock getWriteLockForKey(MaterialKey key) {
-    return getLockForKey(key, true).writeLock();
+    return getLockForKey(key).writeLock();
   }
   
   /**
    * Do NOT use this method directly. Use {@see CertificateMaterializer#getReadLockForKey}
    * and {@see CertificateMaterializer#getWriteLockForKey} instead.
    *
+   * Keys are mapped to a fixed number of locks, so the number of locks does not grow with the number of
+   * user/project pairs and there is nothing to clean up when the material is removed. Keys sharing a lock
+   * serialize their operations.
+   *
    * @param key Key to take the lock for
-   * @param createIfMissing Create a lock if the key is not already associated with one
-   * @return The lock for that key, or null
+   * @return The lock for that key
    */
-  private ReentrantReadWriteLock getLockForKey(MaterialKey key, boolean createIfMissing) {
-    if (createIfMissing) {
-      materialKeyLocks.putIfAbsent(key, new ReentrantReadWriteLock(true));
+  private ReentrantReadWriteLock getLockForKey(MaterialKey key) {
+    return lockStripes[getLockStripe(key)];
+  }
+  
+  private int getLockStripe(MaterialKey key) {
+    return (key.hashCode() & Integer.MAX_VALUE) % LOCK_STRIPES;
+  }
+  
+  /**
+   * Take the write locks of several keys. Locks are always taken in the same order to avoid deadlocks between
+   * callers locking the same keys, and a lock shared by more than one of the keys is taken once.
+   *
+   * @param keys Keys to take the locks for
+   * @return The locks acquired in the order they should be released
+   */
+  private List<Lock> acquireWriteLocks(MaterialKey... keys) {
+    int[] stripes = Arrays.stream(keys).mapToInt(this::getLockStripe).distinct().sorted().toArray();
+    List<Lock> acquiredLocks = new ArrayList<>(stripes.length);
+    for (int stripe : stripes) {
+      Lock lock = lockStripes[stripe].writeLock();
+      acquire(lock);
+      acquiredLocks.add(lock);
+    }
+    return acquiredLocks;
+  }
+  
+  private void releaseLocks(List<Lock> acquiredLocks) {
+    for (int i = acquiredLocks.size() - 1; i >= 0; i--) {
+      acquiredLocks.get(i).unlock();
     }
-    return materialKeyLocks.get(key);
   }
   
-  private void removeLockForKey(MaterialKey key) {
-    materialKeyLocks.remove(key);
+  /**
+   * Take the lock keeping track of how many times and how long callers had to wait for it
+   *
+   * @param lock Lock to take
+   */
+  private void acquire(Lock lock) {
+    boolean acquired = false;
+    try {
+      // Timed tryLock honours the fairness of the lock, unlike tryLock()
+      acquired = lock.tryLock(0, TimeUnit.NANOSECONDS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+    if (!acquired) {
+      contendedLockAcquisitions.incrementAndGet();
+      long start = System.nanoTime();
+      lock.lock();
+      long waited = System.nanoTime() - start;
+      lockWaitTimeNanos.addAndGet(waited);
+      maxLockWaitTimeNanos.accumulateAndGet(waited, Math::max);
+    }
+    lockAcquisitions.incrementAndGet();
   }
   
   /**
@@ -291,7 +363,7 @@ public class CertificateMaterializer {
     ReentrantReadWriteLock.WriteLock lock = null;
     try {
       lock = getWriteLockForKey(key);
-      lock.lock();
+      acquire(lock);
       materializeLocalInternal(key, localDirectory);
     } finally {
       lock.unlock();
@@ -316,15 +388,11 @@ public class CertificateMaterializer {
   public void removeCertificatesLocal(String userName, String projectName) {
     MaterialKey key = new MaterialKey(userName, projectName);
     ReentrantReadWriteLock.WriteLock lock = null;
-    boolean materialExist = false;
     try {
       lock = getWriteLockForKey(key);
-      lock.lock();
-      materialExist = removeLocal(key, transientDir);
+      acquire(lock);
+      removeLocal(key, transientDir);
     } finally {
-      if (!materialExist) {
-        removeLockForKey(key);
-      }
       lock.unlock();
     }
   }
@@ -350,15 +418,11 @@ public class CertificateMaterializer {
     MaterialKey key = new MaterialKey(username, projectName);
     localDirectory = localDirectory != null ? localDirectory : transientDir;
     ReentrantReadWriteLock.WriteLock lock = null;
-    boolean materialExist = false;
     try {
       lock = getWriteLockForKey(key);
-      lock.lock();
-      materialExist = removeLocal(key, localDirectory);
+      acquire(lock);
+      removeLocal(key, localDirectory);
     } finally {
-      if (!materialExist) {
-        removeLockForKey(key);
-      }
       lock.unlock();
     }
   }
@@ -376,21 +440,56 @@ public class CertificateMaterializer {
    */
   public void materializeCertificatesRemote(String userName, String projectName, String ownerName, String groupName,
       final FsPermission permissions, String remoteDirectory) throws IOException {
-    if (remoteDirectory == null) {
-      throw new IllegalArgumentException("Remote directory should not be null");
+    RemoteMaterialization request = createRemoteMaterialization(userName, projectName, ownerName, groupName,
+        permissions, remoteDirectory);
+    RemoteMaterialization materialization = enqueueRemoteMaterialization(request);
+    if (materialization == request) {
+      // Nobody else was materializing the same certificates, do it in the calling thread
+      runRemoteMaterialization(materialization);
     }
-    remoteDirectory = normalizeURI(remoteDirectory);
-    MaterialKey key = new MaterialKey(userName, projectName);
-    ReentrantReadWriteLock.WriteLock lock = null;
     try {
-      lock = getWriteLockForKey(key);
-      lock.lock();
-      materializeRemoteInternal(key, ownerName, groupName, permissions, remoteDirectory);
-    } finally {
-      lock.unlock();
+      materialization.future.get();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IOException(ex);
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof IOException) {
+        throw (IOException) ex.getCause();
+      }
+      throw new IOException(ex.getCause());
     }
   }
   
+  /**
+   * Materialize project *specific* certificates in *remote* filesystem without blocking the caller.
+   * Concurrent requests for the same material and remote directory, with the same owner, group and permissions, are
+   * served by a single materialization which takes one reference for each of them, so every caller should still
+   * remove the material when done.
+   *
+   * @param userName Username of the user
+   * @param projectName Name of the project
+   * @param ownerName Owner of remote files
+   * @param groupName Group of remote files
+   * @param permissions Permissions of remote files
+   * @param remoteDirectory Remote directory to put the material
+   * @return Future completed when the material is available in the remote directory
+   */
+  public Future<Void> materializeCertificatesRemoteAsync(String userName, String projectName, String ownerName,
+      String groupName, final FsPermission permissions, String remoteDirectory) {
+    RemoteMaterialization request = createRemoteMaterialization(userName, projectName, ownerName, groupName,
+        permissions, remoteDirectory);
+    RemoteMaterialization materialization = enqueueRemoteMaterialization(request);
+    if (materialization == request) {
+      try {
+        executorService.submit(() -> runRemoteMaterialization(materialization));
+      } catch (RuntimeException ex) {
+        pendingRemoteMaterializations.remove(materialization.id, materialization);
+        materialization.future.completeExceptionally(ex);
+      }
+    }
+    return materialization.future;
+  }
+  
   /**
    * Remote project *specific* certificates from *remote* filesystem
    *
@@ -405,15 +504,11 @@ public class CertificateMaterializer {
     remoteDirectory = normalizeURI(remoteDirectory);
     MaterialKey key = new MaterialKey(userName, projectName);
     ReentrantReadWriteLock.WriteLock lock = null;
-    boolean materialExist = false;
     try {
       lock = getWriteLockForKey(key);
-      lock.lock();
-      materialExist = removeRemoteInternal(key, remoteDirectory, false);
+      acquire(lock);
+      removeRemoteInternal(key, remoteDirectory, false);
     } finally {
-      if (!materialExist) {
-        removeLockForKey(key);
-      }
       lock.unlock();
     }
   }
@@ -435,32 +530,15 @@ public class CertificateMaterializer {
     }
     remoteDirectory = normalizeURI(remoteDirectory);
     MaterialKey key = new MaterialKey(username, projectName);
-    ReentrantReadWriteLock.WriteLock lock = null;
-    boolean deletedMaterial = false;
+    MaterialKey projectKey = new MaterialKey(null, projectName);
+    List<Lock> locks = bothProjectAndUser ? acquireWriteLocks(key, projectKey) : acquireWriteLocks(key);
     try {
-      lock = getWriteLockForKey(key);
-      lock.lock();
-      deletedMaterial = removeRemoteInternal(key, remoteDirectory, true);
+      removeRemoteInternal(key, remoteDirectory, true);
       if (bothProjectAndUser) {
-        ReentrantReadWriteLock.WriteLock projectLock = null;
-        boolean deletedProjectMaterial = false;
-        key = new MaterialKey(null, projectName);
-        try {
-          projectLock = getWriteLockForKey(key);
-          projectLock.lock();
-          deletedProjectMaterial = removeRemoteInternal(key, remoteDirectory, true);
-        } finally {
-          if (!deletedProjectMaterial) {
-            removeLockForKey(key);
-          }
-          projectLock.unlock();
-        }
+        removeRemoteInternal(projectKey, remoteDirectory, true);
       }
     } finally {
-      if (!deletedMaterial) {
-        removeLockForKey(key);
-      }
-      lock.unlock();
+      releaseLocks(locks);
     }
   }
   
@@ -488,11 +566,7 @@ public class CertificateMaterializer {
     ReentrantReadWriteLock.ReadLock lock = null;
     try {
       lock = getReadLockForKey(key);
-      if (lock == null) {
-        throw new CryptoPasswordNotFoundException("Could not find a lock associated with this key "
-            + key.getExtendedUsername());
-      }
-      lock.lock();
+      acquire(lock);
       CryptoMaterial material = materialCache.get(key);
       if (material == null) {
         throw new CryptoPasswordNotFoundException("Cryptographic material for user <" + key.getExtendedUsername() + "" +
@@ -500,9 +574,7 @@ public class CertificateMaterializer {
       }
       return material;
     } finally {
-      if (lock != null) {
-        lock.unlock();
-      }
+      lock.unlock();
     }
   }
   
@@ -538,11 +610,7 @@ public class CertificateMaterializer {
     ReentrantReadWriteLock.ReadLock lock = null;
     try {
       lock = getReadLockForKey(key);
-      if (lock == null) {
-        LOG.log(Level.WARNING, "Could not find read lock for key " + key.getExtendedUsername());
-        return false;
-      }
-      lock.lock();
+      acquire(lock);
       Bag materializedPaths = materializedCerts.get(key);
       if (materializedPaths == null) {
         return false;
@@ -550,9 +618,7 @@ public class CertificateMaterializer {
       
       return materializedPaths.contains(directory);
     } finally {
-      if (lock != null) {
-        lock.unlock();
-      }
+      lock.unlock();
     }
   }
   
@@ -595,13 +661,18 @@ public class CertificateMaterializer {
    *
    * 3) Identifier of the material that are scheduled to be removed from the local filesystem
    *
+   * 4) Identifier of the material and whether the lock it maps to is held by a writer
+   *
+   * The state is read without taking any lock, so it does not block materializations in progress. Each entry is
+   * consistent on its own but the entries might have been captured at slightly different points in time.
+   *
    * @return The state of the CertificateMaterializer at that point of time
    */
   @SuppressWarnings("unchecked")
   public MaterializerState<Map<String, Map<String, Integer>>, Map<String, Map<String, Integer>>,
       Map<String, Set<String>>, Map<String, Boolean>> getState() {
     MaterializerState<Map<MaterialKey, Bag>, List<RemoteMaterialReferences>, Map<MaterialKey,
-        Map<String, Runnable>>, Map<MaterialKey, ReentrantReadWriteLock>>
+        Set<String>>, Map<MaterialKey, Boolean>>
         state = getImmutableState();
     
     Map<MaterialKey, Bag> localMaterialState = state.getLocalMaterial();
@@ -636,20 +707,20 @@ public class CertificateMaterializer {
       }
     }
     
-    Map<MaterialKey, Map<String, Runnable>> fileRemovals = state.getScheduledRemovals();
+    Map<MaterialKey, Set<String>> fileRemovals = state.getScheduledRemovals();
     // <Username, [MaterialPath]>
     Map<String, Set<String>> simpleScheduledRemovals = new HashMap<>();
     
-    for (Map.Entry<MaterialKey, Map<String, Runnable>> entry : fileRemovals.entrySet()) {
+    for (Map.Entry<MaterialKey, Set<String>> entry : fileRemovals.entrySet()) {
       String username = entry.getKey().getExtendedUsername();
-      simpleScheduledRemovals.put(username, entry.getValue().keySet());
+      simpleScheduledRemovals.put(username, entry.getValue());
     }
     
-    Map<MaterialKey, ReentrantReadWriteLock> materialKeyLocks = state.getMaterialKeyLocks();
+    Map<MaterialKey, Boolean> materialKeyLocks = state.getMaterialKeyLocks();
     // Username, Locked
     Map<String, Boolean> flatMaterialKeyLocks = new HashMap<>(materialKeyLocks.size());
-    for (Map.Entry<MaterialKey, ReentrantReadWriteLock> lock : materialKeyLocks.entrySet()) {
-      flatMaterialKeyLocks.put(lock.getKey().getExtendedUsername(), lock.getValue().isWriteLocked());
+    for (Map.Entry<MaterialKey, Boolean> lock : materialKeyLocks.entrySet()) {
+      flatMaterialKeyLocks.put(lock.getKey().getExtendedUsername(), lock.getValue());
     }
     
     return new MaterializerState<>(simpleLocalMaterialState, simpleRemoteMaterialState,
@@ -657,51 +728,39 @@ public class CertificateMaterializer {
   }
   
   private MaterializerState<Map<MaterialKey, Bag>, List<RemoteMaterialReferences>,
-      Map<MaterialKey, Map<String, Runnable>>, Map<MaterialKey, ReentrantReadWriteLock>> getImmutableState() {
-    Map<MaterialKey, Bag> localMaterial = null;
-    Map<MaterialKey, Map<String, Runnable>> scheduledRemovals = null;
-    List<RemoteMaterialReferences> remoteMaterial = null;
-    Map<MaterialKey, ReentrantReadWriteLock> materialKeyLocks = null;
-  
-    // Take all the write locks
-    TreeSet<ReentrantReadWriteLock> acquiredLocks = acquireWriteLocks(this.materialKeyLocks);
-    try {
-      localMaterial = MapUtils.unmodifiableMap(materializedCerts);
-      scheduledRemovals = MapUtils.unmodifiableMap(fileRemovers);
-      materialKeyLocks = MapUtils.unmodifiableMap(this.materialKeyLocks);
-      remoteMaterial = remoteMaterialReferencesFacade.findAll();
-    } finally {
-      // Release all locks acquired
-      releaseWriteLocks(acquiredLocks);
+      Map<MaterialKey, Set<String>>, Map<MaterialKey, Boolean>> getImmutableState() {
+    // Bags are replaced and never modified once in materializedCerts, so copying the map is enough
+    Map<MaterialKey, Bag> localMaterial = new HashMap<>(materializedCerts);
+    Map<MaterialKey, Set<String>> scheduledRemovals = new HashMap<>(fileRemovers.size());
+    for (Map.Entry<MaterialKey, Map<String, LocalFileRemover>> entry : fileRemovers.entrySet()) {
+      scheduledRemovals.put(entry.getKey(), new HashSet<>(entry.getValue().keySet()));
     }
+    Map<MaterialKey, Boolean> materialKeyLocks = new HashMap<>();
+    for (MaterialKey key : localMaterial.keySet()) {
+      materialKeyLocks.put(key, getLockForKey(key).isWriteLocked());
+    }
+    for (MaterialKey key : scheduledRemovals.keySet()) {
+      materialKeyLocks.put(key, getLockForKey(key).isWriteLocked());
+    }
+    List<RemoteMaterialReferences> remoteMaterial = remoteMaterialReferencesFacade.findAll();
     
-    return new MaterializerState(localMaterial, remoteMaterial, scheduledRemovals, materialKeyLocks);
+    return new MaterializerState<>(localMaterial, remoteMaterial, scheduledRemovals, materialKeyLocks);
   }
   
-  private TreeSet<ReentrantReadWriteLock> acquireWriteLocks(Map<MaterialKey, ReentrantReadWriteLock> lockSet) {
-    TreeSet<ReentrantReadWriteLock> acquiredLocks = new TreeSet<>(new Comparator<ReentrantReadWriteLock>() {
-      @Override
-      public int compare(ReentrantReadWriteLock t0, ReentrantReadWriteLock t1) {
-        if (t0.hashCode() < t1.hashCode()) {
-          return -1;
-        } else if (t0.hashCode() > t1.hashCode()) {
-          return 1;
-        }
-        return 0;
-      }
-    });
-    
-    lockSet.values().stream()
-        .forEach(l -> {
-          l.writeLock().lock();
-          acquiredLocks.add(l);
-        });
-    return acquiredLocks;
-  }
-
-  private void releaseWriteLocks(TreeSet<ReentrantReadWriteLock> acquiredLocks) {
-    Set<ReentrantReadWriteLock> reversedLocks = acquiredLocks.descendingSet();
-    reversedLocks.stream().forEach(l -> l.writeLock().unlock());
+  /**
+   * @return Statistics of the locks guarding the material and of the remote materializations
+   */
+  public Map<String, Long> getLockStatistics() {
+    Map<String, Long> statistics = new HashMap<>();
+    statistics.put("lockStripes", (long) LOCK_STRIPES);
+    statistics.put("lockAcquisitions", lockAcquisitions.get());
+    statistics.put("contendedLockAcquisitions", contendedLockAcquisitions.get());
+    statistics.put("lockWaitTimeMs", TimeUnit.NANOSECONDS.toMillis(lockWaitTimeNanos.get()));
+    statistics.put("maxLockWaitTimeMs", TimeUnit.NANOSECONDS.toMillis(maxLockWaitTimeNanos.get()));
+    statistics.put("remoteMaterializations", remoteMaterializations.get());
+    statistics.put("coalescedRemoteMaterializations", coalescedRemoteMaterializations.get());
+    statistics.put("pendingRemoteMaterializations", (long) pendingRemoteMaterializations.size());
+    return statistics;
   }
   
   public class MaterializerState<T, S, R, P> {
@@ -754,10 +813,8 @@ public class CertificateMaterializer {
         // 3. Write them to local FS
         flushToLocalFileSystem(key, material, localDirectory);
         // 4. Add Directory to Bag and then to materializedCerts
-        Bag materialBag = new HashBag();
         String targetDir = localDirectory != null ? localDirectory : transientDir;
-        materialBag.add(targetDir, 1);
-        materializedCerts.put(key, materialBag);
+        addMaterializedDirectory(key, targetDir);
       }
     } else {
       int cardinality = materializedDirs.getCount(localDirectory);
@@ -780,19 +837,12 @@ public class CertificateMaterializer {
           flushToLocalFileSystem(key, material, localDirectory);
           // 3. Force removal has removed the mapping for materialized certificates
           // so put it back
-          Bag materialBag = materializedCerts.get(key);
-          if (materialBag != null) {
-            materialBag.add(localDirectory, 1);
-          } else {
-            materialBag = new HashBag();
-            materialBag.add(localDirectory, 1);
-            materializedCerts.put(key, materialBag);
-          }
+          addMaterializedDirectory(key, localDirectory);
         }
       } else {
         // Materialization in this Directory has already been requested
         // 1. Increment cardinality for this Material and Directory
-        materializedDirs.add(localDirectory, 1);
+        addMaterializedDirectory(key, localDirectory);
       }
     }
   }
@@ -822,14 +872,7 @@ public class CertificateMaterializer {
         }
       }
       // Put back to material map
-      Bag materializeBag = materializedCerts.get(key);
-      if (materializeBag != null) {
-        materializeBag.add(materializationDirectory, 1);
-      } else {
-        Bag materializedBag = new HashBag();
-        materializedBag.add(materializationDirectory);
-        materializedCerts.put(key, materializedBag);
-      }
+      addMaterializedDirectory(key, materializationDirectory);
   
       // Remove from scheduled removers
       materialRemovers.remove(materializationDirectory);
@@ -839,12 +882,18 @@ public class CertificateMaterializer {
       return false;
     } else {
       forceRemoveLocalMaterial(key.username, key.projectName, materializationDirectory);
-      // We should put back lock for that key as forceRemoveLocalMaterial removes it
-      materialKeyLocks.putIfAbsent(key, new ReentrantReadWriteLock(true));
       return true;
     }
   }
   
+  // Callers must hold the write lock of the key
+  private void addMaterializedDirectory(MaterialKey key, String materializationDirectory) {
+    Bag materialBag = materializedCerts.get(key);
+    Bag newMaterialBag = materialBag != null ? new HashBag(materialBag) : new HashBag();
+    newMaterialBag.add(materializationDirectory, 1);
+    materializedCerts.put(key, newMaterialBag);
+  }
+  
   private void flushToLocalFileSystem(MaterialKey key, CryptoMaterial cryptoMaterial, String materializationDirectory)
       throws IOException {
     String targetDir = materializationDirectory != null ? materializationDirectory : transientDir;
@@ -865,7 +914,9 @@ public class CertificateMaterializer {
   private boolean removeLocal(MaterialKey key, String materializationDirectory) {
     Bag materialBag = materializedCerts.get(key);
     if (materialBag != null) {
+      materialBag = new HashBag(materialBag);
       materialBag.remove(materializationDirectory, 1);
+      materializedCerts.put(key, materialBag);
       if (materialBag.getCount(materializationDirectory) <= 0) {
         scheduleFileRemover(key, materializationDirectory);
       }
@@ -882,7 +933,7 @@ public class CertificateMaterializer {
     if (materialRemovesForKey != null) {
       materialRemovesForKey.put(materializationDirectory, fileRemover);
     } else {
-      materialRemovesForKey = new HashMap<>();
+      materialRemovesForKey = new ConcurrentHashMap<>();
       materialRemovesForKey.put(materializationDirectory, fileRemover);
       fileRemovers.put(key, materialRemovesForKey);
     }
@@ -908,7 +959,7 @@ public class CertificateMaterializer {
       materializationDirectory = materializationDirectory != null ? materializationDirectory : transientDir;
       MaterialKey key = new MaterialKey(username, projectName);
       lock = getWriteLockForKey(key);
-      lock.lock();
+      acquire(lock);
       // First remove from File Removers list
       Map<String, LocalFileRemover> materialRemovers = fileRemovers.get(key);
       if (materialRemovers != null) {
@@ -924,6 +975,7 @@ public class CertificateMaterializer {
       // Then remove from material Map and maybe from Cache
       Bag materialBag = materializedCerts.get(key);
       if (materialBag != null) {
+        materialBag = new HashBag(materialBag);
         materialBag.remove(materializationDirectory);
         if (materialBag.isEmpty()) {
           materializedCerts.remove(key);
@@ -931,12 +983,13 @@ public class CertificateMaterializer {
           if (material != null) {
             material.wipePassword();
           }
+        } else {
+          materializedCerts.put(key, materialBag);
         }
       }
       
       // Then from local FS
       deleteMaterialFromLocalFs(key, materializationDirectory);
-      removeLockForKey(key);
     } finally {
       lock.unlock();
     }
@@ -946,8 +999,63 @@ public class CertificateMaterializer {
   /*
    * Materialize remote section
    */
+  
+  private RemoteMaterialization createRemoteMaterialization(String userName, String projectName, String ownerName,
+      String groupName, FsPermission permissions, String remoteDirectory) {
+    if (remoteDirectory == null) {
+      throw new IllegalArgumentException("Remote directory should not be null");
+    }
+    remoteDirectory = normalizeURI(remoteDirectory);
+    MaterialKey key = new MaterialKey(userName, projectName);
+    // Only requests that would upload the same files with the same ownership and permissions are coalesced
+    String id = key.getExtendedUsername() + Path.SEPARATOR + remoteDirectory + "|" + ownerName + ":" + groupName
+        + ":" + permissions;
+    return new RemoteMaterialization(id, key, ownerName, groupName, permissions, remoteDirectory);
+  }
+  
+  /**
+   * If a materialization of the same material in the same remote directory, with the same owner, group and
+   * permissions, has not started yet, the request joins it instead of starting a new one.
+   *
+   * @param request Materialization requested
+   * @return The pending materialization the request joined, or the request itself in which case the caller is
+   * responsible for running it
+   */
+  private RemoteMaterialization enqueueRemoteMaterialization(RemoteMaterialization request) {
+    return pendingRemoteMaterializations.compute(request.id, (id, pending) -> {
+      if (pending != null) {
+        pending.requests.incrementAndGet();
+        coalescedRemoteMaterializations.incrementAndGet();
+        return pending;
+      }
+      return request;
+    });
+  }
+  
+  private void runRemoteMaterialization(RemoteMaterialization materialization) {
+    remoteMaterializations.incrementAndGet();
+    ReentrantReadWriteLock.WriteLock lock = null;
+    try {
+      lock = getWriteLockForKey(materialization.key);
+      acquire(lock);
+      // Requests that arrived while waiting for the lock joined this materialization, the ones arriving from now on
+      // will start a new one
+      pendingRemoteMaterializations.remove(materialization.id, materialization);
+      materializeRemoteInternal(materialization.key, materialization.ownerName, materialization.groupName,
+          materialization.permissions, materialization.remoteDirectory, materialization.requests.get());
+      materialization.future.complete(null);
+    } catch (IOException | RuntimeException ex) {
+      pendingRemoteMaterializations.remove(materialization.id, materialization);
+      materialization.future.completeExceptionally(ex);
+    } finally {
+      if (lock != null) {
+        lock.unlock();
+      }
+    }
+  }
+  
   private void materializeRemoteInternal(MaterialKey key, String ownerName, String groupName,
-      final FsPermission permissions, String remoteDirectory) throws IOException {
+      final FsPermission permissions, String remoteDirectory, int references) throws IOException {
     
     RemoteMaterialReferences materialRef = null;
     RemoteMaterialRefID identifier = new RemoteMaterialRefID(key.getExtendedUsername(), remoteDirectory);
@@ -995,10 +1103,10 @@ public class CertificateMaterializer {
           }
           
           // 3. Set the correct initial references and persist
-          materialRef.setReferences(1);
+          materialRef.setReferences(references);
           remoteMaterialReferencesFacade.update(materialRef);
         } else {
-          materialRef.incrementReferences();
+          materialRef.setReferences(materialRef.getReferences() + references);
           remoteMaterialReferencesFacade.update(materialRef);
         }
       } catch (Exception ex) {
@@ -1100,8 +1208,6 @@ public class CertificateMaterializer {
         try {
           if (!deletedMaterial) {
             remoteMaterialReferencesFacade.releaseLock(identifier, lock_id);
-          } else {
-            removeLockForKey(key);
           }
         } catch (AcquireLockException ex) {
           LOG.log(Level.SEVERE, "Cannot release lock for " + identifier, ex);
@@ -1275,6 +1381,28 @@ public class CertificateMaterializer {
     }
   }
   
+  private class RemoteMaterialization {
+    private final String id;
+    private final MaterialKey key;
+    private final String ownerName;
+    private final String groupName;
+    private final FsPermission permissions;
+    private final String remoteDirectory;
+    // Number of requests served by this materialization, each one takes a reference to the remote material
+    private final AtomicInteger requests = new AtomicInteger(1);
+    private final CompletableFuture<Void> future = new CompletableFuture<>();
+    
+    private RemoteMaterialization(String id, MaterialKey key, String ownerName, String groupName,
+        FsPermission permissions, String remoteDirectory) {
+      this.id = id;
+      this.key = key;
+      this.ownerName = ownerName;
+      this.groupName = groupName;
+      this.permissions = permissions;
+      this.remoteDirectory = remoteDirectory;
+    }
+  }
+  
   private class LocalFileRemover implements Runnable {
     private final MaterialKey key;
     private final CryptoMaterial cryptoMaterial;
@@ -1292,7 +1420,7 @@ public class CertificateMaterializer {
       ReentrantReadWriteLock.WriteLock lock = null;
       try {
         lock = getWriteLockForKey(key);
-        lock.lock();
+        acquire(lock);
         deleteMaterialFromLocalFs(key, materializationDirectory);
         Map<String, LocalFileRemover> materialRemovers = fileRemovers.get(key);
         if (materialRemovers != null) {
@@ -1316,7 +1444,6 @@ public class CertificateMaterializer {
           LOG.log(Level.FINEST, "Deleted crypto material for <" + key.getExtendedUsername() + "> from directory "
               + materializationDirectory);
         }
-        removeLockForKey(key);
       } finally {
         lock.unlock();
       }
@@ -82,9 +82,9 @@ import java.io.StringReader;
 import java.io.StringWriter;
 import java.io.UnsupportedEncodingException;
 import java.math.BigInteger;
+import java.security.GeneralSecurityException;
 import java.security.Key;
 import java.security.KeyPair;
-import java.security.KeyPairGenerator;
 import java.security.KeyStore;
 import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
@@ -108,7 +108,6 @@ public class CertificatesController {
   private static final Logger LOGGER = Logger.getLogger(CertificatesController.class.getName());
 
   private final static String SECURITY_PROVIDER = "BC";
-  private final static String KEY_ALGORITHM = "RSA";
   private final static String SIGNATURE_ALGORITHM = "SHA256withRSA";
   private final static String CERTIFICATE_TYPE = "X.509";
   private final static int KEY_SIZE = 2048;
@@ -122,8 +121,9 @@ public class CertificatesController {
   private Instance<CertificateHandler> certificateHandlers;
   @EJB
   private CAProxy caProxy;
+  @EJB
+  private KeyPairPool keyPairPool;
 
-  private KeyPairGenerator keyPairGenerator = null;
   private CertificateFactory certificateFactory = null;
 
   private enum Endpoint {
@@ -145,13 +145,11 @@ public class CertificatesController {
   public void init() {
     Security.addProvider(new BouncyCastleProvider());
     try {
-      keyPairGenerator = KeyPairGenerator.getInstance(KEY_ALGORITHM, SECURITY_PROVIDER);
-      keyPairGenerator.initialize(KEY_SIZE);
-
       certificateFactory = CertificateFactory.getInstance(CERTIFICATE_TYPE);
     } catch (Exception e) {
-      LOGGER.log(Level.SEVERE, "Could not initialize the key generator", e);
+      LOGGER.log(Level.SEVERE, "Could not initialize the certificate factory", e);
     }
+    keyPairPool.prefill(KEY_SIZE);
   }
 
   /**
@@ -275,8 +273,8 @@ public class CertificatesController {
       throws HopsSecurityException, GenericException {
     try {
       LOGGER.log(Level.INFO, "Generating keypair for " + CN);
-      // Generate keypair
-      KeyPair keyPair = keyPairGenerator.generateKeyPair();
+      // Take a pre-generated keypair, or generate one if there is none left
+      KeyPair keyPair = keyPairPool.take(KEY_SIZE);
 
       CSR csr = generateCSR(CN, keyPair);
       LOGGER.log(Level.INFO, "Sending Certificate Signing Request for " + CN);
@@ -284,7 +282,7 @@ public class CertificatesController {
       LOGGER.log(Level.INFO, "Gotten signed certificate for " + CN);
       return buildStores(CN, userKeyPwd, keyPair.getPrivate(), signedCsr);
 
-    } catch (OperatorCreationException | IOException e) {
+    } catch (OperatorCreationException | IOException | GeneralSecurityException e) {
       throw new HopsSecurityException(RESTCodes.SecurityErrorCode.CERT_CREATION_ERROR, Level.SEVERE, null, null, e);
     }
   }
@@ -0,0 +1,196 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2023, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.security;
+
+import io.hops.hopsworks.common.util.Settings;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.DependsOn;
+import javax.ejb.EJB;
+import javax.ejb.Singleton;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.enterprise.concurrent.ManagedExecutorService;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Security;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * RSA key pairs generated in the background, per key size, so that issuing a certificate does not wait for the key
+ * generation. At most key_pair_pool_size key pairs are kept for each key size. The pool of a key size is refilled
+ * after every key pair taken from it, by a single task at a time so that the key generation does not take more than
+ * one thread of the executor. When the pool is empty the key pair is generated by the caller.
+ *
+ * Key pairs are never persisted and each one is handed out once.
+ */
+@Singleton
+@DependsOn("Settings")
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+public class KeyPairPool {
+
+  private static final Logger LOGGER = Logger.getLogger(KeyPairPool.class.getName());
+  private static final String SECURITY_PROVIDER = "BC";
+  private static final String KEY_ALGORITHM = "RSA";
+
+  @EJB
+  private Settings settings;
+  @Resource(lookup = "concurrent/hopsExecutorService")
+  private ManagedExecutorService executorService;
+
+  private final Map<Integer, SizePool> pools = new ConcurrentHashMap<>();
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong generated = new AtomicLong();
+  private volatile boolean destroyed = false;
+
+  @PostConstruct
+  public void init() {
+    Security.addProvider(new BouncyCastleProvider());
+  }
+
+  @PreDestroy
+  public void destroy() {
+    destroyed = true;
+    pools.clear();
+  }
+
+  /**
+   * Start filling the pool of the key size, e.g. when the caller is created, so that the first certificates do not
+   * wait for the key generation either.
+   *
+   * @param keySize
+   */
+  public void prefill(int keySize) {
+    refill(pools.computeIfAbsent(keySize, SizePool::new));
+  }
+
+  /**
+   * @param keySize
+   * @return a key pair that has not been handed out before
+   * @throws GeneralSecurityException if the pool is empty and the key pair could not be generated
+   */
+  public KeyPair take(int keySize) throws GeneralSecurityException {
+    SizePool pool = pools.computeIfAbsent(keySize, SizePool::new);
+    KeyPair keyPair = pool.poll();
+    refill(pool);
+    if (keyPair != null) {
+      hits.incrementAndGet();
+      return keyPair;
+    }
+    misses.incrementAndGet();
+    return generate(keySize);
+  }
+
+  private void refill(SizePool pool) {
+    if (destroyed || pool.size() >= settings.getKeyPairPoolSize() || !pool.refilling.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      executorService.submit(() -> {
+        try {
+          while (!destroyed && pool.size() < settings.getKeyPairPoolSize()) {
+            pool.offer(generate(pool.keySize));
+          }
+        } catch (GeneralSecurityException | RuntimeException e) {
+          LOGGER.log(Level.WARNING, "Failed to generate key pairs of size " + pool.keySize, e);
+        } finally {
+          pool.refilling.set(false);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      pool.refilling.set(false);
+      LOGGER.log(Level.FINE, "Could not schedule the generation of key pairs of size " + pool.keySize, e);
+    }
+  }
+
+  private KeyPair generate(int keySize) throws GeneralSecurityException {
+    KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance(KEY_ALGORITHM, SECURITY_PROVIDER);
+    keyPairGenerator.initialize(keySize);
+    KeyPair keyPair = keyPairGenerator.generateKeyPair();
+    generated.incrementAndGet();
+    return keyPair;
+  }
+
+  /**
+   * @return the number of key pairs waiting in the pool of each key size
+   */
+  public Map<Integer, Integer> getPoolDepths() {
+    Map<Integer, Integer> depths = new HashMap<>();
+    for (SizePool pool : pools.values()) {
+      depths.put(pool.keySize, pool.size());
+    }
+    return depths;
+  }
+
+  public long getHits() {
+    return hits.get();
+  }
+
+  public long getMisses() {
+    return misses.get();
+  }
+
+  public long getGenerated() {
+    return generated.get();
+  }
+
+  private static class SizePool {
+    private final int keySize;
+    private final Queue<KeyPair> keyPairs = new ConcurrentLinkedQueue<>();
+    // ConcurrentLinkedQueue.size() is not constant time
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicBoolean refilling = new AtomicBoolean(false);
+
+    SizePool(int keySize) {
+      this.keySize = keySize;
+    }
+
+    KeyPair poll() {
+      KeyPair keyPair = keyPairs.poll();
+      if (keyPair != null) {
+        size.decrementAndGet();
+      }
+      return keyPair;
+    }
+
+    void offer(KeyPair keyPair) {
+      keyPairs.offer(keyPair);
+      size.incrementAndGet();
+    }
+
+    int size() {
+      return size.get();
+    }
+  }
+}
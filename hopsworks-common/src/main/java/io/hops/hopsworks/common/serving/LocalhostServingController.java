@@ -19,6 +19,7 @@ package io.hops.hopsworks.common.serving;
 import com.google.common.base.Strings;
 import io.hops.hopsworks.common.serving.inference.LocalhostSkLearnInferenceUtils;
 import io.hops.hopsworks.common.serving.inference.LocalhostTfInferenceUtils;
+import io.hops.hopsworks.common.serving.inference.ServingCache;
 import io.hops.hopsworks.common.serving.util.ServingUtils;
 import io.hops.hopsworks.persistence.entity.project.Project;
 import io.hops.hopsworks.persistence.entity.serving.ModelServer;
@@ -75,6 +76,8 @@ public class LocalhostServingController implements ServingController {
   private LocalhostTfInferenceUtils localhostTfInferenceUtils;
   @EJB
   private LocalhostSkLearnInferenceUtils localhostSkLearnInferenceUtils;
+  @EJB
+  private ServingCache servingCache;
   
   /**
    * Gets a list of available servings for a project
@@ -176,6 +179,7 @@ public class LocalhostServingController implements ServingController {
       killServingInstance(project, serving, false);
     }
     servingFacade.delete(serving);
+    servingCache.remove(serving.getId());
   }
 
   @Override
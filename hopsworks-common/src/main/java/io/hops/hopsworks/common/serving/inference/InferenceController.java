@@ -17,7 +17,6 @@
 package io.hops.hopsworks.common.serving.inference;
 
 import io.hops.common.Pair;
-import io.hops.hopsworks.common.dao.serving.ServingFacade;
 import io.hops.hopsworks.common.serving.inference.logger.InferenceLogger;
 import io.hops.hopsworks.exceptions.ApiKeyException;
 import io.hops.hopsworks.exceptions.InferenceException;
@@ -48,7 +47,7 @@ public class InferenceController {
   private static final Logger logger = Logger.getLogger(InferenceLogger.class.getName());
 
   @EJB
-  private ServingFacade servingFacade;
+  private ServingCache servingCache;
 
   @Inject
   private ServingInferenceController servingInferenceController;
@@ -73,7 +72,7 @@ public class InferenceController {
                       InferenceVerb verb, String inferenceRequestJson, String authHeader)
       throws InferenceException, ApiKeyException {
 
-    Serving serving = servingFacade.findByProjectAndName(project, modelName);
+    Serving serving = servingCache.find(project, modelName);
     if (serving == null) {
       throw new InferenceException(RESTCodes.InferenceErrorCode.SERVING_NOT_FOUND, Level.FINE, "name: " + modelName);
     }
@@ -88,10 +87,12 @@ public class InferenceController {
     }
 
     // ServingInferenceController is either localhost or kubernetes inference controller
+    long start = System.currentTimeMillis();
     Pair<Integer, String> inferenceResult =
       servingInferenceController.infer(username, serving, modelVersion, verb, inferenceRequestJson, authHeader);
+    servingCache.recordLatency(serving, System.currentTimeMillis() - start);
 
-    // Log the inference
+    // Log the inference, loggers return before the request is logged
     for (InferenceLogger inferenceLogger : inferenceLoggers) {
       try {
         inferenceLogger.logInferenceRequest(serving, inferenceRequestJson,
@@ -0,0 +1,293 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2023, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.serving.inference;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.topic.ITopic;
+import com.hazelcast.topic.Message;
+import com.hazelcast.topic.MessageListener;
+import io.hops.hopsworks.common.dao.serving.ServingFacade;
+import io.hops.hopsworks.common.util.Settings;
+import io.hops.hopsworks.persistence.entity.project.Project;
+import io.hops.hopsworks.persistence.entity.serving.Serving;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.DependsOn;
+import javax.ejb.EJB;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.inject.Inject;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Servings looked up by the inference requests, by project and name. Entries are evicted on all the nodes of the
+ * cluster when a serving is started, stopped, updated or deleted, and expire after serving_cache_ttl_ms in any case.
+ *
+ * Also keeps a histogram of the inference latency of each serving on this node.
+ */
+@Startup
+@Singleton
+@DependsOn("Settings")
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+public class ServingCache {
+
+  private static final Logger LOGGER = Logger.getLogger(ServingCache.class.getName());
+  private static final String SERVING_INVALIDATED_TOPIC_NAME = "serving_invalidated";
+  // Upper bounds of the latency buckets in ms, the last bucket counts everything above
+  private static final long[] LATENCY_BUCKETS_MS = {5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+
+  @EJB
+  private Settings settings;
+  @EJB
+  private ServingFacade servingFacade;
+  @Inject
+  private HazelcastInstance hazelcastInstance;
+
+  private final Map<Key, CachedServing> servings = new ConcurrentHashMap<>();
+  private final Map<Integer, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+  // Incremented on every eviction so that a serving read before the eviction is not cached after it
+  private final AtomicLong generation = new AtomicLong();
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private ITopic<Integer> servingInvalidatedTopic;
+  private UUID msgListenerId;
+
+  @PostConstruct
+  public void init() {
+    // hazelcastInstance == null if Hazelcast is Disabled
+    if (hazelcastInstance != null) {
+      servingInvalidatedTopic = hazelcastInstance.getTopic(SERVING_INVALIDATED_TOPIC_NAME);
+      msgListenerId = servingInvalidatedTopic.addMessageListener(new MessageListenerImpl());
+    }
+  }
+
+  @PreDestroy
+  public void destroy() {
+    if (servingInvalidatedTopic != null) {
+      //needed for redeploy to remove the listener
+      servingInvalidatedTopic.removeMessageListener(msgListenerId);
+    }
+  }
+
+  /**
+   * The returned serving is shared between requests and must not be modified.
+   *
+   * @param project
+   * @param servingName
+   * @return the serving or null if there is no serving with that name in the project
+   */
+  public Serving find(Project project, String servingName) {
+    Key key = new Key(project.getId(), servingName);
+    long now = System.currentTimeMillis();
+    CachedServing cachedServing = servings.get(key);
+    if (cachedServing != null && !cachedServing.isExpired(now)) {
+      hits.incrementAndGet();
+      return cachedServing.getServing();
+    }
+    misses.incrementAndGet();
+    long loadedGeneration = generation.get();
+    Serving serving = servingFacade.findByProjectAndName(project, servingName);
+    if (serving == null) {
+      servings.remove(key);
+      return null;
+    }
+    servings.put(key, new CachedServing(serving, now + settings.getServingCacheTtlMs()));
+    if (generation.get() != loadedGeneration) {
+      // Evicted while reading from the database, what was read might be stale
+      servings.remove(key);
+    }
+    return serving;
+  }
+
+  /**
+   * Evict the serving on this and the other nodes of the cluster. To be called once the changes to the serving have
+   * been committed.
+   *
+   * @param servingId
+   */
+  public void invalidate(Integer servingId) {
+    if (servingId == null) {
+      return;
+    }
+    evict(servingId);
+    //Notify other nodes if servingInvalidatedTopic is created == Hazelcast is enabled
+    if (servingInvalidatedTopic != null) {
+      servingInvalidatedTopic.publish(servingId);
+    }
+  }
+
+  /**
+   * Evict the serving and drop its latency histogram on this node.
+   *
+   * @param servingId
+   */
+  public void remove(Integer servingId) {
+    invalidate(servingId);
+    latencies.remove(servingId);
+  }
+
+  private void evict(Integer servingId) {
+    generation.incrementAndGet();
+    servings.values().removeIf(cached -> servingId.equals(cached.getServing().getId()));
+  }
+
+  /**
+   * @param serving
+   * @param latencyMs time taken by the model server to answer the inference request
+   */
+  public void recordLatency(Serving serving, long latencyMs) {
+    latencies.computeIfAbsent(serving.getId(),
+      id -> new LatencyHistogram(serving.getProject().getName() + "/" + serving.getName()))
+      .record(latencyMs);
+  }
+
+  /**
+   * @param servingId
+   * @return the latency histogram of the serving on this node, null if it received no inference request here
+   */
+  public LatencyHistogram getLatencyHistogram(Integer servingId) {
+    return latencies.get(servingId);
+  }
+
+  public int size() {
+    return servings.size();
+  }
+
+  public long getHits() {
+    return hits.get();
+  }
+
+  public long getMisses() {
+    return misses.get();
+  }
+
+  private static class Key {
+    private final Integer projectId;
+    private final String servingName;
+
+    Key(Integer projectId, String servingName) {
+      this.projectId = projectId;
+      this.servingName = servingName;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Key key = (Key) o;
+      return projectId.equals(key.projectId) && servingName.equals(key.servingName);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(projectId, servingName);
+    }
+  }
+
+  private static class CachedServing {
+    private final Serving serving;
+    private final long expiresAt;
+
+    CachedServing(Serving serving, long expiresAt) {
+      this.serving = serving;
+      this.expiresAt = expiresAt;
+    }
+
+    Serving getServing() {
+      return serving;
+    }
+
+    boolean isExpired(long now) {
+      return now >= expiresAt;
+    }
+  }
+
+  public static class LatencyHistogram {
+    private final String name;
+    private final AtomicLongArray counts = new AtomicLongArray(LATENCY_BUCKETS_MS.length + 1);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sumMs = new AtomicLong();
+
+    LatencyHistogram(String name) {
+      this.name = name;
+    }
+
+    void record(long latencyMs) {
+      int bucket = 0;
+      while (bucket < LATENCY_BUCKETS_MS.length && latencyMs > LATENCY_BUCKETS_MS[bucket]) {
+        bucket++;
+      }
+      counts.incrementAndGet(bucket);
+      count.incrementAndGet();
+      sumMs.addAndGet(latencyMs);
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * @return the upper bounds of the buckets in ms, the last bucket of the counts has no upper bound
+     */
+    public long[] getBucketsMs() {
+      return LATENCY_BUCKETS_MS.clone();
+    }
+
+    public long[] getCounts() {
+      long[] snapshot = new long[counts.length()];
+      for (int i = 0; i < snapshot.length; i++) {
+        snapshot[i] = counts.get(i);
+      }
+      return snapshot;
+    }
+
+    public long getCount() {
+      return count.get();
+    }
+
+    public long getSumMs() {
+      return sumMs.get();
+    }
+  }
+
+  public class MessageListenerImpl implements MessageListener<Integer> {
+
+    @Override
+    public void onMessage(Message<Integer> message) {
+      if (!message.getPublishingMember().localMember()) {
+        LOGGER.log(Level.FINE, "Serving invalidated on another node {0}", message.getMessageObject());
+        evict(message.getMessageObject());
+      }
+    }
+  }
+}
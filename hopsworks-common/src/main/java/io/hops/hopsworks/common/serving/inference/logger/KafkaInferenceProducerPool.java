@@ -0,0 +1,311 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2023, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.serving.inference.logger;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.hops.hopsworks.common.dao.kafka.HopsKafkaAdminClient;
+import io.hops.hopsworks.common.security.CertificateMaterializer;
+import io.hops.hopsworks.common.util.HopsUtils;
+import io.hops.hopsworks.common.util.Settings;
+import io.hops.hopsworks.exceptions.CryptoPasswordNotFoundException;
+import io.hops.hopsworks.persistence.entity.kafka.schemas.Subjects;
+import io.hops.hopsworks.persistence.entity.project.Project;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.io.DatumWriter;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.config.SslConfigs;
+import org.apache.kafka.common.errors.AuthenticationException;
+import org.apache.kafka.common.errors.AuthorizationException;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+
+import javax.annotation.PreDestroy;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.DependsOn;
+import javax.ejb.EJB;
+import javax.ejb.Schedule;
+import javax.ejb.Singleton;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static io.hops.hopsworks.common.serving.inference.logger.KafkaInferenceLogger.SERVING_MANAGER_USERNAME;
+
+/**
+ * Kafka producers used to log inference requests, one per project and shared by all its servings. The certificates
+ * of the serving manager are materialized when the producer of a project is first needed and removed when the
+ * producer is closed, after being idle for serving_inference_logger_producer_idle_ms.
+ *
+ * Records are sent fire-and-forget. At most serving_inference_logger_max_queued records wait to be acknowledged by
+ * the brokers, the ones logged above that are dropped.
+ */
+@Singleton
+@DependsOn("Settings")
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+public class KafkaInferenceProducerPool {
+
+  private static final Logger LOGGER = Logger.getLogger(KafkaInferenceProducerPool.class.getName());
+  // Do not block the logging thread for long if the brokers are unreachable or the buffer is full
+  private static final long MAX_BLOCK_MS = 2000L;
+  private static final long LINGER_MS = 5L;
+  private static final Duration CLOSE_TIMEOUT = Duration.ofSeconds(5);
+  private static final int MAX_CACHED_SCHEMAS = 1000;
+
+  @EJB
+  private Settings settings;
+  @EJB
+  private CertificateMaterializer certificateMaterializer;
+  @EJB
+  private HopsKafkaAdminClient hopsKafkaAdminClient;
+
+  private final Map<Integer, ProjectProducer> producers = new ConcurrentHashMap<>();
+  // Parsed schema and writer by subject version
+  private final Cache<Integer, InferenceSchema> schemas = Caffeine.newBuilder()
+    .maximumSize(MAX_CACHED_SCHEMAS)
+    .build();
+  private final AtomicLong queued = new AtomicLong();
+  private final AtomicLong sent = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+
+  @PreDestroy
+  public void destroy() {
+    closeProducers(producer -> true);
+  }
+
+  /**
+   * @param subjects subject version of the inference topic
+   * @return the parsed schema of the subject version and a writer for it, both safe to be shared between threads
+   */
+  public InferenceSchema getSchema(Subjects subjects) {
+    return schemas.get(subjects.getId(), id -> new InferenceSchema(subjects.getSchema().getSchema()));
+  }
+
+  /**
+   * Send the record without waiting for the acknowledgement of the brokers.
+   *
+   * @param project project owning the topic
+   * @param topic
+   * @param value serialized inference record
+   * @return false if the record was dropped because too many records are already queued or it could not be handed
+   * to the producer
+   */
+  public boolean send(Project project, String topic, byte[] value) {
+    if (queued.incrementAndGet() > settings.getServingInferenceLoggerMaxQueued()) {
+      queued.decrementAndGet();
+      dropped.incrementAndGet();
+      return false;
+    }
+    ProjectProducer projectProducer = producers.computeIfAbsent(project.getId(),
+      id -> new ProjectProducer(id, project.getName()));
+    if (projectProducer.invalid) {
+      closeProducer(projectProducer);
+      projectProducer = producers.computeIfAbsent(project.getId(), id -> new ProjectProducer(id, project.getName()));
+    }
+    ProjectProducer usedProducer = projectProducer;
+    try {
+      projectProducer.getProducer().send(new ProducerRecord<>(topic, value), (metadata, exception) -> {
+        queued.decrementAndGet();
+        if (exception == null) {
+          sent.incrementAndGet();
+          return;
+        }
+        failed.incrementAndGet();
+        LOGGER.log(Level.FINE, "Cannot write to topic: " + topic, exception);
+        if (exception instanceof AuthenticationException || exception instanceof AuthorizationException) {
+          // Credentials of the serving manager are no longer valid, recreate the producer on the next request.
+          // Not closed here as this runs in the I/O thread of the producer
+          usedProducer.invalid = true;
+        }
+      });
+      return true;
+    } catch (IOException | CryptoPasswordNotFoundException | RuntimeException e) {
+      queued.decrementAndGet();
+      dropped.incrementAndGet();
+      LOGGER.log(Level.FINE, "Failed to setup the producer for the project: " + project.getName(), e);
+      return false;
+    }
+  }
+
+  /**
+   * Close the producer of a project on this node, e.g. when the project is deleted.
+   *
+   * @param project
+   */
+  public void closeProducer(Project project) {
+    ProjectProducer projectProducer = producers.get(project.getId());
+    if (projectProducer != null) {
+      closeProducer(projectProducer);
+    }
+  }
+
+  private void closeProducer(ProjectProducer projectProducer) {
+    if (producers.remove(projectProducer.projectId, projectProducer)) {
+      projectProducer.close();
+    }
+  }
+
+  private void closeProducers(Predicate<ProjectProducer> predicate) {
+    Iterator<ProjectProducer> iterator = producers.values().iterator();
+    while (iterator.hasNext()) {
+      ProjectProducer projectProducer = iterator.next();
+      if (predicate.test(projectProducer)) {
+        iterator.remove();
+        projectProducer.close();
+      }
+    }
+  }
+
+  @Schedule(minute = "*", hour = "*", info = "Inference logger idle producers eviction", persistent = false)
+  public void evictIdleProducers() {
+    long idleBefore = System.currentTimeMillis() - settings.getServingInferenceLoggerProducerIdleMs();
+    closeProducers(producer -> producer.invalid || producer.lastUsed < idleBefore);
+  }
+
+  public long getQueued() {
+    return queued.get();
+  }
+
+  public long getSent() {
+    return sent.get();
+  }
+
+  public long getDropped() {
+    return dropped.get();
+  }
+
+  public long getFailed() {
+    return failed.get();
+  }
+
+  public int getProducers() {
+    return producers.size();
+  }
+
+  private KafkaProducer<String, byte[]> setupProducer(String projectName) throws IOException,
+    CryptoPasswordNotFoundException {
+    // Get default properties
+    Properties props = hopsKafkaAdminClient.getHopsworksKafkaProperties();
+
+    // Setup producer properties
+    props.put(ProducerConfig.CLIENT_ID_CONFIG, "KafkaServing");
+    props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG,
+            StringSerializer.class.getName());
+    props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG,
+            ByteArraySerializer.class.getName());
+    props.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, MAX_BLOCK_MS);
+    props.put(ProducerConfig.LINGER_MS_CONFIG, LINGER_MS);
+
+    // Configure TLS for this producer
+    certificateMaterializer.materializeCertificatesLocal(SERVING_MANAGER_USERNAME, projectName);
+    try {
+      CertificateMaterializer.CryptoMaterial cryptoMaterial =
+              certificateMaterializer.getUserMaterial(SERVING_MANAGER_USERNAME, projectName);
+
+      props.setProperty(SslConfigs.SSL_TRUSTSTORE_LOCATION_CONFIG,
+          settings.getHopsworksTmpCertDir() + File.separator + HopsUtils.getProjectTruststoreName(projectName,
+              SERVING_MANAGER_USERNAME));
+      props.setProperty(SslConfigs.SSL_TRUSTSTORE_PASSWORD_CONFIG, String.valueOf(cryptoMaterial.getPassword()));
+
+      props.setProperty(SslConfigs.SSL_KEYSTORE_LOCATION_CONFIG,
+          settings.getHopsworksTmpCertDir() + File.separator + HopsUtils.getProjectKeystoreName(projectName,
+              SERVING_MANAGER_USERNAME));
+      props.setProperty(SslConfigs.SSL_KEYSTORE_PASSWORD_CONFIG, String.valueOf(cryptoMaterial.getPassword()));
+
+      props.setProperty(SslConfigs.SSL_KEY_PASSWORD_CONFIG, String.valueOf(cryptoMaterial.getPassword()));
+
+      return new KafkaProducer<>(props);
+    } catch (CryptoPasswordNotFoundException | RuntimeException e) {
+      certificateMaterializer.removeCertificatesLocal(SERVING_MANAGER_USERNAME, projectName);
+      throw e;
+    }
+  }
+
+  private class ProjectProducer {
+    private final Integer projectId;
+    private final String projectName;
+    private KafkaProducer<String, byte[]> producer;
+    private boolean closed = false;
+    private volatile boolean invalid = false;
+    private volatile long lastUsed = System.currentTimeMillis();
+
+    ProjectProducer(Integer projectId, String projectName) {
+      this.projectId = projectId;
+      this.projectName = projectName;
+    }
+
+    synchronized KafkaProducer<String, byte[]> getProducer() throws IOException, CryptoPasswordNotFoundException {
+      if (closed) {
+        throw new IllegalStateException("Producer of project " + projectName + " has been closed");
+      }
+      if (producer == null) {
+        producer = setupProducer(projectName);
+      }
+      lastUsed = System.currentTimeMillis();
+      return producer;
+    }
+
+    synchronized void close() {
+      closed = true;
+      if (producer != null) {
+        try {
+          // Gives the queued records a chance to be sent
+          producer.close(CLOSE_TIMEOUT);
+        } catch (RuntimeException e) {
+          LOGGER.log(Level.FINE, "Failed to close the producer of project " + projectName, e);
+        }
+        producer = null;
+        // De-materialize certificate
+        certificateMaterializer.removeCertificatesLocal(SERVING_MANAGER_USERNAME, projectName);
+      }
+    }
+  }
+
+  public static class InferenceSchema {
+    private final Schema schema;
+    private final DatumWriter<GenericData.Record> writer;
+
+    InferenceSchema(String schema) {
+      this.schema = new Schema.Parser().parse(schema);
+      this.writer = new GenericDatumWriter<>(this.schema);
+    }
+
+    public Schema getSchema() {
+      return schema;
+    }
+
+    public DatumWriter<GenericData.Record> getWriter() {
+      return writer;
+    }
+  }
+}
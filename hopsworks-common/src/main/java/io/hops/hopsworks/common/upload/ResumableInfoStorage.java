@@ -41,6 +41,7 @@ package io.hops.hopsworks.common.upload;
 
 import com.hazelcast.config.MapConfig;
 import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
@@ -56,6 +57,7 @@ import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
 import javax.inject.Inject;
 import java.util.Date;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
@@ -68,6 +70,9 @@ import java.util.logging.Logger;
 public class ResumableInfoStorage {
   private static final Logger LOGGER = Logger.getLogger(ResumableInfoStorage.class.getName());
   private static final String MAP_NAME = "uploadInfo";
+  private static final String ASSEMBLY_MAP_NAME = "uploadAssembly";
+  //FINISHED and FAILED states can be polled again until they expire
+  private static final long DONE_ASSEMBLY_STATE_TTL_MINUTES = 30;
 
   @Inject
   private HazelcastInstance hazelcastInstance;
@@ -77,6 +82,7 @@ public class ResumableInfoStorage {
   private ResumableInfoProcessor resumableInfoProcessor;
 
   private ConcurrentHashMap<Integer, UploadInfo> flowInfoMap;
+  private ConcurrentHashMap<Integer, LocalAssemblyState> assemblyStateMap;
 
   @PostConstruct
   protected void init() {
@@ -86,8 +92,14 @@ public class ResumableInfoStorage {
         mapConfig.setMaxIdleSeconds(1800); //mark entries for removal after being untouched for 30 min (1800 seconds)
         hazelcastInstance.getConfig().addMapConfig(mapConfig);
       }
+      if (hazelcastInstance.getConfig().getMapConfigOrNull(ASSEMBLY_MAP_NAME) == null) {
+        MapConfig mapConfig = new MapConfig(ASSEMBLY_MAP_NAME);
+        mapConfig.setMaxIdleSeconds(1800); //the state of uploads never polled is removed after 30 min
+        hazelcastInstance.getConfig().addMapConfig(mapConfig);
+      }
     } else {
       flowInfoMap = new ConcurrentHashMap<>();
+      assemblyStateMap = new ConcurrentHashMap<>();
       //Only if no hazelcast ==> not clustered
       timerService.createIntervalTimer(0L, TimeUnit.MILLISECONDS.convert(1L, TimeUnit.HOURS),
         new TimerConfig("Clean expired upload info.", false));
@@ -107,6 +119,8 @@ public class ResumableInfoStorage {
     } catch (Exception e) {
       LOGGER.log(Level.WARNING, "Failed to Clean expired upload info map. Error: {0}", e.getMessage());
     }
+    long now = System.currentTimeMillis();
+    assemblyStateMap.values().removeIf(state -> state.isExpired(now));
   }
 
   /**
@@ -165,4 +179,54 @@ public class ResumableInfoStorage {
       return uploadInfo != null && uploadInfo.getUploadedChunks().contains(rcn);
     }
   }
+
+  /**
+   * Set the state of the assembly of an upload finalized asynchronously.
+   *
+   * @param info
+   * @param state
+   */
+  public void setAssemblyState(FlowInfo info, AssemblyState state) {
+    if (hazelcastInstance != null) {
+      IMap<Integer, AssemblyState> assemblyStates = hazelcastInstance.getMap(ASSEMBLY_MAP_NAME);
+      if (state.isDone()) {
+        assemblyStates.set(info.hashCode(), state, DONE_ASSEMBLY_STATE_TTL_MINUTES, TimeUnit.MINUTES);
+      } else {
+        assemblyStates.set(info.hashCode(), state);
+      }
+    } else {
+      long expiresAt = state.isDone() ?
+        System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(DONE_ASSEMBLY_STATE_TTL_MINUTES) : Long.MAX_VALUE;
+      assemblyStateMap.put(info.hashCode(), new LocalAssemblyState(state, expiresAt));
+    }
+  }
+
+  /**
+   * Get the state of the assembly of an upload. FINISHED and FAILED are kept for 30 min, so a poll can be retried.
+   *
+   * @param identifier
+   * @return the state or null if no assembly is known for the upload
+   */
+  public AssemblyState getAssemblyState(Integer identifier) {
+    if (hazelcastInstance != null) {
+      Map<Integer, AssemblyState> assemblyStates = hazelcastInstance.getMap(ASSEMBLY_MAP_NAME);
+      return assemblyStates.get(identifier);
+    }
+    LocalAssemblyState state = assemblyStateMap.get(identifier);
+    return state == null || state.isExpired(System.currentTimeMillis()) ? null : state.state;
+  }
+
+  private static class LocalAssemblyState {
+    private final AssemblyState state;
+    private final long expiresAt;
+
+    private LocalAssemblyState(AssemblyState state, long expiresAt) {
+      this.state = state;
+      this.expiresAt = expiresAt;
+    }
+
+    private boolean isExpired(long now) {
+      return now > expiresAt;
+    }
+  }
 }
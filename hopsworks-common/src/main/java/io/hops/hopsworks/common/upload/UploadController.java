@@ -26,10 +26,12 @@ import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.security.AccessControlException;
 
+import javax.annotation.Resource;
 import javax.ejb.EJB;
 import javax.ejb.Stateless;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
+import javax.enterprise.concurrent.ManagedExecutorService;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Arrays;
@@ -48,6 +50,8 @@ public class UploadController {
   private DistributedFsService dfs;
   @EJB
   private ResumableInfoStorage storage;
+  @Resource(lookup = "concurrent/hopsExecutorService")
+  private ManagedExecutorService executorService;
 
   /**
    * Check if user has permission to write to path. And destination exists.
@@ -81,10 +85,25 @@ public class UploadController {
    */
   public boolean upload(InputStream uploadedInputStream, FlowInfo flowInfo, String hdfsPath, String username)
     throws DatasetException, AccessControlException {
+    return upload(uploadedInputStream, flowInfo, hdfsPath, username, false);
+  }
+
+  /**
+   * Upload a chunk. Chunks can be uploaded in parallel, the file is assembled when the last one is received.
+   * @param uploadedInputStream
+   * @param flowInfo
+   * @param hdfsPath
+   * @param username
+   * @param async if true the file is assembled in the background, poll its state with getAssemblyState
+   * @return true if all the chunks were received
+   * @throws DatasetException
+   */
+  public boolean upload(InputStream uploadedInputStream, FlowInfo flowInfo, String hdfsPath, String username,
+    boolean async) throws DatasetException, AccessControlException {
     LOGGER.log(Level.FINE, "Uploading:- chunk: {0}, id: {1}", new Object[]{flowInfo.getChunkNumber(),
       flowInfo.getIdentifier()});
     try {
-      return hdfsStagingUpload(uploadedInputStream, flowInfo, hdfsPath, username);
+      return hdfsStagingUpload(uploadedInputStream, flowInfo, hdfsPath, username, async);
     } catch (AccessControlException ex) {
       throw new AccessControlException("Permission denied: You can not upload to this folder. ");
     } catch (IOException e) {
@@ -105,6 +124,17 @@ public class UploadController {
     return storage.isUploaded(flowInfo.hashCode(), flowInfo.getChunkNumber());
   }
 
+  /**
+   * State of the assembly of an upload finalized asynchronously
+   * @param flowInfo
+   * @param hdfsPath
+   * @return the state or null if there is no assembly for the upload
+   */
+  public AssemblyState getAssemblyState(FlowInfo flowInfo, String hdfsPath) {
+    flowInfo.setFilePath(getTmpStagingDir(flowInfo.getFilename(), hdfsPath).toString());
+    return storage.getAssemblyState(flowInfo.hashCode());
+  }
+
   private void checkPermission(DistributedFileSystemOps udfso, FlowInfo flowInfo, String path) throws IOException,
     DatasetException {
     String fileName = flowInfo.getFilename();
@@ -138,42 +168,81 @@ public class UploadController {
     }
   }
 
-  //hdfs mark chunk as uploaded and check if all chunks are uploaded
-  private boolean markAsUploadedAndCheckFinished(DistributedFileSystemOps dfsOps, FlowInfo info, int chunkNumber,
-    long contentLength) throws IOException {
-    //Mark as uploaded and check if finished. Will remove the info if finished.
-    if (storage.addChunkAndCheckIfFinished(info, chunkNumber, contentLength)) {
-      //collect
-      Path location = new Path(info.getFilePath());
-      if (dfsOps.exists(location) && dfsOps.getFileStatus(location).isDirectory()) {
-        FileStatus[] fileStatuses = dfsOps.listStatus(location);
-        if (fileStatuses != null && fileStatuses.length > 0) {
-          if (fileStatuses.length > 1) {
-            Arrays.sort(fileStatuses, Comparator.comparingInt(o -> Integer.parseInt(o.getPath().getName())));
-          }
-          //Here we remove ".temp" to collect files in filename
-          Path collected = fromTemp(location);
-          FSDataOutputStream out = null;
-          FSDataInputStream in = null;
-          try {
-            out = dfsOps.create(collected);
-            for (FileStatus fileStatus : fileStatuses) {
-              try {
-                in = dfsOps.open(fileStatus.getPath());
-                IOUtils.copy(in, out);
-              } finally {
-                IOUtils.closeQuietly(in);
-              }
-            }
-            dfsOps.rm(location, true);
-          } finally {
-            IOUtils.closeQuietly(out);
-          }
+  //collect the chunks in the staging dir into the uploaded file
+  private void collectChunks(DistributedFileSystemOps dfsOps, FlowInfo info) throws IOException {
+    Path location = new Path(info.getFilePath());
+    if (dfsOps.exists(location) && dfsOps.getFileStatus(location).isDirectory()) {
+      FileStatus[] fileStatuses = dfsOps.listStatus(location);
+      if (fileStatuses != null && fileStatuses.length > 0) {
+        if (fileStatuses.length > 1) {
+          Arrays.sort(fileStatuses, Comparator.comparingInt(o -> Integer.parseInt(o.getPath().getName())));
+        }
+        //Here we remove ".temp" to collect files in filename
+        Path collected = fromTemp(location);
+        boolean concatenated;
+        try {
+          concatChunks(dfsOps, fileStatuses);
+          concatenated = true;
+        } catch (IOException | UnsupportedOperationException e) {
+          // e.g. chunks stored in the database as small files. Concat is atomic, the chunks are still there.
+          LOGGER.log(Level.FINE, "Failed to concat chunks of " + collected + ", copying them", e);
+          concatenated = false;
+        }
+        if (concatenated) {
+          // The other chunks are gone once concatenated, a failed rename must not fall back to the copy
+          dfsOps.moveWithinHdfs(fileStatuses[0].getPath(), collected, true);
+        } else {
+          copyChunks(dfsOps, fileStatuses, collected);
         }
+        dfsOps.rm(location, true);
       }
-      return true;
     }
-    return false;
+  }
+
+  //move the blocks of the chunks to the first one, no data is read or written
+  private void concatChunks(DistributedFileSystemOps dfsOps, FileStatus[] fileStatuses) throws IOException {
+    if (fileStatuses.length > 1) {
+      Path[] others = new Path[fileStatuses.length - 1];
+      for (int i = 1; i < fileStatuses.length; i++) {
+        others[i - 1] = fileStatuses[i].getPath();
+      }
+      dfsOps.concat(fileStatuses[0].getPath(), others);
+    }
+  }
+
+  private void copyChunks(DistributedFileSystemOps dfsOps, FileStatus[] fileStatuses, Path collected)
+    throws IOException {
+    FSDataOutputStream out = null;
+    FSDataInputStream in = null;
+    try {
+      out = dfsOps.create(collected);
+      for (FileStatus fileStatus : fileStatuses) {
+        try {
+          in = dfsOps.open(fileStatus.getPath());
+          IOUtils.copy(in, out);
+        } finally {
+          IOUtils.closeQuietly(in);
+        }
+      }
+    } finally {
+      IOUtils.closeQuietly(out);
+    }
+  }
+
+  //collect the chunks and move the file to its destination in a managed thread
+  private void assembleAsync(FlowInfo info, String hdfsPath, String username) {
+    DistributedFileSystemOps dfsOps = null;
+    try {
+      dfsOps = dfs.getDfsOps(username);
+      collectChunks(dfsOps, info);
+      copyToHdfs(dfsOps, info, hdfsPath);
+      storage.setAssemblyState(info, AssemblyState.FINISHED);
+    } catch (IOException | RuntimeException e) {
+      LOGGER.log(Level.WARNING, "Failed to assemble uploaded file: " + info.getFilename(), e);
+      storage.setAssemblyState(info, AssemblyState.FAILED);
+    } finally {
+      dfs.closeDfsClient(dfsOps);
+    }
   }
 
   private void copyToHdfs(DistributedFileSystemOps dfsOps, FlowInfo info, String hdfsPath) throws IOException {
@@ -193,7 +262,7 @@ public class UploadController {
 
   //upload using hdfs as staging
   private boolean hdfsStagingUpload(InputStream uploadedInputStream, FlowInfo flowInfo, String hdfsPath,
-    String username) throws DatasetException, IOException {
+    String username, boolean async) throws DatasetException, IOException {
     boolean finished;
     DistributedFileSystemOps dfsOps = null;
     try {
@@ -204,10 +273,17 @@ public class UploadController {
       flowInfo.setFilePath(resumableFilePath);
       storage.put(flowInfo);
       saveChunk(dfsOps, uploadedInputStream, flowInfo, flowInfo.getChunkNumber());
-      finished =
-        markAsUploadedAndCheckFinished(dfsOps, flowInfo, flowInfo.getChunkNumber(), flowInfo.getCurrentChunkSize());
+      //Mark as uploaded and check if finished. Will remove the info if finished.
+      finished = storage.addChunkAndCheckIfFinished(flowInfo, flowInfo.getChunkNumber(),
+        flowInfo.getCurrentChunkSize());
       if (finished) {
-        copyToHdfs(dfsOps, flowInfo, hdfsPath);
+        if (async) {
+          storage.setAssemblyState(flowInfo, AssemblyState.ASSEMBLING);
+          executorService.submit(() -> assembleAsync(flowInfo, hdfsPath, username));
+        } else {
+          collectChunks(dfsOps, flowInfo);
+          copyToHdfs(dfsOps, flowInfo, hdfsPath);
+        }
       }
     } finally {
       if (dfsOps != null) {
@@ -0,0 +1,193 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2023, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.user.security.apiKey;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.topic.ITopic;
+import com.hazelcast.topic.Message;
+import com.hazelcast.topic.MessageListener;
+import io.hops.hopsworks.common.util.Settings;
+import io.hops.hopsworks.persistence.entity.user.security.apiKey.ApiKey;
+import io.hops.hopsworks.persistence.entity.user.security.apiKey.ApiKeyScope;
+import io.hops.hopsworks.persistence.entity.user.security.apiKey.ApiScope;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.DependsOn;
+import javax.ejb.EJB;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.inject.Inject;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Api keys that passed verification, keyed by prefix. An entry holds the detached key together with its scopes so
+ * that authenticating a request with a known key needs no key lookup. The user of a cached key is not kept up to date,
+ * ApiKeyController#getUser reads it from the database. Entries expire after api_key_cache_ttl_ms, and are evicted on
+ * all the nodes of the cluster when the key is deleted or its scopes change.
+ */
+@Startup
+@Singleton
+@DependsOn("Settings")
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+public class ApiKeyCache {
+
+  private static final Logger LOGGER = Logger.getLogger(ApiKeyCache.class.getName());
+  private static final String API_KEY_UPDATED_TOPIC_NAME = "api_key_updated";
+
+  @EJB
+  private Settings settings;
+  @Inject
+  private HazelcastInstance hazelcastInstance;
+
+  private final Map<String, CachedApiKey> keys = new ConcurrentHashMap<>();
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private ITopic<String> apiKeyUpdatedTopic;
+  private UUID msgListenerId;
+
+  @PostConstruct
+  public void init() {
+    // hazelcastInstance == null if Hazelcast is Disabled
+    if (hazelcastInstance != null) {
+      apiKeyUpdatedTopic = hazelcastInstance.getTopic(API_KEY_UPDATED_TOPIC_NAME);
+      msgListenerId = apiKeyUpdatedTopic.addMessageListener(new MessageListenerImpl());
+    }
+  }
+
+  @PreDestroy
+  public void destroy() {
+    if (apiKeyUpdatedTopic != null) {
+      //needed for redeploy to remove the listener
+      apiKeyUpdatedTopic.removeMessageListener(msgListenerId);
+    }
+  }
+
+  /**
+   * @param prefix
+   * @return the verified key with the given prefix or null if it is not cached or expired.
+   */
+  public CachedApiKey get(String prefix) {
+    CachedApiKey cachedApiKey = keys.get(prefix);
+    if (cachedApiKey == null) {
+      misses.incrementAndGet();
+      return null;
+    }
+    if (cachedApiKey.isExpired(System.currentTimeMillis())) {
+      keys.remove(prefix, cachedApiKey);
+      misses.incrementAndGet();
+      return null;
+    }
+    hits.incrementAndGet();
+    return cachedApiKey;
+  }
+
+  /**
+   * Cache a key that passed verification.
+   *
+   * @param apiKey
+   * @return
+   */
+  public CachedApiKey put(ApiKey apiKey) {
+    long now = System.currentTimeMillis();
+    CachedApiKey cachedApiKey = new CachedApiKey(apiKey, now + settings.getApiKeyCacheTtlMs());
+    if (keys.size() >= settings.getApiKeyCacheMaxSize()) {
+      keys.values().removeIf(cached -> cached.isExpired(now));
+    }
+    // Still full, serve the key from the database until some entries expire
+    if (keys.size() < settings.getApiKeyCacheMaxSize()) {
+      keys.put(apiKey.getPrefix(), cachedApiKey);
+    }
+    return cachedApiKey;
+  }
+
+  /**
+   * Evict the key with the given prefix on this and the other nodes of the cluster.
+   *
+   * @param prefix
+   */
+  public void invalidate(String prefix) {
+    keys.remove(prefix);
+    //Notify other nodes if apiKeyUpdatedTopic is created == Hazelcast is enabled
+    if (apiKeyUpdatedTopic != null) {
+      apiKeyUpdatedTopic.publish(prefix);
+    }
+  }
+
+  public int size() {
+    return keys.size();
+  }
+
+  public long getHits() {
+    return hits.get();
+  }
+
+  public long getMisses() {
+    return misses.get();
+  }
+
+  public static class CachedApiKey {
+    private final ApiKey apiKey;
+    private final Set<ApiScope> scopes;
+    private final long expiresAt;
+
+    CachedApiKey(ApiKey apiKey, long expiresAt) {
+      this.apiKey = apiKey;
+      Set<ApiScope> apiScopes = EnumSet.noneOf(ApiScope.class);
+      for (ApiKeyScope scope : apiKey.getApiKeyScopeCollection()) {
+        apiScopes.add(scope.getScope());
+      }
+      this.scopes = Collections.unmodifiableSet(apiScopes);
+      this.expiresAt = expiresAt;
+    }
+
+    public ApiKey getApiKey() {
+      return apiKey;
+    }
+
+    public Set<ApiScope> getScopes() {
+      return scopes;
+    }
+
+    boolean isExpired(long now) {
+      return now >= expiresAt;
+    }
+  }
+
+  public class MessageListenerImpl implements MessageListener<String> {
+
+    @Override
+    public void onMessage(Message<String> message) {
+      if (!message.getPublishingMember().localMember()) {
+        LOGGER.log(Level.FINE, "Api key {0} updated on another node", message.getMessageObject());
+        keys.remove(message.getMessageObject());
+      }
+    }
+  }
+}
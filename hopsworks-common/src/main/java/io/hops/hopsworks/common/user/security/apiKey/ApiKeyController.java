@@ -21,6 +21,7 @@ import io.hops.hopsworks.persistence.entity.user.security.apiKey.ApiKeyScope;
 import io.hops.hopsworks.common.dao.user.security.apiKey.ApiKeyScopeFacade;
 import io.hops.hopsworks.persistence.entity.user.security.apiKey.ApiScope;
 import io.hops.hopsworks.persistence.entity.user.Users;
+import io.hops.hopsworks.common.dao.user.UserFacade;
 import io.hops.hopsworks.common.dao.user.security.ua.UserAccountsEmailMessages;
 import io.hops.hopsworks.common.security.utils.Secret;
 import io.hops.hopsworks.common.security.utils.SecurityUtils;
@@ -38,6 +39,8 @@ import javax.enterprise.inject.Instance;
 import javax.inject.Inject;
 import javax.mail.Message;
 import javax.mail.MessagingException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
@@ -62,6 +65,10 @@ public class ApiKeyController {
   private SecurityUtils securityUtils;
   @EJB
   private EmailBean emailBean;
+  @EJB
+  private ApiKeyCache apiKeyCache;
+  @EJB
+  private UserFacade userFacade;
   @Inject
   @Any
   private Instance<ApiKeyHandler> apiKeyHandlers;
@@ -137,6 +144,10 @@ public class ApiKeyController {
    * @return
    */
   public Set<ApiScope> getScopes(ApiKey apiKey) {
+    ApiKeyCache.CachedApiKey cachedApiKey = apiKeyCache.get(apiKey.getPrefix());
+    if (cachedApiKey != null && cachedApiKey.getApiKey() == apiKey) {
+      return cachedApiKey.getScopes();
+    }
     Set<ApiScope> scopes = new HashSet<>();
     for (ApiKeyScope scope : apiKey.getApiKeyScopeCollection()) {
       scopes.add(scope.getScope());
@@ -145,6 +156,8 @@ public class ApiKeyController {
   }
   
   /**
+   * Verify the key and return it. Keys that were verified recently are served from the cache, so the user of the
+   * returned key can be stale: use {@link #getUser(ApiKey)} to get the owner of the key.
    *
    * @param key
    * @return
@@ -155,16 +168,42 @@ public class ApiKeyController {
     if (parts.length < 2) {
       throw new ApiKeyException(RESTCodes.ApiKeyErrorCode.KEY_INVALID, Level.FINE);
     }
+    ApiKeyCache.CachedApiKey cachedApiKey = apiKeyCache.get(parts[0]);
+    if (cachedApiKey != null) {
+      verify(parts, cachedApiKey.getApiKey());
+      return cachedApiKey.getApiKey();
+    }
     ApiKey apiKey = apiKeyFacade.findByPrefix(parts[0]);
     if (apiKey == null) {
       throw new ApiKeyException(RESTCodes.ApiKeyErrorCode.KEY_NOT_FOUND_IN_DATABASE, Level.FINE);
     }
+    verify(parts, apiKey);
+    return apiKeyCache.put(apiKey).getApiKey();
+  }
+
+  /**
+   * Read the owner of the key from the database, so that a change of its status or roles applies to keys served
+   * from the cache.
+   *
+   * @param apiKey
+   * @return
+   * @throws UserException if the user was removed
+   */
+  public Users getUser(ApiKey apiKey) throws UserException {
+    Users user = userFacade.find(apiKey.getUser().getUid());
+    if (user == null) {
+      throw new UserException(RESTCodes.UserErrorCode.USER_WAS_NOT_FOUND, Level.FINE);
+    }
+    return user;
+  }
+
+  private void verify(String[] parts, ApiKey apiKey) throws ApiKeyException {
     //___MinLength can be set to 0 b/c no validation is needed if the key was in db
     Secret secret = new Secret(parts[0], parts[1], apiKey.getSalt());
-    if (!secret.getSha256HexDigest().equals(apiKey.getSecret())) {
+    if (!MessageDigest.isEqual(secret.getSha256HexDigest().getBytes(StandardCharsets.UTF_8),
+      apiKey.getSecret().getBytes(StandardCharsets.UTF_8))) {
       throw new ApiKeyException(RESTCodes.ApiKeyErrorCode.KEY_INVALID, Level.FINE);
     }
-    return apiKey;
   }
   
   /**
@@ -190,6 +229,7 @@ public class ApiKeyController {
     ApiKeyHandler.runApiKeyDeleteHandlers(apiKeyHandlers, apiKey);
     
     apiKeyFacade.remove(apiKey);
+    apiKeyCache.invalidate(apiKey.getPrefix());
     sendDeletedEmail(user, keyName);
   }
   
@@ -202,6 +242,7 @@ public class ApiKeyController {
     for (ApiKey key : keys) {
       ApiKeyHandler.runApiKeyDeleteHandlers(apiKeyHandlers, key); // run delete handlers
       apiKeyFacade.remove(key);
+      apiKeyCache.invalidate(key.getPrefix());
     }
     sendDeletedAllEmail(user);
   }
@@ -224,6 +265,7 @@ public class ApiKeyController {
       apiKey.getApiKeyScopeCollection().addAll(newScopes);
       apiKey.setModified(new Date());
       apiKey = apiKeyFacade.update(apiKey);
+      apiKeyCache.invalidate(apiKey.getPrefix());
       // run api key update handlers
       ApiKeyHandler.runApiKeyCreateHandlers(apiKeyHandlers, apiKey);
     }
@@ -258,6 +300,7 @@ public class ApiKeyController {
       }
       apiKey.setModified(new Date());
       apiKey = apiKeyFacade.update(apiKey);
+      apiKeyCache.invalidate(apiKey.getPrefix());
       // run api key update handlers
       ApiKeyHandler.runApiKeyDeleteHandlers(apiKeyHandlers, apiKey, toRemove);
     } else if (removed && apiKey.getApiKeyScopeCollection().isEmpty()) {
@@ -312,6 +355,7 @@ public class ApiKeyController {
       apiKey.setApiKeyScopeCollection(toKeep);
       apiKey.setModified(new Date());
       apiKey = apiKeyFacade.update(apiKey);
+      apiKeyCache.invalidate(apiKey.getPrefix());
       // run api key handlers
       ApiKeyHandler.runApiKeyCreateHandlers(apiKeyHandlers, apiKey, toAdd);
       ApiKeyHandler.runApiKeyDeleteHandlers(apiKeyHandlers, apiKey, toRemove);
@@ -27,7 +27,9 @@ import javax.ejb.Startup;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
 import javax.inject.Inject;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Optional;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -113,4 +115,75 @@ public class PayaraClusterManager {
     }
     return true;
   }
+  
+  /**
+   * Split work between the members of the cluster. Members see the same ordered member list, so each of them gets a
+   * distinct index. As for the primary, the DAS only takes part if it is the only member.
+   *
+   * @return the shard of this member or empty if this member should not take part.
+   */
+  public Optional<Shard> getShard() {
+    try {
+      if (hazelcastInstance == null || hazelcastInstance.getCluster().getMembers().size() < 2) {
+        return Optional.of(Shard.SINGLE);
+      }
+      List<Member> workers = new ArrayList<>();
+      for (Member member : hazelcastInstance.getCluster().getMembers()) {
+        if (!isDASInstance(member)) {
+          workers.add(member);
+        }
+      }
+      for (int i = 0; i < workers.size(); i++) {
+        if (workers.get(i).localMember()) {
+          return Optional.of(new Shard(i, workers.size()));
+        }
+      }
+      return workers.isEmpty() ? Optional.of(Shard.SINGLE) : Optional.empty();
+    } catch (Exception ex) {
+      LOGGER.log(Level.SEVERE, "Error getting shard of node, falling back to primary. {0}", ex);
+    }
+    return amIThePrimary() ? Optional.of(Shard.SINGLE) : Optional.empty();
+  }
+  
+  public static class Shard {
+    public static final Shard SINGLE = new Shard(0, 1);
+    
+    private final int index;
+    private final int count;
+    
+    public Shard(int index, int count) {
+      this.index = index;
+      this.count = count;
+    }
+    
+    public int getIndex() {
+      return index;
+    }
+    
+    public int getCount() {
+      return count;
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Shard shard = (Shard) o;
+      return index == shard.index && count == shard.count;
+    }
+    
+    @Override
+    public int hashCode() {
+      return 31 * index + count;
+    }
+    
+    @Override
+    public String toString() {
+      return index + "/" + count;
+    }
+  }
 }
@@ -79,6 +79,7 @@ import java.net.URL;
 import java.net.URLClassLoader;
 import java.nio.file.Paths;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -88,7 +89,9 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.StringTokenizer;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
@@ -181,7 +184,14 @@ public class Settings implements Serializable {
       = "file_preview_image_size";
   private static final String VARIABLE_FILE_PREVIEW_TXT_SIZE
       = "file_preview_txt_size";
+  private static final String VARIABLE_FILE_PREVIEW_CACHE_MAX_WEIGHT = "file_preview_cache_max_weight";
+  private static final String VARIABLE_RECURSIVE_PERMISSION_MAX_WORKERS = "recursive_permission_max_workers";
+  private static final String VARIABLE_ALERT_OUTBOX_MAX_SIZE = "alert_outbox_max_size";
+  private static final String VARIABLE_ALERT_OUTBOX_BATCH_SIZE = "alert_outbox_batch_size";
   private static final String VARIABLE_HOPS_RPC_TLS = "hops_rpc_tls";
+  private static final String VARIABLE_DFS_OPS_POOL_MAX_TOTAL = "dfs_ops_pool_max_total";
+  private static final String VARIABLE_DFS_OPS_POOL_MAX_IDLE_PER_USER = "dfs_ops_pool_max_idle_per_user";
+  private static final String VARIABLE_DFS_OPS_POOL_IDLE_TIMEOUT_MS = "dfs_ops_pool_idle_timeout_ms";
 
   private static final String VARIABLE_KAFKA_NUM_PARTITIONS
       = "kafka_num_partitions";
@@ -191,13 +201,16 @@ public class Settings implements Serializable {
   private static final String VARIABLE_ANACONDA_DIR = "anaconda_dir";
   private static final String VARIABLE_ANACONDA_ENABLED = "anaconda_enabled";
   private static final String VARIABLE_ANACONDA_DEFAULT_REPO = "conda_default_repo";
+  private static final String VARIABLE_CONDA_MAX_COALESCED_COMMANDS = "conda_max_coalesced_commands";
 
   private static final String VARIABLE_DOWNLOAD_ALLOWED = "download_allowed";
 
   private static final String VARIABLE_RESOURCE_DIRS = "resources";
   private static final String VARIABLE_CERTS_DIRS = "certs_dir";
   private static final String VARIABLE_MAX_STATUS_POLL_RETRY = "max_status_poll_retry";
+  private static final String VARIABLE_YARN_MONITOR_PARALLELISM = "yarn_monitor_parallelism";
   private static final String VARIABLE_CERT_MATER_DELAY = "cert_mater_delay";
+  private static final String VARIABLE_KEY_PAIR_POOL_SIZE = "key_pair_pool_size";
   private static final String VARIABLE_WHITELIST_USERS_LOGIN = "whitelist_users";
   private static final String VARIABLE_FIRST_TIME_LOGIN = "first_time_login";
   private static final String VARIABLE_SERVICE_DISCOVERY_DOMAIN = "service_discovery_domain";
@@ -240,6 +253,11 @@ public class Settings implements Serializable {
   private static final String VARIABLE_SERVING_MONITOR_INT = "serving_monitor_int";
   private static final String VARIABLE_SERVING_CONNECTION_POOL_SIZE = "serving_connection_pool_size";
   private static final String VARIABLE_SERVING_MAX_ROUTE_CONNECTIONS = "serving_max_route_connections";
+  private static final String VARIABLE_SERVING_INFERENCE_LOGGER_MAX_QUEUED =
+    "serving_inference_logger_max_queued";
+  private static final String VARIABLE_SERVING_INFERENCE_LOGGER_PRODUCER_IDLE_MS =
+    "serving_inference_logger_producer_idle_ms";
+  private static final String VARIABLE_SERVING_CACHE_TTL_MS = "serving_cache_ttl_ms";
 
   /*
    * -------------------- TensorBoard ---------------
@@ -304,6 +322,9 @@ public class Settings implements Serializable {
   private static final String VARIABLE_SERVICE_JWT_LIFETIME_MS = "service_jwt_lifetime_ms";
   private static final String VARIABLE_SERVICE_JWT_EXP_LEEWAY_SEC = "service_jwt_exp_leeway_sec";
 
+  private static final String VARIABLE_API_KEY_CACHE_TTL_MS = "api_key_cache_ttl_ms";
+  private static final String VARIABLE_API_KEY_CACHE_MAX_SIZE = "api_key_cache_max_size";
+
   private static final String VARIABLE_CONNECTION_KEEPALIVE_TIMEOUT = "keepalive_timeout";
 
   /* -------------------- Featurestore --------------- */
@@ -312,6 +333,14 @@ public class Settings implements Serializable {
   private static final String VARIABLE_FEATURESTORE_JDBC_URL = "featurestore_jdbc_url";
   private static final String VARIABLE_FEATURESTORE_DB_ADMIN_USER = "featurestore_db_admin_user";
   private static final String VARIABLE_FEATURESTORE_DB_ADMIN_PWD = "featurestore_db_admin_pwd";
+  private static final String VARIABLE_ONLINE_FEATURESTORE_POOL_MAX_SIZE = "featurestore_online_pool_max_size";
+  private static final String VARIABLE_ONLINE_FEATURESTORE_POOL_MAX_WAIT_MS = "featurestore_online_pool_max_wait_ms";
+  private static final String VARIABLE_ONLINE_FEATURESTORE_POOL_IDLE_TIMEOUT_MS =
+    "featurestore_online_pool_idle_timeout_ms";
+  private static final String VARIABLE_FS_QUERY_CACHE_TTL_MS = "featurestore_query_cache_ttl_ms";
+  private static final String VARIABLE_FS_QUERY_CACHE_MAX_SIZE = "featurestore_query_cache_max_size";
+  private static final String VARIABLE_KAFKA_SCHEMA_CACHE_TTL_MS = "kafka_schema_cache_ttl_ms";
+  private static final String VARIABLE_KAFKA_SCHEMA_CACHE_MAX_SIZE = "kafka_schema_cache_max_size";
   private static final String VARIABLE_ONLINE_FEATURESTORE = "featurestore_online_enabled";
   private static final String VARIABLE_FG_PREVIEW_LIMIT = "fg_preview_limit";
   private static final String VARIABLE_ONLINE_FEATURESTORE_TS = "featurestore_online_tablespace";
@@ -442,178 +471,469 @@ public class Settings implements Serializable {
   private static final String VARIABLE_MANAGED_DOCKER_REGISTRY =
       "managed_docker_registry";
   
-  private String setVar(String varName, String defaultValue) {
-    return setStrVar(varName, defaultValue);
-  }
+  /**
+   * Values of the variables computed from a snapshot of the variables table. A new instance is built for every
+   * reload and never modified once published, so a getter sees the values of a single reload.
+   */
+  private final class Values {
+    // Immutable snapshot of the variables table the values are computed from
+    private final Map<String, String> variables;
+
+    private String TWOFACTOR_AUTH = "false";
+    private String TWOFACTOR_EXCLUDE = "AGENT;CLUSTER_AGENT";
+    // Maximum number of file system clients, leased and idle, kept by the DistributedFileSystemOps pool
+    private int DFS_OPS_POOL_MAX_TOTAL = 200;
+    private int DFS_OPS_POOL_MAX_IDLE_PER_USER = 4;
+    private long DFS_OPS_POOL_IDLE_TIMEOUT_MS = 120000L;
+    private String HOPS_RPC_TLS = "false";
+    private String SPARK_DIR = "/srv/hops/spark";
+    private String STAGING_DIR = "/srv/hops/domains/domain1/staging";
+    private String UPLOAD_STAGING_DIR = DIR_ROOT;
+    // Remember to change this in docker-images as well
+    private String FLINK_DIR = "/srv/hops/flink";
+    private String AIRFLOW_DIR = "/srv/hops/airflow";
+    private String AIRFLOW_USER = "airflow";
+    private String HADOOP_DIR = "/srv/hops/hadoop";
+    private String HIVE_SUPERUSER = "hive";
+    private String ANACONDA_DEFAULT_REPO = "defaults";
+    private String HIVE_WAREHOUSE = "/apps/hive/warehouse";
+    private String HIVE_SCRATCHDIR = "/tmp/hive";
+    private String HIVE_SCRATCHDIR_DELAY = "7d";
+    private String HIVE_SCRATCHDIR_CLEANER_INTERVAL = "24h";
+    private long HIVE_DB_DEFAULT_QUOTA = HdfsConstants.QUOTA_DONT_SET;
+    private String CERTS_DIR = "/srv/hops/certs-dir";
+    private String HOPSWORKS_INSTALL_DIR = "/srv/hops/domains/domain1";
+    private String SUDOERS_DIR = "/srv/hops/sbin";
+    private String HOPSWORKS_USER = "glassfish";
+    private String HDFS_SUPERUSER = "hdfs";
+    private String SPARK_USER = "spark";
+    private Integer YARN_DEFAULT_QUOTA = 60000;
+    private PaymentType DEFAULT_PAYMENT_TYPE = PaymentType.NOLIMIT;
+    private long HDFS_DEFAULT_QUOTA_MBs = HdfsConstants.QUOTA_DONT_SET;
+    // To not fill the SSDs with Logs files that nobody access frequently
+    // We set the StoragePolicy for the LOGS dir to be DEFAULT
+    private DistributedFileSystemOps.StoragePolicy HDFS_LOG_STORAGE_POLICY
+        = DistributedFileSystemOps.StoragePolicy.DEFAULT;
+    private Integer MAX_NUM_PROJ_PER_USER = 5;
+    private String HADOOP_VERSION = "2.8.2";
+    // Spark executor min memory
+    private int SPARK_EXECUTOR_MIN_MEMORY = 1024;
+    private Set<String> RESERVED_PROJECT_NAMES;
+    private String RESERVED_PROJECT_NAMES_STR;
+    // OpenSearch
+    OpenSearchSettings OPENSEARCH_SETTINGS;
+    private long OpenSearch_LOGS_INDEX_EXPIRATION = 7 * 24 * 60 * 60 * 1000;
+    // CertificateMaterializer service. Delay for deleting crypto material from
+    // the local filesystem. The lower the value the more frequent we reach DB
+    // for materialization
+    // Suffix, defaults to minutes if omitted:
+    // ms: milliseconds
+    // s: seconds
+    // m: minutes (default)
+    // h: hours
+    // d: days
+    private String CERTIFICATE_MATERIALIZER_DELAY = "1m";
+    // Pre-generated key pairs kept for the project user certificates, 0 to always generate them on request
+    private int KEY_PAIR_POOL_SIZE = 16;
+    private String SERVICE_DISCOVERY_DOMAIN = "consul";
+    /*
+     * Comma-separated list of user emails that should not be persisted in the
+     * userlogins table for auditing.
+     * kagent -> agent@hops.io
+     */
+    private String WHITELIST_USERS_LOGIN = "agent@hops.io";
+    // Jupyter
+    private String JUPYTER_DIR = "/srv/hops/jupyter";
+    private String JUPYTER_GROUP = "jupyter";
+    private String JUPYTER_ORIGIN_SCHEME = "https";
+    private long JUPYTER_WS_PING_INTERVAL_MS = 10000L;
+    private String JUPYTER_REMOTE_FS_DRIVER = "hdfscontentsmanager";
+    private boolean APPLY_HOPSFSMOUNT_APPARMOR_PROFILE_KUBE = true;
+    private String HOPSFSMOUNT_APPARMOR_PROFILE = "hopsworks-hopsfsmount-docker";
+    private Integer PROMETHEUS_PORT = 9089;
+    private Integer GIT_MAX_COMMAND_TIMEOUT_MINUTES = 60;
+    private Boolean ENABLE_GIT_READ_ONLY_REPOSITORIES = false;
+    private String GIT_IMAGE_VERSION = "0.3.0";
+    private boolean DOCKER_CGROUP_ENABLED = false;
+    private String DOCKER_CGROUP_MEMORY_LIMIT = "6GB";
+    private String DOCKER_CGROUP_MEMORY_SOFT_LIMIT = "2GB";
+    private Double DOCKER_CGROUP_CPU_QUOTA = 100.0;
+    private Integer DOCKER_CGROUP_CPU_PERIOD = 100000;
+    private String DOCKER_CGROUP_MONITOR_INTERVAL = "10m";
+    private String DOCKER_CGROUP_PARENT = "docker.slice";
+    private String jupyterShutdownTimerInterval = "30m";
+    private String KAFKA_USER = "kafka";
+    private String KAFKA_DIR = "/srv/kafka";
+    private String ANACONDA_DIR = "/srv/hops/anaconda";
+    private Boolean ANACONDA_ENABLED = true;
+    private int CONDA_MAX_COALESCED_COMMANDS = 10;
+    private Boolean DOWNLOAD_ALLOWED = true;
+    private RESTLogLevel HOPSWORKS_REST_LOG_LEVEL = RESTLogLevel.PROD;
+    private String FIRST_TIME_LOGIN = "0";
+    private String ADMIN_EMAIL = "admin@hopsworks.ai";
+    private String HOPSWORKS_DEFAULT_SSL_MASTER_PASSWORD = "adminpw";
+    private Integer KAFKA_DEFAULT_NUM_PARTITIONS = 2;
+    private Integer KAFKA_DEFAULT_NUM_REPLICAS = 1;
+    // HOPSWORKS-3158
+    private String HOPSWORKS_PUBLIC_HOST = "";
+    private int FILE_PREVIEW_IMAGE_SIZE = 10000000;
+    private int FILE_PREVIEW_TXT_SIZE = 100;
+    private long FILE_PREVIEW_CACHE_MAX_WEIGHT = 50000000L;
+    private int RECURSIVE_PERMISSION_MAX_WORKERS = 8;
+    private int ALERT_OUTBOX_MAX_SIZE = 10000;
+    private int ALERT_OUTBOX_BATCH_SIZE = 100;
+    private String RESOURCE_DIRS = ".sparkStaging;spark-warehouse;.flinkStaging;.flinkCheckpoints";
+    private int KAFKA_MAX_NUM_TOPICS = 10;
+    private int MAX_STATUS_POLL_RETRY = 5;
+    private int YARN_MONITOR_PARALLELISM = 8;
+    private String PYPI_REST_ENDPOINT = "https://pypi.org/pypi/{package}/json";
+    private String PYPI_INDEXER_TIMER_INTERVAL = "1d";
+    private String PYPI_SIMPLE_ENDPOINT = "https://pypi.org/simple/";
+    private boolean PYPI_INDEXER_TIMER_ENABLED = true;
+    private String PYTHON_LIBRARY_UPDATES_MONITOR_INTERVAL = "1d";
+    private String KRB_AUTH = "false";
+    private String LDAP_AUTH = "false";
+    private boolean IS_KRB_ENABLED = false;
+    private boolean IS_LDAP_ENABLED = false;
+    private String LDAP_GROUP_MAPPING = "";
+    private String LDAP_USER_ID = "uid"; //login name
+    private String LDAP_USER_GIVEN_NAME = "givenName";
+    private String LDAP_USER_SURNAME = "sn";
+    private String LDAP_USER_EMAIL = "mail";
+    private String LDAP_USER_SEARCH_FILTER = "uid=%s";
+    private String LDAP_GROUP_SEARCH_FILTER = "member=%d";
+    private String LDAP_KRB_USER_SEARCH_FILTER = "krbPrincipalName=%s";
+    private String LDAP_ATTR_BINARY = "java.naming.ldap.attributes.binary";
+    private String LDAP_GROUP_TARGET = "cn";
+    private String LDAP_DYNAMIC_GROUP_TARGET = "memberOf";
+    private String LDAP_USER_DN = LDAP_USER_DN_DEFAULT;
+    private String LDAP_GROUP_DN = LDAP_GROUP_DN_DEFAULT;
+    private String LDAP_GROUPS_TARGET = "distinguishedName";
+    private String LDAP_GROUPS_SEARCH_FILTER = "(&(objectCategory=group)(cn=%c))";
+    private String LDAP_GROUP_MEMBERS_SEARCH_FILTER = "(&(objectCategory=user)(memberOf=%d))";
+    private int LDAP_ACCOUNT_STATUS = 1;
+    private String OAUTH_ENABLED = "false";
+    private boolean IS_OAUTH_ENABLED = false;
+    private String OAUTH_GROUP_MAPPING = "";
+    private String OAUTH_REDIRECT_URI = OAUTH_REDIRECT_URI_PATH;
+    private String OAUTH_LOGOUT_REDIRECT_URI = OAUTH_LOGOUT_REDIRECT_URI_PATH;
+    private int OAUTH_ACCOUNT_STATUS = 1;
+    private long LDAP_GROUP_MAPPING_SYNC_INTERVAL = 0;
+    private boolean REMOTE_AUTH_NEED_CONSENT = true;
+    private boolean DISABLE_PASSWORD_LOGIN = false;
+    private boolean DISABLE_REGISTRATION = false;
+    private boolean VALIDATE_REMOTE_USER_EMAIL_VERIFIED = false;
+    private String MANAGED_CLOUD_REDIRECT_URI = "";
+    private String MANAGED_CLOUD_PROVIDER_NAME = "hopsworks.ai";
+    // Special flag to disable only registration UI but not the backend
+    // It is used in managed cloud when user management is MANAGED by hopsworks.ai
+    // Variable value is set during instance initialization by ec2-init
+    private boolean DISABLE_REGISTRATION_UI = false;
+    private boolean serviceKeyRotationEnabled = false;
+    private String serviceKeyRotationInterval = "3d";
+    private int tensorBoardMaxLastAccessed = 1140000;
+    private int sparkUILogsOffset = 512000;
+    // Libraries that should not be uninstallable
+    private Set<String> IMMUTABLE_PYTHON_LIBRARY_NAMES;
+    private String HOPSWORKS_VERSION;
+    private String KUBE_KSERVE_TENSORFLOW_VERSION;
+    private String TENSORFLOW_VERSION;
+    private String OPENSEARCH_VERSION;
+    private String KAFKA_VERSION;
+    private String EPIPE_VERSION;
+    private String FLINK_VERSION;
+    private String SPARK_VERSION;
+    private String TEZ_VERSION;
+    private String HIVE2_VERSION;
+    private String LIVY_VERSION;
+    private String NDB_VERSION;
+    private String FILEBEAT_VERSION;
+    private String KIBANA_VERSION;
+    private String LOGSTASH_VERSION;
+    private String GRAFANA_VERSION;
+    private String ZOOKEEPER_VERSION;
+    // -------------------------------- Kubernetes ----------------------------------------------//
+    private String KUBE_USER = "kubernetes";
+    private String KUBE_HOPSWORKS_USER = "hopsworks";
+    private String KUBEMASTER_URL = "https://192.168.68.102:6443";
+    private String KUBE_CA_CERTFILE = "/srv/hops/certs-dir/certs/ca.cert.pem";
+    private String KUBE_CLIENT_KEYFILE = "/srv/hops/certs-dir/kube/hopsworks/hopsworks.key.pem";
+    private String KUBE_CLIENT_CERTFILE = "/srv/hops/certs-dir/kube/hopsworks/hopsworks.cert.pem";
+    private String KUBE_CLIENT_KEYPASS = "adminpw";
+    private String KUBE_TRUSTSTORE_PATH = "/srv/hops/certs-dir/kube/hopsworks/hopsworks__tstore.jks";
+    private String KUBE_TRUSTSTORE_KEY = "adminpw";
+    private String KUBE_KEYSTORE_PATH = "/srv/hops/certs-dir/kube/hopsworks/hopsworks__kstore.jks";
+    private String KUBE_KEYSTORE_KEY = "adminpw";
+    private String KUBE_PULL_POLICY = "Always";
+    private Integer KUBE_API_MAX_ATTEMPTS = 12;
+    private Boolean ONLINE_FEATURESTORE = false;
+    private String ONLINE_FEATURESTORE_TS = "";
+    private Integer ONLINEFS_THREAD_NUMBER = 10;
+    private Integer KUBE_DOCKER_MAX_MEMORY_ALLOCATION = 8192;
+    private Double KUBE_DOCKER_MAX_CORES_ALLOCATION = 4.0;
+    private Integer KUBE_DOCKER_MAX_GPUS_ALLOCATION = 1;
+    private Boolean KUBE_INSTALLED = false;
+    private Boolean KUBE_KSERVE_INSTALLED = false;
+    private String KUBE_SERVING_NODE_LABELS = "";
+    private String KUBE_SERVING_NODE_TOLERATIONS = "";
+    private Integer KUBE_SERVING_MAX_MEMORY_ALLOCATION = -1; // no upper limit
+    private Double KUBE_SERVING_MAX_CORES_ALLOCATION = -1.0;  // no upper limit
+    private Integer KUBE_SERVING_MAX_GPUS_ALLOCATION = -1; // no upper limit
+    // Maximum number of instances. Possible values >=-1 where -1 means no limit.
+    private Integer KUBE_SERVING_MAX_NUM_INSTANCES = -1;
+    // Minimum number of instances. Possible values: >=-1 where -1 means no limit and 0 enforces scale-to-zero
+    // capabilities when available
+    private Integer KUBE_SERVING_MIN_NUM_INSTANCES = -1;
+    private String KUBE_KNATIVE_DOMAIN_NAME = "";
+    //comma seperated list of tainted nodes
+    private String KUBE_TAINTED_NODES = "";
+    private String KUBE_TAINTED_NODES_MONITOR_INTERVAL = "30m";
+    private Boolean HOPSWORKS_ENTERPRISE = false;
+    private boolean ENABLE_DATA_SCIENCE_PROFILE = false;
+    private String SERVING_MONITOR_INT = "30s";
+    private int SERVING_CONNECTION_POOL_SIZE = 40;
+    private int SERVING_MAX_ROUTE_CONNECTIONS = 10;
+    private int SERVING_INFERENCE_LOGGER_MAX_QUEUED = 10000;
+    private long SERVING_INFERENCE_LOGGER_PRODUCER_IDLE_MS = 300000L;
+    private long SERVING_CACHE_TTL_MS = 30000L;
+    private int TENSORBOARD_MAX_RELOAD_THREADS = 1;
+    private String JUPYTER_HOST = "localhost";
+    private boolean ENABLE_JUPYTER_PYTHON_KERNEL_NON_KUBERNETES = false;
+    private String JWT_SIGNATURE_ALGORITHM = "HS512";
+    private String JWT_SIGNING_KEY_NAME = "apiKey";
+    private String JWT_ISSUER = "hopsworks@logicalclocks.com";
+    private long JWT_LIFETIME_MS = 1800000l;
+    private int JWT_EXP_LEEWAY_SEC = 900;
+    private long SERVICE_JWT_LIFETIME_MS = 86400000l;
+    private int SERVICE_JWT_EXP_LEEWAY_SEC = 43200;
+    private long API_KEY_CACHE_TTL_MS = 60000L;
+    private int API_KEY_CACHE_MAX_SIZE = 10000;
+    private String SERVICE_MASTER_JWT = "";
+    private String[] RENEW_TOKENS = new String[0];
+    private int CONNECTION_KEEPALIVE_TIMEOUT = 30;
+    private String HIVE_CONF_PATH = "/srv/hops/apache-hive/conf/hive-site.xml";
+    private String FS_PY_JOB_UTIL_PATH = "hdfs:///user/spark/hsfs_util-2.1.0-SNAPSHOT.py";
+    private String FS_JAVA_JOB_UTIL_PATH = "hdfs:///user/spark/hsfs-utils-2.1.0-SNAPSHOT.jar";
+    private String HDFS_FILE_OP_JOB_UTIL = "hdfs:///user/spark/hdfs_file_operations-0.1.0.py";
+    private int HDFS_FILE_OP_JOB_DRIVER_MEM = 2048;
+    private long FEATURESTORE_DB_DEFAULT_QUOTA = HdfsConstants.QUOTA_DONT_SET;
+    private String FEATURESTORE_DB_DEFAULT_STORAGE_FORMAT = "ORC";
+    private boolean ENABLE_REDSHIFT_STORAGE_CONNECTORS = true;
+    private boolean ENABLE_ADLS_STORAGE_CONNECTORS = false;
+    private boolean ENABLE_SNOWFLAKE_STORAGE_CONNECTORS = true;
+    private boolean ENABLE_KAFKA_STORAGE_CONNECTORS = true;
+    private boolean ENABLE_GCS_STORAGE_CONNECTORS = false;
+    private boolean ENABLE_BIGQUERY_STORAGE_CONNECTORS = false;
+    private boolean ENABLE_BRING_YOUR_OWN_KAFKA = false;
+    // test connectors docker
+    private String TESTCONNECTOR_IMAGE_VERSION = "0.1";
+    // End - Storage connectors
+    private Boolean LOCALHOST = false;
+    private String CLOUD = "";
+    private String FEATURESTORE_JDBC_URL = "jdbc:mysql://onlinefs.mysql.service.consul:3306/";
+    private String FEATURESTORE_DB_ADMIN_USER = "";
+    private String FEATURESTORE_DB_ADMIN_PWD = "";
+    // Maximum number of connections per online feature store database user
+    private int ONLINE_FEATURESTORE_POOL_MAX_SIZE = 5;
+    private long ONLINE_FEATURESTORE_POOL_MAX_WAIT_MS = 10000L;
+    private long ONLINE_FEATURESTORE_POOL_IDLE_TIMEOUT_MS = 300000L;
+    private long FS_QUERY_CACHE_TTL_MS = 600000L;
+    private int FS_QUERY_CACHE_MAX_SIZE = 5000;
+    private long KAFKA_SCHEMA_CACHE_TTL_MS = 600000L;
+    private int KAFKA_SCHEMA_CACHE_MAX_SIZE = 10000;
+    private Boolean REQUESTS_VERIFY = false;
+    private  Boolean KIBANA_HTTPS_ENABELED = false;
+    private  Boolean KIBANA_MULTI_TENANCY_ENABELED = false;
+    private Provenance.Type PROVENANCE_TYPE = Provenance.Type.MIN;
+    private String PROVENANCE_TYPE_S = PROVENANCE_TYPE.name();
+    private Integer PROVENANCE_CLEANUP_SIZE = 5;
+    private Integer PROVENANCE_GRAPH_MAX_SIZE = 50;
+    private Long PROVENANCE_CLEANER_PERIOD = 3600L; //1h in s
+    //sum of the lengths of the field names and types of all cached mappings
+    private Long PROVENANCE_MAPPING_CACHE_MAX_WEIGHT = 5000000L;
+    private Long PROVENANCE_MAPPING_CACHE_REFRESH_MS = 600000L; //10 min
+    private Long PROVENANCE_MAPPING_CACHE_EXPIRY_MS = 3600000L; //1h
+    private String CLIENT_PATH = "/srv/hops/client.tar.gz";
+    // CLOUD
+    private String CLOUD_EVENTS_ENDPOINT = "";
+    private String CLOUD_EVENTS_ENDPOINT_API_KEY = "";
+    private int FG_PREVIEW_LIMIT = 100;
+    //----------------------------YARN NODEMANAGER--------------------------------------------//
+    private boolean checkNodemanagersStatus = false;
+    private String DOCKER_BASE_IMAGE_PYTHON_NAME = "python310";
+    private String DOCKER_BASE_IMAGE_PYTHON_VERSION = "3.10";
+    private long YARN_APP_UID = 1235L;
+    private KubeType KUBE_TYPE = KubeType.Local;
+    private String DOCKER_NAMESPACE = "";
+    private Boolean MANAGED_DOCKER_REGISTRY = false;
+    private String DOCKER_JOB_MOUNTS_LIST;
+    private Boolean DOCKER_JOB_MOUNT_ALLOWED = true;
+    private Boolean DOCKER_JOB_UID_STRICT = true;
+    private int EXECUTIONS_PER_JOB_LIMIT = 10000;
+    private int EXECUTIONS_CLEANER_BATCH_SIZE = 1000;
+    private int EXECUTIONS_CLEANER_INTERVAL_MS = 600000;
+    private int MAX_ENV_YML_BYTE_SIZE = 20000;
+    private int LIVY_STARTUP_TIMEOUT = 240;
+    private boolean USER_SEARCH_ENABLED = true;
+    /*
+     * When a user try to connect for the first time with OAuth or LDAP
+     * do not create the user if it does not bellong to any group.
+     * This is to avoid having users that belong to no group poluting the users table
+     */
+    private boolean REJECT_REMOTE_USER_NO_GROUP = false;
+    private boolean SKIP_NAMESPACE_CREATION = false;
+    private long QUOTAS_ONLINE_ENABLED_FEATUREGROUPS = -1L;
+    private long QUOTAS_ONLINE_DISABLED_FEATUREGROUPS = -1L;
+    private long QUOTAS_TRAINING_DATASETS = -1L;
+    private long QUOTAS_RUNNING_MODEL_DEPLOYMENTS = -1L;
+    private long QUOTAS_TOTAL_MODEL_DEPLOYMENTS = -1L;
+    private long QUOTAS_MAX_PARALLEL_EXECUTIONS = -1L;
+    private Integer SQL_MAX_SELECT_IN = 100;
+    // The maximum number of http threads in the thread pool is set to 200 by default
+    private int MAX_LONG_RUNNING_HTTP_REQUESTS = 50;
+    //1s
+    private Long COMMAND_SEARCH_FS_PROCESS_TIMER_PERIOD = 1000l;
+    //enable command search fs history
+    private boolean COMMAND_SEARCH_FS_HISTORY_ENABLE = false;
+    private Long COMMAND_SEARCH_FS_HISTORY_CLEAN_PERIOD = 1000l*60;
+    private Long COMMAND_SEARCH_FS_HISTORY_WINDOW = 60*60L;
+    private int COMMAND_SEARCH_FS_RETRY_PER_CLEAN_INTERVAL = 5;
+    private boolean COMMAND_SEARCH_FS_SHARDING_ENABLE = true;
+    private int COMMAND_SEARCH_FS_BULK_SIZE = 25;
+
+    Values(Map<String, String> variables) {
+      this.variables = variables;
+      populateCache();
+    }
 
-  private String setStrVar(String varName, String defaultValue) {
-    Optional<Variables> variable = findById(varName);
-    if (variable.isPresent()) {
-      String value = variable.get().getValue();
-      if (!Strings.isNullOrEmpty(value)) {
-        return value;
-      }
+    private String setVar(String varName, String defaultValue) {
+      return setStrVar(varName, defaultValue);
     }
-    return defaultValue;
-  }
 
-  private String setDirVar(String varName, String defaultValue) {
-    Optional<Variables> dirName = findById(varName);
-    if (dirName.isPresent()) {
-      String value = dirName.get().getValue();
-      if (!Strings.isNullOrEmpty(value) && new File(value).isDirectory()) {
-        return value;
+    private String setStrVar(String varName, String defaultValue) {
+      Optional<String> variable = findCachedValue(varName);
+      if (variable.isPresent()) {
+        String value = variable.get();
+        if (!Strings.isNullOrEmpty(value)) {
+          return value;
+        }
       }
+      return defaultValue;
     }
-    return defaultValue;
-  }
 
-  private Boolean setBoolVar(String varName, Boolean defaultValue) {
-    Optional<Variables> variable = findById(varName);
-    if (variable.isPresent()) {
-      String value = variable.get().getValue();
-      if (!Strings.isNullOrEmpty(value)) {
-        return Boolean.parseBoolean(value);
+    private String setDirVar(String varName, String defaultValue) {
+      Optional<String> dirName = findCachedValue(varName);
+      if (dirName.isPresent()) {
+        String value = dirName.get();
+        if (!Strings.isNullOrEmpty(value) && new File(value).isDirectory()) {
+          return value;
+        }
       }
+      return defaultValue;
     }
 
-    return defaultValue;
-  }
-
-  private Integer setIntVar(String varName, Integer defaultValue) {
-    Optional<Variables> variable = findById(varName);
-    if (variable.isPresent()) {
-      String value = variable.get().getValue();
-      try {
+    private Boolean setBoolVar(String varName, Boolean defaultValue) {
+      Optional<String> variable = findCachedValue(varName);
+      if (variable.isPresent()) {
+        String value = variable.get();
         if (!Strings.isNullOrEmpty(value)) {
-          return Integer.parseInt(value);
+          return Boolean.parseBoolean(value);
         }
-      } catch(NumberFormatException ex){
-        LOGGER.log(Level.WARNING,
-            "Error - not an integer! " + varName + " should be an integer. Value was " + value);
       }
+
+      return defaultValue;
     }
-    return defaultValue;
-  }
 
-  private Double setDoubleVar(String varName, Double defaultValue) {
-    Optional<Variables> variable = findById(varName);
-    if (variable.isPresent()) {
-      String value = variable.get().getValue();
-      try {
-        if (!Strings.isNullOrEmpty(value)) {
-          return Double.parseDouble(value);
+    private Integer setIntVar(String varName, Integer defaultValue) {
+      Optional<String> variable = findCachedValue(varName);
+      if (variable.isPresent()) {
+        String value = variable.get();
+        try {
+          if (!Strings.isNullOrEmpty(value)) {
+            return Integer.parseInt(value);
+          }
+        } catch(NumberFormatException ex){
+          LOGGER.log(Level.WARNING,
+              "Error - not an integer! " + varName + " should be an integer. Value was " + value);
         }
-      } catch(NumberFormatException ex){
-        LOGGER.log(Level.WARNING, "Error - not a double! " + varName + " should be a double. Value was " + value);
       }
+      return defaultValue;
     }
 
-    return defaultValue;
-  }
-
-  private long setLongVar(String varName, Long defaultValue) {
-    Optional<Variables> variable = findById(varName);
-    if (variable.isPresent()) {
-      String value = variable.get().getValue();
-      try {
-        if (!Strings.isNullOrEmpty(value)) {
-          return Long.parseLong(value);
+    private Double setDoubleVar(String varName, Double defaultValue) {
+      Optional<String> variable = findCachedValue(varName);
+      if (variable.isPresent()) {
+        String value = variable.get();
+        try {
+          if (!Strings.isNullOrEmpty(value)) {
+            return Double.parseDouble(value);
+          }
+        } catch(NumberFormatException ex){
+          LOGGER.log(Level.WARNING, "Error - not a double! " + varName + " should be a double. Value was " + value);
         }
-      } catch (NumberFormatException ex) {
-        LOGGER.log(Level.WARNING, "Error - not a long! " + varName + " should be an integer. Value was " + value);
       }
-    }
 
-    return defaultValue;
-  }
+      return defaultValue;
+    }
 
-  private RESTLogLevel setLogLevelVar(String varName, RESTLogLevel defaultValue) {
-    Optional<Variables> variable = findById(varName);
-    if (variable.isPresent()) {
-      String value = variable.get().getValue();
-      if (!Strings.isNullOrEmpty(value)) {
-        return RESTLogLevel.valueOf(value);
+    private long setLongVar(String varName, Long defaultValue) {
+      Optional<String> variable = findCachedValue(varName);
+      if (variable.isPresent()) {
+        String value = variable.get();
+        try {
+          if (!Strings.isNullOrEmpty(value)) {
+            return Long.parseLong(value);
+          }
+        } catch (NumberFormatException ex) {
+          LOGGER.log(Level.WARNING, "Error - not a long! " + varName + " should be an integer. Value was " + value);
+        }
       }
+
+      return defaultValue;
     }
-    return defaultValue;
-  }
 
-  private long setMillisecondVar(String varName, Long defaultValue) {
-    Optional<Variables> variable = findById(varName);
-    if (variable.isPresent()) {
-      String value = variable.get().getValue();
-      if (!Strings.isNullOrEmpty(value)) {
-        long timeValue = getConfTimeValue(value);
-        TimeUnit timeUnit = getConfTimeTimeUnit(value);
-        return timeUnit.toMillis(timeValue);
+    private RESTLogLevel setLogLevelVar(String varName, RESTLogLevel defaultValue) {
+      Optional<String> variable = findCachedValue(varName);
+      if (variable.isPresent()) {
+        String value = variable.get();
+        if (!Strings.isNullOrEmpty(value)) {
+          return RESTLogLevel.valueOf(value);
+        }
       }
+      return defaultValue;
     }
 
-    return defaultValue;
-  }
-
-  private PaymentType setPaymentType(String varName, PaymentType defaultValue) {
-    Optional<Variables> variable = findById(varName);
-    if (variable.isPresent()) {
-      String value = variable.get().getValue();
-      if (!Strings.isNullOrEmpty(value)) {
-        return PaymentType.valueOf(value);
+    private long setMillisecondVar(String varName, Long defaultValue) {
+      Optional<String> variable = findCachedValue(varName);
+      if (variable.isPresent()) {
+        String value = variable.get();
+        if (!Strings.isNullOrEmpty(value)) {
+          long timeValue = getConfTimeValue(value);
+          TimeUnit timeUnit = getConfTimeTimeUnit(value);
+          return timeUnit.toMillis(timeValue);
+        }
       }
-    }
-    return defaultValue;
-  }
 
-  private Set<String> setStringHashSetLowerCase(String varName, String defaultValue, String separator) {
-    RESERVED_PROJECT_NAMES_STR = setStrVar(varName, defaultValue);
-    return setStringHashSetLowerCase(RESERVED_PROJECT_NAMES_STR, separator, true);
-  }
-  
-  private Set<String> setStringHashSetLowerCase(String values, String separator, boolean toLowerCase) {
-    StringTokenizer tokenizer = new StringTokenizer(values, separator);
-    HashSet<String> tokens = new HashSet<>(tokenizer.countTokens());
-    while (tokenizer.hasMoreTokens()) {
-      tokens.add(toLowerCase? tokenizer.nextToken().trim().toLowerCase() : tokenizer.nextToken().trim());
+      return defaultValue;
     }
-    return tokens;
-  }
 
-  private boolean cached = false;
-  private UUID myUUID;
-  private ITopic<String> settingUpdatedTopic;
-  
-  @Inject
-  private HazelcastInstance hazelcastInstance;
-  
-  @PostConstruct
-  public void init() {
-    // hazelcastInstance == null if Hazelcast is Disabled
-    if (hazelcastInstance != null) {
-      settingUpdatedTopic = hazelcastInstance.getTopic("setting_updated");
-      myUUID = settingUpdatedTopic.addMessageListener(new MessageListenerImpl());
-    }
-  }
-  
-  @PreDestroy
-  public void destroy() {
-    if (settingUpdatedTopic != null) {
-      //needed for redeploy to remove the listener
-      settingUpdatedTopic.removeMessageListener(myUUID);
-    }
-  }
-  
-  public class MessageListenerImpl implements MessageListener<String> {
-    
-    @Override
-    public void onMessage(Message<String> message) {
-      if (!message.getPublishingMember().localMember()) {
-        cached = false;
+    private PaymentType setPaymentType(String varName, PaymentType defaultValue) {
+      Optional<String> variable = findCachedValue(varName);
+      if (variable.isPresent()) {
+        String value = variable.get();
+        if (!Strings.isNullOrEmpty(value)) {
+          return PaymentType.valueOf(value);
+        }
       }
+      return defaultValue;
+    }
+
+    private Set<String> setStringHashSetLowerCase(String varName, String defaultValue, String separator) {
+      RESERVED_PROJECT_NAMES_STR = setStrVar(varName, defaultValue);
+      return Settings.this.setStringHashSetLowerCase(RESERVED_PROJECT_NAMES_STR, separator, true);
     }
-  }
 
-  private void populateCache() {
-    if (!cached) {
+    private void populateCache() {
       ADMIN_EMAIL = setVar(VARIABLE_ADMIN_EMAIL, ADMIN_EMAIL);
       LOCALHOST = setBoolVar(VARIABLE_LOCALHOST, LOCALHOST);
       CLOUD = setStrVar(VARIABLE_CLOUD, CLOUD);
@@ -686,16 +1006,29 @@ public class Settings implements Serializable {
       MAX_NUM_PROJ_PER_USER = setIntVar(VARIABLE_MAX_NUM_PROJ_PER_USER, MAX_NUM_PROJ_PER_USER);
       FILE_PREVIEW_IMAGE_SIZE = setIntVar(VARIABLE_FILE_PREVIEW_IMAGE_SIZE, 10000000);
       FILE_PREVIEW_TXT_SIZE = setIntVar(VARIABLE_FILE_PREVIEW_TXT_SIZE, 100);
+      FILE_PREVIEW_CACHE_MAX_WEIGHT = setLongVar(VARIABLE_FILE_PREVIEW_CACHE_MAX_WEIGHT,
+        FILE_PREVIEW_CACHE_MAX_WEIGHT);
+      RECURSIVE_PERMISSION_MAX_WORKERS = setIntVar(VARIABLE_RECURSIVE_PERMISSION_MAX_WORKERS,
+        RECURSIVE_PERMISSION_MAX_WORKERS);
+      ALERT_OUTBOX_MAX_SIZE = setIntVar(VARIABLE_ALERT_OUTBOX_MAX_SIZE, ALERT_OUTBOX_MAX_SIZE);
+      ALERT_OUTBOX_BATCH_SIZE = setIntVar(VARIABLE_ALERT_OUTBOX_BATCH_SIZE, ALERT_OUTBOX_BATCH_SIZE);
       ANACONDA_DIR = setDirVar(VARIABLE_ANACONDA_DIR, ANACONDA_DIR);
       ANACONDA_DEFAULT_REPO = setStrVar(VARIABLE_ANACONDA_DEFAULT_REPO, ANACONDA_DEFAULT_REPO);
       ANACONDA_ENABLED = Boolean.parseBoolean(setStrVar(
           VARIABLE_ANACONDA_ENABLED, ANACONDA_ENABLED.toString()));
+      CONDA_MAX_COALESCED_COMMANDS = setIntVar(VARIABLE_CONDA_MAX_COALESCED_COMMANDS, CONDA_MAX_COALESCED_COMMANDS);
       DOWNLOAD_ALLOWED = Boolean.parseBoolean(setStrVar(VARIABLE_DOWNLOAD_ALLOWED, DOWNLOAD_ALLOWED.toString()));
       RESOURCE_DIRS = setStrVar(VARIABLE_RESOURCE_DIRS, RESOURCE_DIRS);
       MAX_STATUS_POLL_RETRY = setIntVar(VARIABLE_MAX_STATUS_POLL_RETRY, MAX_STATUS_POLL_RETRY);
+      YARN_MONITOR_PARALLELISM = setIntVar(VARIABLE_YARN_MONITOR_PARALLELISM, YARN_MONITOR_PARALLELISM);
       HOPS_RPC_TLS = setStrVar(VARIABLE_HOPS_RPC_TLS, HOPS_RPC_TLS);
+      DFS_OPS_POOL_MAX_TOTAL = setIntVar(VARIABLE_DFS_OPS_POOL_MAX_TOTAL, DFS_OPS_POOL_MAX_TOTAL);
+      DFS_OPS_POOL_MAX_IDLE_PER_USER = setIntVar(VARIABLE_DFS_OPS_POOL_MAX_IDLE_PER_USER,
+        DFS_OPS_POOL_MAX_IDLE_PER_USER);
+      DFS_OPS_POOL_IDLE_TIMEOUT_MS = setLongVar(VARIABLE_DFS_OPS_POOL_IDLE_TIMEOUT_MS, DFS_OPS_POOL_IDLE_TIMEOUT_MS);
       CERTIFICATE_MATERIALIZER_DELAY = setStrVar(VARIABLE_CERT_MATER_DELAY,
           CERTIFICATE_MATERIALIZER_DELAY);
+      KEY_PAIR_POOL_SIZE = setIntVar(VARIABLE_KEY_PAIR_POOL_SIZE, KEY_PAIR_POOL_SIZE);
       WHITELIST_USERS_LOGIN = setStrVar(VARIABLE_WHITELIST_USERS_LOGIN,
           WHITELIST_USERS_LOGIN);
       FIRST_TIME_LOGIN = setStrVar(VARIABLE_FIRST_TIME_LOGIN, FIRST_TIME_LOGIN);
@@ -747,6 +1080,11 @@ public class Settings implements Serializable {
         SERVING_CONNECTION_POOL_SIZE);
       SERVING_MAX_ROUTE_CONNECTIONS = setIntVar(VARIABLE_SERVING_MAX_ROUTE_CONNECTIONS,
         SERVING_MAX_ROUTE_CONNECTIONS);
+      SERVING_INFERENCE_LOGGER_MAX_QUEUED = setIntVar(VARIABLE_SERVING_INFERENCE_LOGGER_MAX_QUEUED,
+        SERVING_INFERENCE_LOGGER_MAX_QUEUED);
+      SERVING_INFERENCE_LOGGER_PRODUCER_IDLE_MS = setLongVar(VARIABLE_SERVING_INFERENCE_LOGGER_PRODUCER_IDLE_MS,
+        SERVING_INFERENCE_LOGGER_PRODUCER_IDLE_MS);
+      SERVING_CACHE_TTL_MS = setLongVar(VARIABLE_SERVING_CACHE_TTL_MS, SERVING_CACHE_TTL_MS);
 
       TENSORBOARD_MAX_RELOAD_THREADS = setIntVar(VARIABLE_TENSORBOARD_MAX_RELOAD_THREADS,
           TENSORBOARD_MAX_RELOAD_THREADS);
@@ -788,7 +1126,7 @@ public class Settings implements Serializable {
       KUBE_TAINTED_NODES = setStrVar(VARIABLE_KUBE_TAINTED_NODES, KUBE_TAINTED_NODES);
       KUBE_TAINTED_NODES_MONITOR_INTERVAL = setStrVar(VARIABLE_KUBE_TAINTED_NODES_MONITOR_INTERVAL,
           KUBE_TAINTED_NODES_MONITOR_INTERVAL);
-  
+
       HOPSWORKS_ENTERPRISE = setBoolVar(VARIABLE_HOPSWORKS_ENTERPRISE, HOPSWORKS_ENTERPRISE);
 
       JUPYTER_HOST = setStrVar(VARIABLE_JUPYTER_HOST, JUPYTER_HOST);
@@ -801,6 +1139,8 @@ public class Settings implements Serializable {
 
       SERVICE_JWT_LIFETIME_MS = setLongVar(VARIABLE_SERVICE_JWT_LIFETIME_MS, SERVICE_JWT_LIFETIME_MS);
       SERVICE_JWT_EXP_LEEWAY_SEC = setIntVar(VARIABLE_SERVICE_JWT_EXP_LEEWAY_SEC, SERVICE_JWT_EXP_LEEWAY_SEC);
+      API_KEY_CACHE_TTL_MS = setLongVar(VARIABLE_API_KEY_CACHE_TTL_MS, API_KEY_CACHE_TTL_MS);
+      API_KEY_CACHE_MAX_SIZE = setIntVar(VARIABLE_API_KEY_CACHE_MAX_SIZE, API_KEY_CACHE_MAX_SIZE);
 
       populateServiceJWTCache();
 
@@ -812,22 +1152,32 @@ public class Settings implements Serializable {
       FEATURESTORE_JDBC_URL = setStrVar(VARIABLE_FEATURESTORE_JDBC_URL, FEATURESTORE_JDBC_URL);
       FEATURESTORE_DB_ADMIN_USER = setStrVar(VARIABLE_FEATURESTORE_DB_ADMIN_USER, FEATURESTORE_DB_ADMIN_USER);
       FEATURESTORE_DB_ADMIN_PWD = setStrVar(VARIABLE_FEATURESTORE_DB_ADMIN_PWD, FEATURESTORE_DB_ADMIN_PWD);
+      ONLINE_FEATURESTORE_POOL_MAX_SIZE = setIntVar(VARIABLE_ONLINE_FEATURESTORE_POOL_MAX_SIZE,
+        ONLINE_FEATURESTORE_POOL_MAX_SIZE);
+      ONLINE_FEATURESTORE_POOL_MAX_WAIT_MS = setLongVar(VARIABLE_ONLINE_FEATURESTORE_POOL_MAX_WAIT_MS,
+        ONLINE_FEATURESTORE_POOL_MAX_WAIT_MS);
+      ONLINE_FEATURESTORE_POOL_IDLE_TIMEOUT_MS = setLongVar(VARIABLE_ONLINE_FEATURESTORE_POOL_IDLE_TIMEOUT_MS,
+        ONLINE_FEATURESTORE_POOL_IDLE_TIMEOUT_MS);
+      FS_QUERY_CACHE_TTL_MS = setLongVar(VARIABLE_FS_QUERY_CACHE_TTL_MS, FS_QUERY_CACHE_TTL_MS);
+      FS_QUERY_CACHE_MAX_SIZE = setIntVar(VARIABLE_FS_QUERY_CACHE_MAX_SIZE, FS_QUERY_CACHE_MAX_SIZE);
+      KAFKA_SCHEMA_CACHE_TTL_MS = setLongVar(VARIABLE_KAFKA_SCHEMA_CACHE_TTL_MS, KAFKA_SCHEMA_CACHE_TTL_MS);
+      KAFKA_SCHEMA_CACHE_MAX_SIZE = setIntVar(VARIABLE_KAFKA_SCHEMA_CACHE_MAX_SIZE, KAFKA_SCHEMA_CACHE_MAX_SIZE);
       ONLINE_FEATURESTORE = setBoolVar(VARIABLE_ONLINE_FEATURESTORE, ONLINE_FEATURESTORE);
       ONLINE_FEATURESTORE_TS = setStrVar(VARIABLE_ONLINE_FEATURESTORE_TS, ONLINE_FEATURESTORE_TS);
       ONLINEFS_THREAD_NUMBER = setIntVar(VARIABLE_ONLINEFS_THREAD_NUMBER, ONLINEFS_THREAD_NUMBER);
 
       KIBANA_HTTPS_ENABELED = setBoolVar(VARIABLE_KIBANA_HTTPS_ENABLED,
           KIBANA_HTTPS_ENABELED);
-  
+
       KIBANA_MULTI_TENANCY_ENABELED = setBoolVar(VARIABLE_KIBANA_MULTI_TENANCY_ENABLED,
           KIBANA_MULTI_TENANCY_ENABELED);
-  
+
       RESERVED_PROJECT_NAMES =
         setStringHashSetLowerCase(VARIABLE_RESERVED_PROJECT_NAMES, DEFAULT_RESERVED_PROJECT_NAMES, ",");
-  
+
       CLOUD_EVENTS_ENDPOINT = setStrVar(VARIABLE_CLOUD_EVENTS_ENDPOINT,
           CLOUD_EVENTS_ENDPOINT);
-  
+
       CLOUD_EVENTS_ENDPOINT_API_KEY =
           setStrVar(VARIABLE_CLOUD_EVENTS_ENDPOINT_API_KEY, CLOUD_EVENTS_ENDPOINT_API_KEY);
 
@@ -853,7 +1203,7 @@ public class Settings implements Serializable {
 
       ENABLE_BRING_YOUR_OWN_KAFKA = setBoolVar(VARIABLE_ENABLE_BRING_YOUR_OWN_KAFKA,
           ENABLE_BRING_YOUR_OWN_KAFKA);
-  
+
       TESTCONNECTOR_IMAGE_VERSION = setStrVar(VARIABLE_CONNECTOR_IMAGE_VERSION, "0.1");
       YARN_RUNTIME = setStrVar(VARIABLE_YARN_RUNTIME, YARN_RUNTIME);
       DOCKER_MOUNTS = setStrVar(VARIABLE_DOCKER_MOUNTS, DOCKER_MOUNTS);
@@ -872,7 +1222,7 @@ public class Settings implements Serializable {
 
       YARN_APP_UID = setLongVar(VARIABLE_YARN_APP_UID, YARN_APP_UID);
       populateProvenanceCache();
-      
+
       CLIENT_PATH = setStrVar(VARIABLE_CLIENT_PATH, CLIENT_PATH);
       KUBE_TYPE = KubeType.fromString(setStrVar(VARIABLE_KUBE_TYPE, KUBE_TYPE.name));
       DOCKER_NAMESPACE = setStrVar(VARIABLE_DOCKER_NAMESPACE, DOCKER_NAMESPACE);
@@ -881,9 +1231,9 @@ public class Settings implements Serializable {
 
       MAX_ENV_YML_BYTE_SIZE = setIntVar(VARIABLE_MAX_ENV_YML_BYTE_SIZE, MAX_ENV_YML_BYTE_SIZE);
       SPARK_EXECUTOR_MIN_MEMORY = setIntVar(VARIABLE_SPARK_EXECUTOR_MIN_MEMORY, SPARK_EXECUTOR_MIN_MEMORY);
-      
+
       LIVY_STARTUP_TIMEOUT = setIntVar(VARIABLE_LIVY_STARTUP_TIMEOUT, LIVY_STARTUP_TIMEOUT);
-  
+
       USER_SEARCH_ENABLED = setBoolVar(VARIABLE_USER_SEARCH, USER_SEARCH_ENABLED);
       REJECT_REMOTE_USER_NO_GROUP = setBoolVar(VARIABLE_REJECT_REMOTE_USER_NO_GROUP, REJECT_REMOTE_USER_NO_GROUP);
 
@@ -907,7 +1257,7 @@ public class Settings implements Serializable {
       DOCKER_CGROUP_PARENT = setStrVar(VARIABLE_DOCKER_CGROUP_PARENT, DOCKER_CGROUP_PARENT);
 
       PROMETHEUS_PORT = setIntVar(VARIABLE_PROMETHEUS_PORT, PROMETHEUS_PORT);
-  
+
       SKIP_NAMESPACE_CREATION = setBoolVar(VARIABLE_SKIP_NAMESPACE_CREATION,
           SKIP_NAMESPACE_CREATION);
 
@@ -924,7 +1274,7 @@ public class Settings implements Serializable {
           QUOTAS_MAX_PARALLEL_EXECUTIONS);
       QUOTAS_MAX_PARALLEL_EXECUTIONS = setLongVar(VARIABLE_QUOTAS_MAX_PARALLEL_EXECUTIONS,
           QUOTAS_MAX_PARALLEL_EXECUTIONS);
-      
+
       SQL_MAX_SELECT_IN = setIntVar(VARIABLE_SQL_MAX_SELECT_IN, SQL_MAX_SELECT_IN);
 
       ENABLE_JUPYTER_PYTHON_KERNEL_NON_KUBERNETES = setBoolVar(VARIABLE_ENABLE_JUPYTER_PYTHON_KERNEL_NON_KUBERNETES,
@@ -943,55 +1293,309 @@ public class Settings implements Serializable {
         COMMAND_SEARCH_FS_HISTORY_CLEAN_PERIOD);
       COMMAND_SEARCH_FS_RETRY_PER_CLEAN_INTERVAL = setIntVar(VARIABLE_COMMAND_SEARCH_FS_RETRY_PER_CLEAN_INTERVAL,
         COMMAND_SEARCH_FS_RETRY_PER_CLEAN_INTERVAL);
-      cached = true;
+      COMMAND_SEARCH_FS_SHARDING_ENABLE = setBoolVar(VARIABLE_COMMAND_SEARCH_FS_SHARDING_ENABLE,
+        COMMAND_SEARCH_FS_SHARDING_ENABLE);
+      COMMAND_SEARCH_FS_BULK_SIZE = setIntVar(VARIABLE_COMMAND_SEARCH_FS_BULK_SIZE, COMMAND_SEARCH_FS_BULK_SIZE);
+    }
+
+    private Optional<String> findCachedValue(String varName) {
+      return Optional.ofNullable(variables.get(varName));
+    }
+
+    private DistributedFileSystemOps.StoragePolicy setHdfsStoragePolicy(String policyName,
+      DistributedFileSystemOps.StoragePolicy defaultPolicy) {
+
+      Optional<String> policyOptional = findCachedValue(policyName);
+      if (!policyOptional.isPresent()) {
+        return defaultPolicy;
+      }
+
+      String existingPolicy = policyOptional.get();
+      if (!Strings.isNullOrEmpty(existingPolicy)) {
+        try {
+          return DistributedFileSystemOps.StoragePolicy.fromPolicy(existingPolicy);
+        } catch (IllegalArgumentException ex) {
+          LOGGER.warning("Error - not a valid storage policy! Value was:" + existingPolicy);
+          return defaultPolicy;
+        }
+      } else {
+        return defaultPolicy;
+      }
+    }
+
+    private void populateServiceJWTCache() {
+      SERVICE_MASTER_JWT = setStrVar(VARIABLE_SERVICE_MASTER_JWT, SERVICE_MASTER_JWT);
+      RENEW_TOKENS = new String[NUM_OF_SERVICE_RENEW_TOKENS];
+      for (int i = 0; i < NUM_OF_SERVICE_RENEW_TOKENS; i++) {
+        String variableKey = String.format(SERVICE_RENEW_TOKEN_VARIABLE_TEMPLATE, i);
+        String token = setStrVar(variableKey, "");
+        RENEW_TOKENS[i] = token;
+      }
+    }
+
+    private void populateLDAPCache() {
+      KRB_AUTH = setVar(VARIABLE_KRB_AUTH, KRB_AUTH);
+      LDAP_AUTH = setVar(VARIABLE_LDAP_AUTH, LDAP_AUTH);
+      LDAP_GROUP_MAPPING = setVar(VARIABLE_LDAP_GROUP_MAPPING, LDAP_GROUP_MAPPING);
+      LDAP_USER_ID = setVar(VARIABLE_LDAP_USER_ID, LDAP_USER_ID);
+      LDAP_USER_GIVEN_NAME = setVar(VARIABLE_LDAP_USER_GIVEN_NAME, LDAP_USER_GIVEN_NAME);
+      LDAP_USER_SURNAME = setVar(VARIABLE_LDAP_USER_SURNAME, LDAP_USER_SURNAME);
+      LDAP_USER_EMAIL = setVar(VARIABLE_LDAP_USER_EMAIL, LDAP_USER_EMAIL);
+      LDAP_ACCOUNT_STATUS = setIntVar(VARIABLE_LDAP_ACCOUNT_STATUS, LDAP_ACCOUNT_STATUS);
+      LDAP_USER_SEARCH_FILTER = setVar(VARIABLE_LDAP_USER_SEARCH_FILTER, LDAP_USER_SEARCH_FILTER);
+      LDAP_GROUP_SEARCH_FILTER = setVar(VARIABLE_LDAP_GROUP_SEARCH_FILTER, LDAP_GROUP_SEARCH_FILTER);
+      LDAP_KRB_USER_SEARCH_FILTER = setVar(VARIABLE_LDAP_KRB_USER_SEARCH_FILTER, LDAP_KRB_USER_SEARCH_FILTER);
+      LDAP_ATTR_BINARY = setVar(VARIABLE_LDAP_ATTR_BINARY, LDAP_ATTR_BINARY);
+      LDAP_GROUP_TARGET = setVar(VARIABLE_LDAP_GROUP_TARGET, LDAP_GROUP_TARGET);
+      LDAP_DYNAMIC_GROUP_TARGET = setVar(VARIABLE_LDAP_DYNAMIC_GROUP_TARGET, LDAP_DYNAMIC_GROUP_TARGET);
+      LDAP_USER_DN = setStrVar(VARIABLE_LDAP_USERDN, LDAP_USER_DN_DEFAULT);
+      LDAP_GROUP_DN = setStrVar(VARIABLE_LDAP_GROUPDN, LDAP_GROUP_DN_DEFAULT);
+      LDAP_GROUPS_TARGET = setVar(VARIABLE_LDAP_GROUPS_TARGET, LDAP_GROUPS_TARGET);
+      LDAP_GROUPS_SEARCH_FILTER = setStrVar(VARIABLE_LDAP_GROUPS_SEARCH_FILTER, LDAP_GROUPS_SEARCH_FILTER);
+      LDAP_GROUP_MEMBERS_SEARCH_FILTER =
+        setStrVar(VARIABLE_LDAP_GROUP_MEMBERS_SEARCH_FILTER, LDAP_GROUP_MEMBERS_SEARCH_FILTER);
+      IS_KRB_ENABLED = setBoolVar(VARIABLE_KRB_AUTH, IS_KRB_ENABLED);
+      IS_LDAP_ENABLED = setBoolVar(VARIABLE_LDAP_AUTH, IS_LDAP_ENABLED);
+      OAUTH_ENABLED = setStrVar(VARIABLE_OAUTH_ENABLED, OAUTH_ENABLED);
+      IS_OAUTH_ENABLED = setBoolVar(VARIABLE_OAUTH_ENABLED, IS_OAUTH_ENABLED);
+      OAUTH_REDIRECT_URI = setStrVar(VARIABLE_OAUTH_REDIRECT_URI, OAUTH_REDIRECT_URI);
+      OAUTH_LOGOUT_REDIRECT_URI = setStrVar(VARIABLE_OAUTH_LOGOUT_REDIRECT_URI, OAUTH_LOGOUT_REDIRECT_URI);
+      OAUTH_ACCOUNT_STATUS = setIntVar(VARIABLE_OAUTH_ACCOUNT_STATUS, OAUTH_ACCOUNT_STATUS);
+      OAUTH_GROUP_MAPPING = setStrVar(VARIABLE_OAUTH_GROUP_MAPPING, OAUTH_GROUP_MAPPING);
+
+      REMOTE_AUTH_NEED_CONSENT = setBoolVar(VARIABLE_REMOTE_AUTH_NEED_CONSENT, REMOTE_AUTH_NEED_CONSENT);
+
+      DISABLE_PASSWORD_LOGIN = setBoolVar(VARIABLE_DISABLE_PASSWORD_LOGIN, DISABLE_PASSWORD_LOGIN);
+      DISABLE_REGISTRATION = setBoolVar(VARIABLE_DISABLE_REGISTRATION, DISABLE_REGISTRATION);
+      DISABLE_REGISTRATION_UI = setBoolVar(VARIABLE_DISABLE_REGISTRATION_UI, DISABLE_REGISTRATION_UI);
+
+      LDAP_GROUP_MAPPING_SYNC_INTERVAL = setLongVar(VARIABLE_LDAP_GROUP_MAPPING_SYNC_INTERVAL,
+        LDAP_GROUP_MAPPING_SYNC_INTERVAL);
+
+      VALIDATE_REMOTE_USER_EMAIL_VERIFIED =
+        setBoolVar(VARIABLE_VALIDATE_REMOTE_USER_EMAIL_VERIFIED, VALIDATE_REMOTE_USER_EMAIL_VERIFIED);
+
+      MANAGED_CLOUD_REDIRECT_URI = setStrVar(VARIABLE_MANAGED_CLOUD_REDIRECT_URI, MANAGED_CLOUD_REDIRECT_URI);
+      MANAGED_CLOUD_PROVIDER_NAME = setStrVar(VARIABLE_MANAGED_CLOUD_PROVIDER_NAME, MANAGED_CLOUD_PROVIDER_NAME);
+    }
+
+    private void populateProvenanceCache() {
+      PROVENANCE_TYPE_S = setStrVar(VARIABLE_PROVENANCE_TYPE, PROVENANCE_TYPE_S);
+      try {
+        PROVENANCE_TYPE = ProvTypeDTO.provTypeFromString(PROVENANCE_TYPE_S);
+      } catch(ProvenanceException e) {
+        LOGGER.log(Level.WARNING, "unknown prov type:" + PROVENANCE_TYPE_S + ", using default");
+        PROVENANCE_TYPE = Provenance.Type.MIN;
+        PROVENANCE_TYPE_S = PROVENANCE_TYPE.name();
+      }
+      PROVENANCE_GRAPH_MAX_SIZE = setIntVar(VARIABLE_PROVENANCE_GRAPH_MAX_SIZE, PROVENANCE_GRAPH_MAX_SIZE);
+      PROVENANCE_CLEANUP_SIZE = setIntVar(VARIABLE_PROVENANCE_CLEANUP_SIZE, PROVENANCE_CLEANUP_SIZE);
+      PROVENANCE_CLEANER_PERIOD = setLongVar(VARIABLE_PROVENANCE_CLEANER_PERIOD, PROVENANCE_CLEANER_PERIOD);
+      PROVENANCE_MAPPING_CACHE_MAX_WEIGHT = setLongVar(VARIABLE_PROVENANCE_MAPPING_CACHE_MAX_WEIGHT,
+        PROVENANCE_MAPPING_CACHE_MAX_WEIGHT);
+      PROVENANCE_MAPPING_CACHE_REFRESH_MS = setLongVar(VARIABLE_PROVENANCE_MAPPING_CACHE_REFRESH_MS,
+        PROVENANCE_MAPPING_CACHE_REFRESH_MS);
+      PROVENANCE_MAPPING_CACHE_EXPIRY_MS = setLongVar(VARIABLE_PROVENANCE_MAPPING_CACHE_EXPIRY_MS,
+        PROVENANCE_MAPPING_CACHE_EXPIRY_MS);
     }
   }
 
-  private void checkCache() {
-    if (!cached) {
-      populateCache();
+  private Set<String> setStringHashSetLowerCase(String values, String separator, boolean toLowerCase) {
+    StringTokenizer tokenizer = new StringTokenizer(values, separator);
+    HashSet<String> tokens = new HashSet<>(tokenizer.countTokens());
+    while (tokenizer.hasMoreTokens()) {
+      tokens.add(toLowerCase? tokenizer.nextToken().trim().toLowerCase() : tokenizer.nextToken().trim());
+    }
+    return tokens;
+  }
+
+  // Published with a single volatile write, null until the variables are first loaded
+  private volatile Values values;
+  // Set when the variables were updated on another node, the next getter reloads them
+  private volatile boolean stale = false;
+  // Orders the reloads, getters only wait for it until the variables are first loaded
+  private final ReentrantLock reloadLock = new ReentrantLock();
+  private final Set<SettingsChangeListener> changeListeners = new CopyOnWriteArraySet<>();
+  private UUID myUUID;
+  private ITopic<String> settingUpdatedTopic;
+  
+  @Inject
+  private HazelcastInstance hazelcastInstance;
+  
+  @PostConstruct
+  public void init() {
+    // hazelcastInstance == null if Hazelcast is Disabled
+    if (hazelcastInstance != null) {
+      settingUpdatedTopic = hazelcastInstance.getTopic("setting_updated");
+      myUUID = settingUpdatedTopic.addMessageListener(new MessageListenerImpl());
+    }
+  }
+  
+  @PreDestroy
+  public void destroy() {
+    if (settingUpdatedTopic != null) {
+      //needed for redeploy to remove the listener
+      settingUpdatedTopic.removeMessageListener(myUUID);
+    }
+  }
+  
+  public class MessageListenerImpl implements MessageListener<String> {
+    
+    @Override
+    public void onMessage(Message<String> message) {
+      if (!message.getPublishingMember().localMember()) {
+        // Reloaded, and listeners notified, by the next getter
+        stale = true;
+      }
+    }
+  }
+
+  /**
+   * @return the values of the last reload. Only the first call waits for the variables to be loaded. After an update
+   * on another node a single getter reloads them, the others keep being served the previous values meanwhile.
+   */
+  private Values values() {
+    Values current = values;
+    if (current == null) {
+      reloadLock.lock();
+      try {
+        if (values == null) {
+          reload();
+        }
+      } finally {
+        reloadLock.unlock();
+      }
+      return values;
+    }
+    if (stale && reloadLock.tryLock()) {
+      Set<String> changed;
+      try {
+        stale = false;
+        changed = reload();
+      } catch (RuntimeException e) {
+        stale = true;
+        LOGGER.log(Level.WARNING, "Could not reload the variables, keeping the previous values", e);
+        return current;
+      } finally {
+        reloadLock.unlock();
+      }
+      notifyListeners(changed);
+      return values;
+    }
+    return current;
+  }
+
+  /**
+   * Load the variables and publish the values computed from them. To be called holding the reload lock.
+   *
+   * @return names of the variables that changed since the previous values
+   */
+  private Set<String> reload() {
+    Values previous = values;
+    Values next = new Values(loadVariables());
+    values = next;
+    if (previous == null) {
+      return Collections.emptySet();
+    }
+    Set<String> changed = new HashSet<>();
+    for (Map.Entry<String, String> variable : next.variables.entrySet()) {
+      if (!Objects.equals(variable.getValue(), previous.variables.get(variable.getKey()))) {
+        changed.add(variable.getKey());
+      }
+    }
+    for (String name : previous.variables.keySet()) {
+      if (!next.variables.containsKey(name)) {
+        changed.add(name);
+      }
+    }
+    return changed;
+  }
+
+  private Map<String, String> loadVariables() {
+    Map<String, String> snapshot = new HashMap<>();
+    for (Variables variable : em.createNamedQuery("Variables.findAll", Variables.class).getResultList()) {
+      snapshot.put(variable.getId(), variable.getValue());
+    }
+    return Collections.unmodifiableMap(snapshot);
+  }
+
+  private void reloadAndNotify() {
+    Set<String> changed;
+    reloadLock.lock();
+    try {
+      changed = reload();
+    } finally {
+      reloadLock.unlock();
     }
+    notifyListeners(changed);
   }
 
-  public synchronized void refreshCache() {
-    cached = false;
-    populateCache();
+  public void refreshCache() {
+    reloadAndNotify();
     //Notify other nodes if settingUpdatedTopic is created == Hazelcast is enabled
     if (settingUpdatedTopic != null) {
       settingUpdatedTopic.publish("Settings cache invalidated.");
     }
   }
 
-  public synchronized void updateVariable(String variableName, String variableValue, VariablesVisibility visibility) {
-    updateVariableInternal(variableName, variableValue, visibility);
+  public void updateVariable(String variableName, String variableValue, VariablesVisibility visibility) {
+    synchronized (this) {
+      updateVariableInternal(variableName, variableValue, visibility);
+    }
     refreshCache();
   }
 
-  public synchronized void updateVariables(List<Variables> variablesToUpdate) {
-    variablesToUpdate.forEach(v -> updateVariableInternal(v.getId(), v.getValue(), v.getVisibility()));
+  public void updateVariables(List<Variables> variablesToUpdate) {
+    synchronized (this) {
+      variablesToUpdate.forEach(v -> updateVariableInternal(v.getId(), v.getValue(), v.getVisibility()));
+    }
     refreshCache();
   }
 
+  /**
+   * Register a listener notified with the names of the variables that changed, whether they were updated on this
+   * node or on another node of the cluster. Listeners are called once the new values are visible through the
+   * getters, by the thread that reloaded the variables, so they should return quickly.
+   *
+   * @param listener
+   */
+  public void addChangeListener(SettingsChangeListener listener) {
+    changeListeners.add(listener);
+  }
+
+  public void removeChangeListener(SettingsChangeListener listener) {
+    changeListeners.remove(listener);
+  }
+
+  private void notifyListeners(Set<String> changed) {
+    if (changed.isEmpty()) {
+      return;
+    }
+    Set<String> unmodifiableChanged = Collections.unmodifiableSet(changed);
+    for (SettingsChangeListener listener : changeListeners) {
+      try {
+        listener.variablesChanged(unmodifiableChanged);
+      } catch (RuntimeException e) {
+        LOGGER.log(Level.WARNING, "Settings change listener failed", e);
+      }
+    }
+  }
+
   /**
    * ******************************************************************
    */
   private static final String GLASSFISH_DIR = "/srv/hops/glassfish";
 
-  public synchronized String getGlassfishDir() {
+  public String getGlassfishDir() {
     return GLASSFISH_DIR;
   }
 
-  private String TWOFACTOR_AUTH = "false";
-  private String TWOFACTOR_EXCLUDE = "AGENT;CLUSTER_AGENT";
-
-  public synchronized String getTwoFactorAuth() {
-    checkCache();
-    return TWOFACTOR_AUTH;
+  public String getTwoFactorAuth() {
+    return values().TWOFACTOR_AUTH;
   }
 
-  public synchronized String getTwoFactorExclude() {
-    checkCache();
-    return TWOFACTOR_EXCLUDE;
+  public String getTwoFactorExclude() {
+    return values().TWOFACTOR_EXCLUDE;
   }
 
   public enum TwoFactorMode {
@@ -1015,17 +1619,25 @@ public class Settings implements Serializable {
     }
   }
 
-  private String HOPS_RPC_TLS = "false";
+  public int getDfsOpsPoolMaxTotal() {
+    return values().DFS_OPS_POOL_MAX_TOTAL;
+  }
+
+  public int getDfsOpsPoolMaxIdlePerUser() {
+    return values().DFS_OPS_POOL_MAX_IDLE_PER_USER;
+  }
 
-  public synchronized boolean getHopsRpcTls() {
-    checkCache();
-    return HOPS_RPC_TLS.toLowerCase().equals("true");
+  public long getDfsOpsPoolIdleTimeoutMs() {
+    return values().DFS_OPS_POOL_IDLE_TIMEOUT_MS;
+  }
+
+  public boolean getHopsRpcTls() {
+    return values().HOPS_RPC_TLS.toLowerCase().equals("true");
   }
 
   //Spark executor minimum memory
-  public synchronized int getSparkExecutorMinMemory() {
-    checkCache();
-    return SPARK_EXECUTOR_MIN_MEMORY;
+  public int getSparkExecutorMinMemory() {
+    return values().SPARK_EXECUTOR_MIN_MEMORY;
   }
 
   public static final String VERIFICATION_PATH = "/validate";
@@ -1037,8 +1649,6 @@ public class Settings implements Serializable {
 
   public static final String TENSORBOARD_DIRS = "/tensorboard/";
 
-  private String SPARK_DIR = "/srv/hops/spark";
-
   public static final String CONVERSION_DIR = "/ipython_conversions/";
 
   public static final String SPARK_NUMBER_EXECUTORS_ENV
@@ -1074,7 +1684,6 @@ public class Settings implements Serializable {
   public static final String SPARK_YARN_DIST_ARCHIVES = "spark.yarn.dist.archives";
   public static final String SPARK_YARN_JARS = "spark.yarn.jars";
 
-
   //Blacklisting properties
   public static final String SPARK_BLACKLIST_ENABLED = "spark.blacklist.enabled";
   public static final String SPARK_BLACKLIST_MAX_TASK_ATTEMPTS_PER_EXECUTOR =
@@ -1159,40 +1768,30 @@ public class Settings implements Serializable {
   public static final String NCCL_SOCKET_NTHREADS = "NCCL_SOCKET_NTHREADS";
   public static final String NCCL_NSOCKS_PERTHREAD = "NCCL_NSOCKS_PERTHREAD";
 
-  public synchronized String getSparkDir() {
-    checkCache();
-    return SPARK_DIR;
+  public String getSparkDir() {
+    return values().SPARK_DIR;
   }
 
-  public synchronized String getSparkConfDir() {
+  public String getSparkConfDir() {
     return getSparkDir() + "/conf";
   }
 
-  public synchronized String getSparkLog4j2FilePath() {
+  public String getSparkLog4j2FilePath() {
     return getSparkConfDir() + "/log4j2.properties";
   }
 
-  private String STAGING_DIR = "/srv/hops/domains/domain1/staging";
-
-  public synchronized String getStagingDir() {
-    checkCache();
-    return STAGING_DIR;
+  public String getStagingDir() {
+    return values().STAGING_DIR;
   }
 
-  private String UPLOAD_STAGING_DIR = DIR_ROOT;
-
-  public synchronized String getUploadStagingDir() {
-    checkCache();
-    return UPLOAD_STAGING_DIR;
+  public String getUploadStagingDir() {
+    return values().UPLOAD_STAGING_DIR;
   }
 
   private final String FLINK_CONF_DIR = "conf";
-  // Remember to change this in docker-images as well
-  private String FLINK_DIR = "/srv/hops/flink";
 
-  public synchronized String getFlinkDir() {
-    checkCache();
-    return FLINK_DIR;
+  public String getFlinkDir() {
+    return values().FLINK_DIR;
   }
 
   public String getFlinkConfDir() {
@@ -1205,187 +1804,106 @@ public class Settings implements Serializable {
     return getFlinkDir() + File.separator + FLINK_LIB_DIR + File.separator;
   }
 
-  private String AIRFLOW_DIR = "/srv/hops/airflow";
-  public synchronized String getAirflowDir() {
-    checkCache();
-    return AIRFLOW_DIR;
+  public String getAirflowDir() {
+    return values().AIRFLOW_DIR;
   }
 
-  private String AIRFLOW_USER = "airflow";
-  public synchronized String getAirflowUser() {
-    checkCache();
-    return AIRFLOW_USER;
+  public String getAirflowUser() {
+    return values().AIRFLOW_USER;
   }
 
-  private String HADOOP_DIR = "/srv/hops/hadoop";
-
   // This returns the unversioned base installation directory for hops-hadoop
   // For example, "/srv/hops/hadoop" - it does not return "/srv/hops/hadoop-2.8.2"
-  public synchronized String getHadoopSymbolicLinkDir() {
-    checkCache();
-    return HADOOP_DIR;
+  public String getHadoopSymbolicLinkDir() {
+    return values().HADOOP_DIR;
   }
 
-  private String HIVE_SUPERUSER = "hive";
-
-  public synchronized String getHiveSuperUser() {
-    checkCache();
-    return HIVE_SUPERUSER;
+  public String getHiveSuperUser() {
+    return values().HIVE_SUPERUSER;
   }
 
-  private String ANACONDA_DEFAULT_REPO = "defaults";
-
-  public synchronized String getCondaDefaultRepo() {
-    checkCache();
-    return ANACONDA_DEFAULT_REPO;
+  public String getCondaDefaultRepo() {
+    return values().ANACONDA_DEFAULT_REPO;
   }
 
-  private String HIVE_WAREHOUSE = "/apps/hive/warehouse";
-
-  public synchronized String getHiveWarehouse() {
-    checkCache();
-    return HIVE_WAREHOUSE;
+  public String getHiveWarehouse() {
+    return values().HIVE_WAREHOUSE;
   }
 
-  private String HIVE_SCRATCHDIR = "/tmp/hive";
-
-  public synchronized String getHiveScratchdir() {
-    checkCache();
-    return HIVE_SCRATCHDIR;
+  public String getHiveScratchdir() {
+    return values().HIVE_SCRATCHDIR;
   }
 
-  private String HIVE_SCRATCHDIR_DELAY = "7d";
-
-  public synchronized String getHiveScratchdirDelay() {
-    checkCache();
-    return HIVE_SCRATCHDIR_DELAY;
+  public String getHiveScratchdirDelay() {
+    return values().HIVE_SCRATCHDIR_DELAY;
   }
 
-  private String HIVE_SCRATCHDIR_CLEANER_INTERVAL = "24h";
-
-  public synchronized String getHiveScratchdirCleanerInterval() {
-    checkCache();
-    return HIVE_SCRATCHDIR_CLEANER_INTERVAL;
+  public String getHiveScratchdirCleanerInterval() {
+    return values().HIVE_SCRATCHDIR_CLEANER_INTERVAL;
   }
 
-  private long HIVE_DB_DEFAULT_QUOTA = HdfsConstants.QUOTA_DONT_SET;
-  public synchronized long getHiveDbDefaultQuota() {
-    checkCache();
-    return HIVE_DB_DEFAULT_QUOTA;
+  public long getHiveDbDefaultQuota() {
+    return values().HIVE_DB_DEFAULT_QUOTA;
   }
 
-  private String CERTS_DIR = "/srv/hops/certs-dir";
-
-  public synchronized String getCertsDir() {
-    checkCache();
-    return CERTS_DIR;
+  public String getCertsDir() {
+    return values().CERTS_DIR;
   }
 
-  public synchronized String getHopsworksMasterEncPasswordFile() {
-    checkCache();
+  public String getHopsworksMasterEncPasswordFile() {
     return getCertsDir() + File.separator + "encryption_master_password";
   }
 
-  private String HOPSWORKS_INSTALL_DIR = "/srv/hops/domains/domain1";
-
-  public synchronized String getHopsworksDomainDir() {
-    checkCache();
-    return HOPSWORKS_INSTALL_DIR;
+  public String getHopsworksDomainDir() {
+    return values().HOPSWORKS_INSTALL_DIR;
   }
 
-  private String SUDOERS_DIR = "/srv/hops/sbin";
-  public synchronized String getSudoersDir() {
-    checkCache();
-    return SUDOERS_DIR;
+  public String getSudoersDir() {
+    return values().SUDOERS_DIR;
   }
 
-  private String HOPSWORKS_USER = "glassfish";
-
-  public synchronized String getHopsworksUser() {
-    checkCache();
-    return HOPSWORKS_USER;
+  public String getHopsworksUser() {
+    return values().HOPSWORKS_USER;
   }
-  private String HDFS_SUPERUSER = "hdfs";
 
-  public synchronized String getHdfsSuperUser() {
-    checkCache();
-    return HDFS_SUPERUSER;
+  public String getHdfsSuperUser() {
+    return values().HDFS_SUPERUSER;
   }
-  private String SPARK_USER = "spark";
 
-  public synchronized String getSparkUser() {
-    checkCache();
-    return SPARK_USER;
+  public String getSparkUser() {
+    return values().SPARK_USER;
   }
 
   public String getSparkLog4JPath() {
     return "hdfs:///user/" + getSparkUser() + "/log4j2.properties";
   }
 
-  private Integer YARN_DEFAULT_QUOTA = 60000;
-  public synchronized Integer getYarnDefaultQuota() {
-    checkCache();
-    return YARN_DEFAULT_QUOTA;
+  public Integer getYarnDefaultQuota() {
+    return values().YARN_DEFAULT_QUOTA;
   }
 
-  private PaymentType DEFAULT_PAYMENT_TYPE = PaymentType.NOLIMIT;
-  public synchronized PaymentType getDefaultPaymentType() {
-    checkCache();
-    return DEFAULT_PAYMENT_TYPE;
+  public PaymentType getDefaultPaymentType() {
+    return values().DEFAULT_PAYMENT_TYPE;
   }
 
-  private long HDFS_DEFAULT_QUOTA_MBs = HdfsConstants.QUOTA_DONT_SET;
-  public synchronized long getHdfsDefaultQuotaInMBs() {
-    checkCache();
-    return HDFS_DEFAULT_QUOTA_MBs;
+  public long getHdfsDefaultQuotaInMBs() {
+    return values().HDFS_DEFAULT_QUOTA_MBs;
   }
 
-  // To not fill the SSDs with Logs files that nobody access frequently
-  // We set the StoragePolicy for the LOGS dir to be DEFAULT
-  private DistributedFileSystemOps.StoragePolicy HDFS_LOG_STORAGE_POLICY
-      = DistributedFileSystemOps.StoragePolicy.DEFAULT;
-
-  private DistributedFileSystemOps.StoragePolicy setHdfsStoragePolicy(String policyName,
-    DistributedFileSystemOps.StoragePolicy defaultPolicy) {
-
-    Optional<Variables> policyOptional = findById(policyName);
-    if (!policyOptional.isPresent()) {
-      return defaultPolicy;
-    }
-
-    String existingPolicy = policyOptional.get().getValue();
-    if (!Strings.isNullOrEmpty(existingPolicy)) {
-      try {
-        return DistributedFileSystemOps.StoragePolicy.fromPolicy(existingPolicy);
-      } catch (IllegalArgumentException ex) {
-        LOGGER.warning("Error - not a valid storage policy! Value was:" + existingPolicy);
-        return defaultPolicy;
-      }
-    } else {
-      return defaultPolicy;
-    }
-  }
-
-  public synchronized DistributedFileSystemOps.StoragePolicy getHdfsLogStoragePolicy() {
-    checkCache();
-    return HDFS_LOG_STORAGE_POLICY;
+  public DistributedFileSystemOps.StoragePolicy getHdfsLogStoragePolicy() {
+    return values().HDFS_LOG_STORAGE_POLICY;
   }
 
-  private Integer MAX_NUM_PROJ_PER_USER = 5;
-  public synchronized Integer getMaxNumProjPerUser() {
-    checkCache();
-    return MAX_NUM_PROJ_PER_USER;
+  public Integer getMaxNumProjPerUser() {
+    return values().MAX_NUM_PROJ_PER_USER;
   }
 
-  private String HADOOP_VERSION = "2.8.2";
-
-  public synchronized String getHadoopVersion() {
-    checkCache();
-    return HADOOP_VERSION;
+  public String getHadoopVersion() {
+    return values().HADOOP_VERSION;
   }
 
   //Hadoop locations
-  public synchronized String getHadoopConfDir() {
+  public String getHadoopConfDir() {
     return hadoopConfDir(getHadoopSymbolicLinkDir());
   }
 
@@ -1439,8 +1957,6 @@ public class Settings implements Serializable {
   public static final String SPARK_BLACKLISTED_PROPS
       = "conf/spark-blacklisted-properties.txt";
   public static final String SPARK_HADOOP_FS_PERMISSIONS_UMASK_DEFAULT = "0007";
-  // Spark executor min memory
-  private int SPARK_EXECUTOR_MIN_MEMORY = 1024;
 
   //Flink constants
   public static final String FLINK_AM_MAIN = "org.apache.flink.yarn.ApplicationMaster";
@@ -1460,7 +1976,7 @@ public class Settings implements Serializable {
   public static final Set<String> KAFKA_SUBJECT_BLACKLIST =
     new HashSet<>(Arrays.asList(INFERENCE_SCHEMANAME, PROJECT_COMPATIBILITY_SUBJECT));
 
-  public synchronized String getLocalFlinkJarPath() {
+  public String getLocalFlinkJarPath() {
     return getFlinkDir() + "/flink.jar";
   }
 
@@ -1526,112 +2042,81 @@ public class Settings implements Serializable {
     "REGEXP, RLIKE, ROLLBACK, START, CACHE, CONSTRAINT, FOREIGN, PRIMARY, REFERENCES, DAYOFWEEK, EXTRACT, FLOOR, " +
     "INTEGER, PRECISION, VIEWS, TIME, NUMERIC, SYNC";
   
-  private Set<String> RESERVED_PROJECT_NAMES;
-  private String RESERVED_PROJECT_NAMES_STR;
-  
-  public synchronized Set<String> getReservedProjectNames() {
-    checkCache();
-    RESERVED_PROJECT_NAMES = RESERVED_PROJECT_NAMES != null ? RESERVED_PROJECT_NAMES : new HashSet<>();
-    RESERVED_PROJECT_NAMES.addAll(getReservedHiveNames());
-    return RESERVED_PROJECT_NAMES;
+  public Set<String> getReservedProjectNames() {
+    Set<String> reservedProjectNames = new HashSet<>(values().RESERVED_PROJECT_NAMES);
+    reservedProjectNames.addAll(getReservedHiveNames());
+    return reservedProjectNames;
   }
   
-  public synchronized Set<String> getReservedHiveNames() {
+  public Set<String> getReservedHiveNames() {
     return setStringHashSetLowerCase(DEFAULT_RESERVED_HIVE_NAMES, ",", true);
   }
   
-  public synchronized String getProjectNameReservedWords() {
-    checkCache();
-    return (RESERVED_PROJECT_NAMES_STR + ", " + DEFAULT_RESERVED_HIVE_NAMES).toLowerCase();
+  public String getProjectNameReservedWords() {
+    return (values().RESERVED_PROJECT_NAMES_STR + ", " + DEFAULT_RESERVED_HIVE_NAMES).toLowerCase();
   }
   
   //Only for unit test
-  public synchronized String getProjectNameReservedWordsTest() {
+  public String getProjectNameReservedWordsTest() {
     return (DEFAULT_RESERVED_PROJECT_NAMES + ", " + DEFAULT_RESERVED_HIVE_NAMES).toLowerCase();
   }
   
-  // OpenSearch
-  OpenSearchSettings OPENSEARCH_SETTINGS;
-
-  public synchronized boolean isOpenSearchSecurityEnabled() {
-    checkCache();
-    return OPENSEARCH_SETTINGS.isOpenSearchSecurityEnabled();
+  public boolean isOpenSearchSecurityEnabled() {
+    return values().OPENSEARCH_SETTINGS.isOpenSearchSecurityEnabled();
   }
   
-  public synchronized boolean isOpenSearchHTTPSEnabled() {
-    checkCache();
-    return OPENSEARCH_SETTINGS.isHttpsEnabled();
+  public boolean isOpenSearchHTTPSEnabled() {
+    return values().OPENSEARCH_SETTINGS.isHttpsEnabled();
   }
   
-  public synchronized String getOpenSearchAdminUser() {
-    checkCache();
-    return OPENSEARCH_SETTINGS.getAdminUser();
+  public String getOpenSearchAdminUser() {
+    return values().OPENSEARCH_SETTINGS.getAdminUser();
   }
 
-  public synchronized String getOpenSearchServiceLogUser() {
-    checkCache();
-    return OPENSEARCH_SETTINGS.getServiceLogUser();
+  public String getOpenSearchServiceLogUser() {
+    return values().OPENSEARCH_SETTINGS.getServiceLogUser();
   }
   
-  public synchronized String getOpenSearchAdminPassword() {
-    checkCache();
-    return OPENSEARCH_SETTINGS.getAdminPassword();
+  public String getOpenSearchAdminPassword() {
+    return values().OPENSEARCH_SETTINGS.getAdminPassword();
   }
   
-  public synchronized boolean isOpenSearchJWTEnabled() {
-    checkCache();
-    return OPENSEARCH_SETTINGS.isOpenSearchJWTEnabled();
+  public boolean isOpenSearchJWTEnabled() {
+    return values().OPENSEARCH_SETTINGS.isOpenSearchJWTEnabled();
   }
   
-  public synchronized String getOpenSearchJwtUrlParameter() {
-    checkCache();
-    return OPENSEARCH_SETTINGS.getOpenSearchJWTURLParameter();
+  public String getOpenSearchJwtUrlParameter() {
+    return values().OPENSEARCH_SETTINGS.getOpenSearchJWTURLParameter();
   }
   
-  public synchronized long getOpenSearchJwtExpMs() {
-    checkCache();
-    return OPENSEARCH_SETTINGS.getOpenSearchJWTExpMs();
+  public long getOpenSearchJwtExpMs() {
+    return values().OPENSEARCH_SETTINGS.getOpenSearchJWTExpMs();
   }
   
-  public synchronized Integer getOpenSearchDefaultScrollPageSize() {
-    checkCache();
-    return OPENSEARCH_SETTINGS.getDefaultScrollPageSize();
+  public Integer getOpenSearchDefaultScrollPageSize() {
+    return values().OPENSEARCH_SETTINGS.getDefaultScrollPageSize();
   }
   
-  public synchronized Integer getOpenSearchMaxScrollPageSize() {
-    checkCache();
-    return OPENSEARCH_SETTINGS.getMaxScrollPageSize();
+  public Integer getOpenSearchMaxScrollPageSize() {
+    return values().OPENSEARCH_SETTINGS.getMaxScrollPageSize();
   }
 
-  private long OpenSearch_LOGS_INDEX_EXPIRATION = 7 * 24 * 60 * 60 * 1000;
-
-  public synchronized long getOpenSearchLogsIndexExpiration() {
-    checkCache();
-    return OpenSearch_LOGS_INDEX_EXPIRATION;
+  public long getOpenSearchLogsIndexExpiration() {
+    return values().OpenSearch_LOGS_INDEX_EXPIRATION;
   }
 
   public static final long JOB_LOGS_DISPLAY_SIZE = 1000000;
 
-  // CertificateMaterializer service. Delay for deleting crypto material from
-  // the local filesystem. The lower the value the more frequent we reach DB
-  // for materialization
-  // Suffix, defaults to minutes if omitted:
-  // ms: milliseconds
-  // s: seconds
-  // m: minutes (default)
-  // h: hours
-  // d: days
-  private String CERTIFICATE_MATERIALIZER_DELAY = "1m";
+  public String getCertificateMaterializerDelay() {
+    return values().CERTIFICATE_MATERIALIZER_DELAY;
+  }
 
-  public synchronized String getCertificateMaterializerDelay() {
-    checkCache();
-    return CERTIFICATE_MATERIALIZER_DELAY;
+  public int getKeyPairPoolSize() {
+    return values().KEY_PAIR_POOL_SIZE;
   }
 
-  private String SERVICE_DISCOVERY_DOMAIN = "consul";
-  public synchronized String getServiceDiscoveryDomain() {
-    checkCache();
-    return SERVICE_DISCOVERY_DOMAIN;
+  public String getServiceDiscoveryDomain() {
+    return values().SERVICE_DISCOVERY_DOMAIN;
   }
 
   // Kibana
@@ -1642,177 +2127,115 @@ public class Settings implements Serializable {
   }
   
   public String getKibanaAppUri(String jwtToken) {
-    return  getKibanaAppUri() + OPENSEARCH_SETTINGS.getOpenSearchJWTURLParameter() + "=" + jwtToken + "&";
+    return  getKibanaAppUri() + values().OPENSEARCH_SETTINGS.getOpenSearchJWTURLParameter() + "=" + jwtToken + "&";
   }
 
-  /*
-   * Comma-separated list of user emails that should not be persisted in the
-   * userlogins table for auditing.
-   * kagent -> agent@hops.io
-   */
-  private String WHITELIST_USERS_LOGIN = "agent@hops.io";
-
-  public synchronized String getWhitelistUsersLogin() {
-    checkCache();
-    return WHITELIST_USERS_LOGIN;
+  public String getWhitelistUsersLogin() {
+    return values().WHITELIST_USERS_LOGIN;
   }
 
-  // Jupyter
-  private String JUPYTER_DIR = "/srv/hops/jupyter";
-
-  public synchronized String getJupyterDir() {
-    checkCache();
-    return JUPYTER_DIR;
+  public String getJupyterDir() {
+    return values().JUPYTER_DIR;
   }
 
-  private String JUPYTER_GROUP = "jupyter";
-
-  public synchronized String getJupyterGroup() {
-    checkCache();
-    return JUPYTER_GROUP;
+  public String getJupyterGroup() {
+    return values().JUPYTER_GROUP;
   }
 
-  private String JUPYTER_ORIGIN_SCHEME = "https";
-
-  public synchronized String getJupyterOriginScheme() {
-    checkCache();
-    return JUPYTER_ORIGIN_SCHEME;
+  public String getJupyterOriginScheme() {
+    return values().JUPYTER_ORIGIN_SCHEME;
   }
 
-  private long JUPYTER_WS_PING_INTERVAL_MS = 10000L;
-
-  public synchronized long getJupyterWSPingInterval() {
-    checkCache();
-    return JUPYTER_WS_PING_INTERVAL_MS;
+  public long getJupyterWSPingInterval() {
+    return values().JUPYTER_WS_PING_INTERVAL_MS;
   }
 
-  private String JUPYTER_REMOTE_FS_DRIVER = "hdfscontentsmanager";
-  public synchronized RemoteFSDriverType getJupyterRemoteFsManager() {
-    checkCache();
-    return RemoteFSDriverType.fromString(JUPYTER_REMOTE_FS_DRIVER);
+  public RemoteFSDriverType getJupyterRemoteFsManager() {
+    return RemoteFSDriverType.fromString(values().JUPYTER_REMOTE_FS_DRIVER);
   }
 
-  private boolean APPLY_HOPSFSMOUNT_APPARMOR_PROFILE_KUBE = true;
-  public synchronized boolean getApplyHopsfsMountApparmor() {
-    checkCache();
-    return APPLY_HOPSFSMOUNT_APPARMOR_PROFILE_KUBE;
+  public boolean getApplyHopsfsMountApparmor() {
+    return values().APPLY_HOPSFSMOUNT_APPARMOR_PROFILE_KUBE;
   }
 
-  private String HOPSFSMOUNT_APPARMOR_PROFILE = "hopsworks-hopsfsmount-docker";
-  public synchronized String getHopsfsMountApparmorProfile() {
-    checkCache();
-    return HOPSFSMOUNT_APPARMOR_PROFILE;
+  public String getHopsfsMountApparmorProfile() {
+    return values().HOPSFSMOUNT_APPARMOR_PROFILE;
   }
 
-  private Integer PROMETHEUS_PORT = 9089;
-  public synchronized Integer getPrometheusPort() {
-    checkCache();
-    return PROMETHEUS_PORT;
+  public Integer getPrometheusPort() {
+    return values().PROMETHEUS_PORT;
   }
 
   //Git
   private String GIT_DIR = "/srv/hops/git";
 
-  public synchronized String getGitDir() {
-    checkCache();
+  public String getGitDir() {
     return GIT_DIR;
   }
 
-  private Integer GIT_MAX_COMMAND_TIMEOUT_MINUTES = 60;
-  public synchronized long getGitJwtExpMs() {
-    checkCache();
-    return GIT_MAX_COMMAND_TIMEOUT_MINUTES * 60 * 1000;
+  public long getGitJwtExpMs() {
+    return values().GIT_MAX_COMMAND_TIMEOUT_MINUTES * 60 * 1000;
   }
 
-  private Boolean ENABLE_GIT_READ_ONLY_REPOSITORIES = false;
-  public synchronized Boolean getEnableGitReadOnlyRepositories() {
-    checkCache();
-    return ENABLE_GIT_READ_ONLY_REPOSITORIES;
+  public Boolean getEnableGitReadOnlyRepositories() {
+    return values().ENABLE_GIT_READ_ONLY_REPOSITORIES;
   }
 
-  private String GIT_IMAGE_VERSION = "0.3.0";
-  public synchronized String getGitImageName() {
-    checkCache();
-    return "git:" + GIT_IMAGE_VERSION;
+  public String getGitImageName() {
+    return "git:" + values().GIT_IMAGE_VERSION;
   }
 
-  private boolean DOCKER_CGROUP_ENABLED = false;
-  public synchronized boolean isDockerCgroupEnabled() {
-    checkCache();
-    return DOCKER_CGROUP_ENABLED;
+  public boolean isDockerCgroupEnabled() {
+    return values().DOCKER_CGROUP_ENABLED;
   }
 
-  private String DOCKER_CGROUP_MEMORY_LIMIT = "6GB";
-  public synchronized String getDockerCgroupMemoryLimit() {
-    checkCache();
-    return DOCKER_CGROUP_MEMORY_LIMIT;
+  public String getDockerCgroupMemoryLimit() {
+    return values().DOCKER_CGROUP_MEMORY_LIMIT;
   }
 
-  private String DOCKER_CGROUP_MEMORY_SOFT_LIMIT = "2GB";
-  public synchronized String getDockerCgroupSoftLimit() {
-    checkCache();
-    return DOCKER_CGROUP_MEMORY_SOFT_LIMIT;
+  public String getDockerCgroupSoftLimit() {
+    return values().DOCKER_CGROUP_MEMORY_SOFT_LIMIT;
   }
 
-  private Double DOCKER_CGROUP_CPU_QUOTA = 100.0;
-  public synchronized Double getDockerCgroupCpuQuota() {
-    checkCache();
-    return DOCKER_CGROUP_CPU_QUOTA;
+  public Double getDockerCgroupCpuQuota() {
+    return values().DOCKER_CGROUP_CPU_QUOTA;
   }
 
-  private Integer DOCKER_CGROUP_CPU_PERIOD = 100000;
-  public synchronized Integer getDockerCgroupCpuPeriod() {
-    checkCache();
-    return DOCKER_CGROUP_CPU_PERIOD;
+  public Integer getDockerCgroupCpuPeriod() {
+    return values().DOCKER_CGROUP_CPU_PERIOD;
   }
 
-  private String DOCKER_CGROUP_MONITOR_INTERVAL = "10m";
-  public synchronized String getDockerCgroupIntervalMonitor() {
-    checkCache();
-    return DOCKER_CGROUP_MONITOR_INTERVAL;
+  public String getDockerCgroupIntervalMonitor() {
+    return values().DOCKER_CGROUP_MONITOR_INTERVAL;
   }
 
-  private String DOCKER_CGROUP_PARENT = "docker.slice";
-  public synchronized String getDockerCgroupParent() {
-    checkCache();
-    return DOCKER_CGROUP_PARENT;
+  public String getDockerCgroupParent() {
+    return values().DOCKER_CGROUP_PARENT;
   }
 
   // Service key rotation interval
   private static final String JUPYTER_SHUTDOWN_TIMER_INTERVAL = "jupyter_shutdown_timer_interval";
-  private String jupyterShutdownTimerInterval = "30m";
 
-  public synchronized String getJupyterShutdownTimerInterval() {
-    checkCache();
-    return jupyterShutdownTimerInterval;
+  public String getJupyterShutdownTimerInterval() {
+    return values().jupyterShutdownTimerInterval;
   }
 
-  private String KAFKA_USER = "kafka";
-
-  public synchronized String getKafkaUser() {
-    checkCache();
-    return KAFKA_USER;
+  public String getKafkaUser() {
+    return values().KAFKA_USER;
   }
 
-  private String KAFKA_DIR = "/srv/kafka";
-
-  public synchronized String getKafkaDir() {
-    checkCache();
-    return KAFKA_DIR;
+  public String getKafkaDir() {
+    return values().KAFKA_DIR;
   }
 
-  private String ANACONDA_DIR = "/srv/hops/anaconda";
-
-  public synchronized String getAnacondaDir() {
-    checkCache();
-    return ANACONDA_DIR;
+  public String getAnacondaDir() {
+    return values().ANACONDA_DIR;
   }
 
   public static final String DOCKER_CUSTOM_COMMANDS_POST_BUILD_ARTIFACT_DIR_SUFFIX = "_conda_build";
   public static final String DOCKER_CUSTOM_COMMANDS_TEMPLATE_NAME = "custom_docker_commands_template";
   public static final String DOCKER_CUSTOM_COMMANDS_GENERATED_FILE_NAME = "docker_commands_generated";
 
-
   private String condaEnvName = "theenv";
   /**
    * Constructs the path to the project environment in Anaconda
@@ -1828,44 +2251,35 @@ public class Settings implements Serializable {
     return condaEnvName;
   }
   
-  private Boolean ANACONDA_ENABLED = true;
-
-  public synchronized Boolean isAnacondaEnabled() {
-    checkCache();
-    return ANACONDA_ENABLED;
+  public Boolean isAnacondaEnabled() {
+    return values().ANACONDA_ENABLED;
   }
 
-  private Boolean DOWNLOAD_ALLOWED = true;
-  public synchronized Boolean isDownloadAllowed() {
-    checkCache();
-    return DOWNLOAD_ALLOWED;
+  /**
+   * @return the maximum number of library installs and uninstalls of a project applied in a single image build
+   */
+  public int getCondaMaxCoalescedCommands() {
+    return values().CONDA_MAX_COALESCED_COMMANDS;
   }
 
-
-  private RESTLogLevel HOPSWORKS_REST_LOG_LEVEL = RESTLogLevel.PROD;
-
-  public synchronized RESTLogLevel getHopsworksRESTLogLevel() {
-    checkCache();
-    return HOPSWORKS_REST_LOG_LEVEL;
+  public Boolean isDownloadAllowed() {
+    return values().DOWNLOAD_ALLOWED;
   }
 
-  private String FIRST_TIME_LOGIN = "0";
-
-  public synchronized String getFirstTimeLogin() {
-    checkCache();
-    return FIRST_TIME_LOGIN;
+  public RESTLogLevel getHopsworksRESTLogLevel() {
+    return values().HOPSWORKS_REST_LOG_LEVEL;
   }
 
+  public String getFirstTimeLogin() {
+    return values().FIRST_TIME_LOGIN;
+  }
 
-  private String ADMIN_EMAIL = "admin@hopsworks.ai";
-
-  public synchronized String getAdminEmail() {
-    checkCache();
-    return ADMIN_EMAIL;
+  public String getAdminEmail() {
+    return values().ADMIN_EMAIL;
   }
   
-  public synchronized boolean isDefaultAdminPasswordChanged() {
-    Users user = userFacade.findByEmail(ADMIN_EMAIL);
+  public boolean isDefaultAdminPasswordChanged() {
+    Users user = userFacade.findByEmail(values().ADMIN_EMAIL);
     if (user != null) {
       String DEFAULT_ADMIN_PWD = "12fa520ec8f65d3a6feacfa97a705e622e1fea95b80b521ec016e43874dfed5a";
       return !DEFAULT_ADMIN_PWD.equals(user.getPassword());
@@ -1873,32 +2287,20 @@ public class Settings implements Serializable {
     return false;
   }
 
-  private String HOPSWORKS_DEFAULT_SSL_MASTER_PASSWORD = "adminpw";
-
-  public synchronized String getHopsworksMasterPasswordSsl() {
-    checkCache();
-    return HOPSWORKS_DEFAULT_SSL_MASTER_PASSWORD;
+  public String getHopsworksMasterPasswordSsl() {
+    return values().HOPSWORKS_DEFAULT_SSL_MASTER_PASSWORD;
   }
 
-  private Integer KAFKA_DEFAULT_NUM_PARTITIONS = 2;
-  private Integer KAFKA_DEFAULT_NUM_REPLICAS = 1;
-
-  public synchronized Integer getKafkaDefaultNumPartitions() {
-    checkCache();
-    return KAFKA_DEFAULT_NUM_PARTITIONS;
+  public Integer getKafkaDefaultNumPartitions() {
+    return values().KAFKA_DEFAULT_NUM_PARTITIONS;
   }
 
-  public synchronized Integer getKafkaDefaultNumReplicas() {
-    checkCache();
-    return KAFKA_DEFAULT_NUM_REPLICAS;
+  public Integer getKafkaDefaultNumReplicas() {
+    return values().KAFKA_DEFAULT_NUM_REPLICAS;
   }
 
-  // HOPSWORKS-3158
-  private String HOPSWORKS_PUBLIC_HOST = "";
-  
   public String getHopsworksPublicHost() {
-    checkCache();
-    return HOPSWORKS_PUBLIC_HOST;
+    return values().HOPSWORKS_PUBLIC_HOST;
   }
 
   // Hopsworks
@@ -1975,8 +2377,6 @@ public class Settings implements Serializable {
   public static final String HOPSWORKS_OPENSEARCH_ENDPOINT_PROPERTY = "hopsworks.opensearch.endpoint";
   public static final String HOPSWORKS_DOMAIN_CA_TRUSTSTORE_PROPERTY = "hopsworks.domain.truststore";
 
-  private int FILE_PREVIEW_IMAGE_SIZE = 10000000;
-  private int FILE_PREVIEW_TXT_SIZE = 100;
   public static final int FILE_PREVIEW_TXT_SIZE_BYTES = 1024 * 384;
   public static final String README_TEMPLATE = "*This is an auto-generated README.md"
       + " file for your Dataset!*\n"
@@ -2035,9 +2435,8 @@ public class Settings implements Serializable {
    *
    * @return file size
    */
-  public synchronized int getFilePreviewImageSize() {
-    checkCache();
-    return FILE_PREVIEW_IMAGE_SIZE;
+  public int getFilePreviewImageSize() {
+    return values().FILE_PREVIEW_IMAGE_SIZE;
   }
 
   /**
@@ -2045,9 +2444,39 @@ public class Settings implements Serializable {
    *
    * @return file size
    */
-  public synchronized int getFilePreviewTxtSize() {
-    checkCache();
-    return FILE_PREVIEW_TXT_SIZE;
+  public int getFilePreviewTxtSize() {
+    return values().FILE_PREVIEW_TXT_SIZE;
+  }
+
+  /**
+   * Returns the maximum number of characters of the rendered previews kept in memory.
+   *
+   * @return number of characters
+   */
+  public long getFilePreviewCacheMaxWeight() {
+    return values().FILE_PREVIEW_CACHE_MAX_WEIGHT;
+  }
+
+  /**
+   * Returns the maximum number of batches of permission and ownership changes sent in parallel for one tree.
+   *
+   * @return number of workers
+   */
+  public int getRecursivePermissionMaxWorkers() {
+    return values().RECURSIVE_PERMISSION_MAX_WORKERS;
+  }
+
+  /**
+   * Returns the maximum number of alerts waiting to be sent to the Alertmanager, new alerts are dropped above it.
+   *
+   * @return
+   */
+  public int getAlertOutboxMaxSize() {
+    return values().ALERT_OUTBOX_MAX_SIZE;
+  }
+
+  public int getAlertOutboxBatchSize() {
+    return values().ALERT_OUTBOX_BATCH_SIZE;
   }
 
   //Project creation: default datasets
@@ -2102,11 +2531,9 @@ public class Settings implements Serializable {
   }
 
   public static final String JUPYTER_PIDS = "/tmp/jupyterNotebookServer.pids";
-  private String RESOURCE_DIRS = ".sparkStaging;spark-warehouse;.flinkStaging;.flinkCheckpoints";
 
-  public synchronized String getResourceDirs() {
-    checkCache();
-    return RESOURCE_DIRS;
+  public String getResourceDirs() {
+    return values().RESOURCE_DIRS;
   }
 
   public Settings() {
@@ -2221,18 +2648,19 @@ public class Settings implements Serializable {
     }
   }
 
-  private int KAFKA_MAX_NUM_TOPICS = 10;
-
-  public synchronized int getKafkaMaxNumTopics() {
-    checkCache();
-    return KAFKA_MAX_NUM_TOPICS;
+  public int getKafkaMaxNumTopics() {
+    return values().KAFKA_MAX_NUM_TOPICS;
   }
 
-  private int MAX_STATUS_POLL_RETRY = 5;
+  public int getMaxStatusPollRetry() {
+    return values().MAX_STATUS_POLL_RETRY;
+  }
 
-  public synchronized int getMaxStatusPollRetry() {
-    checkCache();
-    return MAX_STATUS_POLL_RETRY;
+  /**
+   * Maximum number of concurrent workers used by the YARN jobs monitor to process application reports.
+   */
+  public int getYarnMonitorParallelism() {
+    return values().YARN_MONITOR_PARALLELISM;
   }
 
   /**
@@ -2262,39 +2690,24 @@ public class Settings implements Serializable {
     return aggregatedLogPath;
   }
 
-  private String PYPI_REST_ENDPOINT = "https://pypi.org/pypi/{package}/json";
-
-  public synchronized String getPyPiRESTEndpoint() {
-    checkCache();
-    return PYPI_REST_ENDPOINT;
+  public String getPyPiRESTEndpoint() {
+    return values().PYPI_REST_ENDPOINT;
   }
 
-  private String PYPI_INDEXER_TIMER_INTERVAL = "1d";
-
-  public synchronized String getPyPiIndexerTimerInterval() {
-    checkCache();
-    return PYPI_INDEXER_TIMER_INTERVAL;
+  public String getPyPiIndexerTimerInterval() {
+    return values().PYPI_INDEXER_TIMER_INTERVAL;
   }
 
-  private String PYPI_SIMPLE_ENDPOINT = "https://pypi.org/simple/";
-
-  public synchronized String getPyPiSimpleEndpoint() {
-    checkCache();
-    return PYPI_SIMPLE_ENDPOINT;
+  public String getPyPiSimpleEndpoint() {
+    return values().PYPI_SIMPLE_ENDPOINT;
   }
 
-  private boolean PYPI_INDEXER_TIMER_ENABLED = true;
-
-  public synchronized boolean isPyPiIndexerTimerEnabled() {
-    checkCache();
-    return PYPI_INDEXER_TIMER_ENABLED;
+  public boolean isPyPiIndexerTimerEnabled() {
+    return values().PYPI_INDEXER_TIMER_ENABLED;
   }
 
-  private String PYTHON_LIBRARY_UPDATES_MONITOR_INTERVAL = "1d";
-
-  public synchronized String getPythonLibraryUpdatesMonitorInterval() {
-    checkCache();
-    return PYTHON_LIBRARY_UPDATES_MONITOR_INTERVAL;
+  public String getPythonLibraryUpdatesMonitorInterval() {
+    return values().PYTHON_LIBRARY_UPDATES_MONITOR_INTERVAL;
   }
 
   private static final String VARIABLE_HOPSWORKS_PUBLIC_HOST = "hopsworks_public_host";
@@ -2303,21 +2716,10 @@ public class Settings implements Serializable {
 
   public static final String README_FILE = "README.md";
   
-  public synchronized Boolean isDelaEnabled() {
-    checkCache();
+  public Boolean isDelaEnabled() {
     return DELA_ENABLED;
   }
   
-  private void populateServiceJWTCache() {
-    SERVICE_MASTER_JWT = setStrVar(VARIABLE_SERVICE_MASTER_JWT, SERVICE_MASTER_JWT);
-    RENEW_TOKENS = new String[NUM_OF_SERVICE_RENEW_TOKENS];
-    for (int i = 0; i < NUM_OF_SERVICE_RENEW_TOKENS; i++) {
-      String variableKey = String.format(SERVICE_RENEW_TOKEN_VARIABLE_TEMPLATE, i);
-      String token = setStrVar(variableKey, "");
-      RENEW_TOKENS[i] = token;
-    }
-  }
-  
   //************************************************ZOOKEEPER********************************************************
   public static final int ZOOKEEPER_SESSION_TIMEOUT_MS = 30 * 1000;//30 seconds
   //Zookeeper END
@@ -2368,214 +2770,108 @@ public class Settings implements Serializable {
   private static final String VARIABLE_MANAGED_CLOUD_REDIRECT_URI = "managed_cloud_redirect_uri";
   private static final String VARIABLE_MANAGED_CLOUD_PROVIDER_NAME = "managed_cloud_provider_name";
   
-  private String KRB_AUTH = "false";
-  private String LDAP_AUTH = "false";
-  private boolean IS_KRB_ENABLED = false;
-  private boolean IS_LDAP_ENABLED = false;
-  private String LDAP_GROUP_MAPPING = "";
-  private String LDAP_USER_ID = "uid"; //login name
-  private String LDAP_USER_GIVEN_NAME = "givenName";
-  private String LDAP_USER_SURNAME = "sn";
-  private String LDAP_USER_EMAIL = "mail";
-  private String LDAP_USER_SEARCH_FILTER = "uid=%s";
-  private String LDAP_GROUP_SEARCH_FILTER = "member=%d";
-  private String LDAP_KRB_USER_SEARCH_FILTER = "krbPrincipalName=%s";
-  private String LDAP_ATTR_BINARY = "java.naming.ldap.attributes.binary";
-  private String LDAP_GROUP_TARGET = "cn";
-  private String LDAP_DYNAMIC_GROUP_TARGET = "memberOf";
   private String LDAP_USER_DN_DEFAULT = "";
   private String LDAP_GROUP_DN_DEFAULT = "";
-  private String LDAP_USER_DN = LDAP_USER_DN_DEFAULT;
-  private String LDAP_GROUP_DN = LDAP_GROUP_DN_DEFAULT;
-  private String LDAP_GROUPS_TARGET = "distinguishedName";
-  private String LDAP_GROUPS_SEARCH_FILTER = "(&(objectCategory=group)(cn=%c))";
-  private String LDAP_GROUP_MEMBERS_SEARCH_FILTER = "(&(objectCategory=user)(memberOf=%d))";
-  private int LDAP_ACCOUNT_STATUS = 1;
-  private String OAUTH_ENABLED = "false";
-  private boolean IS_OAUTH_ENABLED = false;
-  private String OAUTH_GROUP_MAPPING = "";
   private String OAUTH_REDIRECT_URI_PATH = "hopsworks/callback";
   private String OAUTH_LOGOUT_REDIRECT_URI_PATH = "hopsworks/";
-  private String OAUTH_REDIRECT_URI = OAUTH_REDIRECT_URI_PATH;
-  private String OAUTH_LOGOUT_REDIRECT_URI = OAUTH_LOGOUT_REDIRECT_URI_PATH;
-  private int OAUTH_ACCOUNT_STATUS = 1;
-  private long LDAP_GROUP_MAPPING_SYNC_INTERVAL = 0;
-  
-  private boolean REMOTE_AUTH_NEED_CONSENT = true;
-  
-  private boolean DISABLE_PASSWORD_LOGIN = false;
-  private boolean DISABLE_REGISTRATION = false;
-  private boolean VALIDATE_REMOTE_USER_EMAIL_VERIFIED = false;
-
-  private String MANAGED_CLOUD_REDIRECT_URI = "";
-  private String MANAGED_CLOUD_PROVIDER_NAME = "hopsworks.ai";
-  
-  private void populateLDAPCache() {
-    KRB_AUTH = setVar(VARIABLE_KRB_AUTH, KRB_AUTH);
-    LDAP_AUTH = setVar(VARIABLE_LDAP_AUTH, LDAP_AUTH);
-    LDAP_GROUP_MAPPING = setVar(VARIABLE_LDAP_GROUP_MAPPING, LDAP_GROUP_MAPPING);
-    LDAP_USER_ID = setVar(VARIABLE_LDAP_USER_ID, LDAP_USER_ID);
-    LDAP_USER_GIVEN_NAME = setVar(VARIABLE_LDAP_USER_GIVEN_NAME, LDAP_USER_GIVEN_NAME);
-    LDAP_USER_SURNAME = setVar(VARIABLE_LDAP_USER_SURNAME, LDAP_USER_SURNAME);
-    LDAP_USER_EMAIL = setVar(VARIABLE_LDAP_USER_EMAIL, LDAP_USER_EMAIL);
-    LDAP_ACCOUNT_STATUS = setIntVar(VARIABLE_LDAP_ACCOUNT_STATUS, LDAP_ACCOUNT_STATUS);
-    LDAP_USER_SEARCH_FILTER = setVar(VARIABLE_LDAP_USER_SEARCH_FILTER, LDAP_USER_SEARCH_FILTER);
-    LDAP_GROUP_SEARCH_FILTER = setVar(VARIABLE_LDAP_GROUP_SEARCH_FILTER, LDAP_GROUP_SEARCH_FILTER);
-    LDAP_KRB_USER_SEARCH_FILTER = setVar(VARIABLE_LDAP_KRB_USER_SEARCH_FILTER, LDAP_KRB_USER_SEARCH_FILTER);
-    LDAP_ATTR_BINARY = setVar(VARIABLE_LDAP_ATTR_BINARY, LDAP_ATTR_BINARY);
-    LDAP_GROUP_TARGET = setVar(VARIABLE_LDAP_GROUP_TARGET, LDAP_GROUP_TARGET);
-    LDAP_DYNAMIC_GROUP_TARGET = setVar(VARIABLE_LDAP_DYNAMIC_GROUP_TARGET, LDAP_DYNAMIC_GROUP_TARGET);
-    LDAP_USER_DN = setStrVar(VARIABLE_LDAP_USERDN, LDAP_USER_DN_DEFAULT);
-    LDAP_GROUP_DN = setStrVar(VARIABLE_LDAP_GROUPDN, LDAP_GROUP_DN_DEFAULT);
-    LDAP_GROUPS_TARGET = setVar(VARIABLE_LDAP_GROUPS_TARGET, LDAP_GROUPS_TARGET);
-    LDAP_GROUPS_SEARCH_FILTER = setStrVar(VARIABLE_LDAP_GROUPS_SEARCH_FILTER, LDAP_GROUPS_SEARCH_FILTER);
-    LDAP_GROUP_MEMBERS_SEARCH_FILTER =
-      setStrVar(VARIABLE_LDAP_GROUP_MEMBERS_SEARCH_FILTER, LDAP_GROUP_MEMBERS_SEARCH_FILTER);
-    IS_KRB_ENABLED = setBoolVar(VARIABLE_KRB_AUTH, IS_KRB_ENABLED);
-    IS_LDAP_ENABLED = setBoolVar(VARIABLE_LDAP_AUTH, IS_LDAP_ENABLED);
-    OAUTH_ENABLED = setStrVar(VARIABLE_OAUTH_ENABLED, OAUTH_ENABLED);
-    IS_OAUTH_ENABLED = setBoolVar(VARIABLE_OAUTH_ENABLED, IS_OAUTH_ENABLED);
-    OAUTH_REDIRECT_URI = setStrVar(VARIABLE_OAUTH_REDIRECT_URI, OAUTH_REDIRECT_URI);
-    OAUTH_LOGOUT_REDIRECT_URI = setStrVar(VARIABLE_OAUTH_LOGOUT_REDIRECT_URI, OAUTH_LOGOUT_REDIRECT_URI);
-    OAUTH_ACCOUNT_STATUS = setIntVar(VARIABLE_OAUTH_ACCOUNT_STATUS, OAUTH_ACCOUNT_STATUS);
-    OAUTH_GROUP_MAPPING = setStrVar(VARIABLE_OAUTH_GROUP_MAPPING, OAUTH_GROUP_MAPPING);
-  
-    REMOTE_AUTH_NEED_CONSENT = setBoolVar(VARIABLE_REMOTE_AUTH_NEED_CONSENT, REMOTE_AUTH_NEED_CONSENT);
-    
-    DISABLE_PASSWORD_LOGIN = setBoolVar(VARIABLE_DISABLE_PASSWORD_LOGIN, DISABLE_PASSWORD_LOGIN);
-    DISABLE_REGISTRATION = setBoolVar(VARIABLE_DISABLE_REGISTRATION, DISABLE_REGISTRATION);
-    DISABLE_REGISTRATION_UI = setBoolVar(VARIABLE_DISABLE_REGISTRATION_UI, DISABLE_REGISTRATION_UI);
   
-    LDAP_GROUP_MAPPING_SYNC_INTERVAL = setLongVar(VARIABLE_LDAP_GROUP_MAPPING_SYNC_INTERVAL,
-      LDAP_GROUP_MAPPING_SYNC_INTERVAL);
-  
-    VALIDATE_REMOTE_USER_EMAIL_VERIFIED =
-      setBoolVar(VARIABLE_VALIDATE_REMOTE_USER_EMAIL_VERIFIED, VALIDATE_REMOTE_USER_EMAIL_VERIFIED);
-    
-    MANAGED_CLOUD_REDIRECT_URI = setStrVar(VARIABLE_MANAGED_CLOUD_REDIRECT_URI, MANAGED_CLOUD_REDIRECT_URI);
-    MANAGED_CLOUD_PROVIDER_NAME = setStrVar(VARIABLE_MANAGED_CLOUD_PROVIDER_NAME, MANAGED_CLOUD_PROVIDER_NAME);
-  }
-
-  public synchronized String getKRBAuthStatus() {
-    checkCache();
-    return KRB_AUTH;
+  public String getKRBAuthStatus() {
+    return values().KRB_AUTH;
   }
 
-  public synchronized String getLDAPAuthStatus() {
-    checkCache();
-    return LDAP_AUTH;
+  public String getLDAPAuthStatus() {
+    return values().LDAP_AUTH;
   }
 
-  public synchronized  boolean isKrbEnabled() {
-    checkCache();
-    return IS_KRB_ENABLED;
+  public boolean isKrbEnabled() {
+    return values().IS_KRB_ENABLED;
   }
 
-  public synchronized  boolean isLdapEnabled() {
-    checkCache();
-    return IS_LDAP_ENABLED;
+  public boolean isLdapEnabled() {
+    return values().IS_LDAP_ENABLED;
   }
 
-  public synchronized String getLdapGroupMapping() {
-    checkCache();
-    return LDAP_GROUP_MAPPING;
+  public String getLdapGroupMapping() {
+    return values().LDAP_GROUP_MAPPING;
   }
 
-  public synchronized String getLdapUserId() {
-    checkCache();
-    return LDAP_USER_ID;
+  public String getLdapUserId() {
+    return values().LDAP_USER_ID;
   }
 
-  public synchronized String getLdapUserGivenName() {
-    checkCache();
-    return LDAP_USER_GIVEN_NAME;
+  public String getLdapUserGivenName() {
+    return values().LDAP_USER_GIVEN_NAME;
   }
 
-  public synchronized String getLdapUserSurname() {
-    checkCache();
-    return LDAP_USER_SURNAME;
+  public String getLdapUserSurname() {
+    return values().LDAP_USER_SURNAME;
   }
 
-  public synchronized String getLdapUserMail() {
-    checkCache();
-    return LDAP_USER_EMAIL;
+  public String getLdapUserMail() {
+    return values().LDAP_USER_EMAIL;
   }
 
-  public synchronized String getLdapUserSearchFilter() {
-    checkCache();
-    return LDAP_USER_SEARCH_FILTER;
+  public String getLdapUserSearchFilter() {
+    return values().LDAP_USER_SEARCH_FILTER;
   }
 
-  public synchronized String getLdapGroupSearchFilter() {
-    checkCache();
-    return LDAP_GROUP_SEARCH_FILTER;
+  public String getLdapGroupSearchFilter() {
+    return values().LDAP_GROUP_SEARCH_FILTER;
   }
 
-  public synchronized String getKrbUserSearchFilter() {
-    checkCache();
-    return LDAP_KRB_USER_SEARCH_FILTER;
+  public String getKrbUserSearchFilter() {
+    return values().LDAP_KRB_USER_SEARCH_FILTER;
   }
 
-  public synchronized String getLdapAttrBinary() {
-    checkCache();
-    return LDAP_ATTR_BINARY;
+  public String getLdapAttrBinary() {
+    return values().LDAP_ATTR_BINARY;
   }
 
-  public synchronized String getLdapGroupTarget() {
-    checkCache();
-    return LDAP_GROUP_TARGET;
+  public String getLdapGroupTarget() {
+    return values().LDAP_GROUP_TARGET;
   }
 
-  public synchronized String getLdapDynGroupTarget() {
-    checkCache();
-    return LDAP_DYNAMIC_GROUP_TARGET;
+  public String getLdapDynGroupTarget() {
+    return values().LDAP_DYNAMIC_GROUP_TARGET;
   }
 
-  public synchronized String getLdapUserDN() {
-    checkCache();
-    return LDAP_USER_DN;
+  public String getLdapUserDN() {
+    return values().LDAP_USER_DN;
   }
 
-  public synchronized String getLdapGroupDN() {
-    checkCache();
-    return LDAP_GROUP_DN;
+  public String getLdapGroupDN() {
+    return values().LDAP_GROUP_DN;
   }
 
-  public synchronized int getLdapAccountStatus() {
-    checkCache();
-    return LDAP_ACCOUNT_STATUS;
+  public int getLdapAccountStatus() {
+    return values().LDAP_ACCOUNT_STATUS;
   }
   
-  public synchronized String getLdapGroupsTarget() {
-    checkCache();
-    return LDAP_GROUPS_TARGET;
+  public String getLdapGroupsTarget() {
+    return values().LDAP_GROUPS_TARGET;
   }
   
-  public synchronized String getLdapGroupsSearchFilter() {
-    checkCache();
-    return LDAP_GROUPS_SEARCH_FILTER;
+  public String getLdapGroupsSearchFilter() {
+    return values().LDAP_GROUPS_SEARCH_FILTER;
   }
   
-  public synchronized String getLdapGroupMembersFilter() {
-    checkCache();
-    return LDAP_GROUP_MEMBERS_SEARCH_FILTER;
+  public String getLdapGroupMembersFilter() {
+    return values().LDAP_GROUP_MEMBERS_SEARCH_FILTER;
   }
 
-  public synchronized  boolean isOAuthEnabled() {
-    checkCache();
-    return IS_OAUTH_ENABLED;
+  public boolean isOAuthEnabled() {
+    return values().IS_OAUTH_ENABLED;
   }
 
-  public synchronized String getOAuthGroupMapping() {
-    checkCache();
-    return OAUTH_GROUP_MAPPING;
+  public String getOAuthGroupMapping() {
+    return values().OAUTH_GROUP_MAPPING;
   }
   
   public void updateOAuthGroupMapping(String mapping) {
     updateVariableInternal(VARIABLE_OAUTH_GROUP_MAPPING, mapping, VariablesVisibility.ADMIN);
   }
   
-  public synchronized String getOauthRedirectUri(String providerName) {
+  public String getOauthRedirectUri(String providerName) {
     return getOauthRedirectUri(providerName, false);
   }
   
@@ -2583,23 +2879,21 @@ public class Settings implements Serializable {
    * when using oauth for hopsworks.ai we need to first redirect to hopsworks.ai
    * which then redirect to hopsworks.
    */
-  public synchronized String getOauthRedirectUri(String providerName, boolean skipManagedCloud) {
-    checkCache();
-    if (MANAGED_CLOUD_REDIRECT_URI.isEmpty() || skipManagedCloud || !Objects.equals(MANAGED_CLOUD_PROVIDER_NAME,
-      providerName)) {
-      return OAUTH_REDIRECT_URI;
+  public String getOauthRedirectUri(String providerName, boolean skipManagedCloud) {
+    Values values = values();
+    if (values.MANAGED_CLOUD_REDIRECT_URI.isEmpty() || skipManagedCloud
+      || !Objects.equals(values.MANAGED_CLOUD_PROVIDER_NAME, providerName)) {
+      return values.OAUTH_REDIRECT_URI;
     }
-    return MANAGED_CLOUD_REDIRECT_URI;
+    return values.MANAGED_CLOUD_REDIRECT_URI;
   }
   
-  public synchronized String getManagedCloudRedirectUri() {
-    checkCache();
-    return MANAGED_CLOUD_REDIRECT_URI;
+  public String getManagedCloudRedirectUri() {
+    return values().MANAGED_CLOUD_REDIRECT_URI;
   }
   
-  public synchronized String getManagedCloudProviderName() {
-    checkCache();
-    return MANAGED_CLOUD_PROVIDER_NAME;
+  public String getManagedCloudProviderName() {
+    return values().MANAGED_CLOUD_PROVIDER_NAME;
   }
   
   public void updateOauthRedirectUri(String uri) {
@@ -2607,9 +2901,8 @@ public class Settings implements Serializable {
             VariablesVisibility.ADMIN);
   }
   
-  public synchronized String getOauthLogoutRedirectUri() {
-    checkCache();
-    return OAUTH_LOGOUT_REDIRECT_URI;
+  public String getOauthLogoutRedirectUri() {
+    return values().OAUTH_LOGOUT_REDIRECT_URI;
   }
   
   public void addPathAndupdateOauthLogoutRedirectUri(String uri) {
@@ -2625,150 +2918,130 @@ public class Settings implements Serializable {
     updateVariableInternal(VARIABLE_MANAGED_CLOUD_REDIRECT_URI, uri , VariablesVisibility.ADMIN);
   }
   
-  public synchronized int getOAuthAccountStatus() {
-    checkCache();
-    return OAUTH_ACCOUNT_STATUS;
+  public int getOAuthAccountStatus() {
+    return values().OAUTH_ACCOUNT_STATUS;
   }
   
   public void updateOAuthAccountStatus(Integer val) {
     updateVariableInternal(VARIABLE_OAUTH_ACCOUNT_STATUS, val.toString(), VariablesVisibility.ADMIN);
   }
   
-  public synchronized  boolean shouldValidateEmailVerified() {
-    checkCache();
-    return VALIDATE_REMOTE_USER_EMAIL_VERIFIED;
+  public boolean shouldValidateEmailVerified() {
+    return values().VALIDATE_REMOTE_USER_EMAIL_VERIFIED;
   }
   
-  public synchronized  boolean remoteAuthNeedConsent() {
-    checkCache();
-    return REMOTE_AUTH_NEED_CONSENT;
+  public boolean remoteAuthNeedConsent() {
+    return values().REMOTE_AUTH_NEED_CONSENT;
   }
   
   public void updateRemoteAuthNeedConsent(boolean needConsent) {
     updateVariableInternal(VARIABLE_REMOTE_AUTH_NEED_CONSENT, Boolean.toString(needConsent), VariablesVisibility.ADMIN);
   }
 
-  public synchronized String getVarLdapAccountStatus() {
+  public String getVarLdapAccountStatus() {
     return VARIABLE_LDAP_ACCOUNT_STATUS;
   }
 
-  public synchronized String getVarLdapGroupMapping() {
+  public String getVarLdapGroupMapping() {
     return VARIABLE_LDAP_GROUP_MAPPING;
   }
 
-  public synchronized String getVarLdapUserId() {
+  public String getVarLdapUserId() {
     return VARIABLE_LDAP_USER_ID;
   }
 
-  public synchronized String getVarLdapUserGivenName() {
+  public String getVarLdapUserGivenName() {
     return VARIABLE_LDAP_USER_GIVEN_NAME;
   }
 
-  public synchronized String getVarLdapUserSurname() {
+  public String getVarLdapUserSurname() {
     return VARIABLE_LDAP_USER_SURNAME;
   }
 
-  public synchronized String getVarLdapUserMail() {
+  public String getVarLdapUserMail() {
     return VARIABLE_LDAP_USER_EMAIL;
   }
 
-  public synchronized String getVarLdapUserSearchFilter() {
+  public String getVarLdapUserSearchFilter() {
     return VARIABLE_LDAP_USER_SEARCH_FILTER;
   }
 
-  public synchronized String getVarLdapGroupSearchFilter() {
+  public String getVarLdapGroupSearchFilter() {
     return VARIABLE_LDAP_GROUP_SEARCH_FILTER;
   }
 
-  public synchronized String getVarKrbUserSearchFilter() {
+  public String getVarKrbUserSearchFilter() {
     return VARIABLE_LDAP_KRB_USER_SEARCH_FILTER;
   }
 
-  public synchronized String getVarLdapAttrBinary() {
+  public String getVarLdapAttrBinary() {
     return VARIABLE_LDAP_ATTR_BINARY;
   }
 
-  public synchronized String getVarLdapGroupTarget() {
+  public String getVarLdapGroupTarget() {
     return VARIABLE_LDAP_GROUP_TARGET;
   }
 
-  public synchronized String getVarLdapDynGroupTarget() {
+  public String getVarLdapDynGroupTarget() {
     return VARIABLE_LDAP_DYNAMIC_GROUP_TARGET;
   }
 
-  public synchronized String getVarLdapUserDN() {
+  public String getVarLdapUserDN() {
     return VARIABLE_LDAP_USERDN;
   }
 
-  public synchronized String getVarLdapGroupDN() {
+  public String getVarLdapGroupDN() {
     return VARIABLE_LDAP_GROUPDN;
   }
   
-  public synchronized  boolean isPasswordLoginDisabled() {
-    checkCache();
-    return DISABLE_PASSWORD_LOGIN;
+  public boolean isPasswordLoginDisabled() {
+    return values().DISABLE_PASSWORD_LOGIN;
   }
   
-  public synchronized  boolean isRegistrationDisabled() {
-    checkCache();
-    return DISABLE_REGISTRATION;
+  public boolean isRegistrationDisabled() {
+    return values().DISABLE_REGISTRATION;
   }
   
   public void updateRegistrationDisabled(boolean disable) {
     updateVariableInternal(VARIABLE_DISABLE_REGISTRATION, Boolean.toString(disable), VariablesVisibility.ADMIN);
   }
 
-  // Special flag to disable only registration UI but not the backend
-  // It is used in managed cloud when user management is MANAGED by hopsworks.ai
-  // Variable value is set during instance initialization by ec2-init
-  private boolean DISABLE_REGISTRATION_UI = false;
-  public synchronized boolean isRegistrationUIDisabled() {
-    checkCache();
-    return isRegistrationDisabled() || DISABLE_REGISTRATION_UI;
+  public boolean isRegistrationUIDisabled() {
+    return isRegistrationDisabled() || values().DISABLE_REGISTRATION_UI;
   }
 
-  public synchronized long ldapGroupMappingSyncInterval() {
-    checkCache();
-    return LDAP_GROUP_MAPPING_SYNC_INTERVAL;
+  public long ldapGroupMappingSyncInterval() {
+    return values().LDAP_GROUP_MAPPING_SYNC_INTERVAL;
   }
   
-  
   //----------------------------END remote user------------------------------------
 
   // Service key rotation enabled
   private static final String SERVICE_KEY_ROTATION_ENABLED_KEY = "service_key_rotation_enabled";
-  private boolean serviceKeyRotationEnabled = false;
 
-  public synchronized boolean isServiceKeyRotationEnabled() {
-    checkCache();
-    return serviceKeyRotationEnabled;
+  public boolean isServiceKeyRotationEnabled() {
+    return values().serviceKeyRotationEnabled;
   }
 
   // Service key rotation interval
   private static final String SERVICE_KEY_ROTATION_INTERVAL_KEY = "service_key_rotation_interval";
-  private String serviceKeyRotationInterval = "3d";
 
-  public synchronized String getServiceKeyRotationInterval() {
-    checkCache();
-    return serviceKeyRotationInterval;
+  public String getServiceKeyRotationInterval() {
+    return values().serviceKeyRotationInterval;
   }
 
  // TensorBoard kill rotation interval in milliseconds (should be lower than the TensorBoardKillTimer)
   private static final String TENSORBOARD_MAX_LAST_ACCESSED = "tensorboard_max_last_accessed";
-  private int tensorBoardMaxLastAccessed = 1140000;
 
-  public synchronized int getTensorBoardMaxLastAccessed() {
-    checkCache();
-    return tensorBoardMaxLastAccessed;
+  public int getTensorBoardMaxLastAccessed() {
+    return values().tensorBoardMaxLastAccessed;
   }
 
   // TensorBoard kill rotation interval in milliseconds
   private static final String SPARK_UI_LOGS_OFFSET = "spark_ui_logs_offset";
-  private int sparkUILogsOffset = 512000;
 
-  public synchronized int getSparkUILogsOffset() {
-    checkCache();
-    return sparkUILogsOffset;
+  public int getSparkUILogsOffset() {
+    return values().sparkUILogsOffset;
   }
 
   public Long getConfTimeValue(String configurationTime) {
@@ -2795,391 +3068,251 @@ public class Settings implements Serializable {
     return new HashSet<>(Splitter.on(separator).trimResults().splitToList(csv));
   }
 
-  // Libraries that should not be uninstallable
-  private Set<String> IMMUTABLE_PYTHON_LIBRARY_NAMES;
   private static final String VARIABLE_IMMUTABLE_PYTHON_LIBRARY_NAMES = "preinstalled_python_lib_names";
   private static final String DEFAULT_IMMUTABLE_PYTHON_LIBRARY_NAMES = "pydoop, pyspark, jupyterlab, sparkmagic, " +
       "hdfscontents, pyjks, hops-apache-beam, pyopenssl";
 
-  public synchronized Set<String> getImmutablePythonLibraryNames() {
-    checkCache();
-    return IMMUTABLE_PYTHON_LIBRARY_NAMES;
+  public Set<String> getImmutablePythonLibraryNames() {
+    return values().IMMUTABLE_PYTHON_LIBRARY_NAMES;
   }
 
-  private String HOPSWORKS_VERSION;
-
-  public synchronized String getHopsworksVersion() {
-    checkCache();
-    return HOPSWORKS_VERSION;
+  public String getHopsworksVersion() {
+    return values().HOPSWORKS_VERSION;
   }
 
-  private String KUBE_KSERVE_TENSORFLOW_VERSION;
-
-  public synchronized String getKServeTensorflowVersion() {
-    checkCache();
-    return KUBE_KSERVE_TENSORFLOW_VERSION;
+  public String getKServeTensorflowVersion() {
+    return values().KUBE_KSERVE_TENSORFLOW_VERSION;
   }
 
-  private String TENSORFLOW_VERSION;
-
-  public synchronized String getTensorflowVersion() {
-    checkCache();
-    return TENSORFLOW_VERSION;
+  public String getTensorflowVersion() {
+    return values().TENSORFLOW_VERSION;
   }
 
-  private String OPENSEARCH_VERSION;
-
-  public synchronized String getOpenSearchVersion() {
-    checkCache();
-    return OPENSEARCH_VERSION;
+  public String getOpenSearchVersion() {
+    return values().OPENSEARCH_VERSION;
   }
 
-  private String KAFKA_VERSION;
-
-  public synchronized String getKafkaVersion() {
-    checkCache();
-    return KAFKA_VERSION;
+  public String getKafkaVersion() {
+    return values().KAFKA_VERSION;
   }
 
-  private String EPIPE_VERSION;
-
-  public synchronized String getEpipeVersion() {
-    checkCache();
-    return EPIPE_VERSION;
+  public String getEpipeVersion() {
+    return values().EPIPE_VERSION;
   }
 
-  private String FLINK_VERSION;
-
-  public synchronized String getFlinkVersion() {
-    checkCache();
-    return FLINK_VERSION;
+  public String getFlinkVersion() {
+    return values().FLINK_VERSION;
   }
 
-  private String SPARK_VERSION;
-
-  public synchronized String getSparkVersion() {
-    checkCache();
-    return SPARK_VERSION;
+  public String getSparkVersion() {
+    return values().SPARK_VERSION;
   }
 
-  private String TEZ_VERSION;
-
-  public synchronized String getTezVersion() {
-    checkCache();
-    return TEZ_VERSION;
+  public String getTezVersion() {
+    return values().TEZ_VERSION;
   }
 
-  private String HIVE2_VERSION;
-
-  public synchronized String getHive2Version() {
-    checkCache();
-    return HIVE2_VERSION;
+  public String getHive2Version() {
+    return values().HIVE2_VERSION;
   }
 
-  private String LIVY_VERSION;
-
-  public synchronized String getLivyVersion() {
-    checkCache();
-    return LIVY_VERSION;
+  public String getLivyVersion() {
+    return values().LIVY_VERSION;
   }
 
-  private String NDB_VERSION;
-
-  public synchronized String getNdbVersion() {
-    checkCache();
-    return NDB_VERSION;
+  public String getNdbVersion() {
+    return values().NDB_VERSION;
   }
 
-  private String FILEBEAT_VERSION;
-
-  public synchronized String getFilebeatVersion() {
-    checkCache();
-    return FILEBEAT_VERSION;
+  public String getFilebeatVersion() {
+    return values().FILEBEAT_VERSION;
   }
 
-  private String KIBANA_VERSION;
-
-  public synchronized String getKibanaVersion() {
-    checkCache();
-    return KIBANA_VERSION;
+  public String getKibanaVersion() {
+    return values().KIBANA_VERSION;
   }
 
-  private String LOGSTASH_VERSION;
-
-  public synchronized String getLogstashVersion() {
-    checkCache();
-    return LOGSTASH_VERSION;
+  public String getLogstashVersion() {
+    return values().LOGSTASH_VERSION;
   }
 
-  private String GRAFANA_VERSION;
-
-  public synchronized String getGrafanaVersion() {
-    checkCache();
-    return GRAFANA_VERSION;
+  public String getGrafanaVersion() {
+    return values().GRAFANA_VERSION;
   }
 
-  private String ZOOKEEPER_VERSION;
-
-  public synchronized String getZookeeperVersion() {
-    checkCache();
-    return ZOOKEEPER_VERSION;
+  public String getZookeeperVersion() {
+    return values().ZOOKEEPER_VERSION;
   }
 
-  // -------------------------------- Kubernetes ----------------------------------------------//
-  private String KUBE_USER = "kubernetes";
-
-  public synchronized String getKubeUser() {
-    checkCache();
-    return KUBE_USER;
+  public String getKubeUser() {
+    return values().KUBE_USER;
   }
   
-  private String KUBE_HOPSWORKS_USER = "hopsworks";
-  
-  public synchronized String getKubeHopsworksUser() {
-    checkCache();
-    return KUBE_HOPSWORKS_USER;
+  public String getKubeHopsworksUser() {
+    return values().KUBE_HOPSWORKS_USER;
   }
 
-  private String KUBEMASTER_URL = "https://192.168.68.102:6443";
-
-  public synchronized String getKubeMasterUrl() {
-    checkCache();
-    return KUBEMASTER_URL;
+  public String getKubeMasterUrl() {
+    return values().KUBEMASTER_URL;
   }
 
-  private String KUBE_CA_CERTFILE = "/srv/hops/certs-dir/certs/ca.cert.pem";
-
-  public synchronized String getKubeCaCertfile() {
-    checkCache();
-    return KUBE_CA_CERTFILE;
+  public String getKubeCaCertfile() {
+    return values().KUBE_CA_CERTFILE;
   }
 
-  private String KUBE_CLIENT_KEYFILE = "/srv/hops/certs-dir/kube/hopsworks/hopsworks.key.pem";
-
-  public synchronized String getKubeClientKeyfile() {
-    checkCache();
-    return KUBE_CLIENT_KEYFILE;
+  public String getKubeClientKeyfile() {
+    return values().KUBE_CLIENT_KEYFILE;
   }
 
-  private String KUBE_CLIENT_CERTFILE = "/srv/hops/certs-dir/kube/hopsworks/hopsworks.cert.pem";
-
-  public synchronized String getKubeClientCertfile() {
-    checkCache();
-    return KUBE_CLIENT_CERTFILE;
+  public String getKubeClientCertfile() {
+    return values().KUBE_CLIENT_CERTFILE;
   }
 
-  private String KUBE_CLIENT_KEYPASS = "adminpw";
-
-  public synchronized String getKubeClientKeypass() {
-    checkCache();
-    return KUBE_CLIENT_KEYPASS;
+  public String getKubeClientKeypass() {
+    return values().KUBE_CLIENT_KEYPASS;
   }
 
-  private String KUBE_TRUSTSTORE_PATH = "/srv/hops/certs-dir/kube/hopsworks/hopsworks__tstore.jks";
-
-  public synchronized String getKubeTruststorePath() {
-    checkCache();
-    return KUBE_TRUSTSTORE_PATH;
+  public String getKubeTruststorePath() {
+    return values().KUBE_TRUSTSTORE_PATH;
   }
 
-  private String KUBE_TRUSTSTORE_KEY = "adminpw";
-
-  public synchronized String getKubeTruststoreKey() {
-    checkCache();
-    return KUBE_TRUSTSTORE_KEY;
+  public String getKubeTruststoreKey() {
+    return values().KUBE_TRUSTSTORE_KEY;
   }
 
-  private String KUBE_KEYSTORE_PATH = "/srv/hops/certs-dir/kube/hopsworks/hopsworks__kstore.jks";
-
-  public synchronized String getKubeKeystorePath() {
-    checkCache();
-    return KUBE_KEYSTORE_PATH;
+  public String getKubeKeystorePath() {
+    return values().KUBE_KEYSTORE_PATH;
   }
 
-  private String KUBE_KEYSTORE_KEY = "adminpw";
-
-  public synchronized String getKubeKeystoreKey() {
-    checkCache();
-    return KUBE_KEYSTORE_KEY;
+  public String getKubeKeystoreKey() {
+    return values().KUBE_KEYSTORE_KEY;
   }
 
-  private String KUBE_PULL_POLICY = "Always";
-  public synchronized String getKubeImagePullPolicy() {
-    checkCache();
-    return KUBE_PULL_POLICY;
+  public String getKubeImagePullPolicy() {
+    return values().KUBE_PULL_POLICY;
   }
 
-  private Integer KUBE_API_MAX_ATTEMPTS = 12;
-  public synchronized Integer getKubeAPIMaxAttempts() {
-    checkCache();
-    return KUBE_API_MAX_ATTEMPTS;
+  public Integer getKubeAPIMaxAttempts() {
+    return values().KUBE_API_MAX_ATTEMPTS;
   }
   
-  private Boolean ONLINE_FEATURESTORE = false;
-  
-  public synchronized Boolean isOnlineFeaturestore() {
-    checkCache();
-    return ONLINE_FEATURESTORE;
+  public Boolean isOnlineFeaturestore() {
+    return values().ONLINE_FEATURESTORE;
   }
 
-  private String ONLINE_FEATURESTORE_TS = "";
-  public synchronized String getOnlineFeatureStoreTableSpace() {
-    checkCache();
-    return ONLINE_FEATURESTORE_TS;
+  public String getOnlineFeatureStoreTableSpace() {
+    return values().ONLINE_FEATURESTORE_TS;
   }
 
-  private Integer ONLINEFS_THREAD_NUMBER = 10;
-  public synchronized  Integer getOnlineFsThreadNumber() {
-    checkCache();
-    return ONLINEFS_THREAD_NUMBER;
+  public Integer getOnlineFsThreadNumber() {
+    return values().ONLINEFS_THREAD_NUMBER;
   }
 
-  private Integer KUBE_DOCKER_MAX_MEMORY_ALLOCATION = 8192;
-  public synchronized Integer getKubeDockerMaxMemoryAllocation() {
-    checkCache();
-    return KUBE_DOCKER_MAX_MEMORY_ALLOCATION;
+  public Integer getKubeDockerMaxMemoryAllocation() {
+    return values().KUBE_DOCKER_MAX_MEMORY_ALLOCATION;
   }
 
-  private Double KUBE_DOCKER_MAX_CORES_ALLOCATION = 4.0;
-  public synchronized Double getKubeDockerMaxCoresAllocation() {
-    checkCache();
-    return KUBE_DOCKER_MAX_CORES_ALLOCATION;
+  public Double getKubeDockerMaxCoresAllocation() {
+    return values().KUBE_DOCKER_MAX_CORES_ALLOCATION;
   }
 
-  private Integer KUBE_DOCKER_MAX_GPUS_ALLOCATION = 1;
-  public synchronized Integer getKubeDockerMaxGpusAllocation() {
-    checkCache();
-    return KUBE_DOCKER_MAX_GPUS_ALLOCATION;
+  public Integer getKubeDockerMaxGpusAllocation() {
+    return values().KUBE_DOCKER_MAX_GPUS_ALLOCATION;
   }
   
-  private Boolean KUBE_INSTALLED = false;
-  public synchronized Boolean getKubeInstalled() {
-    checkCache();
-    return KUBE_INSTALLED;
+  public Boolean getKubeInstalled() {
+    return values().KUBE_INSTALLED;
   }
   
-  private Boolean KUBE_KSERVE_INSTALLED = false;
-  public synchronized Boolean getKubeKServeInstalled() {
-    checkCache();
-    return KUBE_KSERVE_INSTALLED;
+  public Boolean getKubeKServeInstalled() {
+    return values().KUBE_KSERVE_INSTALLED;
   }
   
-  private String KUBE_SERVING_NODE_LABELS = "";
-  public synchronized String getKubeServingNodeLabels() {
-    checkCache();
-    return KUBE_SERVING_NODE_LABELS;
+  public String getKubeServingNodeLabels() {
+    return values().KUBE_SERVING_NODE_LABELS;
   }
   
-  private String KUBE_SERVING_NODE_TOLERATIONS = "";
-  public synchronized String getKubeServingNodeTolerations() {
-    checkCache();
-    return KUBE_SERVING_NODE_TOLERATIONS;
+  public String getKubeServingNodeTolerations() {
+    return values().KUBE_SERVING_NODE_TOLERATIONS;
   }
   
-  private Integer KUBE_SERVING_MAX_MEMORY_ALLOCATION = -1; // no upper limit
-  public synchronized Integer getKubeServingMaxMemoryAllocation() {
-    checkCache();
-    return KUBE_SERVING_MAX_MEMORY_ALLOCATION;
+  public Integer getKubeServingMaxMemoryAllocation() {
+    return values().KUBE_SERVING_MAX_MEMORY_ALLOCATION;
   }
   
-  private Double KUBE_SERVING_MAX_CORES_ALLOCATION = -1.0;  // no upper limit
-  public synchronized Double getKubeServingMaxCoresAllocation() {
-    checkCache();
-    return KUBE_SERVING_MAX_CORES_ALLOCATION;
+  public Double getKubeServingMaxCoresAllocation() {
+    return values().KUBE_SERVING_MAX_CORES_ALLOCATION;
   }
   
-  private Integer KUBE_SERVING_MAX_GPUS_ALLOCATION = -1; // no upper limit
-  public synchronized Integer getKubeServingMaxGpusAllocation() {
-    checkCache();
-    return KUBE_SERVING_MAX_GPUS_ALLOCATION;
+  public Integer getKubeServingMaxGpusAllocation() {
+    return values().KUBE_SERVING_MAX_GPUS_ALLOCATION;
   }
   
-  // Maximum number of instances. Possible values >=-1 where -1 means no limit.
-  private Integer KUBE_SERVING_MAX_NUM_INSTANCES = -1;
-  public synchronized Integer getKubeServingMaxNumInstances() {
-    checkCache();
-    return KUBE_SERVING_MAX_NUM_INSTANCES;
+  public Integer getKubeServingMaxNumInstances() {
+    return values().KUBE_SERVING_MAX_NUM_INSTANCES;
   }
   
-  // Minimum number of instances. Possible values: >=-1 where -1 means no limit and 0 enforces scale-to-zero
-  // capabilities when available
-  private Integer KUBE_SERVING_MIN_NUM_INSTANCES = -1;
-  public synchronized Integer getKubeServingMinNumInstances() {
-    checkCache();
-    return KUBE_SERVING_MIN_NUM_INSTANCES;
+  public Integer getKubeServingMinNumInstances() {
+    return values().KUBE_SERVING_MIN_NUM_INSTANCES;
   }
   
-  private String KUBE_KNATIVE_DOMAIN_NAME = "";
-  public synchronized String getKubeKnativeDomainName() {
-    checkCache();
-    return KUBE_KNATIVE_DOMAIN_NAME;
+  public String getKubeKnativeDomainName() {
+    return values().KUBE_KNATIVE_DOMAIN_NAME;
   }
 
-  //comma seperated list of tainted nodes
-  private String KUBE_TAINTED_NODES = "";
-  public synchronized String getKubeTaintedNodes() {
-    checkCache();
-    return KUBE_TAINTED_NODES;
+  public String getKubeTaintedNodes() {
+    return values().KUBE_TAINTED_NODES;
   }
 
-  private String KUBE_TAINTED_NODES_MONITOR_INTERVAL = "30m";
-  public synchronized String getKubeTaintedMonitorInterval() {
-    checkCache();
-    return KUBE_TAINTED_NODES_MONITOR_INTERVAL;
+  public String getKubeTaintedMonitorInterval() {
+    return values().KUBE_TAINTED_NODES_MONITOR_INTERVAL;
   }
 
-  private Boolean HOPSWORKS_ENTERPRISE = false;
-  public synchronized Boolean getHopsworksEnterprise() {
-    checkCache();
-    return HOPSWORKS_ENTERPRISE;
+  public Boolean getHopsworksEnterprise() {
+    return values().HOPSWORKS_ENTERPRISE;
   }
 
-  private boolean ENABLE_DATA_SCIENCE_PROFILE = false;
-  public synchronized boolean getEnableDataScienceProfile() {
-    checkCache();
-    return ENABLE_DATA_SCIENCE_PROFILE;
+  public boolean getEnableDataScienceProfile() {
+    return values().ENABLE_DATA_SCIENCE_PROFILE;
   }
 
-  private String SERVING_MONITOR_INT = "30s";
+  public String getServingMonitorInt() {
+    return values().SERVING_MONITOR_INT;
+  }
 
-  public synchronized String getServingMonitorInt() {
-    checkCache();
-    return SERVING_MONITOR_INT;
+  public int getServingConnectionPoolSize() {
+    return values().SERVING_CONNECTION_POOL_SIZE;
   }
 
-  private int SERVING_CONNECTION_POOL_SIZE = 40;
-  public synchronized int getServingConnectionPoolSize() {
-    checkCache();
-    return SERVING_CONNECTION_POOL_SIZE;
+  public int getServingMaxRouteConnections() {
+    return values().SERVING_MAX_ROUTE_CONNECTIONS;
   }
 
-  private int SERVING_MAX_ROUTE_CONNECTIONS = 10;
-  public synchronized int getServingMaxRouteConnections() {
-    checkCache();
-    return SERVING_MAX_ROUTE_CONNECTIONS;
+  public int getServingInferenceLoggerMaxQueued() {
+    return values().SERVING_INFERENCE_LOGGER_MAX_QUEUED;
   }
 
-  private int TENSORBOARD_MAX_RELOAD_THREADS = 1;
-  public synchronized int getTensorBoardMaxReloadThreads() {
-    checkCache();
-    return TENSORBOARD_MAX_RELOAD_THREADS;
+  public long getServingInferenceLoggerProducerIdleMs() {
+    return values().SERVING_INFERENCE_LOGGER_PRODUCER_IDLE_MS;
   }
 
-  private String JUPYTER_HOST = "localhost";
+  public long getServingCacheTtlMs() {
+    return values().SERVING_CACHE_TTL_MS;
+  }
 
-  public synchronized String getJupyterHost() {
-    checkCache();
-    return JUPYTER_HOST;
+  public int getTensorBoardMaxReloadThreads() {
+    return values().TENSORBOARD_MAX_RELOAD_THREADS;
   }
 
-  private boolean ENABLE_JUPYTER_PYTHON_KERNEL_NON_KUBERNETES = false;
+  public String getJupyterHost() {
+    return values().JUPYTER_HOST;
+  }
 
-  public synchronized boolean isPythonKernelEnabled() {
-    checkCache();
+  public boolean isPythonKernelEnabled() {
     if(getKubeInstalled()) {
       return true;
     }
-    return ENABLE_JUPYTER_PYTHON_KERNEL_NON_KUBERNETES;
+    return values().ENABLE_JUPYTER_PYTHON_KERNEL_NON_KUBERNETES;
   }
 
   //These dependencies were collected by installing jupyterlab in a new environment
@@ -3192,74 +3325,61 @@ public class Settings implements Serializable {
       "packaging", "webencodings", "bleach", "testpath", "nbformat", "nest-asyncio", "async-generator",
       "nbclient", "nbconvert", "notebook", "json5", "jupyterlab-server", "jupyterlab", "sparkmagic");
 
-  private String JWT_SIGNATURE_ALGORITHM = "HS512";
-  private String JWT_SIGNING_KEY_NAME = "apiKey";
-  private String JWT_ISSUER = "hopsworks@logicalclocks.com";
-
-  private long JWT_LIFETIME_MS = 1800000l;
-  private int JWT_EXP_LEEWAY_SEC = 900;
+  public String getJWTSignatureAlg() {
+    return values().JWT_SIGNATURE_ALGORITHM;
+  }
 
-  private long SERVICE_JWT_LIFETIME_MS = 86400000l;
-  private int SERVICE_JWT_EXP_LEEWAY_SEC = 43200;
+  public long getJWTLifetimeMs() {
+    return values().JWT_LIFETIME_MS;
+  }
 
-  public synchronized String getJWTSignatureAlg() {
-    checkCache();
-    return JWT_SIGNATURE_ALGORITHM;
+  public int getJWTExpLeewaySec() {
+    return values().JWT_EXP_LEEWAY_SEC;
   }
 
-  public synchronized long getJWTLifetimeMs() {
-    checkCache();
-    return JWT_LIFETIME_MS;
+  public long getJWTLifetimeMsPlusLeeway() {
+    Values values = values();
+    return values.JWT_LIFETIME_MS + (values.JWT_EXP_LEEWAY_SEC * 1000L);
   }
 
-  public synchronized int getJWTExpLeewaySec() {
-    checkCache();
-    return JWT_EXP_LEEWAY_SEC;
+  public long getServiceJWTLifetimeMS() {
+    return values().SERVICE_JWT_LIFETIME_MS;
   }
 
-  public synchronized long getJWTLifetimeMsPlusLeeway() {
-    checkCache();
-    return JWT_LIFETIME_MS + (JWT_EXP_LEEWAY_SEC * 1000L);
+  public int getServiceJWTExpLeewaySec() {
+    return values().SERVICE_JWT_EXP_LEEWAY_SEC;
   }
 
-  public synchronized long getServiceJWTLifetimeMS() {
-    checkCache();
-    return SERVICE_JWT_LIFETIME_MS;
+  public String getJWTSigningKeyName() {
+    return values().JWT_SIGNING_KEY_NAME;
   }
 
-  public synchronized int getServiceJWTExpLeewaySec() {
-    checkCache();
-    return SERVICE_JWT_EXP_LEEWAY_SEC;
+  public String getJWTIssuer() {
+    return values().JWT_ISSUER;
   }
 
-  public synchronized String getJWTSigningKeyName() {
-    checkCache();
-    return JWT_SIGNING_KEY_NAME;
+  public long getApiKeyCacheTtlMs() {
+    return values().API_KEY_CACHE_TTL_MS;
   }
 
-  public synchronized String getJWTIssuer() {
-    checkCache();
-    return JWT_ISSUER;
+  public int getApiKeyCacheMaxSize() {
+    return values().API_KEY_CACHE_MAX_SIZE;
   }
 
-  private String SERVICE_MASTER_JWT = "";
-  public synchronized String getServiceMasterJWT() {
-    checkCache();
-    return SERVICE_MASTER_JWT;
+  public String getServiceMasterJWT() {
+    return values().SERVICE_MASTER_JWT;
   }
 
   public synchronized void setServiceMasterJWT(String JWT) {
     updateVariableInternal(VARIABLE_SERVICE_MASTER_JWT, JWT, VariablesVisibility.ADMIN);
     em.flush();
-    SERVICE_MASTER_JWT = JWT;
+    reloadAndNotify();
   }
 
   private final int NUM_OF_SERVICE_RENEW_TOKENS = 5;
   private final static String SERVICE_RENEW_TOKEN_VARIABLE_TEMPLATE = "service_renew_token_%d";
-  private String[] RENEW_TOKENS = new String[0];
-  public synchronized String[] getServiceRenewJWTs() {
-    checkCache();
-    return RENEW_TOKENS;
+  public String[] getServiceRenewJWTs() {
+    return values().RENEW_TOKENS;
   }
 
   public synchronized void setServiceRenewJWTs(String[] renewTokens) {
@@ -3267,113 +3387,78 @@ public class Settings implements Serializable {
       String variableKey = String.format(SERVICE_RENEW_TOKEN_VARIABLE_TEMPLATE, i);
       updateVariableInternal(variableKey, renewTokens[i], VariablesVisibility.ADMIN);
     }
-    RENEW_TOKENS = renewTokens;
+    em.flush();
+    reloadAndNotify();
   }
 
-  private int CONNECTION_KEEPALIVE_TIMEOUT = 30;
-  public synchronized int getConnectionKeepAliveTimeout() {
-    checkCache();
-    return CONNECTION_KEEPALIVE_TIMEOUT;
+  public int getConnectionKeepAliveTimeout() {
+    return values().CONNECTION_KEEPALIVE_TIMEOUT;
   }
 
   private int MAGGY_CLEANUP_INTERVAL = 24 * 60 * 1000;
-  public synchronized int getMaggyCleanupInterval() {
-    checkCache();
+  public int getMaggyCleanupInterval() {
     return MAGGY_CLEANUP_INTERVAL;
   }
 
-  private String HIVE_CONF_PATH = "/srv/hops/apache-hive/conf/hive-site.xml";
-  public synchronized String getHiveConfPath() {
-    checkCache();
-    return HIVE_CONF_PATH;
+  public String getHiveConfPath() {
+    return values().HIVE_CONF_PATH;
   }
 
-  private String FS_PY_JOB_UTIL_PATH = "hdfs:///user/spark/hsfs_util-2.1.0-SNAPSHOT.py";
-  public synchronized String getFSPyJobUtilPath() {
-    checkCache();
-    return FS_PY_JOB_UTIL_PATH;
+  public String getFSPyJobUtilPath() {
+    return values().FS_PY_JOB_UTIL_PATH;
   }
 
-  private String FS_JAVA_JOB_UTIL_PATH = "hdfs:///user/spark/hsfs-utils-2.1.0-SNAPSHOT.jar";
-  public synchronized String getFSJavaJobUtilPath() {
-    checkCache();
-    return FS_JAVA_JOB_UTIL_PATH;
+  public String getFSJavaJobUtilPath() {
+    return values().FS_JAVA_JOB_UTIL_PATH;
   }
   
-  private String HDFS_FILE_OP_JOB_UTIL = "hdfs:///user/spark/hdfs_file_operations-0.1.0.py";
-  public synchronized String getHdfsFileOpJobUtil() {
-    checkCache();
-    return HDFS_FILE_OP_JOB_UTIL;
+  public String getHdfsFileOpJobUtil() {
+    return values().HDFS_FILE_OP_JOB_UTIL;
   }
 
-  private int HDFS_FILE_OP_JOB_DRIVER_MEM = 2048;
-  public synchronized int getHdfsFileOpJobDriverMemory() {
-    checkCache();
-    return HDFS_FILE_OP_JOB_DRIVER_MEM;
+  public int getHdfsFileOpJobDriverMemory() {
+    return values().HDFS_FILE_OP_JOB_DRIVER_MEM;
   }
-  private long FEATURESTORE_DB_DEFAULT_QUOTA = HdfsConstants.QUOTA_DONT_SET;
-  public synchronized long getFeaturestoreDbDefaultQuota() {
-    checkCache();
-    return FEATURESTORE_DB_DEFAULT_QUOTA;
+  public long getFeaturestoreDbDefaultQuota() {
+    return values().FEATURESTORE_DB_DEFAULT_QUOTA;
   }
 
-  private String FEATURESTORE_DB_DEFAULT_STORAGE_FORMAT = "ORC";
-
-  public synchronized String getFeaturestoreDbDefaultStorageFormat() {
-    checkCache();
-    return FEATURESTORE_DB_DEFAULT_STORAGE_FORMAT;
+  public String getFeaturestoreDbDefaultStorageFormat() {
+    return values().FEATURESTORE_DB_DEFAULT_STORAGE_FORMAT;
   }
 
   // Storage connectors
 
-  private boolean ENABLE_REDSHIFT_STORAGE_CONNECTORS = true;
-  public synchronized boolean isRedshiftStorageConnectorsEnabled() {
-    checkCache();
-    return ENABLE_REDSHIFT_STORAGE_CONNECTORS;
+  public boolean isRedshiftStorageConnectorsEnabled() {
+    return values().ENABLE_REDSHIFT_STORAGE_CONNECTORS;
   }
 
-  private boolean ENABLE_ADLS_STORAGE_CONNECTORS = false;
-  public synchronized boolean isAdlsStorageConnectorsEnabled() {
-    checkCache();
-    return ENABLE_ADLS_STORAGE_CONNECTORS;
+  public boolean isAdlsStorageConnectorsEnabled() {
+    return values().ENABLE_ADLS_STORAGE_CONNECTORS;
   }
 
-  private boolean ENABLE_SNOWFLAKE_STORAGE_CONNECTORS = true;
-  public synchronized boolean isSnowflakeStorageConnectorsEnabled() {
-    checkCache();
-    return ENABLE_SNOWFLAKE_STORAGE_CONNECTORS;
+  public boolean isSnowflakeStorageConnectorsEnabled() {
+    return values().ENABLE_SNOWFLAKE_STORAGE_CONNECTORS;
   }
 
-  private boolean ENABLE_KAFKA_STORAGE_CONNECTORS = true;
-  public synchronized boolean isKafkaStorageConnectorsEnabled() {
-    checkCache();
-    return ENABLE_KAFKA_STORAGE_CONNECTORS;
+  public boolean isKafkaStorageConnectorsEnabled() {
+    return values().ENABLE_KAFKA_STORAGE_CONNECTORS;
   }
 
-  private boolean ENABLE_GCS_STORAGE_CONNECTORS = false;
-  public synchronized boolean isGcsStorageConnectorsEnabled() {
-    checkCache();
-    return ENABLE_GCS_STORAGE_CONNECTORS;
+  public boolean isGcsStorageConnectorsEnabled() {
+    return values().ENABLE_GCS_STORAGE_CONNECTORS;
   }
 
-  private boolean ENABLE_BIGQUERY_STORAGE_CONNECTORS = false;
-  public synchronized boolean isBigqueryStorageConnectorsEnabled() {
-    checkCache();
-    return ENABLE_BIGQUERY_STORAGE_CONNECTORS;
+  public boolean isBigqueryStorageConnectorsEnabled() {
+    return values().ENABLE_BIGQUERY_STORAGE_CONNECTORS;
   }
 
-  private boolean ENABLE_BRING_YOUR_OWN_KAFKA = false;
-  public synchronized boolean isBringYourOwnKafkaEnabled() {
-    checkCache();
-    return ENABLE_BRING_YOUR_OWN_KAFKA;
+  public boolean isBringYourOwnKafkaEnabled() {
+    return values().ENABLE_BRING_YOUR_OWN_KAFKA;
   }
 
-  // test connectors docker
-  private String TESTCONNECTOR_IMAGE_VERSION = "0.1";
-  
   public String getTestConnectorImage() {
-    checkCache();
-    return "testconnector:" + TESTCONNECTOR_IMAGE_VERSION;
+    return "testconnector:" + values().TESTCONNECTOR_IMAGE_VERSION;
   }
   
   // launch script for test connectors
@@ -3382,31 +3467,25 @@ public class Settings implements Serializable {
   public String getTEST_CONNECTOR_LAUNCHER() {
     return TEST_CONNECTOR_LAUNCHER;
   }
-  // End - Storage connectors
-  private Boolean LOCALHOST = false;
 
-  public synchronized Boolean isLocalHost() {
-    checkCache();
-    return LOCALHOST;
+  public Boolean isLocalHost() {
+    return values().LOCALHOST;
   }
 
-  private String CLOUD = "";
-
-  public synchronized String getCloudProvider() {
-    checkCache();
-    return CLOUD;
+  public String getCloudProvider() {
+    return values().CLOUD;
   }
 
   public Boolean isCloud() {
     return !getCloudProvider().isEmpty();
   }
 
-  public synchronized CLOUD_TYPES getCloudType() {
-    checkCache();
-    if (CLOUD.isEmpty()) {
+  public CLOUD_TYPES getCloudType() {
+    Values values = values();
+    if (values.CLOUD.isEmpty()) {
       return CLOUD_TYPES.NONE;
     }
-    return CLOUD_TYPES.fromString(CLOUD);
+    return CLOUD_TYPES.fromString(values.CLOUD);
   }
   
   public static enum CLOUD_TYPES {
@@ -3424,45 +3503,60 @@ public class Settings implements Serializable {
     return isCloud() || isLocalHost();
   }
   
-  private String FEATURESTORE_JDBC_URL = "jdbc:mysql://onlinefs.mysql.service.consul:3306/";
-  public synchronized String getFeaturestoreJdbcUrl() {
-    checkCache();
-    return FEATURESTORE_JDBC_URL;
+  public String getFeaturestoreJdbcUrl() {
+    return values().FEATURESTORE_JDBC_URL;
   }
 
-  private String FEATURESTORE_DB_ADMIN_USER = "";
-  public synchronized String getVariableFeaturestoreDbAdminUser() {
-    checkCache();
-    return FEATURESTORE_DB_ADMIN_USER;
+  public String getVariableFeaturestoreDbAdminUser() {
+    return values().FEATURESTORE_DB_ADMIN_USER;
   }
 
-  private String FEATURESTORE_DB_ADMIN_PWD = "";
-  public synchronized String getVariableFeaturestoreDbAdminPwd() {
-    checkCache();
-    return FEATURESTORE_DB_ADMIN_PWD;
+  public String getVariableFeaturestoreDbAdminPwd() {
+    return values().FEATURESTORE_DB_ADMIN_PWD;
+  }
+
+  public int getOnlineFeaturestorePoolMaxSize() {
+    return values().ONLINE_FEATURESTORE_POOL_MAX_SIZE;
+  }
+
+  public long getOnlineFeaturestorePoolMaxWaitMs() {
+    return values().ONLINE_FEATURESTORE_POOL_MAX_WAIT_MS;
+  }
+
+  public long getOnlineFeaturestorePoolIdleTimeoutMs() {
+    return values().ONLINE_FEATURESTORE_POOL_IDLE_TIMEOUT_MS;
+  }
+
+  public long getFsQueryCacheTtlMs() {
+    return values().FS_QUERY_CACHE_TTL_MS;
+  }
+
+  public int getFsQueryCacheMaxSize() {
+    return values().FS_QUERY_CACHE_MAX_SIZE;
+  }
+
+  public long getKafkaSchemaCacheTtlMs() {
+    return values().KAFKA_SCHEMA_CACHE_TTL_MS;
+  }
+
+  public int getKafkaSchemaCacheMaxSize() {
+    return values().KAFKA_SCHEMA_CACHE_MAX_SIZE;
   }
 
-  private Boolean REQUESTS_VERIFY = false;
-  
   /**
    * Whether to verify HTTP requests in hops-util-py. Accepted values are "true", "false"
    *
    */
-  public synchronized Boolean getRequestsVerify() {
-    checkCache();
-    return REQUESTS_VERIFY;
+  public Boolean getRequestsVerify() {
+    return values().REQUESTS_VERIFY;
   }
   
-  private  Boolean KIBANA_HTTPS_ENABELED = false;
-  public synchronized Boolean isKibanaHTTPSEnabled() {
-    checkCache();
-    return KIBANA_HTTPS_ENABELED;
+  public Boolean isKibanaHTTPSEnabled() {
+    return values().KIBANA_HTTPS_ENABELED;
   }
   
-  private  Boolean KIBANA_MULTI_TENANCY_ENABELED = false;
-  public synchronized Boolean isKibanaMultiTenancyEnabled() {
-    checkCache();
-    return KIBANA_MULTI_TENANCY_ENABELED;
+  public Boolean isKibanaMultiTenancyEnabled() {
+    return values().KIBANA_MULTI_TENANCY_ENABELED;
   }
   
   public static final int OPENSEARCH_KIBANA_NO_CONNECTIONS = 5;
@@ -3472,80 +3566,61 @@ public class Settings implements Serializable {
   private static final String VARIABLE_PROVENANCE_GRAPH_MAX_SIZE = "provenance_graph_max_size";
   private static final String VARIABLE_PROVENANCE_CLEANUP_SIZE = "provenance_cleanup_size";
   private static final String VARIABLE_PROVENANCE_CLEANER_PERIOD = "provenance_cleaner_period";
+  private static final String VARIABLE_PROVENANCE_MAPPING_CACHE_MAX_WEIGHT = "provenance_mapping_cache_max_weight";
+  private static final String VARIABLE_PROVENANCE_MAPPING_CACHE_REFRESH_MS = "provenance_mapping_cache_refresh_ms";
+  private static final String VARIABLE_PROVENANCE_MAPPING_CACHE_EXPIRY_MS = "provenance_mapping_cache_expiry_ms";
   
   public static final String PROV_FILE_INDEX_SUFFIX = "__file_prov";
-  private Provenance.Type PROVENANCE_TYPE = Provenance.Type.MIN;
-  private String PROVENANCE_TYPE_S = PROVENANCE_TYPE.name();
-  private Integer PROVENANCE_CLEANUP_SIZE = 5;
-  private Integer PROVENANCE_GRAPH_MAX_SIZE = 50;
-  private Long PROVENANCE_CLEANER_PERIOD = 3600L; //1h in s
   public static final Integer PROVENANCE_OPENSEARCH_PAGE_DEFAULT_SIZE = 1000;
   
   public String getProvFileIndex(Long projectIId) {
     return projectIId.toString() + Settings.PROV_FILE_INDEX_SUFFIX;
   }
   
-  private void populateProvenanceCache() {
-    PROVENANCE_TYPE_S = setStrVar(VARIABLE_PROVENANCE_TYPE, PROVENANCE_TYPE_S);
-    try {
-      PROVENANCE_TYPE = ProvTypeDTO.provTypeFromString(PROVENANCE_TYPE_S);
-    } catch(ProvenanceException e) {
-      LOGGER.log(Level.WARNING, "unknown prov type:" + PROVENANCE_TYPE_S + ", using default");
-      PROVENANCE_TYPE = Provenance.Type.MIN;
-      PROVENANCE_TYPE_S = PROVENANCE_TYPE.name();
-    }
-    PROVENANCE_GRAPH_MAX_SIZE = setIntVar(VARIABLE_PROVENANCE_GRAPH_MAX_SIZE, PROVENANCE_GRAPH_MAX_SIZE);
-    PROVENANCE_CLEANUP_SIZE = setIntVar(VARIABLE_PROVENANCE_CLEANUP_SIZE, PROVENANCE_CLEANUP_SIZE);
-    PROVENANCE_CLEANER_PERIOD = setLongVar(VARIABLE_PROVENANCE_CLEANER_PERIOD, PROVENANCE_CLEANER_PERIOD);
+  public Provenance.Type getProvType() {
+    return values().PROVENANCE_TYPE;
   }
-  
-  public synchronized Provenance.Type getProvType() {
-    checkCache();
-    return PROVENANCE_TYPE;
+
+  public Integer getProvenanceGraphMaxSize() {
+    return values().PROVENANCE_GRAPH_MAX_SIZE;
+  }
+
+  public Integer getProvCleanupSize() {
+    return values().PROVENANCE_CLEANUP_SIZE;
+  }
+
+  public Long getProvCleanerPeriod() {
+    return values().PROVENANCE_CLEANER_PERIOD;
   }
 
-  public synchronized Integer getProvenanceGraphMaxSize() {
-    checkCache();
-    return PROVENANCE_GRAPH_MAX_SIZE;
+  public Long getProvMappingCacheMaxWeight() {
+    return values().PROVENANCE_MAPPING_CACHE_MAX_WEIGHT;
   }
 
-  public synchronized Integer getProvCleanupSize() {
-    checkCache();
-    return PROVENANCE_CLEANUP_SIZE;
+  public Long getProvMappingCacheRefreshMs() {
+    return values().PROVENANCE_MAPPING_CACHE_REFRESH_MS;
   }
 
-  public synchronized Long getProvCleanerPeriod() {
-    checkCache();
-    return PROVENANCE_CLEANER_PERIOD;
+  public Long getProvMappingCacheExpiryMs() {
+    return values().PROVENANCE_MAPPING_CACHE_EXPIRY_MS;
   }
 
   //------------------------------ END PROVENANCE --------------------------------------------//
   
-  private String CLIENT_PATH = "/srv/hops/client.tar.gz";
-  public synchronized String getClientPath() {
-    checkCache();
-    return CLIENT_PATH;
+  public String getClientPath() {
+    return values().CLIENT_PATH;
   }
   
-  // CLOUD
-  private String CLOUD_EVENTS_ENDPOINT = "";
-  
-  public synchronized String getCloudEventsEndPoint() {
-    checkCache();
-    return CLOUD_EVENTS_ENDPOINT;
+  public String getCloudEventsEndPoint() {
+    return values().CLOUD_EVENTS_ENDPOINT;
   }
   
-  private String CLOUD_EVENTS_ENDPOINT_API_KEY = "";
-  
-  public synchronized String getCloudEventsEndPointAPIKey() {
-    checkCache();
-    return CLOUD_EVENTS_ENDPOINT_API_KEY;
+  public String getCloudEventsEndPointAPIKey() {
+    return values().CLOUD_EVENTS_ENDPOINT_API_KEY;
   }
 
-  private int FG_PREVIEW_LIMIT = 100;
-  public synchronized int getFGPreviewLimit() {
-    checkCache();
-    return FG_PREVIEW_LIMIT;
+  public int getFGPreviewLimit() {
+    return values().FG_PREVIEW_LIMIT;
   }
 
   public static final String FEATURESTORE_INDEX = "featurestore";
@@ -3554,23 +3629,18 @@ public class Settings implements Serializable {
   //-----------------------------YARN DOCKER-------------------------------------------------//
   private static String YARN_RUNTIME = "docker";
   
-  public synchronized String getYarnRuntime(){
-    checkCache();
+  public String getYarnRuntime(){
     return YARN_RUNTIME;
   }
 
-  //----------------------------YARN NODEMANAGER--------------------------------------------//
-  private boolean checkNodemanagersStatus = false;
-  public synchronized boolean isCheckingForNodemanagerStatusEnabled() {
-    checkCache();
-    return checkNodemanagersStatus;
+  public boolean isCheckingForNodemanagerStatusEnabled() {
+    return values().checkNodemanagersStatus;
   }
 
   private static String DOCKER_MOUNTS =
       "/srv/hops/hadoop/etc/hadoop,/srv/hops/spark,/srv/hops/flink";
   
-  public synchronized String getDockerMounts() {
-    checkCache();
+  public String getDockerMounts() {
     String result = "";
     for(String mountPoint: DOCKER_MOUNTS.split(",")){
       result += mountPoint + ":" + mountPoint + ":ro,";
@@ -3578,239 +3648,179 @@ public class Settings implements Serializable {
     return result.substring(0, result.length() - 1);
   }
 
-  private String DOCKER_BASE_IMAGE_PYTHON_NAME = "python310";
-
-  public synchronized String getBaseDockerImagePythonName() {
-    checkCache();
+  public String getBaseDockerImagePythonName() {
+    Values values = values();
     if(isManagedDockerRegistry()){
-      return DOCKER_BASE_NON_PYTHON_IMAGE + ":" + DOCKER_BASE_IMAGE_PYTHON_NAME +
-          "_" + HOPSWORKS_VERSION;
+      return DOCKER_BASE_NON_PYTHON_IMAGE + ":" + values.DOCKER_BASE_IMAGE_PYTHON_NAME +
+          "_" + values.HOPSWORKS_VERSION;
     }else{
-      return DOCKER_BASE_IMAGE_PYTHON_NAME + ":" + HOPSWORKS_VERSION;
+      return values.DOCKER_BASE_IMAGE_PYTHON_NAME + ":" + values.HOPSWORKS_VERSION;
     }
   }
 
-  private String DOCKER_BASE_IMAGE_PYTHON_VERSION = "3.10";
-
-  public synchronized String getDockerBaseImagePythonVersion() {
-    checkCache();
-    return DOCKER_BASE_IMAGE_PYTHON_VERSION;
+  public String getDockerBaseImagePythonVersion() {
+    return values().DOCKER_BASE_IMAGE_PYTHON_VERSION;
   }
 
   private final static String DOCKER_BASE_NON_PYTHON_IMAGE = "base";
-  public synchronized String getBaseNonPythonDockerImage() {
-    return DOCKER_BASE_NON_PYTHON_IMAGE + ":" + HOPSWORKS_VERSION;
+  public String getBaseNonPythonDockerImage() {
+    return DOCKER_BASE_NON_PYTHON_IMAGE + ":" + values().HOPSWORKS_VERSION;
   }
 
-  private long YARN_APP_UID = 1235L;
   public long getYarnAppUID() {
-    checkCache();
-    return YARN_APP_UID;
+    return values().YARN_APP_UID;
   }
   //-----------------------------END YARN DOCKER-------------------------------------------------//
   
-  private KubeType KUBE_TYPE = KubeType.Local;
-  public synchronized KubeType getKubeType() {
-    checkCache();
-    return KUBE_TYPE;
+  public KubeType getKubeType() {
+    return values().KUBE_TYPE;
   }
   
-  private String DOCKER_NAMESPACE = "";
-  public synchronized String getDockerNamespace(){
-    checkCache();
-    return DOCKER_NAMESPACE;
+  public String getDockerNamespace(){
+    return values().DOCKER_NAMESPACE;
   }
   
-  private Boolean MANAGED_DOCKER_REGISTRY = false;
-  public synchronized Boolean isManagedDockerRegistry(){
-    checkCache();
-    return MANAGED_DOCKER_REGISTRY && isCloud();
+  public Boolean isManagedDockerRegistry(){
+    return values().MANAGED_DOCKER_REGISTRY && isCloud();
   }
 
-  public synchronized String getBaseNonPythonDockerImageWithNoTag(){
-    checkCache();
+  public String getBaseNonPythonDockerImageWithNoTag(){
     return DOCKER_BASE_NON_PYTHON_IMAGE;
   }
 
-  private String DOCKER_JOB_MOUNTS_LIST;
-  public synchronized List<String> getDockerMountsList(){
-    checkCache();
-    return Arrays.asList(DOCKER_JOB_MOUNTS_LIST.split(","));
+  public List<String> getDockerMountsList(){
+    return Arrays.asList(values().DOCKER_JOB_MOUNTS_LIST.split(","));
   }
 
-  private Boolean DOCKER_JOB_MOUNT_ALLOWED = true;
-  public synchronized Boolean isDockerJobMountAllowed(){
-    checkCache();
-    return DOCKER_JOB_MOUNT_ALLOWED;
+  public Boolean isDockerJobMountAllowed(){
+    return values().DOCKER_JOB_MOUNT_ALLOWED;
   }
 
-  private Boolean DOCKER_JOB_UID_STRICT = true;
-  public synchronized Boolean isDockerJobUidStrict(){
-    checkCache();
-    return DOCKER_JOB_UID_STRICT;
+  public Boolean isDockerJobUidStrict(){
+    return values().DOCKER_JOB_UID_STRICT;
   }
 
-  private int EXECUTIONS_PER_JOB_LIMIT = 10000;
-  public synchronized int getExecutionsPerJobLimit(){
-    checkCache();
-    return EXECUTIONS_PER_JOB_LIMIT;
+  public int getExecutionsPerJobLimit(){
+    return values().EXECUTIONS_PER_JOB_LIMIT;
   }
 
-  private int EXECUTIONS_CLEANER_BATCH_SIZE = 1000;
-  public synchronized int getExecutionsCleanerBatchSize(){
-    checkCache();
-    return EXECUTIONS_CLEANER_BATCH_SIZE;
+  public int getExecutionsCleanerBatchSize(){
+    return values().EXECUTIONS_CLEANER_BATCH_SIZE;
   }
 
-  private int EXECUTIONS_CLEANER_INTERVAL_MS = 600000;
-  public synchronized int getExecutionsCleanerInterval(){
-    checkCache();
-    return EXECUTIONS_CLEANER_INTERVAL_MS;
+  public int getExecutionsCleanerInterval(){
+    return values().EXECUTIONS_CLEANER_INTERVAL_MS;
   }
 
-  private int MAX_ENV_YML_BYTE_SIZE = 20000;
-  public synchronized int getMaxEnvYmlByteSize() {
-    checkCache();
-    return MAX_ENV_YML_BYTE_SIZE;
+  public int getMaxEnvYmlByteSize() {
+    return values().MAX_ENV_YML_BYTE_SIZE;
   }
   
-  private int LIVY_STARTUP_TIMEOUT = 240;
-  public synchronized int getLivyStartupTimeout() {
-    checkCache();
-    return LIVY_STARTUP_TIMEOUT;
+  public int getLivyStartupTimeout() {
+    return values().LIVY_STARTUP_TIMEOUT;
   }
   
-  private boolean USER_SEARCH_ENABLED = true;
-  public synchronized boolean isUserSearchEnabled() {
-    checkCache();
-    return USER_SEARCH_ENABLED;
+  public boolean isUserSearchEnabled() {
+    return values().USER_SEARCH_ENABLED;
   }
   
-  /*
-   * When a user try to connect for the first time with OAuth or LDAP
-   * do not create the user if it does not bellong to any group.
-   * This is to avoid having users that belong to no group poluting the users table
-   */
-  private boolean REJECT_REMOTE_USER_NO_GROUP = false;
-  public synchronized boolean getRejectRemoteNoGroup() {
-    checkCache();
-    return REJECT_REMOTE_USER_NO_GROUP;
+  public boolean getRejectRemoteNoGroup() {
+    return values().REJECT_REMOTE_USER_NO_GROUP;
   }
   
   public void updateRejectRemoteNoGroup(boolean reject) {
     updateVariableInternal(VARIABLE_REJECT_REMOTE_USER_NO_GROUP, Boolean.toString(reject), VariablesVisibility.ADMIN);
   }
   
-  private boolean SKIP_NAMESPACE_CREATION = false;
-  public synchronized boolean shouldSkipNamespaceCreation() {
-    checkCache();
-    return SKIP_NAMESPACE_CREATION;
+  public boolean shouldSkipNamespaceCreation() {
+    return values().SKIP_NAMESPACE_CREATION;
   }
 
-  private long QUOTAS_ONLINE_ENABLED_FEATUREGROUPS = -1L;
-  public synchronized long getQuotasOnlineEnabledFeaturegroups() {
-    checkCache();
-    return QUOTAS_ONLINE_ENABLED_FEATUREGROUPS;
+  public long getQuotasOnlineEnabledFeaturegroups() {
+    return values().QUOTAS_ONLINE_ENABLED_FEATUREGROUPS;
   }
 
-  private long QUOTAS_ONLINE_DISABLED_FEATUREGROUPS = -1L;
-  public synchronized long getQuotasOnlineDisabledFeaturegroups() {
-    checkCache();
-    return QUOTAS_ONLINE_DISABLED_FEATUREGROUPS;
+  public long getQuotasOnlineDisabledFeaturegroups() {
+    return values().QUOTAS_ONLINE_DISABLED_FEATUREGROUPS;
   }
 
-  private long QUOTAS_TRAINING_DATASETS = -1L;
-  public synchronized long getQuotasTrainingDatasets() {
-    checkCache();
-    return QUOTAS_TRAINING_DATASETS;
+  public long getQuotasTrainingDatasets() {
+    return values().QUOTAS_TRAINING_DATASETS;
   }
 
-  private long QUOTAS_RUNNING_MODEL_DEPLOYMENTS = -1L;
-  public synchronized long getQuotasRunningModelDeployments() {
-    checkCache();
-    return QUOTAS_RUNNING_MODEL_DEPLOYMENTS;
+  public long getQuotasRunningModelDeployments() {
+    return values().QUOTAS_RUNNING_MODEL_DEPLOYMENTS;
   }
 
-  private long QUOTAS_TOTAL_MODEL_DEPLOYMENTS = -1L;
-  public synchronized long getQuotasTotalModelDeployments() {
-    checkCache();
-    return QUOTAS_TOTAL_MODEL_DEPLOYMENTS;
+  public long getQuotasTotalModelDeployments() {
+    return values().QUOTAS_TOTAL_MODEL_DEPLOYMENTS;
   }
 
-  private long QUOTAS_MAX_PARALLEL_EXECUTIONS = -1L;
-  public synchronized long getQuotasMaxParallelExecutions() {
-    checkCache();
-    return QUOTAS_MAX_PARALLEL_EXECUTIONS;
+  public long getQuotasMaxParallelExecutions() {
+    return values().QUOTAS_MAX_PARALLEL_EXECUTIONS;
   }
 
   private static final String VARIABLE_SQL_MAX_SELECT_IN = "sql_max_select_in";
-  private Integer SQL_MAX_SELECT_IN = 100;
   /**
    * For performance reasons SELECT ... WHERE col_name IN (.. , ..) queries should not have an unbounded in array.
    */
-  public synchronized Integer getSQLMaxSelectIn() {
-    checkCache();
-    return SQL_MAX_SELECT_IN;
+  public Integer getSQLMaxSelectIn() {
+    return values().SQL_MAX_SELECT_IN;
   }
 
-  // The maximum number of http threads in the thread pool is set to 200 by default
-  private int MAX_LONG_RUNNING_HTTP_REQUESTS = 50;
-
-  public synchronized int getMaxLongRunningHttpRequests() {
-    checkCache();
-    return MAX_LONG_RUNNING_HTTP_REQUESTS;
+  public int getMaxLongRunningHttpRequests() {
+    return values().MAX_LONG_RUNNING_HTTP_REQUESTS;
   }
   
   /**
    * Search commands
    */
   private final Integer MAX_ONGOING_OPENSEARCH_DOC_WRITE = 100;
-  public synchronized int getMaxOngoingOpensearchDocIndexOps() {
-    checkCache();
+  public int getMaxOngoingOpensearchDocIndexOps() {
     return MAX_ONGOING_OPENSEARCH_DOC_WRITE;
   }
   
-  //1s
-  private Long COMMAND_SEARCH_FS_PROCESS_TIMER_PERIOD = 1000l;
   private final static String VARIABLE_COMMAND_SEARCH_FS_PROCESS_TIMER_PERIOD =
     "command_search_fs_process_timer_period_as_ms";
   public Long commandSearchFSProcessTimerPeriod() {
-    checkCache();
-    return COMMAND_SEARCH_FS_PROCESS_TIMER_PERIOD;
+    return values().COMMAND_SEARCH_FS_PROCESS_TIMER_PERIOD;
   }
   
-  //enable command search fs history
-  private boolean COMMAND_SEARCH_FS_HISTORY_ENABLE = false;
   private final static String VARIABLE_COMMAND_SEARCH_FS_HISTORY_ENABLE =
     "command_search_fs_history_enable";
   public boolean commandSearchFSHistoryEnabled() {
-    checkCache();
-    return COMMAND_SEARCH_FS_HISTORY_ENABLE;
+    return values().COMMAND_SEARCH_FS_HISTORY_ENABLE;
   }
   
   //1h as ms
   private final static String VARIABLE_COMMAND_SEARCH_FS_HISTORY_CLEAN_PERIOD =
     "command_search_fs_history_clean_period_as_ms";
-  private Long COMMAND_SEARCH_FS_HISTORY_CLEAN_PERIOD = 1000l*60;
   public Long commandSearchFSHistoryCleanPeriod() {
-    checkCache();
-    return COMMAND_SEARCH_FS_HISTORY_CLEAN_PERIOD;
+    return values().COMMAND_SEARCH_FS_HISTORY_CLEAN_PERIOD;
   }
   
   //1h as s
   private final static String VARIABLE_COMMAND_SEARCH_FS_HISTORY_WINDOW
     = "command_search_fs_history_window_as_s";
-  private Long COMMAND_SEARCH_FS_HISTORY_WINDOW = 60*60L;
   public Long commandSearchFSHistoryWindow() {
-    checkCache();
-    return COMMAND_SEARCH_FS_HISTORY_WINDOW;
+    return values().COMMAND_SEARCH_FS_HISTORY_WINDOW;
   }
   
   private final static String VARIABLE_COMMAND_SEARCH_FS_RETRY_PER_CLEAN_INTERVAL =
     "command_search_fs_retry_per_clean_interval";
-  private int COMMAND_SEARCH_FS_RETRY_PER_CLEAN_INTERVAL = 5;
   public Integer commandRetryPerCleanInterval() {
-    checkCache();
-    return COMMAND_SEARCH_FS_RETRY_PER_CLEAN_INTERVAL;
+    return values().COMMAND_SEARCH_FS_RETRY_PER_CLEAN_INTERVAL;
+  }
+  
+  //split search commands between the members of the cluster by project, otherwise only the primary processes them
+  private final static String VARIABLE_COMMAND_SEARCH_FS_SHARDING_ENABLE = "command_search_fs_sharding_enable";
+  public boolean commandSearchFSShardingEnabled() {
+    return values().COMMAND_SEARCH_FS_SHARDING_ENABLE;
+  }
+  
+  //max number of search commands sent to opensearch in one bulk request
+  private final static String VARIABLE_COMMAND_SEARCH_FS_BULK_SIZE = "command_search_fs_bulk_size";
+  public Integer commandSearchFSBulkSize() {
+    return values().COMMAND_SEARCH_FS_BULK_SIZE;
   }
 }
\ No newline at end of file
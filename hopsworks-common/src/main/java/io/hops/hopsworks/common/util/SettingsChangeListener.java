@@ -0,0 +1,29 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2023, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.util;
+
+import java.util.Set;
+
+/**
+ * Notified by {@link Settings} when variables change, see {@link Settings#addChangeListener(SettingsChangeListener)}
+ */
+public interface SettingsChangeListener {
+  
+  /**
+   * @param variables names of the variables whose value changed, e.g. Settings.VARIABLE_* constants
+   */
+  void variablesChanged(Set<String> variables);
+}
@@ -0,0 +1,114 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2023, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.project;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class TestProvisioningPlan {
+
+  private ExecutorService executor;
+
+  @Before
+  public void setup() {
+    executor = Executors.newFixedThreadPool(4);
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testRunsStepsAfterTheirDependencies() throws Exception {
+    List<String> order = Collections.synchronizedList(new ArrayList<>());
+    Map<String, Long> durations = new ProvisioningPlan("test")
+      .add("a", () -> order.add("a"))
+      .add("b", () -> order.add("b"), "a")
+      .add("c", () -> order.add("c"), "a", "b")
+      .run(executor);
+
+    Assert.assertEquals(3, durations.size());
+    Assert.assertTrue(order.indexOf("a") < order.indexOf("b"));
+    Assert.assertTrue(order.indexOf("b") < order.indexOf("c"));
+  }
+
+  @Test
+  public void testRunsIndependentStepsConcurrently() throws Exception {
+    CountDownLatch bothStarted = new CountDownLatch(2);
+    ProvisioningPlan.Step waitForOther = () -> {
+      bothStarted.countDown();
+      if (!bothStarted.await(10, TimeUnit.SECONDS)) {
+        throw new IllegalStateException("Steps did not run concurrently");
+      }
+    };
+    Map<String, Long> durations = new ProvisioningPlan("test")
+      .add("a", waitForOther)
+      .add("b", waitForOther)
+      .run(executor);
+
+    Assert.assertEquals(2, durations.size());
+  }
+
+  @Test
+  public void testDoesNotStartStepsAfterFailure() {
+    List<String> ran = Collections.synchronizedList(new ArrayList<>());
+    IOException failure = new IOException("failed");
+    try {
+      new ProvisioningPlan("test")
+        .add("a", () -> ran.add("a"))
+        .add("b", () -> {
+          throw failure;
+        }, "a")
+        .add("c", () -> ran.add("c"), "b")
+        .run(executor);
+      Assert.fail("Expected the plan to fail");
+    } catch (ProvisioningPlan.StepFailedException e) {
+      Assert.assertEquals("b", e.getStepName());
+      Assert.assertSame(failure, e.getCause());
+      Assert.assertTrue(e.getDurations().containsKey("a"));
+    }
+    Assert.assertFalse(ran.contains("c"));
+  }
+
+  @Test
+  public void testRunsStepsOnCallingThreadWhenRejected() throws Exception {
+    executor.shutdown();
+    Map<String, Long> durations = new ProvisioningPlan("test")
+      .add("a", () -> {})
+      .add("b", () -> {}, "a")
+      .run(executor);
+
+    Assert.assertEquals(2, durations.size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testDependencyMustBeAddedFirst() {
+    new ProvisioningPlan("test").add("a", () -> {}, "b");
+  }
+}
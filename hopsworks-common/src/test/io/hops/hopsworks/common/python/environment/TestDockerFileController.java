@@ -0,0 +1,106 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2023, Hopsworks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.python.environment;
+
+import io.hops.hopsworks.common.util.Settings;
+import io.hops.hopsworks.persistence.entity.python.CondaCommands;
+import io.hops.hopsworks.persistence.entity.python.CondaInstallType;
+import io.hops.hopsworks.persistence.entity.python.CondaOp;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+public class TestDockerFileController {
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  @InjectMocks
+  private DockerFileController dockerFileController = new DockerFileController();
+  @Mock
+  private Settings settings;
+
+  private String userHome;
+
+  @Before
+  public void setup() throws Exception {
+    MockitoAnnotations.openMocks(this);
+    Mockito.when(settings.getAnacondaDir()).thenReturn("/srv/hops/anaconda");
+    Mockito.when(settings.getCurrentCondaEnvironment()).thenReturn("theenv");
+
+    File home = tmp.newFolder("home");
+    Assert.assertTrue(new File(home, ".condarc").createNewFile());
+    Assert.assertTrue(new File(home, ".pip").mkdir());
+    userHome = System.getProperty("user.home");
+    System.setProperty("user.home", home.getAbsolutePath());
+  }
+
+  @After
+  public void tearDown() {
+    System.setProperty("user.home", userHome);
+  }
+
+  @Test
+  public void testInstallLibrariesUninstallDoesNotHideInstallFailure() throws Exception {
+    List<CondaCommands> commands = Arrays.asList(
+      command(CondaOp.INSTALL, CondaInstallType.PIP, "numpy", "1.24.0"),
+      command(CondaOp.UNINSTALL, CondaInstallType.PIP, "pandas", "1.5.0"),
+      command(CondaOp.UNINSTALL, CondaInstallType.CONDA, "scipy", "1.10.0"),
+      command(CondaOp.INSTALL, CondaInstallType.CONDA, "tqdm", "4.64.0"));
+
+    DockerFileController.BuildImageDetails details = dockerFileController.installLibraries(tmp.newFolder("build"),
+      "dockerFile", "base:1", commands);
+
+    List<String> lines = Files.readAllLines(details.dockerFile.toPath(), StandardCharsets.UTF_8);
+    Assert.assertEquals(2, lines.size());
+    Assert.assertEquals("FROM base:1", lines.get(0));
+    String run = lines.get(1);
+    Assert.assertTrue(run.startsWith("RUN "));
+    Assert.assertTrue(run.contains("/srv/hops/anaconda/envs/theenv/bin/pip install --upgrade numpy==1.24.0 && "
+      + "{ /srv/hops/anaconda/envs/theenv/bin/pip uninstall -y pandas || true; } && "
+      + "{ /srv/hops/anaconda/bin/conda remove -y -n theenv scipy || true; } && "
+      + "/srv/hops/anaconda/bin/conda install -y -n theenv -c defaults tqdm=4.64.0 && "
+      + "change_library_ownership.sh && "));
+    // Every || true is scoped to the uninstall it belongs to
+    Assert.assertEquals(2, run.split("\\|\\| true; }", -1).length - 1);
+    Assert.assertEquals(2, run.split("\\|\\| true", -1).length - 1);
+    Assert.assertTrue(run.endsWith("/srv/hops/anaconda/bin/conda list -n theenv"));
+  }
+
+  private CondaCommands command(CondaOp op, CondaInstallType installType, String lib, String version) {
+    CondaCommands cc = new CondaCommands();
+    cc.setOp(op);
+    cc.setInstallType(installType);
+    cc.setLib(lib);
+    cc.setVersion(version);
+    cc.setChannelUrl("defaults");
+    return cc;
+  }
+}
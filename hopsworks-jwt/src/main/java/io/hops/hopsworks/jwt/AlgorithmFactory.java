@@ -19,14 +19,11 @@ import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.interfaces.DecodedJWT;
 import com.auth0.jwt.interfaces.ECDSAKeyProvider;
 import com.auth0.jwt.interfaces.RSAKeyProvider;
-import io.hops.hopsworks.persistence.entity.jwt.JwtSigningKey;
-import io.hops.hopsworks.jwt.dao.JwtSigningKeyFacade;
 import io.hops.hopsworks.jwt.exception.SigningKeyNotFoundException;
 import java.security.interfaces.ECPrivateKey;
 import java.security.interfaces.ECPublicKey;
 import java.security.interfaces.RSAPrivateKey;
 import java.security.interfaces.RSAPublicKey;
-import java.util.Base64;
 import javax.ejb.EJB;
 import javax.ejb.Stateless;
 import javax.ws.rs.NotSupportedException;
@@ -35,7 +32,7 @@ import javax.ws.rs.NotSupportedException;
 public class AlgorithmFactory {
 
   @EJB
-  private JwtSigningKeyFacade jwtSigningKeyFacade;
+  private SigningKeyCache signingKeyCache;
 
   public Algorithm getAlgorithm(DecodedJWT jwt) throws SigningKeyNotFoundException {
     return getAlgorithm(jwt.getAlgorithm(), jwt.getKeyId());
@@ -91,17 +88,7 @@ public class AlgorithmFactory {
   }
 
   private byte[] getSigningKey(String keyId) throws SigningKeyNotFoundException {
-    Integer id;
-    try {
-      id = Integer.parseInt(keyId);
-    } catch (NumberFormatException e) {
-      throw new SigningKeyNotFoundException("Signing key not found. The key id should be integer.");
-    }
-    JwtSigningKey signingKey = jwtSigningKeyFacade.find(id);
-    if (signingKey == null) {
-      throw new SigningKeyNotFoundException("Signing key not found.");
-    }
-    return Base64.getDecoder().decode(signingKey.getSecret());
+    return signingKeyCache.getSecret(keyId);
   }
 
   private Algorithm getHS256Algorithm(String keyId) throws SigningKeyNotFoundException {
@@ -0,0 +1,179 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2023, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.jwt;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.topic.ITopic;
+import com.hazelcast.topic.Message;
+import com.hazelcast.topic.MessageListener;
+import io.hops.hopsworks.jwt.dao.InvalidJwtFacade;
+import io.hops.hopsworks.persistence.entity.jwt.InvalidJwt;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.EJB;
+import javax.ejb.Schedule;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.inject.Inject;
+import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Node local copy of the invalidated tokens table. Every invalidated jti is kept until the token it belongs to
+ * expires (expiry date plus expiry leeway), after which the token cannot pass verification anyway.
+ * Invalidations are propagated to the other nodes of the cluster through a Hazelcast topic, and the cache is
+ * periodically reconciled with the database in case a notification was missed.
+ */
+@Startup
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+public class InvalidJwtCache {
+
+  private static final Logger LOGGER = Logger.getLogger(InvalidJwtCache.class.getName());
+  private static final String JWT_INVALIDATED_TOPIC_NAME = "jwt_invalidated";
+  private static final String MESSAGE_SEPARATOR = ":";
+
+  @EJB
+  private InvalidJwtFacade invalidJwtFacade;
+  @Inject
+  private HazelcastInstance hazelcastInstance;
+
+  // jti -> time in ms after which the token is no longer valid
+  private final Map<String, Long> invalidated = new ConcurrentHashMap<>();
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private ITopic<String> jwtInvalidatedTopic;
+  private UUID msgListenerId;
+  private volatile boolean loaded = false;
+
+  @PostConstruct
+  public void init() {
+    // hazelcastInstance == null if Hazelcast is Disabled
+    if (hazelcastInstance != null) {
+      jwtInvalidatedTopic = hazelcastInstance.getTopic(JWT_INVALIDATED_TOPIC_NAME);
+      msgListenerId = jwtInvalidatedTopic.addMessageListener(new MessageListenerImpl());
+    }
+    reload();
+  }
+
+  @PreDestroy
+  public void destroy() {
+    if (jwtInvalidatedTopic != null) {
+      //needed for redeploy to remove the listener
+      jwtInvalidatedTopic.removeMessageListener(msgListenerId);
+    }
+  }
+
+  /**
+   * Reconcile with the invalid tokens table and drop the tokens that can not be used anymore.
+   */
+  @Schedule(minute = "*/5", hour = "*", info = "Invalid jwt cache reload", persistent = false)
+  public void reload() {
+    try {
+      for (InvalidJwt invalidJwt : invalidJwtFacade.findAll()) {
+        invalidated.putIfAbsent(invalidJwt.getJti(),
+          getValidUntil(invalidJwt.getExpirationTime(), invalidJwt.getRenewableForSec()));
+      }
+      loaded = true;
+    } catch (Exception e) {
+      LOGGER.log(Level.WARNING, "Failed to load invalidated tokens, falling back to database lookups.", e);
+      loaded = false;
+    }
+    long now = System.currentTimeMillis();
+    invalidated.values().removeIf(validUntil -> validUntil < now);
+  }
+
+  public boolean isInvalidated(String jti) {
+    if (jti == null) {
+      return false;
+    }
+    if (invalidated.containsKey(jti)) {
+      hits.incrementAndGet();
+      return true;
+    }
+    if (loaded) {
+      misses.incrementAndGet();
+      return false;
+    }
+    InvalidJwt invalidJwt = invalidJwtFacade.find(jti);
+    if (invalidJwt != null) {
+      add(jti, invalidJwt.getExpirationTime(), invalidJwt.getRenewableForSec());
+    }
+    misses.incrementAndGet();
+    return invalidJwt != null;
+  }
+
+  /**
+   * Add a token that has already been persisted in the invalid tokens table and notify the other nodes.
+   */
+  public void invalidate(String jti, Date exp, int leeway) {
+    long validUntil = add(jti, exp, leeway);
+    //Notify other nodes if jwtInvalidatedTopic is created == Hazelcast is enabled
+    if (jwtInvalidatedTopic != null) {
+      jwtInvalidatedTopic.publish(validUntil + MESSAGE_SEPARATOR + jti);
+    }
+  }
+
+  private long add(String jti, Date exp, int leeway) {
+    long validUntil = getValidUntil(exp, leeway);
+    invalidated.put(jti, validUntil);
+    return validUntil;
+  }
+
+  private long getValidUntil(Date exp, int leeway) {
+    return exp == null ? Long.MAX_VALUE : exp.getTime() + leeway * 1000L;
+  }
+
+  public int size() {
+    return invalidated.size();
+  }
+
+  public long getHits() {
+    return hits.get();
+  }
+
+  public long getMisses() {
+    return misses.get();
+  }
+
+  public class MessageListenerImpl implements MessageListener<String> {
+
+    @Override
+    public void onMessage(Message<String> message) {
+      if (message.getPublishingMember().localMember()) {
+        return;
+      }
+      String msg = message.getMessageObject();
+      int separator = msg.indexOf(MESSAGE_SEPARATOR);
+      try {
+        invalidated.put(msg.substring(separator + 1), Long.parseLong(msg.substring(0, separator)));
+      } catch (IndexOutOfBoundsException | NumberFormatException e) {
+        LOGGER.log(Level.WARNING, "Malformed token invalidation notification: {0}", msg);
+      }
+    }
+  }
+}
@@ -72,6 +72,10 @@ public class JWTController {
   private AlgorithmFactory algorithmFactory;
   @EJB
   private JwtSigningKeyFacade jwtSigningKeyFacade;
+  @EJB
+  private InvalidJwtCache invalidJwtCache;
+  @EJB
+  private SigningKeyCache signingKeyCache;
 
   /**
    * Create a jwt.
@@ -357,7 +361,7 @@ public class JWTController {
   }
 
   /**
-   * Checks if the token is in the invalid tokens table.
+   * Checks if the token is in the invalid tokens table. The check is served from the node local copy of the table.
    *
    * @param jwt
    * @return
@@ -367,8 +371,7 @@ public class JWTController {
   }
 
   private boolean isTokenInvalidated(String id) {
-    InvalidJwt invalidJwt = invalidJwtFacade.find(id);
-    return invalidJwt != null;
+    return invalidJwtCache.isInvalidated(id);
   }
 
   /**
@@ -624,6 +627,7 @@ public class JWTController {
     } catch (Exception e) {
       throw new InvalidationException("Could not persist token.", e.getCause());
     }
+    invalidJwtCache.invalidate(id, exp, leeway);
   }
 
   /**
@@ -657,12 +661,10 @@ public class JWTController {
   public String generateJti() {
     UUID uuid = UUID.randomUUID();
     String randomUUIDString = uuid.toString();
-    InvalidJwt invalidJwt = invalidJwtFacade.find(randomUUIDString);
     //Wikipedia: the probability to find a duplicate within 103 trillion version 4 UUIDs is one in a billion.
-    while (invalidJwt != null) {
+    while (invalidJwtCache.isInvalidated(randomUUIDString)) {
       uuid = UUID.randomUUID();
       randomUUIDString = uuid.toString();
-      invalidJwt = invalidJwtFacade.find(randomUUIDString);
     }
     return randomUUIDString;
   }
@@ -699,7 +701,11 @@ public class JWTController {
    * @param keyName a unique name given to signing key when created.
    */
   public void deleteSigningKey(String keyName) {
-    jwtSigningKeyFacade.remove(keyName);
+    JwtSigningKey jwtSigningKey = jwtSigningKeyFacade.findByName(keyName);
+    if (jwtSigningKey != null) {
+      jwtSigningKeyFacade.remove(jwtSigningKey);
+      signingKeyCache.invalidate(jwtSigningKey.getId());
+    }
   }
 
   public JwtSigningKey findSigningKeyById(Integer id) {
@@ -745,6 +751,7 @@ public class JWTController {
     JwtSigningKey jwtSigningKey = jwtSigningKeyFacade.findByName(Constants.OLD_ONE_TIME_JWT_SIGNING_KEY_NAME);
     if (jwtSigningKey != null) {
       jwtSigningKeyFacade.remove(jwtSigningKey);
+      signingKeyCache.invalidate(jwtSigningKey.getId());
     }
   }
   
@@ -0,0 +1,159 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2023, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.jwt;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.topic.ITopic;
+import com.hazelcast.topic.Message;
+import com.hazelcast.topic.MessageListener;
+import io.hops.hopsworks.jwt.dao.JwtSigningKeyFacade;
+import io.hops.hopsworks.jwt.exception.SigningKeyNotFoundException;
+import io.hops.hopsworks.persistence.entity.jwt.JwtSigningKey;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.EJB;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.inject.Inject;
+import java.util.Base64;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Decoded signing key secrets keyed by the key id (kid) used in the token header. Removed keys are evicted on all
+ * the nodes of the cluster through a Hazelcast topic, entries also expire after a while as a safety net.
+ */
+@Startup
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+public class SigningKeyCache {
+
+  private static final Logger LOGGER = Logger.getLogger(SigningKeyCache.class.getName());
+  private static final String SIGNING_KEY_REMOVED_TOPIC_NAME = "jwt_signing_key_removed";
+  private static final long MAX_AGE_MS = TimeUnit.MINUTES.toMillis(10);
+
+  @EJB
+  private JwtSigningKeyFacade jwtSigningKeyFacade;
+  @Inject
+  private HazelcastInstance hazelcastInstance;
+
+  private final Map<Integer, CachedKey> keys = new ConcurrentHashMap<>();
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private ITopic<Integer> signingKeyRemovedTopic;
+  private UUID msgListenerId;
+
+  @PostConstruct
+  public void init() {
+    // hazelcastInstance == null if Hazelcast is Disabled
+    if (hazelcastInstance != null) {
+      signingKeyRemovedTopic = hazelcastInstance.getTopic(SIGNING_KEY_REMOVED_TOPIC_NAME);
+      msgListenerId = signingKeyRemovedTopic.addMessageListener(new MessageListenerImpl());
+    }
+  }
+
+  @PreDestroy
+  public void destroy() {
+    if (signingKeyRemovedTopic != null) {
+      //needed for redeploy to remove the listener
+      signingKeyRemovedTopic.removeMessageListener(msgListenerId);
+    }
+  }
+
+  /**
+   * Get the decoded secret of the signing key with the given key id.
+   *
+   * @param keyId
+   * @return
+   * @throws SigningKeyNotFoundException
+   */
+  public byte[] getSecret(String keyId) throws SigningKeyNotFoundException {
+    Integer id;
+    try {
+      id = Integer.parseInt(keyId);
+    } catch (NumberFormatException e) {
+      throw new SigningKeyNotFoundException("Signing key not found. The key id should be integer.");
+    }
+    long now = System.currentTimeMillis();
+    CachedKey cachedKey = keys.get(id);
+    if (cachedKey != null && now - cachedKey.loadedAt < MAX_AGE_MS) {
+      hits.incrementAndGet();
+      return cachedKey.secret;
+    }
+    misses.incrementAndGet();
+    JwtSigningKey signingKey = jwtSigningKeyFacade.find(id);
+    if (signingKey == null) {
+      keys.remove(id);
+      throw new SigningKeyNotFoundException("Signing key not found.");
+    }
+    byte[] secret = Base64.getDecoder().decode(signingKey.getSecret());
+    keys.put(id, new CachedKey(secret, now));
+    return secret;
+  }
+
+  /**
+   * Evict a removed signing key on this and the other nodes of the cluster.
+   *
+   * @param id
+   */
+  public void invalidate(Integer id) {
+    keys.remove(id);
+    //Notify other nodes if signingKeyRemovedTopic is created == Hazelcast is enabled
+    if (signingKeyRemovedTopic != null) {
+      signingKeyRemovedTopic.publish(id);
+    }
+  }
+
+  public long getHits() {
+    return hits.get();
+  }
+
+  public long getMisses() {
+    return misses.get();
+  }
+
+  private static class CachedKey {
+    private final byte[] secret;
+    private final long loadedAt;
+
+    CachedKey(byte[] secret, long loadedAt) {
+      this.secret = secret;
+      this.loadedAt = loadedAt;
+    }
+  }
+
+  public class MessageListenerImpl implements MessageListener<Integer> {
+
+    @Override
+    public void onMessage(Message<Integer> message) {
+      if (!message.getPublishingMember().localMember()) {
+        LOGGER.log(Level.FINE, "Signing key {0} removed on another node", message.getMessageObject());
+        keys.remove(message.getMessageObject());
+      }
+    }
+  }
+}